@@ -66,6 +66,8 @@ import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
+import org.girod.javafx.svgimage.LoaderParameters;
+import org.girod.javafx.svgimage.SVGDocumentCache;
 import org.girod.javafx.svgimage.SVGImage;
 import org.girod.javafx.svgimage.SVGLoader;
 
@@ -79,6 +81,7 @@ public class SVGBrowser extends Application {
    private MenuBar menuBar = new MenuBar();
    private TabPane tabPane = new TabPane();
    private Map<Integer, SVGImage> imagesByIndex = new HashMap<>();
+   private final SVGDocumentCache documentCache = new SVGDocumentCache();
 
    public static void main(String[] args) {
       launch(args);
@@ -252,7 +255,9 @@ public class SVGBrowser extends Application {
       }
 
       try {
-         SVGImage image = SVGLoader.load(file.toURI().toURL());
+         LoaderParameters params = new LoaderParameters();
+         params.documentCache = documentCache;
+         SVGImage image = SVGLoader.load(file.toURI().toURL(), params);
          if (image == null) {
             Alert alert = new Alert(AlertType.WARNING);
             alert.setTitle("Error");
@@ -53,7 +53,7 @@ public class GlobalConfig implements ExceptionsHandling {
     *
     * @return the unique instance
     */
-   public static GlobalConfig getInstance() {
+   public static synchronized GlobalConfig getInstance() {
       if (config == null) {
          config = new GlobalConfig();
       }
@@ -34,13 +34,18 @@ package org.girod.javafx.svgimage;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javafx.animation.Animation;
+import javafx.scene.Node;
 import javafx.scene.paint.Paint;
 import org.girod.javafx.svgimage.xml.parsers.ClippingFactory;
+import org.girod.javafx.svgimage.xml.parsers.StyleCache;
 import org.girod.javafx.svgimage.xml.specs.FilterSpec;
 import org.girod.javafx.svgimage.xml.specs.GradientSpec;
 import org.girod.javafx.svgimage.xml.specs.MarkerSpec;
@@ -52,7 +57,7 @@ import org.girod.javafx.svgimage.xml.parsers.XMLNode;
 /**
  * The context of a {@link SVGLoader}.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class LoaderContext {
    /**
@@ -91,6 +96,10 @@ public class LoaderContext {
     * The gradients.
     */
    public final Map<String, Paint> gradients = new HashMap<>();
+   /**
+    * The cache of the parsed "style" attributes.
+    */
+   public final StyleCache styleCache;
    public final Map<String, MarkerSpec> markers = new HashMap<>();
    private final Map<String, XMLNode> namedNodes = new HashMap<>();
    private final Map<String, SymbolSpec> symbols = new HashMap<>();
@@ -98,6 +107,10 @@ public class LoaderContext {
     * The animations.
     */
    List<Animation> animations = new ArrayList<>();
+   /**
+    * The Nodes which are the target of an animation.
+    */
+   final Set<Node> animatedNodes = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
 
    /**
     * True if the effects are supported.
@@ -108,6 +121,7 @@ public class LoaderContext {
       this.root = root;
       this.params = params;
       this.url = url;
+      this.styleCache = params.globalStyleCache ? StyleCache.getGlobalCache() : new StyleCache();
    }
 
    /**
@@ -251,6 +265,18 @@ public class LoaderContext {
       animations.addAll(theAnimations);
    }
 
+   /**
+    * Add a list of animations which target a Node.
+    *
+    * @param node the Node
+    * @param theAnimations the animations.
+    * @since 1.2
+    */
+   public void addAnimations(Node node, List<Animation> theAnimations) {
+      animatedNodes.add(node);
+      animations.addAll(theAnimations);
+   }
+
    /**
     * Play the transitions.
     */
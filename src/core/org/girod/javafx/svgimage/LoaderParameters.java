@@ -41,9 +41,16 @@ package org.girod.javafx.svgimage;
  * <li>The animations are auto started</li>
  * <li>The resulting image is not centered</li>
  * <li>Ther viewPort position is taken into account</li>
+ * <li>The parsed svg documents are not cached</li>
+ * <li>The JavaFX tree is built after the svg content has been parsed</li>
+ * <li>Each transform of a transform attribute is kept as a separate JavaFX transform</li>
+ * <li>The parsed style attributes are only cached for one load</li>
+ * <li>The JavaFX tree is not flattened</li>
+ * <li>The image is not rasterized</li>
+ * <li>The images rendered by the toImage methods are not cached</li>
  * </ul>
  *
- * @version 0.6.1
+ * @version 1.2
  */
 public class LoaderParameters implements Cloneable {
    /**
@@ -74,6 +81,59 @@ public class LoaderParameters implements Cloneable {
     * True if the x and y position of the viewPort is applied. The default is true.
     */
    public boolean applyViewportPosition = true;
+   /**
+    * The cache of parsed svg documents. The default is null, which means that the svg content is parsed for each load.
+    * The cache is shared by the clones of the parameters, so that scaling an image does not parse its content again.
+    */
+   public SVGDocumentCache documentCache = null;
+   /**
+    * True if the JavaFX tree must be built while the svg content is parsed. The default is false.
+    * In this mode the elements are built as soon as they are closed, and only the elements which can be referenced
+    * are kept in memory, which reduces the peak memory for large documents. The document cache is not used, and the
+    * resulting image does not retain its {@link SVGDocument}.
+    */
+   public boolean streamingBuild = false;
+   /**
+    * True if the transforms of a transform attribute must be composed in one affine transform. The default is false.
+    * Fewer transforms for each node speed up the computation of the bounds of large scenes. The transforms of
+    * nodes which have an animateTransform child are never composed.
+    */
+   public boolean fuseTransforms = false;
+   /**
+    * True if the parsed style attributes must be cached for all the loads rather than for one load. The default is
+    * false.
+    */
+   public boolean globalStyleCache = false;
+   /**
+    * True if the JavaFX tree must be flattened after it has been built. The default is false. The groups which have
+    * no effect on the rendering are removed, their transforms being added to their children, and the adjacent paths
+    * which have the same appearance and do not overlap are merged. The nodes which have an id or are animated are
+    * kept. Fewer nodes speed up the CSS, layout and rendering passes of JavaFX.
+    */
+   public boolean flattenTree = false;
+   /**
+    * True if the image must only contain an ImageView showing the rendered svg content, rather than the JavaFX tree.
+    * The default is false. The tree is built and rendered once for each scale, and the rendered images are kept by
+    * the {@link SVGDocument}, so that the images created from the same document, for example with a
+    * {@link #documentCache}, share them. Scaling the image renders it again at the new scale. Images which have
+    * animations are never rasterized.
+    */
+   public boolean rasterize = false;
+   /**
+    * The ratio between the pixels of the rasterized image and the coordinates of the image. The default is -1, which
+    * means that the output scale of the primary screen is used. This parameter is only used if the image is
+    * rasterized.
+    */
+   public double pixelRatio = -1;
+   /**
+    * True if the images rendered by {@link SVGImage#toImage(short, double)}, {@link SVGImage#toClosestImage(short, double)}
+    * and the uniform {@link SVGImage#toImageScaled(short, double, double)} must be kept in the {@link SnapshotCache}
+    * of the {@link SVGDocument}. The default is false. The cached images are shared by all the images created from
+    * the same document with this parameter, and they show the nodes as they were built, so this parameter must only
+    * be set if the nodes of these images are not modified, for example by changing their style or by playing their
+    * animations.
+    */
+   public boolean cacheSnapshots = false;
 
    /**
     * Create a clone of the parameters.
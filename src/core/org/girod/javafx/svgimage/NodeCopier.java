@@ -0,0 +1,343 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.shape.ArcTo;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.CubicCurveTo;
+import javafx.scene.shape.Ellipse;
+import javafx.scene.shape.HLineTo;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import javafx.scene.shape.Polygon;
+import javafx.scene.shape.Polyline;
+import javafx.scene.shape.QuadCurveTo;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.shape.Shape;
+import javafx.scene.shape.VLineTo;
+import javafx.scene.text.Text;
+import javafx.scene.transform.Transform;
+
+/**
+ * Copies the JavaFX Nodes tree of a SVGImage. Only the Node types which are created by the SVGLoader are supported.
+ * Paints, Images and Effects are immutable or can be shared, so they are not copied. It is also used to create the
+ * instances of the content of markers.
+ *
+ * <p>The animations are not copied, because they can not be retargeted to the copied Nodes. A copier keeps the
+ * copies it has created, so a new copier should be used for each copied tree.</p>
+ *
+ * @since 1.2
+ */
+public class NodeCopier {
+   private final Map<Node, Node> copies = new IdentityHashMap<>();
+
+   /**
+    * Create a copier.
+    *
+    * @since 1.2
+    */
+   public NodeCopier() {
+   }
+
+   /**
+    * Return the copy of a Node which has already been copied.
+    *
+    * @param node the Node
+    * @return the copy
+    */
+   Node getCopy(Node node) {
+      return copies.get(node);
+   }
+
+   /**
+    * Copy the properties and the children of a Group into another Group.
+    *
+    * @param group the Group to copy
+    * @param copy the copy
+    * @return false if the Group contains a Node which can not be copied
+    */
+   boolean copyGroup(Group group, Group copy) {
+      copies.put(group, copy);
+      if (!copyNodeProperties(group, copy)) {
+         return false;
+      }
+      copy.setAutoSizeChildren(group.isAutoSizeChildren());
+      Iterator<Node> it = group.getChildren().iterator();
+      while (it.hasNext()) {
+         Node child = copy(it.next());
+         if (child == null) {
+            return false;
+         }
+         copy.getChildren().add(child);
+      }
+      return true;
+   }
+
+   /**
+    * Copy a Node and its children.
+    *
+    * @param node the Node
+    * @return the copy, or null if the Node or one of its children can not be copied
+    * @since 1.2
+    */
+   public Node copy(Node node) {
+      Node copy;
+      if (node instanceof Group) {
+         Group group = new Group();
+         if (!copyGroup((Group) node, group)) {
+            return null;
+         }
+         return group;
+      } else if (node instanceof Shape) {
+         copy = copyShape((Shape) node);
+      } else if (node instanceof ImageView) {
+         copy = copyImageView((ImageView) node);
+      } else {
+         copy = null;
+      }
+      if (copy != null) {
+         copies.put(node, copy);
+         if (!copyNodeProperties(node, copy)) {
+            return null;
+         }
+      }
+      return copy;
+   }
+
+   /**
+    * Copy the properties of a Node. Most of the JavaFX properties are lazily created, so the properties are only
+    * set if they do not have their default value.
+    */
+   private boolean copyNodeProperties(Node node, Node copy) {
+      if (node.getId() != null) {
+         copy.setId(node.getId());
+      }
+      if (node.getStyle() != null && !node.getStyle().isEmpty()) {
+         copy.setStyle(node.getStyle());
+      }
+      if (!node.getStyleClass().isEmpty()) {
+         copy.getStyleClass().setAll(node.getStyleClass());
+      }
+      if (!node.isVisible()) {
+         copy.setVisible(false);
+      }
+      if (node.getOpacity() != 1d) {
+         copy.setOpacity(node.getOpacity());
+      }
+      if (node.getBlendMode() != null) {
+         copy.setBlendMode(node.getBlendMode());
+      }
+      if (node.getEffect() != null) {
+         copy.setEffect(node.getEffect());
+      }
+      if (node.getLayoutX() != 0d) {
+         copy.setLayoutX(node.getLayoutX());
+      }
+      if (node.getLayoutY() != 0d) {
+         copy.setLayoutY(node.getLayoutY());
+      }
+      if (node.getTranslateX() != 0d || node.getTranslateY() != 0d || node.getTranslateZ() != 0d) {
+         copy.setTranslateX(node.getTranslateX());
+         copy.setTranslateY(node.getTranslateY());
+         copy.setTranslateZ(node.getTranslateZ());
+      }
+      if (node.getScaleX() != 1d || node.getScaleY() != 1d || node.getScaleZ() != 1d) {
+         copy.setScaleX(node.getScaleX());
+         copy.setScaleY(node.getScaleY());
+         copy.setScaleZ(node.getScaleZ());
+      }
+      if (node.getRotate() != 0d) {
+         copy.setRotate(node.getRotate());
+         copy.setRotationAxis(node.getRotationAxis());
+      }
+      if (node.isCache()) {
+         copy.setCache(true);
+         copy.setCacheHint(node.getCacheHint());
+      }
+      Iterator<Transform> it = node.getTransforms().iterator();
+      while (it.hasNext()) {
+         copy.getTransforms().add(it.next().clone());
+      }
+      if (node.getClip() != null) {
+         Node clip = copy(node.getClip());
+         if (clip == null) {
+            return false;
+         }
+         copy.setClip(clip);
+      }
+      return true;
+   }
+
+   private Shape copyShape(Shape shape) {
+      Shape copy;
+      if (shape instanceof Rectangle) {
+         Rectangle rect = (Rectangle) shape;
+         Rectangle rectCopy = new Rectangle(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+         rectCopy.setArcWidth(rect.getArcWidth());
+         rectCopy.setArcHeight(rect.getArcHeight());
+         copy = rectCopy;
+      } else if (shape instanceof Circle) {
+         Circle circle = (Circle) shape;
+         copy = new Circle(circle.getCenterX(), circle.getCenterY(), circle.getRadius());
+      } else if (shape instanceof Ellipse) {
+         Ellipse ellipse = (Ellipse) shape;
+         copy = new Ellipse(ellipse.getCenterX(), ellipse.getCenterY(), ellipse.getRadiusX(), ellipse.getRadiusY());
+      } else if (shape instanceof Line) {
+         Line line = (Line) shape;
+         copy = new Line(line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY());
+      } else if (shape instanceof Polygon) {
+         Polygon polygon = new Polygon();
+         polygon.getPoints().setAll(((Polygon) shape).getPoints());
+         copy = polygon;
+      } else if (shape instanceof Polyline) {
+         Polyline polyline = new Polyline();
+         polyline.getPoints().setAll(((Polyline) shape).getPoints());
+         copy = polyline;
+      } else if (shape instanceof SVGPath) {
+         SVGPath path = (SVGPath) shape;
+         SVGPath pathCopy = new SVGPath();
+         pathCopy.setContent(path.getContent());
+         pathCopy.setFillRule(path.getFillRule());
+         copy = pathCopy;
+      } else if (shape instanceof Path) {
+         copy = copyPath((Path) shape);
+      } else if (shape instanceof Text) {
+         copy = copyText((Text) shape);
+      } else {
+         return null;
+      }
+      if (copy == null) {
+         return null;
+      }
+      copy.setFill(shape.getFill());
+      copy.setStroke(shape.getStroke());
+      if (shape.getStroke() != null) {
+         copy.setStrokeWidth(shape.getStrokeWidth());
+         copy.setStrokeType(shape.getStrokeType());
+         copy.setStrokeLineCap(shape.getStrokeLineCap());
+         copy.setStrokeLineJoin(shape.getStrokeLineJoin());
+         copy.setStrokeMiterLimit(shape.getStrokeMiterLimit());
+         if (!shape.getStrokeDashArray().isEmpty()) {
+            copy.setStrokeDashOffset(shape.getStrokeDashOffset());
+            copy.getStrokeDashArray().setAll(shape.getStrokeDashArray());
+         }
+      }
+      if (!shape.isSmooth()) {
+         copy.setSmooth(false);
+      }
+      return copy;
+   }
+
+   private Text copyText(Text text) {
+      Text copy = new Text(text.getX(), text.getY(), text.getText());
+      copy.setFont(text.getFont());
+      copy.setTextOrigin(text.getTextOrigin());
+      copy.setTextAlignment(text.getTextAlignment());
+      copy.setBoundsType(text.getBoundsType());
+      copy.setWrappingWidth(text.getWrappingWidth());
+      copy.setUnderline(text.isUnderline());
+      copy.setStrikethrough(text.isStrikethrough());
+      copy.setFontSmoothingType(text.getFontSmoothingType());
+      copy.setLineSpacing(text.getLineSpacing());
+      return copy;
+   }
+
+   private Path copyPath(Path path) {
+      Path copy = new Path();
+      copy.setFillRule(path.getFillRule());
+      Iterator<PathElement> it = path.getElements().iterator();
+      while (it.hasNext()) {
+         PathElement element = copyPathElement(it.next());
+         if (element == null) {
+            return null;
+         }
+         copy.getElements().add(element);
+      }
+      return copy;
+   }
+
+   private PathElement copyPathElement(PathElement element) {
+      PathElement copy;
+      if (element instanceof MoveTo) {
+         MoveTo moveTo = (MoveTo) element;
+         copy = new MoveTo(moveTo.getX(), moveTo.getY());
+      } else if (element instanceof LineTo) {
+         LineTo lineTo = (LineTo) element;
+         copy = new LineTo(lineTo.getX(), lineTo.getY());
+      } else if (element instanceof HLineTo) {
+         copy = new HLineTo(((HLineTo) element).getX());
+      } else if (element instanceof VLineTo) {
+         copy = new VLineTo(((VLineTo) element).getY());
+      } else if (element instanceof QuadCurveTo) {
+         QuadCurveTo curve = (QuadCurveTo) element;
+         copy = new QuadCurveTo(curve.getControlX(), curve.getControlY(), curve.getX(), curve.getY());
+      } else if (element instanceof CubicCurveTo) {
+         CubicCurveTo curve = (CubicCurveTo) element;
+         copy = new CubicCurveTo(curve.getControlX1(), curve.getControlY1(), curve.getControlX2(), curve.getControlY2(),
+            curve.getX(), curve.getY());
+      } else if (element instanceof ArcTo) {
+         ArcTo arc = (ArcTo) element;
+         copy = new ArcTo(arc.getRadiusX(), arc.getRadiusY(), arc.getXAxisRotation(), arc.getX(), arc.getY(),
+            arc.isLargeArcFlag(), arc.isSweepFlag());
+      } else if (element instanceof ClosePath) {
+         copy = new ClosePath();
+      } else {
+         return null;
+      }
+      copy.setAbsolute(element.isAbsolute());
+      return copy;
+   }
+
+   private ImageView copyImageView(ImageView view) {
+      ImageView copy = new ImageView(view.getImage());
+      copy.setX(view.getX());
+      copy.setY(view.getY());
+      copy.setFitWidth(view.getFitWidth());
+      copy.setFitHeight(view.getFitHeight());
+      copy.setPreserveRatio(view.isPreserveRatio());
+      copy.setSmooth(view.isSmooth());
+      copy.setViewport(view.getViewport());
+      return copy;
+   }
+}
@@ -0,0 +1,318 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javafx.collections.ObservableList;
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.shape.FillRule;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.shape.Shape;
+
+/**
+ * Reduces the number of Nodes of a JavaFX tree built by the SVGLoader, without changing its rendering:
+ * <ul>
+ * <li>The Groups which have no effect, clip, opacity or style are removed, and their children are added to their
+ * parent. The transforms of a removed Group are added before the transforms of each of its children</li>
+ * <li>Adjacent paths which have the same appearance and do not overlap are merged in one path</li>
+ * </ul>
+ * The Nodes which have an id or are animated are never removed or merged, and the transforms of a Group are never
+ * added to them.
+ *
+ * @since 1.2
+ */
+class NodeFlattener {
+   private final Set<Node> preservedNodes;
+   private int removedGroups = 0;
+   private int mergedShapes = 0;
+
+   /**
+    * Constructor.
+    *
+    * @param preservedNodes the Nodes which must be kept as they are
+    */
+   NodeFlattener(Set<Node> preservedNodes) {
+      this.preservedNodes = preservedNodes;
+   }
+
+   /**
+    * Return the number of Groups which have been removed.
+    *
+    * @return the number of removed Groups
+    */
+   int getRemovedGroupsCount() {
+      return removedGroups;
+   }
+
+   /**
+    * Return the number of shapes which have been merged in a previous shape.
+    *
+    * @return the number of merged shapes
+    */
+   int getMergedShapesCount() {
+      return mergedShapes;
+   }
+
+   /**
+    * Flatten the children of a Group. The Group itself is kept.
+    *
+    * @param root the Group
+    */
+   void flatten(Group root) {
+      flattenChildren(root);
+   }
+
+   private void flattenChildren(Group group) {
+      ObservableList<Node> children = group.getChildren();
+      List<Node> newChildren = new ArrayList<>(children.size());
+      boolean changed = false;
+      Iterator<Node> it = children.iterator();
+      while (it.hasNext()) {
+         Node child = it.next();
+         if (child instanceof Group) {
+            Group childGroup = (Group) child;
+            flattenChildren(childGroup);
+            if (canRemove(childGroup)) {
+               List<Node> grandChildren = new ArrayList<>(childGroup.getChildren());
+               childGroup.getChildren().clear();
+               if (!childGroup.getTransforms().isEmpty()) {
+                  Iterator<Node> it2 = grandChildren.iterator();
+                  while (it2.hasNext()) {
+                     it2.next().getTransforms().addAll(0, childGroup.getTransforms());
+                  }
+               }
+               newChildren.addAll(grandChildren);
+               removedGroups++;
+               changed = true;
+               continue;
+            }
+         }
+         newChildren.add(child);
+      }
+      if (mergeShapes(newChildren)) {
+         changed = true;
+      }
+      if (changed) {
+         children.setAll(newChildren);
+      }
+   }
+
+   private boolean canRemove(Group group) {
+      if (!isPlainNode(group) || group.getEffect() != null || group.getOpacity() != 1d || !group.getStyleClass().isEmpty()) {
+         return false;
+      }
+      if (!group.getTransforms().isEmpty()) {
+         Iterator<Node> it = group.getChildren().iterator();
+         while (it.hasNext()) {
+            Node child = it.next();
+            if (preservedNodes.contains(child) || !hasIdentityProperties(child)) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Return true if a Node can be removed or modified: it has no id, no style, no clip and no blend mode, it is
+    * visible and is not preserved, and its transform properties have their default values.
+    */
+   private boolean isPlainNode(Node node) {
+      if (preservedNodes.contains(node) || node.getId() != null) {
+         return false;
+      }
+      String style = node.getStyle();
+      if (style != null && !style.isEmpty()) {
+         return false;
+      }
+      return node.getClip() == null && node.getBlendMode() == null && node.isVisible() && node.getCursor() == null
+         && hasIdentityProperties(node);
+   }
+
+   private static boolean hasIdentityProperties(Node node) {
+      return node.getLayoutX() == 0d && node.getLayoutY() == 0d && node.getTranslateX() == 0d && node.getTranslateY() == 0d
+         && node.getTranslateZ() == 0d && node.getRotate() == 0d && node.getScaleX() == 1d && node.getScaleY() == 1d
+         && node.getScaleZ() == 1d;
+   }
+
+   private boolean mergeShapes(List<Node> nodes) {
+      List<Node> result = new ArrayList<>(nodes.size());
+      List<Shape> run = new ArrayList<>();
+      List<Bounds> runBounds = new ArrayList<>();
+      int count = mergedShapes;
+      Iterator<Node> it = nodes.iterator();
+      while (it.hasNext()) {
+         Node node = it.next();
+         if (!run.isEmpty() && canAppend(run.get(0), runBounds, node)) {
+            run.add((Shape) node);
+            runBounds.add(node.getBoundsInLocal());
+            continue;
+         }
+         flushRun(run, runBounds, result);
+         if (isMergeable(node)) {
+            run.add((Shape) node);
+            runBounds.add(node.getBoundsInLocal());
+         } else {
+            result.add(node);
+         }
+      }
+      flushRun(run, runBounds, result);
+      if (count == mergedShapes) {
+         return false;
+      }
+      nodes.clear();
+      nodes.addAll(result);
+      return true;
+   }
+
+   private void flushRun(List<Shape> run, List<Bounds> runBounds, List<Node> result) {
+      if (run.isEmpty()) {
+         return;
+      }
+      Shape first = run.get(0);
+      if (run.size() > 1) {
+         if (first instanceof SVGPath) {
+            StringBuilder buf = new StringBuilder(((SVGPath) first).getContent());
+            for (int i = 1; i < run.size(); i++) {
+               buf.append(' ').append(((SVGPath) run.get(i)).getContent());
+            }
+            ((SVGPath) first).setContent(buf.toString());
+         } else {
+            ObservableList<PathElement> elements = ((Path) first).getElements();
+            for (int i = 1; i < run.size(); i++) {
+               Path path = (Path) run.get(i);
+               List<PathElement> otherElements = new ArrayList<>(path.getElements());
+               path.getElements().clear();
+               elements.addAll(otherElements);
+            }
+         }
+         mergedShapes += run.size() - 1;
+      }
+      result.add(first);
+      run.clear();
+      runBounds.clear();
+   }
+
+   private boolean isMergeable(Node node) {
+      if (!(node instanceof SVGPath) && !(node instanceof Path)) {
+         return false;
+      }
+      Shape shape = (Shape) node;
+      return isPlainNode(shape) && shape.getTransforms().isEmpty() && shape.getEffect() == null
+         && shape.getStrokeDashArray().isEmpty() && isMergeablePaint(shape.getFill()) && isMergeablePaint(shape.getStroke());
+   }
+
+   /**
+    * Return true if a Paint does not depend on the bounds of the shape.
+    */
+   private static boolean isMergeablePaint(Paint paint) {
+      if (paint == null || paint instanceof Color) {
+         return true;
+      } else if (paint instanceof LinearGradient) {
+         return !((LinearGradient) paint).isProportional();
+      } else if (paint instanceof RadialGradient) {
+         return !((RadialGradient) paint).isProportional();
+      } else {
+         return false;
+      }
+   }
+
+   private boolean canAppend(Shape first, List<Bounds> runBounds, Node node) {
+      if (node.getClass() != first.getClass() || !isMergeable(node)) {
+         return false;
+      }
+      Shape shape = (Shape) node;
+      if (!hasSameAppearance(first, shape) || !startsWithAbsoluteMove(shape)) {
+         return false;
+      }
+      // overlapping paths can not be merged, because their fill rule would apply to the overlapping area
+      Bounds bounds = shape.getBoundsInLocal();
+      Iterator<Bounds> it = runBounds.iterator();
+      while (it.hasNext()) {
+         if (it.next().intersects(bounds)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean hasSameAppearance(Shape first, Shape shape) {
+      return Objects.equals(first.getFill(), shape.getFill()) && Objects.equals(first.getStroke(), shape.getStroke())
+         && first.getStrokeWidth() == shape.getStrokeWidth() && first.getStrokeType() == shape.getStrokeType()
+         && first.getStrokeLineCap() == shape.getStrokeLineCap() && first.getStrokeLineJoin() == shape.getStrokeLineJoin()
+         && first.getStrokeMiterLimit() == shape.getStrokeMiterLimit() && first.getOpacity() == shape.getOpacity()
+         && first.isSmooth() == shape.isSmooth() && getFillRule(first) == getFillRule(shape)
+         && first.getStyleClass().equals(shape.getStyleClass());
+   }
+
+   private static FillRule getFillRule(Shape shape) {
+      if (shape instanceof SVGPath) {
+         return ((SVGPath) shape).getFillRule();
+      } else {
+         return ((Path) shape).getFillRule();
+      }
+   }
+
+   /**
+    * Return true if the first command of a path is an absolute move. A relative move would be relative to the end
+    * of the previous path after the merge.
+    */
+   private static boolean startsWithAbsoluteMove(Shape shape) {
+      if (shape instanceof SVGPath) {
+         String content = ((SVGPath) shape).getContent();
+         for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (!Character.isWhitespace(c)) {
+               return c == 'M';
+            }
+         }
+         return false;
+      } else {
+         List<PathElement> elements = ((Path) shape).getElements();
+         return !elements.isEmpty() && elements.get(0) instanceof MoveTo && elements.get(0).isAbsolute();
+      }
+   }
+}
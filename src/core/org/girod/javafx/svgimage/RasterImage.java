@@ -0,0 +1,82 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+/**
+ * A rasterized image, with the area which it covers in the coordinates of the parent of the {@link SVGImage}.
+ * The image itself is not modified after it has been rendered, so it can be shared by any number of ImageViews.
+ *
+ * @since 1.2
+ */
+final class RasterImage {
+   private final Image image;
+   private final double x;
+   private final double y;
+   private final double width;
+   private final double height;
+
+   RasterImage(Image image, double x, double y, double width, double height) {
+      this.image = image;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+   }
+
+   /**
+    * Return the image. Its size in pixels is the size of the covered area multiplied by the pixel ratio.
+    *
+    * @return the image
+    */
+   Image getImage() {
+      return image;
+   }
+
+   /**
+    * Create an ImageView which shows the image on its covered area.
+    *
+    * @return the ImageView
+    */
+   ImageView createImageView() {
+      ImageView view = new ImageView(image);
+      view.setX(x);
+      view.setY(y);
+      view.setFitWidth(width);
+      view.setFitHeight(height);
+      view.setSmooth(true);
+      return view;
+   }
+}
@@ -0,0 +1,240 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.paint.Paint;
+import org.girod.javafx.svgimage.xml.parsers.SVGParsingException;
+import org.girod.javafx.svgimage.xml.parsers.SVGTags;
+import org.girod.javafx.svgimage.xml.parsers.XMLNode;
+import org.girod.javafx.svgimage.xml.parsers.XMLRoot;
+
+/**
+ * A parsed svg document. The document does not depend on the LoaderParameters, and its tree of elements is made
+ * read-only when the document is created, so it can be shared between threads, and any number of images can be
+ * created from it at any scale without reading or parsing the svg content again.
+ *
+ * <p>The elements of the document keep the values parsed from their attributes which do not depend on the scale: the
+ * tokenized path data, the transform lists with their lengths not scaled, and the coordinates of the polygons and
+ * polylines. These attributes are parsed by the first image created from the document, and the next images, whatever
+ * their scale, only scale the parsed values. The lengths are parsed in one pass without regular expressions, and the
+ * colors are kept by a cache shared by all the loads, so they are not kept by the elements. The document also keeps
+ * the gradients resolved for the most recently used scales, and the rasterized and rendered images.</p>
+ *
+ * <p>A document can be obtained by {@link SVGLoader#loadDocument(URL)}, or from an existing image by
+ * {@link SVGImage#getDocument()}.</p>
+ *
+ * @since 1.2
+ */
+public final class SVGDocument implements SVGTags {
+   private final URL url;
+   private final String content;
+   private final XMLRoot root;
+   private final Set<String> ids;
+   /**
+    * The maximum number of scales for which the gradients are kept.
+    */
+   private static final int MAX_GRADIENT_SCALES = 8;
+   private final Map<Double, Map<String, Paint>> gradients = new LinkedHashMap<Double, Map<String, Paint>>(4, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Double, Map<String, Paint>> eldest) {
+         return size() > MAX_GRADIENT_SCALES;
+      }
+   };
+   /**
+    * The maximum number of rasterized images which are kept.
+    */
+   private static final int MAX_RASTER_IMAGES = 8;
+   private final Map<String, RasterImage> rasterImages = new LinkedHashMap<String, RasterImage>(4, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, RasterImage> eldest) {
+         return size() > MAX_RASTER_IMAGES;
+      }
+   };
+
+   private final SnapshotCache snapshotCache = new SnapshotCache();
+
+   SVGDocument(URL url, String content, XMLRoot root) {
+      this.url = url;
+      this.content = content;
+      this.root = root;
+      Set<String> theIds = new HashSet<>();
+      if (root != null) {
+         root.setReadOnly();
+         collectIds(root, theIds);
+      }
+      this.ids = Collections.unmodifiableSet(theIds);
+   }
+
+   private static void collectIds(XMLNode node, Set<String> ids) {
+      if (node.hasAttribute(ID)) {
+         ids.add(node.getAttributeValue(ID));
+      }
+      Iterator<XMLNode> it = node.getChildren().iterator();
+      while (it.hasNext()) {
+         collectIds(it.next(), ids);
+      }
+   }
+
+   /**
+    * Return the URL of the svg content, or null if the document was parsed from a String.
+    *
+    * @return the URL
+    */
+   public URL getURL() {
+      return url;
+   }
+
+   /**
+    * Return the svg content, or null if the document was parsed from a URL.
+    *
+    * @return the svg content
+    */
+   public String getContent() {
+      return content;
+   }
+
+   /**
+    * Return true if the document was parsed from a URL.
+    *
+    * @return true if the document was parsed from a URL
+    */
+   public boolean isFromURL() {
+      return url != null;
+   }
+
+   /**
+    * Return the ids of the elements of the document.
+    *
+    * @return the ids
+    */
+   public Set<String> getIds() {
+      return ids;
+   }
+
+   /**
+    * Return true if the document has an element with a specified id.
+    *
+    * @param id the id
+    * @return true if the document has an element with this id
+    */
+   public boolean hasId(String id) {
+      return ids.contains(id);
+   }
+
+   /**
+    * Return the cache of the images rendered by the images created from the document.
+    *
+    * @return the cache
+    */
+   public SnapshotCache getSnapshotCache() {
+      return snapshotCache;
+   }
+
+   /**
+    * Return the root of the parsed tree. The tree is read-only.
+    *
+    * @return the root
+    */
+   XMLRoot getRoot() {
+      return root;
+   }
+
+   /**
+    * Return the gradients which have been created from the document for a scale. The gradients are immutable, so they
+    * can be shared by all the images created from the document at the same scale. The gradients are only kept for
+    * the most recently used scales.
+    *
+    * @param scale the scale, or -1 if there is no scale
+    * @return the gradients, by id
+    */
+   synchronized Map<String, Paint> getGradients(double scale) {
+      Map<String, Paint> scaleGradients = gradients.get(scale);
+      if (scaleGradients == null) {
+         scaleGradients = new ConcurrentHashMap<>();
+         gradients.put(scale, scaleGradients);
+      }
+      return scaleGradients;
+   }
+
+   /**
+    * Return the rasterized image which has been rendered from the document for a key. The key contains the
+    * parameters which have an effect on the rendering, including the scale and the pixel ratio. Only the most recently
+    * used images are kept.
+    *
+    * @param key the key
+    * @return the rasterized image, or null if there is none for the key
+    */
+   synchronized RasterImage getRasterImage(String key) {
+      return rasterImages.get(key);
+   }
+
+   /**
+    * Keep a rasterized image which has been rendered from the document.
+    *
+    * @param key the key
+    * @param image the rasterized image
+    */
+   synchronized void putRasterImage(String key, RasterImage image) {
+      rasterImages.put(key, image);
+   }
+
+   /**
+    * Create an image from the document.
+    *
+    * @param params the parameters
+    * @return the image
+    * @throws SVGParsingException if the image can not be created
+    */
+   public SVGImage createImage(LoaderParameters params) throws SVGParsingException {
+      return SVGLoader.load(this, params);
+   }
+
+   /**
+    * Create an image from the document, with a scale.
+    *
+    * @param scale the scale
+    * @return the image
+    * @throws SVGParsingException if the image can not be created
+    */
+   public SVGImage createScaledImage(double scale) throws SVGParsingException {
+      return SVGLoader.load(this, LoaderParameters.createScaleParameters(scale));
+   }
+}
@@ -0,0 +1,322 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+/**
+ * A bounded cache of parsed svg documents. The cache can be shared by several loads by setting it in the
+ * {@link LoaderParameters#documentCache} field, so that reloading or rescaling an image does not parse the svg content again.
+ *
+ * <p>The documents are keyed by:</p>
+ * <ul>
+ * <li>The URL, last modification date, and length for files</li>
+ * <li>The URL and a digest of the bytes for other URLs</li>
+ * <li>The content itself for svg contents given as a String</li>
+ * </ul>
+ *
+ * <p>The cache is bounded both by a number of documents and by a weight, which is the size of the svg content
+ * in bytes. The least recently used documents are evicted first.</p>
+ *
+ * @since 1.2
+ */
+public class SVGDocumentCache {
+   /**
+    * The default maximum number of documents.
+    */
+   public static final int DEFAULT_MAXIMUM_SIZE = 256;
+   /**
+    * The default maximum weight.
+    */
+   public static final long DEFAULT_MAXIMUM_WEIGHT = 16L * 1024L * 1024L;
+   private final int maximumSize;
+   private final long maximumWeight;
+   private final LinkedHashMap<DocumentKey, CachedDocument> documents = new LinkedHashMap<>(16, 0.75f, true);
+   private long weight = 0;
+   private long hitCount = 0;
+   private long missCount = 0;
+   private long evictionCount = 0;
+
+   /**
+    * Constructor, with the default maximum size and weight.
+    */
+   public SVGDocumentCache() {
+      this(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_WEIGHT);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param maximumSize the maximum number of documents
+    * @param maximumWeight the maximum weight, which is the cumulated size in bytes of the svg contents
+    */
+   public SVGDocumentCache(int maximumSize, long maximumWeight) {
+      this.maximumSize = maximumSize;
+      this.maximumWeight = maximumWeight;
+   }
+
+   /**
+    * Return the maximum number of documents.
+    *
+    * @return the maximum number of documents
+    */
+   public int getMaximumSize() {
+      return maximumSize;
+   }
+
+   /**
+    * Return the maximum weight.
+    *
+    * @return the maximum weight
+    */
+   public long getMaximumWeight() {
+      return maximumWeight;
+   }
+
+   /**
+    * Return the number of documents in the cache.
+    *
+    * @return the number of documents
+    */
+   public synchronized int size() {
+      return documents.size();
+   }
+
+   /**
+    * Return the current weight of the cache.
+    *
+    * @return the current weight
+    */
+   public synchronized long getWeight() {
+      return weight;
+   }
+
+   /**
+    * Return the number of loads for which the document was found in the cache.
+    *
+    * @return the number of hits
+    */
+   public synchronized long getHitCount() {
+      return hitCount;
+   }
+
+   /**
+    * Return the number of loads for which the document had to be parsed.
+    *
+    * @return the number of misses
+    */
+   public synchronized long getMissCount() {
+      return missCount;
+   }
+
+   /**
+    * Return the number of documents which have been evicted from the cache.
+    *
+    * @return the number of evictions
+    */
+   public synchronized long getEvictionCount() {
+      return evictionCount;
+   }
+
+   /**
+    * Remove all the documents from the cache. The counters are not reset.
+    */
+   public synchronized void clear() {
+      documents.clear();
+      weight = 0;
+   }
+
+   /**
+    * Return the document associated with a key, or null if there is none.
+    *
+    * @param key the key
+    * @return the document
+    */
+   synchronized SVGDocument get(DocumentKey key) {
+      CachedDocument cached = documents.get(key);
+      if (cached == null) {
+         missCount++;
+         return null;
+      } else {
+         hitCount++;
+         return cached.document;
+      }
+   }
+
+   /**
+    * Put a document in the cache. Documents which are heavier than the maximum weight are not cached.
+    *
+    * @param key the key
+    * @param document the document
+    */
+   synchronized void put(DocumentKey key, SVGDocument document) {
+      long docWeight = key.weight;
+      key.bytes = null;
+      if (document == null || docWeight > maximumWeight) {
+         return;
+      }
+      CachedDocument previous = documents.put(key, new CachedDocument(document, docWeight));
+      if (previous != null) {
+         weight -= previous.weight;
+      }
+      weight += docWeight;
+      Iterator<Map.Entry<DocumentKey, CachedDocument>> it = documents.entrySet().iterator();
+      while (it.hasNext() && (documents.size() > maximumSize || weight > maximumWeight)) {
+         Map.Entry<DocumentKey, CachedDocument> entry = it.next();
+         if (entry.getKey().equals(key)) {
+            continue;
+         }
+         weight -= entry.getValue().weight;
+         it.remove();
+         evictionCount++;
+      }
+   }
+
+   /**
+    * Create the key for a svg content. For URLs which are not files, the content is read to compute its digest,
+    * and the bytes are kept in the key so that they are not read twice.
+    *
+    * @param content the svg content
+    * @return the key
+    * @throws IOException if the URL can not be read
+    */
+   static DocumentKey createKey(SVGContent content) throws IOException {
+      if (content.url == null) {
+         return new DocumentKey(null, content.content, content.content.length() * 2L);
+      }
+      URL url = content.url;
+      if ("file".equals(url.getProtocol())) {
+         try {
+            File file = new File(url.toURI());
+            if (file.exists()) {
+               long length = file.length();
+               return new DocumentKey(url.toExternalForm(), file.lastModified() + ":" + length, length);
+            }
+         } catch (URISyntaxException | IllegalArgumentException ex) {
+            // fall back to the digest of the content
+         }
+      }
+      byte[] bytes = readBytes(url);
+      DocumentKey key = new DocumentKey(url.toExternalForm(), digest(bytes), bytes.length);
+      key.bytes = bytes;
+      return key;
+   }
+
+   private static byte[] readBytes(URL url) throws IOException {
+      try (InputStream stream = url.openStream()) {
+         ByteArrayOutputStream out = new ByteArrayOutputStream();
+         byte[] buf = new byte[8192];
+         int count;
+         while ((count = stream.read(buf)) != -1) {
+            out.write(buf, 0, count);
+         }
+         return out.toByteArray();
+      }
+   }
+
+   private static String digest(byte[] bytes) {
+      try {
+         MessageDigest md = MessageDigest.getInstance("SHA-256");
+         byte[] hash = md.digest(bytes);
+         StringBuilder buf = new StringBuilder(hash.length * 2);
+         for (int i = 0; i < hash.length; i++) {
+            buf.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+            buf.append(Character.forDigit(hash[i] & 0xF, 16));
+         }
+         return buf.toString();
+      } catch (NoSuchAlgorithmException ex) {
+         // every Java platform is required to support SHA-256
+         return Integer.toHexString(Arrays.hashCode(bytes)) + ":" + bytes.length;
+      }
+   }
+
+   /**
+    * The key of a document in the cache.
+    */
+   static final class DocumentKey {
+      private final String origin;
+      private final String version;
+      private final long weight;
+      /**
+       * The bytes of the content if they had to be read for computing the key, else null.
+       */
+      byte[] bytes = null;
+
+      private DocumentKey(String origin, String version, long weight) {
+         this.origin = origin;
+         this.version = version;
+         this.weight = weight;
+      }
+
+      @Override
+      public int hashCode() {
+         int hash = 7;
+         hash = 41 * hash + Objects.hashCode(this.origin);
+         hash = 41 * hash + Objects.hashCode(this.version);
+         return hash;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj) {
+            return true;
+         }
+         if (obj == null || getClass() != obj.getClass()) {
+            return false;
+         }
+         final DocumentKey other = (DocumentKey) obj;
+         return Objects.equals(this.origin, other.origin) && Objects.equals(this.version, other.version);
+      }
+   }
+
+   private static final class CachedDocument {
+      private final SVGDocument document;
+      private final long weight;
+
+      private CachedDocument(SVGDocument document, long weight) {
+         this.document = document;
+         this.weight = weight;
+      }
+   }
+}
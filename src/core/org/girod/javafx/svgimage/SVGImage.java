@@ -34,15 +34,19 @@ package org.girod.javafx.svgimage;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
 import javafx.animation.Animation;
 import javafx.application.Platform;
 import javafx.embed.swing.JFXPanel;
+import javafx.geometry.Bounds;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
@@ -51,18 +55,21 @@ import javafx.scene.image.Image;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import org.girod.javafx.svgimage.xml.parsers.SVGLibraryException;
+import org.girod.javafx.svgimage.xml.parsers.SVGParsingException;
 
 /**
  * The resulting SVG image. It is a JavaFX Nodes tree.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class SVGImage extends Group {
    private static SnapshotParameters SNAPSHOT_PARAMS = null;
    private final Map<String, Node> nodes = new HashMap<>();
    private List<Animation> animations = new ArrayList<>();
    private final SVGContent content;
+   private SVGDocument document = null;
    private double currentScale = 1d;
+   private boolean rasterized = false;
 
    /**
     * Constructor.
@@ -89,6 +96,116 @@ public class SVGImage extends Group {
       return content;
    }
 
+   /**
+    * Return the parsed svg document from which the image was created. It can be used to create other images from
+    * the same svg content without parsing it again.
+    *
+    * @return the document, or null if the image was not created by a SVGLoader or was built in the streaming mode and
+    * has not been copied or scaled since
+    */
+   public SVGDocument getDocument() {
+      return document;
+   }
+
+   void setDocument(SVGDocument document) {
+      this.document = document;
+   }
+
+   /**
+    * Return true if the image only contains an ImageView showing the rasterized svg content.
+    *
+    * @return true if the image is rasterized
+    * @see LoaderParameters#rasterize
+    * @since 1.2
+    */
+   public boolean isRasterized() {
+      return rasterized;
+   }
+
+   /**
+    * Replace the Nodes tree of the image by an ImageView showing a rasterized image.
+    *
+    * @param raster the rasterized image
+    */
+   void setRasterImage(RasterImage raster) {
+      nodes.clear();
+      animations = new ArrayList<>();
+      this.getChildren().setAll(raster.createImageView());
+      this.getTransforms().clear();
+      this.setScaleX(1);
+      this.setScaleY(1);
+      this.setTranslateX(0);
+      this.setTranslateY(0);
+      rasterized = true;
+   }
+
+   /**
+    * Create a copy of this image, without parsing the svg content again. The JavaFX Nodes tree is copied, except
+    * if the image has animations, in which case the copy is built again so that the animations apply to the Nodes
+    * of the copy. The copy is built again from the {@link #getDocument() document} if there is one, else from the
+    * svg content, at the current scale of the image.
+    *
+    * @return the copy, or null if the image can not be copied
+    * @throws SVGParsingException if the image must be built again and this fails
+    */
+   public SVGImage copy() throws SVGParsingException {
+      if (animations.isEmpty()) {
+         SVGImage img = new SVGImage(content);
+         NodeCopier copier = new NodeCopier();
+         if (copier.copyGroup(this, img)) {
+            img.document = document;
+            img.currentScale = currentScale;
+            img.rasterized = rasterized;
+            img.getStylesheets().setAll(getStylesheets());
+            Iterator<Map.Entry<String, Node>> it = nodes.entrySet().iterator();
+            while (it.hasNext()) {
+               Map.Entry<String, Node> entry = it.next();
+               Node copy = copier.getCopy(entry.getValue());
+               if (copy != null) {
+                  img.nodes.put(entry.getKey(), copy);
+               }
+            }
+            return img;
+         }
+      }
+      if (document == null && content == null) {
+         GlobalConfig.getInstance().handleParsingError("The image has no document nor content to be copied from");
+         return null;
+      }
+      LoaderParameters params = content != null && content.params != null ? content.params.clone() : new LoaderParameters();
+      if (currentScale != 1d) {
+         params.width = -1;
+         params.scale = currentScale;
+      }
+      SVGImage img = load(params);
+      if (img != null) {
+         img.currentScale = currentScale;
+      }
+      return img;
+   }
+
+   /**
+    * Build the image again from the {@link #getDocument() document}. If the image has no document, because it was
+    * built in the streaming mode, the svg content is parsed once and the document is kept by the image, so that the
+    * next copies and scales reuse the values parsed from its elements.
+    *
+    * @param params the parameters
+    * @return the image
+    */
+   private SVGImage load(LoaderParameters params) {
+      if (document == null) {
+         if (content.isFromURL()) {
+            document = SVGLoader.loadDocument(content.url);
+         } else {
+            document = SVGLoader.loadDocument(content.content);
+         }
+         if (document == null) {
+            return null;
+         }
+      }
+      return SVGLoader.load(document, params);
+   }
+
    /**
     * Set the default SnapshotParameters to use when creating a snapshot. The default is null, which means that a
     * default SnapshotParameters will be created when creating a snapshot.
@@ -112,6 +229,16 @@ public class SVGImage extends Group {
       nodes.put(id, node);
    }
 
+   /**
+    * Return the Nodes which have an id.
+    *
+    * @return the Nodes
+    * @since 1.2
+    */
+   Collection<Node> getNamedNodes() {
+      return nodes.values();
+   }
+
    /**
     * Return true if there is a Node indicated by an id.
     *
@@ -141,6 +268,15 @@ public class SVGImage extends Group {
       this.animations = animations;
    }
 
+   /**
+    * Return the list of animations.
+    *
+    * @return the animations
+    */
+   List<Animation> getAnimations() {
+      return animations;
+   }
+
    /**
     * Play the animations.
     */
@@ -253,8 +389,11 @@ public class SVGImage extends Group {
     * @see ScaleQuality
     */
    public Image toImageScaled(short quality, double scaleX, double scaleY) {
+      if (scaleX == scaleY && getSnapshotCache() != null) {
+         return toImage(quality, this.getLayoutBounds().getWidth() * scaleX);
+      }
       if (quality == ScaleQuality.RENDER_QUALITY && scaleX == scaleY) {
-         SVGImage image = this.scale(scaleX);
+         SVGImage image = this.scale(scaleX, true);
          return image.toImage();
       } else {
          double initialWidth = this.getLayoutBounds().getWidth();
@@ -293,7 +432,10 @@ public class SVGImage extends Group {
    }
 
    /**
-    * Convert the Node tree to an image, specifying the resulting width and preserving the image ratio.
+    * Convert the Node tree to an image, specifying the resulting width and preserving the image ratio. If the image
+    * has a {@link #getDocument() document} and was loaded with {@link LoaderParameters#cacheSnapshots}, the resulting
+    * image is kept in the {@link SnapshotCache} of the document, and is shared with the images created from the same
+    * document with the same parameters. It must not be modified.
     *
     * @param quality the scaling quality
     * @param width the resulting width
@@ -301,6 +443,112 @@ public class SVGImage extends Group {
     * @see ScaleQuality
     */
    public Image toImage(short quality, double width) {
+      SnapshotCache cache = getSnapshotCache();
+      if (cache == null) {
+         return toImageImpl(quality, width);
+      }
+      String variant = getSnapshotVariant(quality);
+      Image image = cache.getImage(variant, width);
+      if (image == null) {
+         image = toImageImpl(quality, width);
+         if (image != null) {
+            cache.putImage(variant, width, image);
+         }
+      } else {
+         applySnapshotScale(quality, width);
+      }
+      return image;
+   }
+
+   /**
+    * Convert the Node tree to an image whose width is at least a specified width, preserving the image ratio. The
+    * image is rendered at the next power of two width, so that a small set of images can be used for many widths,
+    * for example by showing them in an ImageView which fits the width. If the image has a
+    * {@link #getDocument() document} and was loaded with {@link LoaderParameters#cacheSnapshots}, the narrowest image
+    * of the {@link SnapshotCache} of the document whose width is between the width and the next power of two is
+    * returned if there is one. The image must not be modified.
+    *
+    * @param quality the scaling quality
+    * @param width the minimum width
+    * @return the Image
+    * @see ScaleQuality
+    * @since 1.2
+    */
+   public Image toClosestImage(short quality, double width) {
+      double powerOfTwo = 1;
+      while (powerOfTwo < width) {
+         powerOfTwo *= 2;
+      }
+      SnapshotCache cache = getSnapshotCache();
+      if (cache == null) {
+         return toImageImpl(quality, powerOfTwo);
+      }
+      String variant = getSnapshotVariant(quality);
+      Image image = cache.getClosestImage(variant, width, powerOfTwo);
+      if (image == null) {
+         image = toImageImpl(quality, powerOfTwo);
+         if (image != null) {
+            cache.putImage(variant, powerOfTwo, image);
+         }
+      } else {
+         applySnapshotScale(quality, image.getWidth());
+      }
+      return image;
+   }
+
+   /**
+    * Return the cache of the images rendered from the document of the image. There is no cache if the image has no
+    * document, if it was not loaded with {@link LoaderParameters#cacheSnapshots}, or if default SnapshotParameters
+    * have been set.
+    *
+    * @return the cache, or null
+    */
+   private SnapshotCache getSnapshotCache() {
+      if (document == null || SNAPSHOT_PARAMS != null || content == null || content.params == null
+         || !content.params.cacheSnapshots) {
+         return null;
+      }
+      return document.getSnapshotCache();
+   }
+
+   /**
+    * Apply the scale which rendering the image at a specified width applies on this image, when the rendered image
+    * is found in the snapshot cache.
+    *
+    * @param quality the scaling quality
+    * @param width the width
+    */
+   private void applySnapshotScale(short quality, double width) {
+      if (quality != ScaleQuality.RENDER_QUALITY) {
+         double scale = width / this.getLayoutBounds().getWidth();
+         this.setScaleX(scale);
+         this.setScaleY(scale);
+      }
+   }
+
+   /**
+    * Return the variant of the images rendered from this image in the snapshot cache. It contains the quality, the
+    * current scale, and the loader parameters which have an effect on the rendering.
+    *
+    * @param quality the scaling quality
+    * @return the variant
+    */
+   private String getSnapshotVariant(short quality) {
+      StringBuilder buf = new StringBuilder();
+      buf.append(quality).append('|').append(currentScale);
+      if (content != null && content.params != null) {
+         LoaderParameters params = content.params;
+         buf.append('|').append(params.scale).append('|').append(params.width).append('|').append(params.scaleLineWidth);
+         buf.append('|').append(params.applyViewportPosition).append('|').append(params.centerImage);
+         buf.append('|').append(params.rasterize).append('|').append(params.pixelRatio);
+         if (params.styleSheets != null) {
+            buf.append('|').append(params.styleSheets);
+         }
+      }
+      return buf.toString();
+   }
+
+   private Image toImageImpl(short quality, double width) {
       if (quality == ScaleQuality.RENDER_QUALITY) {
          SVGImage image = this.scaleTo(width);
          return image.toImage();
@@ -382,11 +630,14 @@ public class SVGImage extends Group {
    }
 
    /**
-    * Scale the image. If <code>createNew</code> is <code>true</code>, then return the initial SVGImage.
+    * Scale the image. If <code>createNew</code> is <code>false</code>, the Nodes of the initial SVGImage are replaced
+    * by the scaled Nodes and the initial SVGImage is returned, else a new SVGImage is returned. The scaled Nodes are
+    * built from the {@link #getDocument() document} of the image, so the svg content is not read nor parsed again, and
+    * the path data, transforms and points parsed from the elements of the document are reused.
     *
     * @param scale the scale factor
     * @param createNew true to create a new image
-    * @return the new image
+    * @return the scaled image
     */
    public SVGImage scale(double scale, boolean createNew) {
       if (content == null) {
@@ -395,32 +646,33 @@ public class SVGImage extends Group {
          this.currentScale = this.currentScale * scale;
          return this;
       } else {
-         SVGImage image;
-         if (content.params != null) {
-            LoaderParameters params = content.params.clone();
-            params.width = -1;
-            this.currentScale = this.currentScale * scale;
-            params.scale = this.currentScale;
-            if (content.isFromURL()) {
-               image = SVGLoader.load(content.url, params);
-            } else {
-               image = SVGLoader.load(content.content, params);
-            }
-         } else {
-            this.currentScale = this.currentScale * scale;
-            if (content.isFromURL()) {
-               image = SVGLoader.loadScaled(content.url, this.currentScale);
-            } else {
-               image = SVGLoader.loadScaled(content.content, this.currentScale);
-            }
+         double newScale = this.currentScale * scale;
+         LoaderParameters params = content.params != null ? content.params.clone() : new LoaderParameters();
+         params.width = -1;
+         params.scale = newScale;
+         // the image is built again from the parsed document, so that the svg content and the attributes are not parsed again
+         SVGImage image = load(params);
+         if (image == null) {
+            return null;
          }
-         if (!createNew) {
-            this.nodes.clear();
-            this.nodes.putAll(image.nodes);
-            this.animations.clear();
-            this.animations.addAll(image.animations);
+         image.currentScale = newScale;
+         if (createNew) {
+            return image;
          }
-         return image;
+         Iterator<Animation> it = animations.iterator();
+         while (it.hasNext()) {
+            it.next().stop();
+         }
+         this.currentScale = newScale;
+         this.getChildren().setAll(image.getChildren());
+         this.getTransforms().setAll(image.getTransforms());
+         this.setTranslateX(image.getTranslateX());
+         this.setTranslateY(image.getTranslateY());
+         this.nodes.clear();
+         this.nodes.putAll(image.nodes);
+         this.animations = image.animations;
+         this.rasterized = image.rasterized;
+         return this;
       }
    }
    /**
@@ -502,7 +754,7 @@ public class SVGImage extends Group {
       return snapshot(params, format, file);
    }
 
-   private WritableImage snapshotImpl(final SnapshotParameters params) {
+   WritableImage snapshotImpl(final SnapshotParameters params) {
       if (Platform.isFxApplicationThread()) {
          return snapshotImplInJFX(params);
       } else {
@@ -523,4 +775,136 @@ public class SVGImage extends Group {
          }
       }
    }
+
+   /**
+    * Take the snapshots of a list of images. All the snapshots are taken in one pass on the JavaFX Application
+    * Thread, rather than in one round-trip for each image. The returned futures are completed at the end of this
+    * pass. If this method is called on the JavaFX Application Thread, the snapshots are taken immediately.
+    *
+    * @param images the images
+    * @param params the parameters, shared by all the snapshots. If null, the default SnapshotParameters are used
+    * @return the future snapshots, in the order of the images
+    * @since 1.2
+    */
+   public static List<CompletableFuture<WritableImage>> snapshotAll(List<SVGImage> images, SnapshotParameters params) {
+      final List<SVGImage> list = new ArrayList<>(images);
+      final List<CompletableFuture<WritableImage>> futures = new ArrayList<>(list.size());
+      for (int i = 0; i < list.size(); i++) {
+         futures.add(new CompletableFuture<WritableImage>());
+      }
+      final SnapshotParameters theParams = getSnapshotParameters(params);
+      runInJFX(new Runnable() {
+         @Override
+         public void run() {
+            for (int i = 0; i < list.size(); i++) {
+               try {
+                  futures.get(i).complete(list.get(i).snapshot(theParams, null));
+               } catch (RuntimeException ex) {
+                  futures.get(i).completeExceptionally(ex);
+               }
+            }
+         }
+      });
+      return futures;
+   }
+
+   /**
+    * Take the snapshots of a list of images, and pass each of them to a consumer. All the snapshots are taken in one
+    * pass on the JavaFX Application Thread, and the consumer is called on this thread just after each snapshot. The
+    * same WritableImage is reused for all the snapshots which have the same size, so the consumer must copy or
+    * convert the snapshot if it needs to keep it. If this method is called on the JavaFX Application Thread, the
+    * snapshots are taken immediately.
+    *
+    * @param images the images
+    * @param params the parameters, shared by all the snapshots. If null, the default SnapshotParameters are used
+    * @param consumer the consumer
+    * @return the future which is completed when all the snapshots have been taken, or completed exceptionally with
+    * the first exception thrown by a snapshot or the consumer
+    * @since 1.2
+    */
+   public static CompletableFuture<Void> snapshotAll(List<SVGImage> images, SnapshotParameters params,
+      final BiConsumer<SVGImage, WritableImage> consumer) {
+      final List<SVGImage> list = new ArrayList<>(images);
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+      final SnapshotParameters theParams = getSnapshotParameters(params);
+      runInJFX(new Runnable() {
+         @Override
+         public void run() {
+            WritableImage scratch = null;
+            try {
+               Iterator<SVGImage> it = list.iterator();
+               while (it.hasNext()) {
+                  SVGImage image = it.next();
+                  Rectangle2D area = getSnapshotArea(image, theParams);
+                  if (scratch != null && scratch.getWidth() == area.getWidth() && scratch.getHeight() == area.getHeight()) {
+                     scratch = image.snapshot(theParams, scratch);
+                  } else {
+                     scratch = image.snapshot(theParams, null);
+                  }
+                  consumer.accept(image, scratch);
+               }
+               future.complete(null);
+            } catch (RuntimeException ex) {
+               future.completeExceptionally(ex);
+            }
+         }
+      });
+      return future;
+   }
+
+   private static SnapshotParameters getSnapshotParameters(SnapshotParameters params) {
+      if (params != null) {
+         return params;
+      } else if (SNAPSHOT_PARAMS != null) {
+         return SNAPSHOT_PARAMS;
+      } else {
+         return new SnapshotParameters();
+      }
+   }
+
+   /**
+    * Return the area in pixels which is rendered by the snapshot of a Node. The area is aligned on the pixels, as
+    * the snapshot is.
+    *
+    * @param node the Node
+    * @param params the parameters
+    * @return the area
+    */
+   private static Rectangle2D getSnapshotArea(Node node, SnapshotParameters params) {
+      double minX;
+      double minY;
+      double maxX;
+      double maxY;
+      Rectangle2D viewport = params.getViewport();
+      if (viewport != null) {
+         minX = viewport.getMinX();
+         minY = viewport.getMinY();
+         maxX = viewport.getMaxX();
+         maxY = viewport.getMaxY();
+      } else {
+         Bounds bounds = node.getBoundsInParent();
+         if (params.getTransform() != null) {
+            bounds = params.getTransform().transform(bounds);
+         }
+         minX = bounds.getMinX();
+         minY = bounds.getMinY();
+         maxX = bounds.getMaxX();
+         maxY = bounds.getMaxY();
+      }
+      double x = Math.floor(minX);
+      double y = Math.floor(minY);
+      double width = Math.max(Math.ceil(maxX) - x, 1);
+      double height = Math.max(Math.ceil(maxY) - y, 1);
+      return new Rectangle2D(x, y, width, height);
+   }
+
+   private static void runInJFX(Runnable runnable) {
+      if (Platform.isFxApplicationThread()) {
+         runnable.run();
+      } else {
+         // the next instruction is only there to initialize the JavaFX platform
+         new JFXPanel();
+         Platform.runLater(runnable);
+      }
+   }
 }
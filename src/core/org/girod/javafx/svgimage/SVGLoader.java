@@ -39,32 +39,49 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import javafx.animation.Animation;
 import javafx.application.ConditionalFeature;
 import javafx.application.Platform;
 import javafx.embed.swing.JFXPanel;
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.effect.Effect;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
 import javafx.scene.text.Text;
 import javafx.scene.transform.Transform;
+import javafx.stage.Screen;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import org.girod.javafx.svgimage.xml.builders.AnimationBuilder;
 import org.girod.javafx.svgimage.xml.specs.FilterSpec;
+import org.girod.javafx.svgimage.xml.specs.GradientResolver;
 import org.girod.javafx.svgimage.xml.specs.GradientSpec;
 import org.girod.javafx.svgimage.xml.builders.MarkerBuilder;
 import org.girod.javafx.svgimage.xml.specs.MarkerContext;
 import org.girod.javafx.svgimage.xml.specs.MarkerSpec;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
+import org.girod.javafx.svgimage.xml.parsers.PaintCache;
 import org.girod.javafx.svgimage.xml.parsers.SVGParsingException;
 import org.girod.javafx.svgimage.xml.builders.SVGShapeBuilder;
 import org.girod.javafx.svgimage.xml.builders.SVGStyleBuilder;
@@ -82,13 +99,22 @@ import org.xml.sax.SAXException;
 /**
  * This class allows to load a svg file and convert it to an Image or a JavaFX tree.
  *
- * @version 1.0
+ * <p>The svg content is parsed and the JavaFX tree is built on the calling thread. Only the start of the animations
+ * is performed on the JavaFX Application Thread.</p>
+ *
+ * @version 1.2
  */
 public class SVGLoader implements SVGTags {
+   private static final ThreadLocal<SAXParser> PARSERS = new ThreadLocal<>();
    private final SVGContent content;
    private final SVGImage root;
    private Viewport viewport = null;
    private final LoaderContext context;
+   private SVGDocument document = null;
+   /**
+    * The groups which are built while the document is parsed, in the streaming mode.
+    */
+   private Map<XMLNode, Group> streamedGroups = null;
 
    private SVGLoader(URL url, LoaderParameters params) {
       this.content = new SVGContent(url, params);
@@ -102,6 +128,17 @@ public class SVGLoader implements SVGTags {
       this.context = new LoaderContext(root, params, this.content.url);
    }
 
+   private SVGLoader(SVGDocument document, LoaderParameters params) {
+      if (document.isFromURL()) {
+         this.content = new SVGContent(document.getURL(), params);
+      } else {
+         this.content = new SVGContent(document.getContent(), params);
+      }
+      this.root = new SVGImage(this.content);
+      this.context = new LoaderContext(root, params, this.content.url);
+      this.document = document;
+   }
+
    /**
     * Load a svg File.
     *
@@ -408,18 +445,209 @@ public class SVGLoader implements SVGTags {
    public static SVGImage load(URL url, LoaderParameters params) throws SVGParsingException {
       SVGLoader loader = new SVGLoader(url, params);
       SVGImage img = loader.loadImpl();
-      if (params.centerImage) {
-         double theWidth = img.getLayoutBounds().getWidth();
-         double theHeight = img.getLayoutBounds().getHeight();
-         img.setTranslateX(-theWidth / 2);
-         img.setTranslateY(-theHeight / 2);
-      }
-      if (params.styleSheets != null) {
-         img.getStylesheets().add(params.styleSheets);
+      loader.applyParameters(img);
+      return img;
+   }
+
+   /**
+    * Parse a svg File without building the JavaFX tree. The resulting document can be used to create any number
+    * of images, at any scale, without parsing the svg content again.
+    *
+    * @param file the file
+    * @return the document
+    * @throws SVGParsingException if the file cannot be converted to a URL
+    */
+   public static SVGDocument loadDocument(File file) throws SVGParsingException {
+      try {
+         URL url = file.toURI().toURL();
+         return loadDocument(url);
+      } catch (MalformedURLException ex) {
+         throw new SVGParsingException(ex);
       }
+   }
+
+   /**
+    * Parse a svg URL without building the JavaFX tree. The resulting document can be used to create any number
+    * of images, at any scale, without parsing the svg content again.
+    *
+    * @param url the URL
+    * @return the document
+    * @throws SVGParsingException if the SVGLoader cannot be initialized
+    */
+   public static SVGDocument loadDocument(URL url) throws SVGParsingException {
+      SVGLoader loader = new SVGLoader(url, new LoaderParameters());
+      return loader.loadDocumentImpl();
+   }
+
+   /**
+    * Parse a svg content without building the JavaFX tree. The resulting document can be used to create any number
+    * of images, at any scale, without parsing the svg content again.
+    *
+    * @param content the content
+    * @return the document
+    * @throws SVGParsingException if the SVGLoader cannot be initialized
+    */
+   public static SVGDocument loadDocument(String content) throws SVGParsingException {
+      SVGLoader loader = new SVGLoader(content, new LoaderParameters());
+      return loader.loadDocumentImpl();
+   }
+
+   /**
+    * Create an image from a parsed svg document.
+    *
+    * @param document the document
+    * @return the SVGImage
+    * @throws SVGParsingException if the SVGLoader cannot be initialized
+    */
+   public static SVGImage load(SVGDocument document) throws SVGParsingException {
+      return load(document, new LoaderParameters());
+   }
+
+   /**
+    * Create an image from a parsed svg document, using a LoaderParameters.
+    *
+    * @param document the document
+    * @param params the parameters
+    * @return the SVGImage
+    * @throws SVGParsingException if the SVGLoader cannot be initialized
+    */
+   public static SVGImage load(SVGDocument document, LoaderParameters params) throws SVGParsingException {
+      SVGLoader loader = new SVGLoader(document, params);
+      SVGImage img = loader.loadImpl();
+      loader.applyParameters(img);
       return img;
    }
 
+   /**
+    * Load a svg File asynchronously. The svg content is parsed and the JavaFX tree is built on the executor.
+    * If the svg content can not be parsed, the returned future completes exceptionally with a {@link SVGParsingException}.
+    * Cancelling the future before the tree has been built abandons the load.
+    *
+    * @param file the file
+    * @param params the parameters
+    * @param executor the executor
+    * @return the future SVGImage
+    */
+   public static CompletableFuture<SVGImage> loadAsync(File file, LoaderParameters params, Executor executor) {
+      try {
+         URL url = file.toURI().toURL();
+         return loadAsync(url, params, executor);
+      } catch (MalformedURLException ex) {
+         CompletableFuture<SVGImage> future = new CompletableFuture<>();
+         future.completeExceptionally(new SVGParsingException(ex));
+         return future;
+      }
+   }
+
+   /**
+    * Load a svg URL asynchronously. The svg content is parsed and the JavaFX tree is built on the executor.
+    * If the svg content can not be parsed, the returned future completes exceptionally with a {@link SVGParsingException}.
+    * Cancelling the future before the tree has been built abandons the load.
+    *
+    * @param url the URL
+    * @param params the parameters
+    * @param executor the executor
+    * @return the future SVGImage
+    */
+   public static CompletableFuture<SVGImage> loadAsync(URL url, LoaderParameters params, Executor executor) {
+      SVGLoader loader = new SVGLoader(url, params);
+      return loader.loadAsyncImpl(executor);
+   }
+
+   /**
+    * Load a svg content asynchronously. The svg content is parsed and the JavaFX tree is built on the executor.
+    * If the svg content can not be parsed, the returned future completes exceptionally with a {@link SVGParsingException}.
+    * Cancelling the future before the tree has been built abandons the load.
+    *
+    * @param content the content
+    * @param params the parameters
+    * @param executor the executor
+    * @return the future SVGImage
+    */
+   public static CompletableFuture<SVGImage> loadAsync(String content, LoaderParameters params, Executor executor) {
+      SVGLoader loader = new SVGLoader(content, params);
+      return loader.loadAsyncImpl(executor);
+   }
+
+   /**
+    * Load a collection of svg URLs. The svg contents are parsed and the JavaFX trees are built in parallel on the
+    * common ForkJoinPool, and the returned future is completed on the JavaFX Application Thread in one pass once all
+    * the images have been built. The URLs which can not be loaded are handled as for the {@link #load(URL, LoaderParameters)}
+    * method, and their image is null in the resulting list. If a URL is present several times in the collection, it
+    * is loaded for each of its occurrences.
+    *
+    * @param urls the URLs
+    * @param params the parameters
+    * @return the future images, in the order of the URLs
+    */
+   public static CompletableFuture<List<SVGImage>> loadAll(Collection<URL> urls, final LoaderParameters params) {
+      initializePlatform();
+      final List<URL> list = new ArrayList<>(urls);
+      final CompletableFuture<List<SVGImage>> future = new CompletableFuture<>();
+      ForkJoinPool.commonPool().execute(new RecursiveAction() {
+         @Override
+         protected void compute() {
+            try {
+               loadAllImpl(list, params, future);
+            } catch (Throwable th) {
+               future.completeExceptionally(th instanceof SVGParsingException ? th : new SVGParsingException(th));
+            }
+         }
+      });
+      return future;
+   }
+
+   private static void loadAllImpl(List<URL> list, LoaderParameters params, final CompletableFuture<List<SVGImage>> future) {
+      final AtomicReference<SVGParsingException> failure = new AtomicReference<>();
+      List<SVGLoader> loaders = new ArrayList<>(list.size());
+      List<ForkJoinTask<SVGImage>> tasks = new ArrayList<>(list.size());
+      Iterator<URL> it = list.iterator();
+      while (it.hasNext()) {
+         final SVGLoader loader = new SVGLoader(it.next(), params);
+         loaders.add(loader);
+         tasks.add(ForkJoinTask.adapt(new Callable<SVGImage>() {
+            @Override
+            public SVGImage call() {
+               try {
+                  return loader.loadInBatch();
+               } catch (SVGParsingException ex) {
+                  failure.compareAndSet(null, ex);
+                  return null;
+               }
+            }
+         }));
+      }
+      ForkJoinTask.invokeAll(tasks);
+      if (failure.get() != null) {
+         future.completeExceptionally(failure.get());
+         return;
+      }
+      final List<SVGImage> images = new ArrayList<>(tasks.size());
+      final List<SVGLoader> loaded = new ArrayList<>(loaders.size());
+      for (int i = 0; i < tasks.size(); i++) {
+         SVGImage img = tasks.get(i).join();
+         images.add(img);
+         if (img != null) {
+            loaded.add(loaders.get(i));
+         }
+      }
+      Platform.runLater(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               Iterator<SVGLoader> it = loaded.iterator();
+               while (it.hasNext()) {
+                  SVGLoader loader = it.next();
+                  loader.startAnimations(loader.root);
+               }
+               future.complete(images);
+            } catch (Throwable th) {
+               future.completeExceptionally(new SVGParsingException(th));
+            }
+         }
+      });
+   }
+
    private void setViewportScaleImpl(Viewport viewport, LoaderParameters params) {
       if (params.scale > 0) {
          viewport.setScale(params.scale, params.scaleLineWidth);
@@ -441,86 +669,345 @@ public class SVGLoader implements SVGTags {
    public static SVGImage load(String content, LoaderParameters params) throws SVGParsingException {
       SVGLoader loader = new SVGLoader(content, params);
       SVGImage img = loader.loadImpl();
-      if (params.centerImage) {
-         double theWidth = img.getLayoutBounds().getWidth();
-         double theHeight = img.getLayoutBounds().getHeight();
-         img.setTranslateX(-theWidth / 2);
-         img.setTranslateY(-theHeight / 2);
-      }
-      if (params.styleSheets != null) {
-         img.getStylesheets().add(params.styleSheets);
-      }
+      loader.applyParameters(img);
       return img;
    }
 
    private SVGImage loadImpl() throws SVGParsingException {
-      if (Platform.isFxApplicationThread()) {
-         try {
-            return loadImplInJFX();
-         } catch (Exception ex) {
-            GlobalConfig.getInstance().handleParsingException(ex);
-            return null;
+      initializePlatform();
+      try {
+         SVGImage img = parseAndBuild();
+         startAnimations(img);
+         return img;
+      } catch (Exception ex) {
+         GlobalConfig.getInstance().handleParsingException(ex);
+         return null;
+      }
+   }
+
+   private SVGDocument loadDocumentImpl() throws SVGParsingException {
+      try {
+         return parse();
+      } catch (Exception ex) {
+         GlobalConfig.getInstance().handleParsingException(ex);
+         return null;
+      }
+   }
+
+   private SVGImage loadInBatch() throws SVGParsingException {
+      try {
+         SVGImage img = parseAndBuild();
+         applyParameters(img);
+         return img;
+      } catch (Exception ex) {
+         GlobalConfig.getInstance().handleParsingException(ex);
+         return null;
+      }
+   }
+
+   private CompletableFuture<SVGImage> loadAsyncImpl(Executor executor) {
+      final CompletableFuture<SVGImage> future = new CompletableFuture<>();
+      Runnable task = new Runnable() {
+         @Override
+         public void run() {
+            if (future.isDone()) {
+               return;
+            }
+            try {
+               initializePlatform();
+               SVGImage img;
+               if (isStreaming()) {
+                  img = buildStreaming();
+               } else {
+                  SVGDocument doc = parse();
+                  if (future.isDone()) {
+                     return;
+                  }
+                  img = build(doc);
+               }
+               applyParameters(img);
+               if (future.complete(img)) {
+                  startAnimations(img);
+               }
+            } catch (SVGParsingException ex) {
+               future.completeExceptionally(ex);
+            } catch (Exception ex) {
+               future.completeExceptionally(new SVGParsingException(ex));
+            }
          }
-      } else {
+      };
+      try {
+         executor.execute(task);
+      } catch (RejectedExecutionException ex) {
+         future.completeExceptionally(ex);
+      }
+      return future;
+   }
+
+   private static void initializePlatform() {
+      if (!Platform.isFxApplicationThread()) {
          // the next instruction is only there to initialize the JavaFX platform
          new JFXPanel();
-         FutureTask<SVGImage> future = new FutureTask<>(new Callable<SVGImage>() {
-            @Override
-            public SVGImage call() throws Exception {
-               SVGImage img = loadImplInJFX();
-               return img;
-            }
-         });
-         Platform.runLater(future);
-         try {
-            return future.get();
-         } catch (InterruptedException ex) {
-            return null;
-         } catch (ExecutionException ex) {
-            Throwable th = ex.getCause();
-            GlobalConfig.getInstance().handleParsingException(th);
-            return null;
-         }
       }
    }
 
-   private SVGImage loadImplInJFX() throws IOException {
-      context.effectsSupported = Platform.isSupported(ConditionalFeature.EFFECT);
+   /**
+    * Return the SAXParser of the current thread, creating it the first time this method is called on the thread.
+    *
+    * @return the parser
+    */
+   private static SAXParser getParser() throws ParserConfigurationException, SAXException {
+      SAXParser parser = PARSERS.get();
+      if (parser == null) {
+         parser = createParser();
+         PARSERS.set(parser);
+      } else {
+         parser.reset();
+      }
+      return parser;
+   }
+
+   /**
+    * Create a SAXParser which does not load the external DTDs.
+    *
+    * @return the parser
+    */
+   private static SAXParser createParser() throws ParserConfigurationException, SAXException {
       SAXParserFactory saxfactory = SAXParserFactory.newInstance();
-      try {
-         // see https://stackoverflow.com/questions/10257576/how-to-ignore-inline-dtd-when-parsing-xml-file-in-java
-         saxfactory.setFeature("http://xml.org/sax/features/resolve-dtd-uris", false);
-         saxfactory.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
-         saxfactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-         SAXParser parser = saxfactory.newSAXParser();
-         XMLTreeHandler handler = new XMLTreeHandler();
-         if (content.url != null) {
-            parser.parse(content.url.openStream(), handler);
-         } else {
-            InputStream stream = new ByteArrayInputStream(content.content.getBytes());
+      // see https://stackoverflow.com/questions/10257576/how-to-ignore-inline-dtd-when-parsing-xml-file-in-java
+      saxfactory.setFeature("http://xml.org/sax/features/resolve-dtd-uris", false);
+      saxfactory.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
+      saxfactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+      return saxfactory.newSAXParser();
+   }
+
+   /**
+    * Return the parsed svg document. The document is parsed only if the loader was not created from an existing
+    * document, and if it is not in the document cache specified by the parameters. This step can be performed
+    * on any thread.
+    *
+    * @return the document
+    */
+   private SVGDocument parse() throws IOException, ParserConfigurationException, SAXException {
+      if (document != null) {
+         return document;
+      }
+      SVGDocumentCache cache = context.params.documentCache;
+      if (cache == null) {
+         return parse(null);
+      }
+      SVGDocumentCache.DocumentKey key = SVGDocumentCache.createKey(content);
+      SVGDocument doc = cache.get(key);
+      if (doc == null) {
+         doc = parse(key.bytes);
+         cache.put(key, doc);
+      }
+      return doc;
+   }
+
+   private SVGDocument parse(byte[] bytes) throws IOException, ParserConfigurationException, SAXException {
+      XMLTreeHandler handler = new XMLTreeHandler();
+      handler.setStyleCache(context.styleCache);
+      parse(bytes, handler);
+      return new SVGDocument(content.url, content.content, handler.getRoot());
+   }
+
+   private void parse(byte[] bytes, XMLTreeHandler handler) throws IOException, ParserConfigurationException, SAXException {
+      SAXParser parser = getParser();
+      if (bytes != null) {
+         parser.parse(new ByteArrayInputStream(bytes), handler);
+      } else if (content.url != null) {
+         try (InputStream stream = content.url.openStream()) {
             parser.parse(stream, handler);
          }
-         SVGImage img = walk(handler.getRoot());
-         if (img != null) {
-            if (!context.animations.isEmpty()) {
-               img.setAnimations(context.animations);
-               if (context.params.autoStartAnimations) {
-                  context.playAnimations();
-               }
-            }
-            if (context.params.applyViewportPosition) {
-               Transform transform = Transform.translate(-viewport.getViewboxX(), -viewport.getViewboxY());
-               img.getTransforms().add(transform);
-            }
+      } else {
+         InputStream stream = new ByteArrayInputStream(content.content.getBytes());
+         parser.parse(stream, handler);
+      }
+   }
+
+   /**
+    * Return true if the image must be built while the svg content is parsed.
+    *
+    * @return true if the image must be built while the svg content is parsed
+    */
+   private boolean isStreaming() {
+      return document == null && context.params.streamingBuild;
+   }
+
+   private SVGImage parseAndBuild() throws IOException, ParserConfigurationException, SAXException {
+      if (isStreaming()) {
+         return buildStreaming();
+      } else {
+         SVGDocument doc = parse();
+         return build(doc);
+      }
+   }
+
+   /**
+    * Build the JavaFX tree while the svg content is parsed. The children of the root and of the groups without an id
+    * are built as soon as their element is closed, and are then removed from the XML tree. The elements which can be
+    * referenced later on (definitions, symbols, markers, clip paths, and elements with an id) are kept by the
+    * loader context. No document is retained or cached in this mode.
+    *
+    * @return the SVGImage
+    */
+   private SVGImage buildStreaming() throws IOException, ParserConfigurationException, SAXException {
+      context.effectsSupported = Platform.isSupported(ConditionalFeature.EFFECT);
+      streamedGroups = new IdentityHashMap<>();
+      try {
+         StreamingTreeHandler handler = new StreamingTreeHandler();
+         handler.setStyleCache(context.styleCache);
+         parse(null, handler);
+      } finally {
+         streamedGroups = null;
+      }
+      completeBuild(root);
+      return root;
+   }
+
+   /**
+    * Build the JavaFX tree from the parsed svg content. The nodes are not part of a Scene yet, so this step
+    * can be performed on any thread once the JavaFX platform has been initialized. The animations are not started
+    * by this method.
+    *
+    * @param doc the document
+    * @return the SVGImage
+    */
+   private SVGImage build(SVGDocument doc) {
+      context.effectsSupported = Platform.isSupported(ConditionalFeature.EFFECT);
+      document = doc;
+      if (context.params.rasterize) {
+         RasterImage raster = doc.getRasterImage(getRasterKey());
+         if (raster != null) {
+            root.setRasterImage(raster);
+            root.setDocument(doc);
+            return root;
          }
-         return img;
-      } catch (ParserConfigurationException | SAXException ex) {
-         GlobalConfig.getInstance().handleParsingException(ex);
-         return null;
       }
+      SVGImage img = walk(doc.getRoot());
+      if (img != null) {
+         img.setDocument(doc);
+         completeBuild(img);
+      }
+      return img;
+   }
+
+   private void completeBuild(SVGImage img) {
+      if (context.params.flattenTree) {
+         Set<Node> preservedNodes = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+         preservedNodes.addAll(img.getNamedNodes());
+         preservedNodes.addAll(context.animatedNodes);
+         NodeFlattener flattener = new NodeFlattener(preservedNodes);
+         flattener.flatten(img);
+      }
+      if (!context.animations.isEmpty()) {
+         img.setAnimations(context.animations);
+      }
+      if (context.params.applyViewportPosition) {
+         Transform transform = Transform.translate(-viewport.getViewboxX(), -viewport.getViewboxY());
+         img.getTransforms().add(transform);
+      }
+   }
+
+   /**
+    * Start the animations of the image if the parameters ask for it. The animations are started on the
+    * JavaFX Application Thread.
+    *
+    * @param img the image
+    */
+   private void startAnimations(SVGImage img) {
+      if (img != null && context.params.autoStartAnimations && !context.animations.isEmpty()) {
+         img.playAnimations();
+      }
+   }
+
+   private void applyParameters(SVGImage img) {
+      if (img == null) {
+         return;
+      }
+      LoaderParameters params = context.params;
+      if (params.styleSheets != null) {
+         img.getStylesheets().add(params.styleSheets);
+      }
+      if (params.rasterize) {
+         rasterize(img);
+      }
+      if (params.centerImage) {
+         double theWidth = img.getLayoutBounds().getWidth();
+         double theHeight = img.getLayoutBounds().getHeight();
+         img.setTranslateX(-theWidth / 2);
+         img.setTranslateY(-theHeight / 2);
+      }
+   }
+
+   private double getPixelRatio() {
+      double pixelRatio = context.params.pixelRatio;
+      if (pixelRatio <= 0) {
+         pixelRatio = Screen.getPrimary().getOutputScaleX();
+      }
+      return pixelRatio;
+   }
+
+   /**
+    * Return the key of the rasterized images of the document. It contains the parameters which have an effect
+    * on the rendering.
+    *
+    * @return the key
+    */
+   private String getRasterKey() {
+      LoaderParameters params = context.params;
+      StringBuilder buf = new StringBuilder();
+      buf.append(params.scale).append('|').append(params.width).append('|').append(params.scaleLineWidth);
+      buf.append('|').append(params.applyViewportPosition).append('|').append(getPixelRatio());
+      if (params.styleSheets != null) {
+         buf.append('|').append(params.styleSheets);
+      }
+      return buf.toString();
+   }
+
+   /**
+    * Replace the Nodes tree of an image by a rasterized image. The image is rendered at the pixel ratio of the
+    * parameters, and is kept by the document if there is one.
+    *
+    * @param img the image
+    */
+   private void rasterize(SVGImage img) {
+      if (img.isRasterized() || !context.animations.isEmpty()) {
+         return;
+      }
+      double pixelRatio = getPixelRatio();
+      Bounds bounds = img.getBoundsInParent();
+      if (bounds.isEmpty()) {
+         return;
+      }
+      // the rendered area is aligned on the pixels so that the image is not resampled when it is shown
+      double minX = Math.floor(bounds.getMinX() * pixelRatio);
+      double minY = Math.floor(bounds.getMinY() * pixelRatio);
+      double width = Math.ceil(bounds.getMaxX() * pixelRatio) - minX;
+      double height = Math.ceil(bounds.getMaxY() * pixelRatio) - minY;
+      SnapshotParameters snapshotParams = new SnapshotParameters();
+      snapshotParams.setFill(Color.TRANSPARENT);
+      snapshotParams.setTransform(Transform.scale(pixelRatio, pixelRatio));
+      snapshotParams.setViewport(new Rectangle2D(minX, minY, width, height));
+      WritableImage image = img.snapshotImpl(snapshotParams);
+      if (image == null) {
+         return;
+      }
+      RasterImage raster = new RasterImage(image, minX / pixelRatio, minY / pixelRatio, width / pixelRatio, height / pixelRatio);
+      if (document != null) {
+         document.putRasterImage(getRasterKey(), raster);
+      }
+      img.setRasterImage(raster);
    }
 
    private SVGImage walk(XMLRoot xmlRoot) {
+      startWalk(xmlRoot);
+      buildNode(xmlRoot, root);
+      return root;
+   }
+
+   private void startWalk(XMLRoot xmlRoot) {
       String name = xmlRoot.getName();
       if (name.equals(SVG)) {
          if (viewport == null) {
@@ -528,12 +1015,11 @@ public class SVGLoader implements SVGTags {
             setViewportScaleImpl(viewport, context.params);
             context.viewport = viewport;
             if (viewport != null) {
+               viewport.setFuseTransforms(context.params.fuseTransforms);
                viewport.scaleNode(root);
             }
          }
       }
-      buildNode(xmlRoot, root);
-      return root;
    }
 
    private void buildNode(XMLNode xmlNode, Group group) {
@@ -569,6 +1055,7 @@ public class SVGLoader implements SVGTags {
       if (node != null && xmlNode.hasAttribute(ID)) {
          String id = xmlNode.getAttributeValue(ID);
          context.addNamedNode(id, xmlNode);
+         root.putNode(id, node);
       }
    }
 
@@ -597,167 +1084,169 @@ public class SVGLoader implements SVGTags {
       if (group == null) {
          group = new Group();
       }
-      List<XMLNode> animations = new ArrayList<>();
       Iterator<XMLNode> it = xmlNode.getChildren().iterator();
       while (it.hasNext()) {
          XMLNode childNode = it.next();
-         List<? extends Node> nodes = null;
-         SpanGroup spanGroup = null;
-         String name = childNode.getName();
-         switch (name) {
-            case STYLE:
-               manageSVGStyle(childNode);
-               break;
-            case RECT:
-               Node node = SVGShapeBuilder.buildRect(childNode, null, null, viewport);
-               addNamedNode(childNode, node);
-               animations = lookForAnimations(childNode, node, viewport);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case CIRCLE:
-               node = SVGShapeBuilder.buildCircle(childNode, null, null, viewport);
-               addNamedNode(childNode, node);
-               animations = lookForAnimations(childNode, node, viewport);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case ELLIPSE:
-               node = SVGShapeBuilder.buildEllipse(childNode, null, null, viewport);
-               addNamedNode(childNode, node);
-               animations = lookForAnimations(childNode, node, viewport);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case PATH:
-               boolean hasFill = SVGStyleBuilder.hasFill(childNode);
-               nodes = SVGShapeBuilder.buildPath(childNode, null, null, viewport, hasFill);
-               if (nodes != null) {
-                  Iterator<? extends Node> it2 = nodes.iterator();
-                  while (it2.hasNext()) {
-                     node = it2.next();
-                     addNamedNode(childNode, node);
-                     animations = lookForAnimations(childNode, node, viewport);
-                  }
-               }
-               break;
-            case POLYGON:
-               node = SVGShapeBuilder.buildPolygon(childNode, null, null, viewport);
-               addNamedNode(childNode, node);
-               animations = lookForAnimations(childNode, node, viewport);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case LINE:
-               node = SVGShapeBuilder.buildLine(childNode, null, null, viewport);
-               addNamedNode(childNode, node);
-               animations = lookForAnimations(childNode, node, viewport);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case POLYLINE:
-               node = SVGShapeBuilder.buildPolyline(childNode, null, null, viewport);
-               addNamedNode(childNode, node);
-               animations = lookForAnimations(childNode, node, viewport);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case USE:
-               nodes = SVGShapeBuilder.buildUse(childNode, context, null, viewport);
-               break;
-            case TEXT:
-               node = SVGShapeBuilder.buildText(childNode, null, null, viewport);
-               if (node == null) {
-                  spanGroup = SVGShapeBuilder.buildTSpanGroup(childNode, null, null, viewport);
-                  addNamedNode(childNode, spanGroup.getTextGroup());
-                  animations = lookForAnimations(childNode, spanGroup.getTextGroup(), viewport);
-               } else {
+         buildChild(childNode, group, acceptDefs);
+      }
+   }
+
+   private void buildChild(XMLNode childNode, Group group, boolean acceptDefs) {
+      List<XMLNode> animations = new ArrayList<>();
+      List<? extends Node> nodes = null;
+      SpanGroup spanGroup = null;
+      String name = childNode.getName();
+      switch (name) {
+         case STYLE:
+            manageSVGStyle(childNode);
+            break;
+         case RECT:
+            Node node = SVGShapeBuilder.buildRect(childNode, null, null, viewport);
+            addNamedNode(childNode, node);
+            animations = lookForAnimations(childNode, node, viewport);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case CIRCLE:
+            node = SVGShapeBuilder.buildCircle(childNode, null, null, viewport);
+            addNamedNode(childNode, node);
+            animations = lookForAnimations(childNode, node, viewport);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case ELLIPSE:
+            node = SVGShapeBuilder.buildEllipse(childNode, null, null, viewport);
+            addNamedNode(childNode, node);
+            animations = lookForAnimations(childNode, node, viewport);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case PATH:
+            boolean hasFill = SVGStyleBuilder.hasFill(childNode, context.styleCache);
+            nodes = SVGShapeBuilder.buildPath(childNode, null, null, viewport, hasFill);
+            if (nodes != null) {
+               Iterator<? extends Node> it2 = nodes.iterator();
+               while (it2.hasNext()) {
+                  node = it2.next();
                   addNamedNode(childNode, node);
                   animations = lookForAnimations(childNode, node, viewport);
                }
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case IMAGE:
-               node = SVGShapeBuilder.buildImage(childNode, content.url, null, null, viewport);
-               addNamedNode(childNode, node);
-               animations = lookForAnimations(childNode, node, viewport);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case SVG:
-               if (viewport == null) {
-                  viewport = ParserUtils.parseViewport(childNode);
-                  context.viewport = viewport;
-               }
-               node = buildGroup(childNode);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case G:
-               node = buildGroup(childNode);
+            }
+            break;
+         case POLYGON:
+            node = SVGShapeBuilder.buildPolygon(childNode, null, null, viewport);
+            addNamedNode(childNode, node);
+            animations = lookForAnimations(childNode, node, viewport);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case LINE:
+            node = SVGShapeBuilder.buildLine(childNode, null, null, viewport);
+            addNamedNode(childNode, node);
+            animations = lookForAnimations(childNode, node, viewport);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case POLYLINE:
+            node = SVGShapeBuilder.buildPolyline(childNode, null, null, viewport);
+            addNamedNode(childNode, node);
+            animations = lookForAnimations(childNode, node, viewport);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case USE:
+            nodes = SVGShapeBuilder.buildUse(childNode, context, null, viewport);
+            break;
+         case TEXT:
+            node = SVGShapeBuilder.buildText(childNode, null, null, viewport);
+            if (node == null) {
+               spanGroup = SVGShapeBuilder.buildTSpanGroup(childNode, null, null, viewport);
+               addNamedNode(childNode, spanGroup.getTextGroup());
+               animations = lookForAnimations(childNode, spanGroup.getTextGroup(), viewport);
+            } else {
                addNamedNode(childNode, node);
                animations = lookForAnimations(childNode, node, viewport);
-               nodes = ParserUtils.createNodeList(node);
-               break;
-            case SYMBOL:
-               addSymbol(childNode);
+            }
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case IMAGE:
+            node = SVGShapeBuilder.buildImage(childNode, content.url, null, null, viewport);
+            addNamedNode(childNode, node);
+            animations = lookForAnimations(childNode, node, viewport);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case SVG:
+            if (viewport == null) {
+               viewport = ParserUtils.parseViewport(childNode);
+               viewport.setFuseTransforms(context.params.fuseTransforms);
+               context.viewport = viewport;
+            }
+            node = buildGroup(childNode);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case G:
+            node = buildGroup(childNode);
+            addNamedNode(childNode, node);
+            animations = lookForAnimations(childNode, node, viewport);
+            nodes = ParserUtils.createNodeList(node);
+            break;
+         case SYMBOL:
+            addSymbol(childNode);
+            break;
+         case MARKER:
+            addMarker(childNode);
+            break;
+         case DEFS:
+            if (!acceptDefs) {
+               buildDefs(childNode);
                break;
-            case MARKER:
-               addMarker(childNode);
+            }
+         case CLIP_PATH_SPEC:
+            buildClipPath(childNode);
+            break;
+         case LINEAR_GRADIENT:
+            if (acceptDefs) {
+               SVGShapeBuilder.buildLinearGradient(context.gradientSpecs, context.gradients, childNode, viewport);
                break;
-            case DEFS:
-               if (!acceptDefs) {
-                  buildDefs(childNode);
-                  break;
-               }
-            case CLIP_PATH_SPEC:
-               buildClipPath(childNode);
+            }
+         case RADIAL_GRADIENT:
+            if (acceptDefs) {
+               SVGShapeBuilder.buildRadialGradient(context.gradientSpecs, context.gradients, childNode, viewport);
                break;
-            case LINEAR_GRADIENT:
-               if (acceptDefs) {
-                  SVGShapeBuilder.buildLinearGradient(context.gradientSpecs, context.gradients, childNode, viewport);
-                  break;
-               }
-            case RADIAL_GRADIENT:
-               if (acceptDefs) {
-                  SVGShapeBuilder.buildRadialGradient(context.gradientSpecs, context.gradients, childNode, viewport);
-                  break;
+            }
+         case FILTER:
+            buildFilter(childNode);
+            break;
+      }
+      if (nodes != null) {
+         Iterator<? extends Node> it2 = nodes.iterator();
+         while (it2.hasNext()) {
+            Node node = it2.next();
+            group.getChildren().add(node);
+            addStyles(group, node, childNode, false);
+            if (!animations.isEmpty()) {
+               List<Animation> animationsList = AnimationBuilder.buildAnimations(childNode, node, animations, viewport);
+               if (animationsList != null) {
+                  context.addAnimations(node, animationsList);
                }
-            case FILTER:
-               buildFilter(childNode);
-               break;
+            }
          }
-         if (nodes != null) {
-            Iterator<? extends Node> it2 = nodes.iterator();
-            while (it2.hasNext()) {
-               Node node = it2.next();
-               group.getChildren().add(node);
-               addStyles(group, node, childNode, false);
-               if (!animations.isEmpty()) {
-                  List<Animation> animationsList = AnimationBuilder.buildAnimations(childNode, node, animations, viewport);
-                  if (animationsList != null) {
-                     context.addAnimations(animationsList);
-                  }
-               }
+      } else if (spanGroup != null) {
+         TransformUtils.setTransforms(spanGroup.getTextGroup(), childNode, viewport);
+         Iterator<SpanGroup.TSpan> it2 = spanGroup.getSpans().iterator();
+         SpanGroup.TSpan previous = null;
+         while (it2.hasNext()) {
+            SpanGroup.TSpan tspan = it2.next();
+            Text tspanText = tspan.text;
+            addStyles(group, tspanText, tspan.node, true);
+            if (tspan.node.hasAttribute(BASELINE_SHIFT)) {
+               // http://www.svgbasics.com/font_effects_italic.html
+               // https://stackoverflow.com/questions/50295199/javafx-subscript-and-superscript-text-in-textflow
+               String shiftValue = tspan.node.getAttributeValue(BASELINE_SHIFT);
+               ParserUtils.setBaselineShift(tspanText, shiftValue);
             }
-         } else if (spanGroup != null) {
-            TransformUtils.setTransforms(spanGroup.getTextGroup(), childNode, viewport);
-            Map<String, String> theStylesMap = ParserUtils.getStyles(childNode);
-            Iterator<SpanGroup.TSpan> it2 = spanGroup.getSpans().iterator();
-            SpanGroup.TSpan previous = null;
-            while (it2.hasNext()) {
-               SpanGroup.TSpan tspan = it2.next();
-               Text tspanText = tspan.text;
-               String theStyles = ParserUtils.mergeStyles(theStylesMap, tspan.node);
-               tspan.node.addAttribute(STYLE, theStyles);
-               addStyles(group, tspanText, tspan.node, true);
-               if (tspan.node.hasAttribute(BASELINE_SHIFT)) {
-                  // http://www.svgbasics.com/font_effects_italic.html
-                  // https://stackoverflow.com/questions/50295199/javafx-subscript-and-superscript-text-in-textflow
-                  String shiftValue = tspan.node.getAttributeValue(BASELINE_SHIFT);
-                  ParserUtils.setBaselineShift(tspanText, shiftValue);
-               }
-               // https://vanseodesign.com/web-design/svg-text-tspan-element/
-               if (!ParserUtils.hasXPosition(tspan.node) && previous != null) {
-                  double width = previous.text.getLayoutBounds().getWidth();
-                  tspanText.setLayoutX(width + previous.text.getLayoutX());
-               }
-               previous = tspan;
+            // https://vanseodesign.com/web-design/svg-text-tspan-element/
+            if (!ParserUtils.hasXPosition(tspan.node) && previous != null) {
+               double width = previous.text.getLayoutBounds().getWidth();
+               tspanText.setLayoutX(width + previous.text.getLayoutX());
             }
-            group.getChildren().add(spanGroup.getTextGroup());
+            previous = tspan;
          }
+         group.getChildren().add(spanGroup.getTextGroup());
       }
    }
 
@@ -775,10 +1264,12 @@ public class SVGLoader implements SVGTags {
    }
 
    private void manageSVGStyle(XMLNode xmlNode) {
-      if (context.svgStyle == null) {
-         String cdata = xmlNode.getCDATA();
-         if (cdata != null) {
+      String cdata = xmlNode.getCDATA();
+      if (cdata != null) {
+         if (context.svgStyle == null) {
             context.svgStyle = SVGStyleBuilder.parseStyle(cdata, viewport);
+         } else {
+            SVGStyleBuilder.parseStyle(context.svgStyle, cdata, viewport);
          }
       }
    }
@@ -787,21 +1278,40 @@ public class SVGLoader implements SVGTags {
       buildNode(xmlNode, null, true);
       if (!context.gradientSpecs.isEmpty()) {
          Map<String, GradientSpec> specs = context.gradientSpecs;
-         Iterator<GradientSpec> it = specs.values().iterator();
-         while (it.hasNext()) {
-            GradientSpec spec = it.next();
-            spec.resolve(specs, viewport);
+         // the gradients are immutable, so they are shared by all the images created from the same document at the same scale
+         Map<String, Paint> documentGradients = null;
+         if (document != null && viewport != null) {
+            documentGradients = document.getGradients(viewport.getScale());
          }
-         Iterator<Entry<String, GradientSpec>> it2 = specs.entrySet().iterator();
-         while (it2.hasNext()) {
-            Entry<String, GradientSpec> entry = it2.next();
-            GradientSpec spec = entry.getValue();
-            context.gradients.put(entry.getKey(), spec.getPaint());
+         // each gradient is resolved after the gradient it references, and the identical gradients are shared
+         Iterator<String> it = GradientResolver.getResolutionOrder(specs).iterator();
+         while (it.hasNext()) {
+            String id = it.next();
+            Paint paint = null;
+            if (documentGradients != null) {
+               paint = documentGradients.get(id);
+            }
+            if (paint == null) {
+               GradientSpec spec = specs.get(id);
+               spec.resolve(specs, viewport);
+               paint = spec.getPaint();
+               if (paint != null) {
+                  paint = PaintCache.getInstance().getGradient(paint);
+               }
+               if (documentGradients != null && paint != null) {
+                  documentGradients.put(id, paint);
+               }
+            }
+            context.gradients.put(id, paint);
          }
       }
    }
 
    private Group buildGroup(XMLNode xmlNode) {
+      if (streamedGroups != null && streamedGroups.containsKey(xmlNode)) {
+         // the children of the group have already been built while the svg content was parsed
+         return streamedGroups.remove(xmlNode);
+      }
       Group group = new Group();
       buildNode(xmlNode, group);
 
@@ -840,6 +1350,7 @@ public class SVGLoader implements SVGTags {
                break;
             case FE_COMPOSITE:
                SVGShapeBuilder.buildFEComposite(spec, childNode);
+               break;
             case FE_MERGE:
                SVGShapeBuilder.buildFEMerge(spec, childNode);
                break;
@@ -878,4 +1389,45 @@ public class SVGLoader implements SVGTags {
       MarkerContext markerContext = SVGStyleBuilder.setNodeStyle(node, xmlNode, context, viewport);
       return markerContext;
    }
+
+   /**
+    * The handler used in the streaming mode. The children of the root and of the streamed groups are built as soon
+    * as their element is closed, and are then removed from the XML tree. The animation elements are kept because
+    * they are used when their parent node is built.
+    */
+   private class StreamingTreeHandler extends XMLTreeHandler {
+      @Override
+      protected void nodeStarted(XMLNode xmlNode) {
+         XMLNode parent = xmlNode.getParent();
+         if (parent == null) {
+            startWalk((XMLRoot) xmlNode);
+            streamedGroups.put(xmlNode, root);
+         } else if (xmlNode.getName().equals(G) && !xmlNode.hasAttribute(ID) && streamedGroups.containsKey(parent)) {
+            // a group which has an id can be used elsewhere, so its children must be kept
+            streamedGroups.put(xmlNode, new Group());
+         }
+      }
+
+      @Override
+      protected void nodeEnded(XMLNode xmlNode) {
+         XMLNode parent = xmlNode.getParent();
+         if (parent == null) {
+            return;
+         }
+         Group group = streamedGroups.get(parent);
+         if (group != null) {
+            buildChild(xmlNode, group, false);
+            switch (xmlNode.getName()) {
+               case ANIMATE:
+               case ANIMATE_MOTION:
+               case ANIMATE_TRANSFORM:
+               case SET:
+                  break;
+               default:
+                  List<XMLNode> children = parent.getChildren();
+                  children.remove(children.size() - 1);
+            }
+         }
+      }
+   }
 }
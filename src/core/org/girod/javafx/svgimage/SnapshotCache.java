@@ -0,0 +1,224 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javafx.scene.image.Image;
+
+/**
+ * A cache of the images rendered by the {@link SVGImage#toImage(short, double)} methods for the images created from
+ * the same {@link SVGDocument}. It keeps the exact widths which have been requested, and the power of two widths
+ * used by {@link SVGImage#toClosestImage(short, double)}. The least recently used images are evicted when the total
+ * number of pixels of the cached images exceeds the pixel budget.
+ *
+ * <p>The cache can be queried from any thread. The cached images are shared, so they must not be modified.</p>
+ *
+ * @since 1.2
+ */
+public final class SnapshotCache {
+   /**
+    * The default pixel budget of a cache.
+    */
+   public static final long DEFAULT_PIXEL_BUDGET = 4L * 1024 * 1024;
+   private static final char SEPARATOR = '|';
+   private final LinkedHashMap<String, CachedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+   private long pixelBudget = DEFAULT_PIXEL_BUDGET;
+   private long pixelCount = 0;
+   private long hitCount = 0;
+   private long missCount = 0;
+
+   SnapshotCache() {
+   }
+
+   private static String getKey(String variant, double width) {
+      return variant + SEPARATOR + width;
+   }
+
+   /**
+    * Return the image rendered for a variant at a specified width.
+    *
+    * @param variant the variant, which identifies the rendering parameters
+    * @param width the width
+    * @return the image, or null if there is no such image in the cache
+    */
+   synchronized Image getImage(String variant, double width) {
+      CachedImage cached = images.get(getKey(variant, width));
+      if (cached == null) {
+         missCount++;
+         return null;
+      }
+      hitCount++;
+      return cached.image;
+   }
+
+   /**
+    * Return the narrowest image rendered for a variant whose width is between two widths.
+    *
+    * @param variant the variant, which identifies the rendering parameters
+    * @param minWidth the minimum width
+    * @param maxWidth the maximum width
+    * @return the image, or null if there is no such image in the cache
+    */
+   synchronized Image getClosestImage(String variant, double minWidth, double maxWidth) {
+      CachedImage closest = null;
+      String closestKey = null;
+      Iterator<Map.Entry<String, CachedImage>> it = images.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<String, CachedImage> entry = it.next();
+         CachedImage cached = entry.getValue();
+         if (cached.variant.equals(variant) && cached.width >= minWidth && cached.width <= maxWidth) {
+            if (closest == null || cached.width < closest.width) {
+               closest = cached;
+               closestKey = entry.getKey();
+            }
+         }
+      }
+      if (closest == null) {
+         missCount++;
+         return null;
+      }
+      // update the access order
+      images.get(closestKey);
+      hitCount++;
+      return closest.image;
+   }
+
+   /**
+    * Add an image rendered for a variant at a specified width. The image is not kept if it is larger than the
+    * pixel budget.
+    *
+    * @param variant the variant, which identifies the rendering parameters
+    * @param width the width
+    * @param image the image
+    */
+   synchronized void putImage(String variant, double width, Image image) {
+      CachedImage cached = new CachedImage(variant, width, image);
+      if (cached.pixels > pixelBudget) {
+         return;
+      }
+      CachedImage previous = images.put(getKey(variant, width), cached);
+      if (previous != null) {
+         pixelCount -= previous.pixels;
+      }
+      pixelCount += cached.pixels;
+      evict();
+   }
+
+   private void evict() {
+      Iterator<CachedImage> it = images.values().iterator();
+      while (pixelCount > pixelBudget && it.hasNext()) {
+         pixelCount -= it.next().pixels;
+         it.remove();
+      }
+   }
+
+   /**
+    * Set the maximum total number of pixels of the cached images. The least recently used images are evicted
+    * if the cache has more pixels.
+    *
+    * @param pixelBudget the maximum number of pixels
+    */
+   public synchronized void setPixelBudget(long pixelBudget) {
+      this.pixelBudget = pixelBudget;
+      evict();
+   }
+
+   /**
+    * Return the maximum total number of pixels of the cached images.
+    *
+    * @return the maximum number of pixels
+    */
+   public synchronized long getPixelBudget() {
+      return pixelBudget;
+   }
+
+   /**
+    * Return the total number of pixels of the cached images.
+    *
+    * @return the number of pixels
+    */
+   public synchronized long getPixelCount() {
+      return pixelCount;
+   }
+
+   /**
+    * Return the number of cached images.
+    *
+    * @return the number of images
+    */
+   public synchronized int size() {
+      return images.size();
+   }
+
+   /**
+    * Return the number of images which were found in the cache.
+    *
+    * @return the number of hits
+    */
+   public synchronized long getHitCount() {
+      return hitCount;
+   }
+
+   /**
+    * Return the number of images which had to be rendered.
+    *
+    * @return the number of misses
+    */
+   public synchronized long getMissCount() {
+      return missCount;
+   }
+
+   /**
+    * Remove all the images from the cache. The counters are not reset.
+    */
+   public synchronized void clear() {
+      images.clear();
+      pixelCount = 0;
+   }
+
+   private static final class CachedImage {
+      private final String variant;
+      private final double width;
+      private final Image image;
+      private final long pixels;
+
+      private CachedImage(String variant, double width, Image image) {
+         this.variant = variant;
+         this.width = width;
+         this.image = image;
+         this.pixels = (long) image.getWidth() * (long) image.getHeight();
+      }
+   }
+}
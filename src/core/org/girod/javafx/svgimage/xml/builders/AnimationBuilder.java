@@ -58,12 +58,14 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Ellipse;
 import javafx.scene.shape.Line;
+import javafx.scene.shape.Path;
 import javafx.scene.shape.Polygon;
 import javafx.scene.shape.Polyline;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.SVGPath;
 import javafx.scene.shape.Shape;
 import javafx.util.Duration;
+import org.girod.javafx.svgimage.xml.parsers.NumberListParser;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
 import org.girod.javafx.svgimage.xml.parsers.PathParser;
 import org.girod.javafx.svgimage.xml.parsers.SVGTags;
@@ -74,7 +76,7 @@ import org.girod.javafx.svgimage.xml.specs.Viewport;
 /**
  * The animation builder.
  *
- * @version 1.1
+ * @version 1.2
  */
 public class AnimationBuilder implements SVGTags {
    private static final short TYPE_TRANSLATE = 0;
@@ -385,13 +387,13 @@ public class AnimationBuilder implements SVGTags {
             }
             break;
       }
-      List<Double> fromArgs = null;
-      List<Double> toArgs = null;
+      double[] fromArgs = null;
+      double[] toArgs = null;
       if (animateType == ANIMATE_DEFAULT) {
          fromArgs = getFromArguments(xmlAnim, viewport);
          toArgs = getToArguments(xmlAnim, viewport);
       }
-      if (animateType == ANIMATE_DEFAULT && (fromArgs == null || toArgs == null || fromArgs.isEmpty() || toArgs.isEmpty())) {
+      if (animateType == ANIMATE_DEFAULT && (fromArgs == null || toArgs == null || fromArgs.length == 0 || toArgs.length == 0)) {
          return null;
       }
       if (value != null) {
@@ -447,8 +449,8 @@ public class AnimationBuilder implements SVGTags {
          } else {
             Timeline timeline = new Timeline();
             animation = timeline;
-            KeyValue fromValue = new KeyValue(value, fromArgs.get(0));
-            KeyValue toValue = new KeyValue(value, toArgs.get(0));
+            KeyValue fromValue = new KeyValue(value, fromArgs[0]);
+            KeyValue toValue = new KeyValue(value, toArgs[0]);
             KeyFrame fromFrame = new KeyFrame(beginDur, fromValue);
             KeyFrame toFrame = new KeyFrame(duration, toValue);
             timeline.getKeyFrames().addAll(fromFrame, toFrame);
@@ -480,12 +482,11 @@ public class AnimationBuilder implements SVGTags {
       String content = xmlAnim.getAttributeValue(PATH);
       content = content.replace('−', '-');
       PathParser pathParser = new PathParser();
-      List<SVGPath> list = pathParser.parsePathContent(content, viewport, false);
+      Path path = pathParser.parsePath(content, viewport);
       Duration duration = Duration.ZERO;
       if (xmlAnim.hasAttribute(DUR)) {
          duration = parseDuration(xmlAnim.getAttributeValue(DUR));
       }
-      SVGPath path = list.get(0);
       PathTransition transition;
       if (parallel != null) {
          transition = new PathTransition(duration, path);
@@ -513,8 +514,8 @@ public class AnimationBuilder implements SVGTags {
    }
 
    private static Transition buildAnimateTransform(XMLNode xmlNode, XMLNode xmlAnim, Node node, ParallelTransition parallel, Viewport viewport) {
-      List<Double> fromArgs = getFromArguments(xmlAnim, viewport);
-      List<Double> toArgs = getToArguments(xmlAnim, viewport);
+      double[] fromArgs = getFromArguments(xmlAnim, viewport);
+      double[] toArgs = getToArguments(xmlAnim, viewport);
       if (fromArgs == null || toArgs == null) {
          return null;
       }
@@ -550,13 +551,13 @@ public class AnimationBuilder implements SVGTags {
             }
             rotate.setDuration(duration);
             transition = rotate;
-            if (fromArgs.size() == 1) {
-               rotate.setFromAngle(fromArgs.get(0));
-            } else if (fromArgs.size() == 3) {
-               rotate.setFromAngle(fromArgs.get(0));
+            if (fromArgs.length == 1) {
+               rotate.setFromAngle(fromArgs[0]);
+            } else if (fromArgs.length == 3) {
+               rotate.setFromAngle(fromArgs[0]);
             }
-            if (toArgs.size() >= 1) {
-               rotate.setToAngle(toArgs.get(0));
+            if (toArgs.length >= 1) {
+               rotate.setToAngle(toArgs[0]);
             }
             break;
          case TYPE_TRANSLATE:
@@ -568,17 +569,17 @@ public class AnimationBuilder implements SVGTags {
             }
             translate.setDuration(duration);
             transition = translate;
-            if (fromArgs.size() == 2) {
-               translate.setFromX(fromArgs.get(0));
-               translate.setFromY(fromArgs.get(1));
-            } else if (fromArgs.size() == 1) {
-               translate.setFromX(fromArgs.get(0));
+            if (fromArgs.length == 2) {
+               translate.setFromX(fromArgs[0]);
+               translate.setFromY(fromArgs[1]);
+            } else if (fromArgs.length == 1) {
+               translate.setFromX(fromArgs[0]);
             }
-            if (toArgs.size() == 2) {
-               translate.setToX(toArgs.get(0));
-               translate.setToY(toArgs.get(1));
-            } else if (toArgs.size() == 1) {
-               translate.setToX(toArgs.get(0));
+            if (toArgs.length == 2) {
+               translate.setToX(toArgs[0]);
+               translate.setToY(toArgs[1]);
+            } else if (toArgs.length == 1) {
+               translate.setToX(toArgs[0]);
             }
             break;
          case TYPE_SCALE:
@@ -590,19 +591,19 @@ public class AnimationBuilder implements SVGTags {
             }
             scale.setDuration(duration);
             transition = scale;
-            if (fromArgs.size() == 1) {
-               scale.setFromX(fromArgs.get(0));
-               scale.setFromY(fromArgs.get(0));
-            } else if (fromArgs.size() == 2) {
-               scale.setFromX(fromArgs.get(0));
-               scale.setFromY(fromArgs.get(1));
+            if (fromArgs.length == 1) {
+               scale.setFromX(fromArgs[0]);
+               scale.setFromY(fromArgs[0]);
+            } else if (fromArgs.length == 2) {
+               scale.setFromX(fromArgs[0]);
+               scale.setFromY(fromArgs[1]);
             }
-            if (toArgs.size() == 1) {
-               scale.setToX(toArgs.get(0));
-               scale.setToY(toArgs.get(0));
-            } else if (toArgs.size() == 2) {
-               scale.setToX(toArgs.get(0));
-               scale.setToY(toArgs.get(1));
+            if (toArgs.length == 1) {
+               scale.setToX(toArgs[0]);
+               scale.setToY(toArgs[0]);
+            } else if (toArgs.length == 2) {
+               scale.setToX(toArgs[0]);
+               scale.setToY(toArgs[1]);
             }
             break;
       }
@@ -670,19 +671,19 @@ public class AnimationBuilder implements SVGTags {
       }
    }
 
-   private static List<Double> getFromArguments(XMLNode xmlAnim, Viewport viewport) {
+   private static double[] getFromArguments(XMLNode xmlAnim, Viewport viewport) {
       if (xmlAnim.hasAttribute(FROM)) {
          String content = xmlAnim.getAttributeValue(FROM);
-         return TransformUtils.getTransformArgumentsForAnimation(content, viewport);
+         return NumberListParser.parseLengths(content, viewport);
       } else {
          return null;
       }
    }
 
-   private static List<Double> getToArguments(XMLNode xmlAnim, Viewport viewport) {
+   private static double[] getToArguments(XMLNode xmlAnim, Viewport viewport) {
       if (xmlAnim.hasAttribute(TO)) {
          String content = xmlAnim.getAttributeValue(TO);
-         return TransformUtils.getTransformArgumentsForAnimation(content, viewport);
+         return NumberListParser.parseLengths(content, viewport);
       } else {
          return null;
       }
@@ -32,32 +32,22 @@ the project website at the project page on https://github.com/hervegirod/fxsvgim
  */
 package org.girod.javafx.svgimage.xml.builders;
 
-import java.util.ArrayList;
 import org.girod.javafx.svgimage.xml.specs.MarkerContext;
 import org.girod.javafx.svgimage.xml.specs.MarkerSpec;
 import org.girod.javafx.svgimage.xml.parsers.XMLNode;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
 import java.util.Iterator;
 import java.util.List;
-import javafx.collections.ObservableList;
 import javafx.scene.Group;
 import javafx.scene.Node;
-import javafx.scene.shape.ArcTo;
-import javafx.scene.shape.CubicCurveTo;
-import javafx.scene.shape.HLineTo;
 import javafx.scene.shape.Line;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
-import javafx.scene.shape.PathElement;
 import javafx.scene.shape.Polygon;
 import javafx.scene.shape.Polyline;
-import javafx.scene.shape.QuadCurveTo;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.SVGPath;
-import javafx.scene.shape.Shape;
-import javafx.scene.shape.VLineTo;
+import javafx.scene.transform.Rotate;
 import org.girod.javafx.svgimage.LoaderContext;
+import org.girod.javafx.svgimage.NodeCopier;
+import org.girod.javafx.svgimage.xml.parsers.PathVertices;
 import org.girod.javafx.svgimage.xml.parsers.SVGTags;
 import org.girod.javafx.svgimage.xml.parsers.TransformUtils;
 import org.girod.javafx.svgimage.xml.specs.Viewport;
@@ -72,7 +62,7 @@ import org.girod.javafx.svgimage.xml.specs.Viewbox;
 
 /**
  *
- * @since 1.0
+ * @version 1.2
  */
 public class MarkerBuilder implements SVGTags {
    private MarkerBuilder() {
@@ -82,105 +72,59 @@ public class MarkerBuilder implements SVGTags {
       if (parent == null || markerContext == null || markerContext.isEmpty()) {
          return;
       }
+      PathVertices vertices;
       switch (xmlNode.getName()) {
          case POLYGON:
-            buildMarkers(parent, (Polygon) node, markerContext, context, viewport, visible);
+            vertices = PathVertices.fromPoints(((Polygon) node).getPoints(), true);
             break;
          case POLYLINE:
-            buildMarkers(parent, (Polyline) node, markerContext, context, viewport, visible);
+            vertices = PathVertices.fromPoints(((Polyline) node).getPoints(), false);
             break;
          case LINE:
-            buildMarkers(parent, (Line) node, markerContext, context, viewport, visible);
+            Line line = (Line) node;
+            vertices = PathVertices.fromLine(line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY());
             break;
          case PATH:
-            buildMarkers(parent, (SVGPath) node, markerContext, context, viewport, visible);
+            vertices = PathVertices.fromPath(((SVGPath) node).getContent());
             break;
+         default:
+            return;
       }
-   }
-
-   private static void buildMarkers(Group parent, Polyline polyline, MarkerContext markerContext, LoaderContext context, Viewport viewport, boolean visible) {
-      ObservableList<Double> points = polyline.getPoints();
-      int countPoints = points.size();
-
-      markerContext.setContextNode(polyline);
-      if (markerContext.hasMarkerStart() && countPoints >= 2) {
-         MarkerSpec spec = markerContext.getMarkerStart();
-         Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-         if (markerNode != null) {
-            markerNode.setLayoutX(points.get(0) + getLength(spec, spec.getRefX(), true));
-            markerNode.setLayoutY(points.get(1) + getLength(spec, spec.getRefY(), false));
-         }
+      markerContext.setContextNode(node);
+      int count = vertices.getCount();
+      if (count == 0) {
+         return;
       }
-      if (markerContext.hasMarkerEnd() && countPoints >= 4) {
-         MarkerSpec spec = markerContext.getMarkerEnd();
-         Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-         if (markerNode != null) {
-            markerNode.setLayoutX(points.get(points.size() - 2) + getLength(spec, spec.getRefX(), true));
-            markerNode.setLayoutY(points.get(points.size() - 1) + getLength(spec, spec.getRefY(), false));
-         }
+      if (markerContext.hasMarkerStart()) {
+         addMarker(parent, markerContext.getMarkerStart(), vertices, 0, true, markerContext, context, viewport);
       }
-      if (markerContext.hasMarkerMid() && countPoints >= 6) {
+      if (markerContext.hasMarkerMid()) {
          MarkerSpec spec = markerContext.getMarkerMid();
-         for (int i = 2; i < countPoints - 2; i += 2) {
-            Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-            if (markerNode != null) {
-               markerNode.setLayoutX(points.get(i) + getLength(spec, spec.getRefX(), true));
-               markerNode.setLayoutY(points.get(i + 1) + getLength(spec, spec.getRefY(), false));
-            }
-         }
-      }
-   }
-
-   private static void buildMarkers(Group parent, Polygon polygon, MarkerContext markerContext, LoaderContext context, Viewport viewport, boolean visible) {
-      ObservableList<Double> points = polygon.getPoints();
-      int countPoints = points.size();
-
-      markerContext.setContextNode(polygon);
-      if (markerContext.hasMarkerStart() && countPoints >= 2) {
-         MarkerSpec spec = markerContext.getMarkerStart();
-         Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-         if (markerNode != null) {
-            markerNode.setLayoutX(points.get(0) + getLength(spec, spec.getRefX(), true));
-            markerNode.setLayoutY(points.get(1) + getLength(spec, spec.getRefY(), false));
+         for (int i = 1; i < count - 1; i++) {
+            addMarker(parent, spec, vertices, i, false, markerContext, context, viewport);
          }
       }
-      if (markerContext.hasMarkerEnd() && countPoints >= 4) {
-         MarkerSpec spec = markerContext.getMarkerEnd();
-         Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-         if (markerNode != null) {
-            markerNode.setLayoutX(points.get(points.size() - 2) + getLength(spec, spec.getRefX(), true));
-            markerNode.setLayoutY(points.get(points.size() - 1) + getLength(spec, spec.getRefY(), false));
-         }
-      }
-      if (markerContext.hasMarkerMid() && countPoints >= 6) {
-         MarkerSpec spec = markerContext.getMarkerMid();
-         for (int i = 2; i < countPoints - 2; i += 2) {
-            Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-            if (markerNode != null) {
-               markerNode.setLayoutX(points.get(i) + getLength(spec, spec.getRefX(), true));
-               markerNode.setLayoutY(points.get(i + 1) + getLength(spec, spec.getRefY(), false));
-            }
-         }
+      if (markerContext.hasMarkerEnd()) {
+         addMarker(parent, markerContext.getMarkerEnd(), vertices, count - 1, false, markerContext, context, viewport);
       }
    }
 
-   private static void buildMarkers(Group parent, Line line, MarkerContext markerContext, LoaderContext context, Viewport viewport, boolean visible) {
-      markerContext.setContextNode(line);
-      if (markerContext.hasMarkerStart()) {
-         MarkerSpec spec = markerContext.getMarkerStart();
-         Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-         if (markerNode != null) {
-            markerNode.setLayoutX(line.getStartX() + getLength(spec, spec.getRefX(), true));
-            markerNode.setLayoutY(line.getStartY() + getLength(spec, spec.getRefY(), false));
-         }
+   private static void addMarker(Group parent, MarkerSpec spec, PathVertices vertices, int index, boolean isStart, MarkerContext markerContext, LoaderContext context, Viewport viewport) {
+      Node markerNode = createMarker(spec, markerContext, context, viewport);
+      if (markerNode == null) {
+         return;
       }
-      if (markerContext.hasMarkerEnd()) {
-         MarkerSpec spec = markerContext.getMarkerEnd();
-         Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-         if (markerNode != null) {
-            markerNode.setLayoutX(line.getEndX() + getLength(spec, spec.getRefX(), true));
-            markerNode.setLayoutY(line.getEndY() + getLength(spec, spec.getRefY(), false));
-         }
+      parent.getChildren().add(markerNode);
+      double refX = getLength(spec, spec.getRefX(), true);
+      double refY = getLength(spec, spec.getRefY(), false);
+      markerNode.setLayoutX(vertices.getX(index) + refX);
+      markerNode.setLayoutY(vertices.getY(index) + refY);
+      double angle = spec.getAngle(vertices.getAngle(index), isStart);
+      if (angle != 0) {
+         // the marker rotates around its reference point, which is on the vertex
+         markerNode.getTransforms().setAll(new Rotate(angle, -refX, -refY));
+      } else {
+         markerNode.getTransforms().clear();
       }
    }
 
@@ -192,85 +136,33 @@ public class MarkerBuilder implements SVGTags {
       }
    }
 
-   private static void buildMarkers(Group parent, SVGPath svgPath, MarkerContext markerContext, LoaderContext context, Viewport viewport, boolean visible) {
-      markerContext.setContextNode(svgPath);
-      Path path = getPath(svgPath);
-      if (markerContext.hasMarkerStart()) {
-         MarkerSpec spec = markerContext.getMarkerStart();
-         Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-         if (markerNode != null) {
-            MoveTo start = getStart(path);
-            markerNode.setLayoutX(start.getX() + getLength(spec, spec.getRefX(), true));
-            markerNode.setLayoutY(start.getY() + getLength(spec, spec.getRefY(), false));
+   /**
+    * Create an instance of the content of a marker. The content is built once for each marker and copied for the
+    * other instances of the marker.
+    *
+    * @param spec the marker specification
+    * @param markerContext the marker context
+    * @param context the loader context
+    * @param viewport the viewport
+    * @return the instance, or null if the marker has no content
+    */
+   private static Node createMarker(MarkerSpec spec, MarkerContext markerContext, LoaderContext context, Viewport viewport) {
+      Node contextNode = markerContext.getContextNode();
+      Group template = spec.getTemplate(viewport, contextNode);
+      if (template != null) {
+         Node copy = new NodeCopier().copy(template);
+         if (copy != null) {
+            return copy;
          }
       }
-      if (markerContext.hasMarkerEnd()) {
-         MarkerSpec spec = markerContext.getMarkerEnd();
-         Node markerNode = createMarker(parent, spec, markerContext, context, viewport);
-         if (markerNode != null) {
-            MoveTo end = getEnd(path);
-            markerNode.setLayoutX(end.getX() + getLength(spec, spec.getRefX(), true));
-            markerNode.setLayoutY(end.getY() + getLength(spec, spec.getRefY(), false));
-         }
+      Group group = buildMarkerContent(spec, markerContext, context, viewport);
+      if (group != null) {
+         spec.setTemplate(group, viewport, contextNode);
       }
+      return group;
    }
 
-   private static MoveTo getEnd(Path path) {
-      double x = 0;
-      double y = 0;
-      Iterator<PathElement> it = path.getElements().iterator();
-      while (it.hasNext()) {
-         PathElement elt = it.next();
-         if (elt instanceof MoveTo) {
-            MoveTo moveTo = (MoveTo) elt;
-            x = moveTo.getX();
-            y = moveTo.getY();
-         } else if (elt instanceof LineTo) {
-            LineTo lineTo = (LineTo) elt;
-            x = lineTo.getX();
-            y = lineTo.getY();
-         } else if (elt instanceof HLineTo) {
-            HLineTo lineTo = (HLineTo) elt;
-            x = lineTo.getX();
-         } else if (elt instanceof VLineTo) {
-            VLineTo lineTo = (VLineTo) elt;
-            y = lineTo.getY();
-         } else if (elt instanceof ArcTo) {
-            ArcTo arcTo = (ArcTo) elt;
-            x = arcTo.getX();
-            y = arcTo.getY();
-         } else if (elt instanceof CubicCurveTo) {
-            CubicCurveTo curveTo = (CubicCurveTo) elt;
-            x = curveTo.getX();
-            y = curveTo.getY();
-         } else if (elt instanceof QuadCurveTo) {
-            QuadCurveTo curveTo = (QuadCurveTo) elt;
-            x = curveTo.getX();
-            y = curveTo.getY();
-         }
-      }
-      return new MoveTo(x, y);
-   }
-
-   private static MoveTo getStart(Path path) {
-      Iterator<PathElement> it = path.getElements().iterator();
-      while (it.hasNext()) {
-         PathElement elt = it.next();
-         if (elt instanceof MoveTo) {
-            return (MoveTo) elt;
-         } else {
-            return new MoveTo(0, 0);
-         }
-      }
-      return new MoveTo(0, 0);
-   }
-
-   private static Path getPath(SVGPath svgPath) {
-      Path path = (Path) (Shape.subtract(svgPath, new Rectangle(0, 0)));
-      return path;
-   }
-
-   private static Node createMarker(Group parent, MarkerSpec spec, MarkerContext markerContext, LoaderContext context, Viewport viewport) {
+   private static Group buildMarkerContent(MarkerSpec spec, MarkerContext markerContext, LoaderContext context, Viewport viewport) {
       XMLNode xmlNode = spec.getXMLNode();
       Group group = new Group();
       Viewbox viewbox = spec.getViewbox();
@@ -293,7 +185,7 @@ public class MarkerBuilder implements SVGTags {
                nodes = ParserUtils.createNodeList(node);
                break;
             case PATH:
-               boolean hasFill = SVGStyleBuilder.hasFill(childNode);
+               boolean hasFill = SVGStyleBuilder.hasFill(childNode, context.styleCache);
                nodes = SVGShapeBuilder.buildPath(childNode, null, viewbox, viewport, hasFill);
                break;
             case POLYGON:
@@ -320,9 +212,7 @@ public class MarkerBuilder implements SVGTags {
             }
          }
       }
-      if (!group.getChildren().isEmpty()) {
-         parent.getChildren().add(group);
-      } else {
+      if (group.getChildren().isEmpty()) {
          group = null;
       }
       return group;
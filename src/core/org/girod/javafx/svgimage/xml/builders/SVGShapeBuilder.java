@@ -40,6 +40,8 @@ import org.girod.javafx.svgimage.xml.specs.FilterSpec;
 import org.girod.javafx.svgimage.xml.specs.ExtendedFontPosture;
 import org.girod.javafx.svgimage.xml.parsers.XMLNode;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
+import org.girod.javafx.svgimage.xml.parsers.FontCache;
+import org.girod.javafx.svgimage.xml.parsers.NumberListParser;
 import org.girod.javafx.svgimage.xml.parsers.PathParser;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -86,7 +88,7 @@ import org.girod.javafx.svgimage.xml.specs.Viewport;
 /**
  * The shape builder.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class SVGShapeBuilder implements SVGTags {
    private static final Pattern NUMBER = Pattern.compile("\\d+");
@@ -371,7 +373,7 @@ public class SVGShapeBuilder implements SVGTags {
       size = viewport.scaleLength(size);
       FontWeight weight = getFontWeight(xmlNode.getAttributeValue(FONT_WEIGHT));
       FontPosture posture = getFontPosture(xmlNode.getAttributeValue(FONT_STYLE));
-      Font font = Font.font(family, weight, posture, size);
+      Font font = FontCache.getInstance().getFont(family, weight, posture, size);
 
       String cdata = xmlNode.getCDATA();
       if (cdata != null) {
@@ -426,7 +428,7 @@ public class SVGShapeBuilder implements SVGTags {
       size = viewport.scaleLength(size);
       FontWeight weight = getFontWeight(xmlNode.getAttributeValue(FONT_WEIGHT));
       FontPosture posture = getFontPosture(xmlNode.getAttributeValue(FONT_STYLE));
-      Font font = Font.font(family, weight, posture, size);
+      Font font = FontCache.getInstance().getFont(family, weight, posture, size);
 
       String cdata = xmlNode.getCDATA();
       if (cdata != null) {
@@ -568,7 +570,7 @@ public class SVGShapeBuilder implements SVGTags {
                nodesFromUse = ParserUtils.createNodeList(node);
                break;
             case PATH:
-               boolean hasFill = SVGStyleBuilder.hasFill(namedNode);
+               boolean hasFill = SVGStyleBuilder.hasFill(namedNode, context.styleCache);
                nodesFromUse = buildPath(namedNode, null, viewbox, viewport, hasFill);
                break;
             case POLYGON:
@@ -616,14 +618,11 @@ public class SVGShapeBuilder implements SVGTags {
             }
             return nodesFromUse;
          } else if (spanGroup != null) {
-            Map<String, String> theStylesMap = ParserUtils.getStyles(namedNode);
             Iterator<SpanGroup.TSpan> it2 = spanGroup.getSpans().iterator();
             SpanGroup.TSpan previous = null;
             while (it2.hasNext()) {
                SpanGroup.TSpan tspan = it2.next();
                Text tspanText = tspan.text;
-               String theStyles = ParserUtils.mergeStyles(theStylesMap, tspan.node);
-               tspan.node.addAttribute(STYLE, theStyles);
                addStyles(context, null, tspanText, tspan.node, viewport);
                if (tspan.node.hasAttribute(BASELINE_SHIFT)) {
                   // http://www.svgbasics.com/font_effects_italic.html
@@ -669,7 +668,7 @@ public class SVGShapeBuilder implements SVGTags {
                nodes = ParserUtils.createNodeList(node);
                break;
             case PATH:
-               boolean hasFill = SVGStyleBuilder.hasFill(childNode);
+               boolean hasFill = SVGStyleBuilder.hasFill(childNode, context.styleCache);
                nodes = buildPath(childNode, null, viewbox, viewport, hasFill);
                break;
             case POLYGON:
@@ -707,14 +706,11 @@ public class SVGShapeBuilder implements SVGTags {
                group.getChildren().add(node);
             }
          } else if (spanGroup != null) {
-            Map<String, String> theStylesMap = ParserUtils.getStyles(childNode);
             Iterator<SpanGroup.TSpan> it2 = spanGroup.getSpans().iterator();
             SpanGroup.TSpan previous = null;
             while (it2.hasNext()) {
                SpanGroup.TSpan tspan = it2.next();
                Text tspanText = tspan.text;
-               String theStyles = ParserUtils.mergeStyles(theStylesMap, tspan.node);
-               tspan.node.addAttribute(STYLE, theStyles);
                addStyles(context, group, tspanText, tspan.node, viewport);
                if (tspan.node.hasAttribute(BASELINE_SHIFT)) {
                   // http://www.svgbasics.com/font_effects_italic.html
@@ -827,12 +823,17 @@ public class SVGShapeBuilder implements SVGTags {
     * @return the shape
     */
    public static List<SVGPath> buildPath(XMLNode xmlNode, Bounds bounds, Viewbox viewbox, Viewport viewport, boolean hasFill) {
-      String content = xmlNode.getAttributeValue(D);
       FillRule rule = ParserUtils.getFillRule(xmlNode);
-
-      content = content.replace('−', '-');
       PathParser pathParser = new PathParser();
-      List<SVGPath> list = pathParser.parsePathContent(content, viewport, hasFill);
+      List<SVGPath> list;
+      if (viewport != null && viewport.isScaled() && xmlNode.isReadOnly()) {
+         // the tokenized path of a document is kept for the next images created from the document
+         list = pathParser.parsePathContent(pathParser.getPathData(xmlNode), viewport);
+      } else {
+         String content = xmlNode.getAttributeValue(D);
+         content = content.replace('−', '-');
+         list = pathParser.parsePathContent(content, viewport, hasFill);
+      }
       if (list != null) {
          Iterator<SVGPath> it = list.iterator();
          while (it.hasNext()) {
@@ -858,28 +859,8 @@ public class SVGShapeBuilder implements SVGTags {
     * @return the shape
     */
    public static Polygon buildPolygon(XMLNode xmlNode, Bounds bounds, Viewbox viewbox, Viewport viewport) {
-      String pointsAttribute = xmlNode.getAttributeValue(POINTS);
-      Polygon polygon = new Polygon();
-
-      StringTokenizer tokenizer = new StringTokenizer(pointsAttribute, " ,");
-      boolean isX = true;
-      while (tokenizer.hasMoreTokens()) {
-         String point = tokenizer.nextToken();
-         if (isX) {
-            double x = ParserUtils.parsePositionValue(point, true, bounds, viewport);
-            if (viewbox != null) {
-               x = viewbox.scaleValue(true, x);
-            }
-            polygon.getPoints().add(x);
-         } else {
-            double y = ParserUtils.parsePositionValue(point, false, bounds, viewport);
-            if (viewbox != null) {
-               y = viewbox.scaleValue(false, y);
-            }
-            polygon.getPoints().add(y);
-         }
-         isX = !isX;
-      }
+      double[] points = parsePoints(xmlNode, bounds, viewbox, viewport);
+      Polygon polygon = new Polygon(points);
       if (viewbox != null) {
          viewbox.scaleNode(polygon);
       }
@@ -936,30 +917,61 @@ public class SVGShapeBuilder implements SVGTags {
     * @return the shape
     */
    public static Polyline buildPolyline(XMLNode xmlNode, Bounds bounds, Viewbox viewbox, Viewport viewport) {
-      Polyline polyline = new Polyline();
-      String pointsAttribute = xmlNode.getAttributeValue(POINTS);
+      double[] points = parsePoints(xmlNode, bounds, viewbox, viewport);
+      Polyline polyline = new Polyline(points);
+      return polyline;
+   }
 
-      StringTokenizer tokenizer = new StringTokenizer(pointsAttribute, " ,");
-      boolean isX = true;
-      while (tokenizer.hasMoreTokens()) {
-         String point = tokenizer.nextToken();
-         if (isX) {
-            double x = ParserUtils.parsePositionValue(point, true, bounds, viewport);
-            if (viewbox != null) {
-               x = viewbox.scaleValue(true, x);
-            }
-            polyline.getPoints().add(x);
-         } else {
-            double y = ParserUtils.parsePositionValue(point, false, bounds, viewport);
-            if (viewbox != null) {
-               y = viewbox.scaleValue(false, y);
-            }
-            polyline.getPoints().add(y);
+   /**
+    * Parse the "points" attribute of a "polygon" or "polyline" element.
+    *
+    * @param xmlNode the node
+    * @param bounds an optional bounds for an object to specify the coordinates of the object relative to it
+    * @param viewbox the viewbox of the element (may be null)
+    * @param viewport the viewport
+    * @return the coordinates of the points
+    */
+   private static double[] parsePoints(XMLNode xmlNode, Bounds bounds, Viewbox viewbox, Viewport viewport) {
+      double[] points = null;
+      if (bounds == null && xmlNode.isReadOnly()) {
+         points = getPlainPoints(xmlNode, viewport);
+      }
+      if (points == null) {
+         points = NumberListParser.parsePositions(xmlNode.getAttributeValue(POINTS), bounds, viewport);
+      }
+      if (viewbox != null) {
+         for (int i = 0; i < points.length; i++) {
+            points[i] = viewbox.scaleValue(i % 2 == 0, points[i]);
          }
-         isX = !isX;
       }
+      return points;
+   }
 
-      return polyline;
+   /**
+    * Return the coordinates of the "points" attribute of a read-only node scaled by the viewport, if they have no
+    * units. The coordinates which are not scaled are kept by the node, so that the attribute is parsed only once for
+    * all the images created from the same document.
+    *
+    * @param xmlNode the node
+    * @param viewport the viewport
+    * @return the coordinates, or null if a coordinate has a unit or is invalid
+    */
+   private static double[] getPlainPoints(XMLNode xmlNode, Viewport viewport) {
+      Object parsed = xmlNode.getParsedValue(POINTS);
+      if (parsed == null) {
+         parsed = NumberListParser.parsePlainNumbers(xmlNode.getAttributeValue(POINTS));
+         // Boolean.FALSE marks the lists which must be parsed with their units
+         xmlNode.setParsedValue(POINTS, parsed != null ? parsed : Boolean.FALSE);
+      }
+      if (!(parsed instanceof double[])) {
+         return null;
+      }
+      double[] numbers = (double[]) parsed;
+      double[] points = new double[numbers.length];
+      for (int i = 0; i < numbers.length; i++) {
+         points[i] = viewport != null ? viewport.scalePosition(numbers[i], i % 2 == 0) : numbers[i];
+      }
+      return points;
    }
 
    public static void buildFEGaussianBlur(FilterSpec spec, XMLNode node) {
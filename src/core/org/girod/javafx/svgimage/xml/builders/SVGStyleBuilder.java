@@ -39,16 +39,14 @@ import org.girod.javafx.svgimage.xml.specs.ExtendedFontPosture;
 import org.girod.javafx.svgimage.xml.parsers.XMLNode;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
 import org.girod.javafx.svgimage.xml.parsers.LengthParser;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javafx.collections.ObservableList;
 import javafx.scene.Node;
 import javafx.scene.effect.Effect;
-import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Shape;
 import javafx.scene.shape.StrokeLineCap;
@@ -60,7 +58,12 @@ import javafx.scene.text.Text;
 import javafx.scene.transform.Transform;
 import org.girod.javafx.svgimage.GlobalConfig;
 import org.girod.javafx.svgimage.LoaderContext;
+import org.girod.javafx.svgimage.xml.parsers.CSSParser;
 import org.girod.javafx.svgimage.xml.parsers.ClippingFactory;
+import org.girod.javafx.svgimage.xml.parsers.FontCache;
+import org.girod.javafx.svgimage.xml.parsers.InlineStyle;
+import org.girod.javafx.svgimage.xml.parsers.NumberListParser;
+import org.girod.javafx.svgimage.xml.parsers.StyleCache;
 import org.girod.javafx.svgimage.xml.parsers.SVGTags;
 import org.girod.javafx.svgimage.xml.specs.Styles;
 import org.girod.javafx.svgimage.xml.parsers.TransformUtils;
@@ -69,110 +72,138 @@ import org.girod.javafx.svgimage.xml.specs.Viewport;
 /**
  * This class parse a style declaration.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class SVGStyleBuilder implements SVGTags {
-   private static final Pattern STYLES = Pattern.compile("\\.[a-zA-Z_][a-zA-Z0-9_\\-]*\\s*\\{[a-zA-Z0-9_\\-+\\.\\s,:\\#;]+\\}\\s*");
-   private static final Pattern RULE_CONTENT = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_\\-]*\\s*:\\s*[a-zA-Z0-9_\\-+,\\.\\#\\.]*");
-
    private SVGStyleBuilder() {
    }
 
+   /**
+    * Parse the content of a "style" element.
+    *
+    * @param content the content
+    * @param viewport the viewport
+    * @return the styles, or null if the content has no rules
+    */
    public static Styles parseStyle(String content, Viewport viewport) {
-      Matcher m = STYLES.matcher(content);
-      Styles styles = null;
-      while (m.find()) {
-         if (styles == null) {
-            styles = new Styles();
+      Styles styles = new Styles();
+      parseStyle(styles, content, viewport);
+      return styles.getRules().isEmpty() ? null : styles;
+   }
+
+   /**
+    * Parse the content of a "style" element, and add its rules to existing styles.
+    *
+    * @param styles the styles
+    * @param content the content
+    * @param viewport the viewport
+    * @since 1.2
+    */
+   public static void parseStyle(Styles styles, String content, Viewport viewport) {
+      CSSParser parser = new CSSParser(content);
+      List<Styles.Property> properties = new ArrayList<>();
+      List<String> keys = new ArrayList<>();
+      while (parser.nextRule()) {
+         properties.clear();
+         keys.clear();
+         int count = parser.getDeclarationsCount();
+         for (int i = 0; i < count; i++) {
+            String key = parser.getPropertyName(i);
+            Styles.Property property = createProperty(key, parser.getPropertyValue(i), viewport);
+            if (property != null) {
+               keys.add(key);
+               if (parser.isImportant(i)) {
+                  property = new Styles.Property(property.type, property.value, true);
+               }
+               properties.add(property);
+            }
          }
-         String theRule = m.group();
-         int parIndex = theRule.indexOf('{');
-         String styleClass = theRule.substring(1, parIndex).trim();
-         Styles.Rule rule = new Styles.Rule(styleClass);
-         boolean isEmpty = true;
-         String ruleContent = theRule.substring(parIndex + 1, theRule.length() - 2).trim();
-         Matcher m2 = RULE_CONTENT.matcher(ruleContent);
-         while (m2.find()) {
-            if (isEmpty) {
-               styles.addRule(rule);
-               isEmpty = false;
+         if (properties.isEmpty()) {
+            continue;
+         }
+         List<Styles.Selector> selectors = parser.getSelectors();
+         for (int i = 0; i < selectors.size(); i++) {
+            Styles.Rule rule = new Styles.Rule(selectors.get(i));
+            for (int j = 0; j < properties.size(); j++) {
+               Styles.Property property = properties.get(j);
+               rule.addProperty(keys.get(j), property.type, property.value, property.important);
             }
-            String theProperty = m2.group();
-            int index = theProperty.indexOf(':');
-            String key = theProperty.substring(0, index).trim();
-            String value = theProperty.substring(index + 1, theProperty.length()).trim();
-            switch (key) {
-               case FILL: {
-                  Color col = ParserUtils.getColor(value);
-                  rule.addProperty(key, Styles.FILL, col);
-                  break;
-               }
-               case STROKE: {
-                  Color col = ParserUtils.getColor(value);
-                  rule.addProperty(key, Styles.STROKE, col);
-                  break;
-               }
-               case STROKE_WIDTH: {
-                  double width = ParserUtils.parseLineWidth(value, viewport);
-                  rule.addProperty(key, Styles.STROKE_WIDTH, width);
-                  break;
-               }
-               case STROKE_DASHARRAY: {
-                  List<Double> list = ParserUtils.parseDashArray(value, viewport);
-                  if (list != null) {
-                     rule.addProperty(key, Styles.STROKE_DASHARRAY, list);
-                  }
-                  break;
-               }
-               case FONT_FAMILY: {
-                  String fontFamily = value.replace("'", "");
-                  rule.addProperty(key, Styles.FONT_FAMILY, fontFamily);
-                  break;
-               }
-               case FONT_WEIGHT: {
-                  FontWeight fontWeight = SVGShapeBuilder.getFontWeight(value);
-                  rule.addProperty(key, Styles.FONT_WEIGHT, fontWeight);
-                  break;
-               }
-               case FONT_STYLE: {
-                  ExtendedFontPosture fontPosture = SVGShapeBuilder.getExtendedFontPosture(value);
-                  rule.addProperty(key, Styles.FONT_STYLE, fontPosture);
-                  break;
-               }
-               case FONT_SIZE: {
-                  double size = ParserUtils.parseFontSize(value);
-                  rule.addProperty(key, Styles.FONT_SIZE, size);
-                  break;
-               }
-               case TEXT_DECORATION: {
-                  rule.addProperty(key, Styles.TEXT_DECORATION, value);
-                  break;
-               }
-               case OPACITY: {
-                  double opacity = ParserUtils.parseOpacity(value);
-                  if (opacity >= 0) {
-                     rule.addProperty(key, Styles.OPACITY, opacity);
-                  }
-                  break;
-               }
-               case FILL_OPACITY: {
-                  double opacity = ParserUtils.parseOpacity(value);
-                  if (opacity >= 0) {
-                     rule.addProperty(key, Styles.FILL_OPACITY, opacity);
-                  }
-                  break;
-               }
-               case TRANSFORM: {
-                  List<Transform> transformList = TransformUtils.extractTransforms(value, viewport);
-                  if (!transformList.isEmpty()) {
-                     rule.addProperty(key, Styles.TRANSFORM, transformList);
-                  }
-                  break;
-               }
+            styles.addRule(rule);
+         }
+      }
+   }
+
+   /**
+    * Compile the value of a declaration of a "style" element.
+    *
+    * @param key the property name
+    * @param value the value
+    * @param viewport the viewport
+    * @return the property, or null if the property is not supported or its value is invalid
+    */
+   private static Styles.Property createProperty(String key, String value, Viewport viewport) {
+      switch (key) {
+         case FILL: {
+            Object paint = value.startsWith("url(") ? value : ParserUtils.getColor(value);
+            return new Styles.Property(Styles.FILL, paint);
+         }
+         case STROKE: {
+            Object paint = value.startsWith("url(") ? value : ParserUtils.getColor(value);
+            return new Styles.Property(Styles.STROKE, paint);
+         }
+         case STROKE_WIDTH: {
+            double width = ParserUtils.parseLineWidth(value, viewport);
+            return new Styles.Property(Styles.STROKE_WIDTH, width);
+         }
+         case STROKE_DASHARRAY: {
+            List<Double> list = ParserUtils.parseDashArray(value, viewport);
+            if (list != null) {
+               return new Styles.Property(Styles.STROKE_DASHARRAY, list.toArray(new Double[list.size()]));
+            }
+            break;
+         }
+         case FONT_FAMILY: {
+            String fontFamily = value.replace("'", "");
+            return new Styles.Property(Styles.FONT_FAMILY, fontFamily);
+         }
+         case FONT_WEIGHT: {
+            FontWeight fontWeight = SVGShapeBuilder.getFontWeight(value);
+            return new Styles.Property(Styles.FONT_WEIGHT, fontWeight);
+         }
+         case FONT_STYLE: {
+            ExtendedFontPosture fontPosture = SVGShapeBuilder.getExtendedFontPosture(value);
+            return new Styles.Property(Styles.FONT_STYLE, fontPosture);
+         }
+         case FONT_SIZE: {
+            double size = ParserUtils.parseFontSize(value);
+            return new Styles.Property(Styles.FONT_SIZE, size);
+         }
+         case TEXT_DECORATION: {
+            return new Styles.Property(Styles.TEXT_DECORATION, value);
+         }
+         case OPACITY: {
+            double opacity = ParserUtils.parseOpacity(value);
+            if (opacity >= 0) {
+               return new Styles.Property(Styles.OPACITY, opacity);
             }
+            break;
+         }
+         case FILL_OPACITY: {
+            double opacity = ParserUtils.parseOpacity(value);
+            if (opacity >= 0) {
+               return new Styles.Property(Styles.FILL_OPACITY, opacity);
+            }
+            break;
+         }
+         case TRANSFORM: {
+            List<Transform> transformList = TransformUtils.extractTransforms(value, viewport);
+            if (!transformList.isEmpty()) {
+               return new Styles.Property(Styles.TRANSFORM, transformList.toArray(new Transform[transformList.size()]));
+            }
+            break;
          }
       }
-      return styles;
+      return null;
    }
 
    public static MarkerContext setNodeStyle(Node node, XMLNode xmlNode, LoaderContext context, Viewport viewport) {
@@ -180,34 +211,26 @@ public class SVGStyleBuilder implements SVGTags {
    }
 
    public static boolean hasFill(XMLNode xmlNode) {
+      return hasFill(xmlNode, null);
+   }
+
+   /**
+    * Return true if a node has a fill or a clip path.
+    *
+    * @param xmlNode the node
+    * @param styleCache the cache of the parsed "style" attributes (may be null)
+    * @return true if the node has a fill or a clip path
+    * @since 1.2
+    */
+   public static boolean hasFill(XMLNode xmlNode, StyleCache styleCache) {
       if (xmlNode.hasAttribute(FILL)) {
          return true;
       } else if (xmlNode.hasAttribute(CLIP_PATH)) {
          return true;
       } else if (xmlNode.hasAttribute(STYLE)) {
          String styles = xmlNode.getAttributeValue(STYLE);
-         StringTokenizer tokenizer = new StringTokenizer(styles, ";");
-         while (tokenizer.hasMoreTokens()) {
-            String style = tokenizer.nextToken();
-
-            StringTokenizer tokenizer2 = new StringTokenizer(style, ":");
-            String styleName = tokenizer2.nextToken().trim();
-            String styleValue = null;
-            if (tokenizer2.hasMoreTokens()) {
-               styleValue = tokenizer2.nextToken().trim();
-            }
-            if (styleValue == null) {
-               continue;
-            }
-
-            switch (styleName) {
-               case CLIP_PATH:
-                  return true;
-               case FILL:
-                  return true;
-            }
-         }
-         return false;
+         InlineStyle style = styleCache != null ? styleCache.getStyle(styles) : InlineStyle.parse(styles);
+         return style.hasProperty(CLIP_PATH) || style.hasProperty(FILL);
       } else {
          return false;
       }
@@ -274,7 +297,12 @@ public class SVGStyleBuilder implements SVGTags {
 
       if (xmlNode.hasAttribute(CLASS)) {
          String styleClasses = xmlNode.getAttributeValue(CLASS);
-         setStyleClass(node, styleClasses, context.svgStyle);
+         setStyleClass(node, styleClasses);
+      }
+
+      Styles.Property[] importantProperties = null;
+      if (context.svgStyle != null) {
+         importantProperties = context.svgStyle.apply(node, xmlNode, context.gradients);
       }
 
       if (xmlNode.hasAttribute(CLIP_PATH) && context.clippingFactory != null) {
@@ -287,21 +315,10 @@ public class SVGStyleBuilder implements SVGTags {
          FontPosture fontPosture = FontPosture.REGULAR;
          double fontSize = 12d;
          String fontFamily = null;
-         String styles = xmlNode.getAttributeValue(STYLE);
-         StringTokenizer tokenizer = new StringTokenizer(styles, ";");
-         while (tokenizer.hasMoreTokens()) {
-            String style = tokenizer.nextToken();
-
-            StringTokenizer tokenizer2 = new StringTokenizer(style, ":");
-            String styleName = tokenizer2.nextToken().trim();
-            String styleValue = null;
-            if (tokenizer2.hasMoreTokens()) {
-               styleValue = tokenizer2.nextToken().trim();
-            }
-            if (styleValue == null) {
-               continue;
-            }
-
+         InlineStyle style = context.styleCache.getStyle(xmlNode.getAttributeValue(STYLE));
+         for (int i = 0; i < style.size(); i++) {
+            String styleName = style.getName(i);
+            String styleValue = style.getValue(i);
             switch (styleName) {
                case CLIP_PATH:
                   setClipPath(node, styleValue, context.clippingFactory, viewport);
@@ -448,9 +465,13 @@ public class SVGStyleBuilder implements SVGTags {
             }
          }
          if (node instanceof Text) {
-            Font font = Font.font(fontFamily, fontWeight, fontPosture, fontSize);
+            Font font = FontCache.getInstance().getFont(fontFamily, fontWeight, fontPosture, fontSize);
             ((Text) node).setFont(font);
          }
+         if (importantProperties != null) {
+            // the important properties of the rules win over the style attribute
+            Styles.apply(node, importantProperties, context.gradients);
+         }
       }
       return markerContextR;
    }
@@ -490,11 +511,9 @@ public class SVGStyleBuilder implements SVGTags {
 
    private static void applyDash(Shape shape, String styleValue, Viewport viewport) {
       ObservableList<Double> array = shape.getStrokeDashArray();
-      List<Double> list = ParserUtils.parseDashArray(styleValue, viewport);
-      if (list != null) {
-         for (int i = 0; i < list.size(); i++) {
-            array.add(list.get(i));
-         }
+      double[] dashes = ParserUtils.parseDashes(styleValue, viewport);
+      if (dashes != null) {
+         array.setAll(NumberListParser.toList(dashes));
       }
    }
 
@@ -510,15 +529,11 @@ public class SVGStyleBuilder implements SVGTags {
       }
    }
 
-   private static void setStyleClass(Node node, String styleClasses, Styles svgStyle) {
+   private static void setStyleClass(Node node, String styleClasses) {
       StringTokenizer tok = new StringTokenizer(styleClasses, " ");
       while (tok.hasMoreTokens()) {
          String styleClass = tok.nextToken();
          node.getStyleClass().add(styleClass);
-         if (svgStyle != null && svgStyle.hasRule(styleClass)) {
-            Styles.Rule rule = svgStyle.getRule(styleClass);
-            rule.apply(node);
-         }
       }
    }
 
@@ -0,0 +1,433 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.girod.javafx.svgimage.xml.specs.Styles;
+
+/**
+ * This class parses the content of a "style" element in one pass over its characters.
+ *
+ * <p>The supported selectors are the type, universal, id and class selectors, combined with the descendant and child
+ * combinators. The rules with other selectors, the comments and the at-rules are skipped.</p>
+ *
+ * @since 1.2
+ */
+public class CSSParser {
+   private final String content;
+   private final int length;
+   private int pos = 0;
+   private final List<Styles.Selector> selectors = new ArrayList<>();
+   private final List<String> names = new ArrayList<>();
+   private final List<String> values = new ArrayList<>();
+   private final List<Boolean> priorities = new ArrayList<>();
+
+   /**
+    * Constructor.
+    *
+    * @param content the content of the style element
+    */
+   public CSSParser(String content) {
+      this.content = content;
+      this.length = content.length();
+   }
+
+   /**
+    * Parse the next rule. The rules without any supported selector are skipped.
+    *
+    * @return false if there are no more rules
+    */
+   public boolean nextRule() {
+      while (true) {
+         selectors.clear();
+         names.clear();
+         values.clear();
+         priorities.clear();
+         skipWhitespacesAndComments();
+         if (pos >= length) {
+            return false;
+         }
+         char c = content.charAt(pos);
+         if (c == '@') {
+            skipAtRule();
+            continue;
+         } else if (content.startsWith("<!--", pos)) {
+            pos += 4;
+            continue;
+         } else if (content.startsWith("-->", pos)) {
+            pos += 3;
+            continue;
+         }
+         int preludeStart = pos;
+         int preludeEnd = skipTo('{');
+         if (pos >= length) {
+            return false;
+         }
+         pos++;
+         int blockEnd = skipBlock();
+         parseSelectors(preludeStart, preludeEnd);
+         if (!selectors.isEmpty()) {
+            parseDeclarations(preludeEnd + 1, blockEnd);
+            return true;
+         }
+      }
+   }
+
+   /**
+    * Return the supported selectors of the current rule.
+    *
+    * @return the selectors
+    */
+   public List<Styles.Selector> getSelectors() {
+      return selectors;
+   }
+
+   /**
+    * Return the number of declarations of the current rule.
+    *
+    * @return the number of declarations
+    */
+   public int getDeclarationsCount() {
+      return names.size();
+   }
+
+   /**
+    * Return the property name of a declaration of the current rule.
+    *
+    * @param index the index of the declaration
+    * @return the property name
+    */
+   public String getPropertyName(int index) {
+      return names.get(index);
+   }
+
+   /**
+    * Return the value of a declaration of the current rule, without its "!important" priority.
+    *
+    * @param index the index of the declaration
+    * @return the value
+    */
+   public String getPropertyValue(int index) {
+      return values.get(index);
+   }
+
+   /**
+    * Return true if a declaration of the current rule has the "!important" priority.
+    *
+    * @param index the index of the declaration
+    * @return true if the declaration is important
+    */
+   public boolean isImportant(int index) {
+      return priorities.get(index);
+   }
+
+   private void skipWhitespacesAndComments() {
+      while (pos < length) {
+         char c = content.charAt(pos);
+         if (c <= ' ') {
+            pos++;
+         } else if (c == '/' && pos + 1 < length && content.charAt(pos + 1) == '*') {
+            skipComment();
+         } else {
+            break;
+         }
+      }
+   }
+
+   private void skipComment() {
+      int end = content.indexOf("*/", pos + 2);
+      pos = end == -1 ? length : end + 2;
+   }
+
+   private void skipString(char quote) {
+      pos++;
+      while (pos < length) {
+         char c = content.charAt(pos);
+         if (c == '\\') {
+            pos += 2;
+         } else {
+            pos++;
+            if (c == quote) {
+               break;
+            }
+         }
+      }
+   }
+
+   /**
+    * Skip to a character, outside of comments and strings.
+    *
+    * @param endChar the character
+    * @return the position of the character, or the end of the content
+    */
+   private int skipTo(char endChar) {
+      while (pos < length) {
+         char c = content.charAt(pos);
+         if (c == endChar) {
+            return pos;
+         } else if (c == '"' || c == '\'') {
+            skipString(c);
+         } else if (c == '/' && pos + 1 < length && content.charAt(pos + 1) == '*') {
+            skipComment();
+         } else {
+            pos++;
+         }
+      }
+      return length;
+   }
+
+   /**
+    * Skip a block whose opening brace has been read, including its nested blocks.
+    *
+    * @return the position of the closing brace, or the end of the content
+    */
+   private int skipBlock() {
+      int depth = 1;
+      while (pos < length) {
+         char c = content.charAt(pos);
+         if (c == '{') {
+            depth++;
+            pos++;
+         } else if (c == '}') {
+            depth--;
+            pos++;
+            if (depth == 0) {
+               return pos - 1;
+            }
+         } else if (c == '"' || c == '\'') {
+            skipString(c);
+         } else if (c == '/' && pos + 1 < length && content.charAt(pos + 1) == '*') {
+            skipComment();
+         } else {
+            pos++;
+         }
+      }
+      return length;
+   }
+
+   private void skipAtRule() {
+      while (pos < length) {
+         char c = content.charAt(pos);
+         if (c == ';') {
+            pos++;
+            return;
+         } else if (c == '{') {
+            pos++;
+            skipBlock();
+            return;
+         } else if (c == '"' || c == '\'') {
+            skipString(c);
+         } else {
+            pos++;
+         }
+      }
+   }
+
+   private static boolean isNameChar(char c) {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_'
+         || c > 127;
+   }
+
+   private void parseSelectors(int start, int end) {
+      int selectorStart = start;
+      for (int i = start; i <= end; i++) {
+         if (i == end || content.charAt(i) == ',') {
+            Styles.Selector selector = parseSelector(selectorStart, i);
+            if (selector != null) {
+               selectors.add(selector);
+            }
+            selectorStart = i + 1;
+         }
+      }
+   }
+
+   /**
+    * Parse a selector.
+    *
+    * @param start the start of the selector
+    * @param end the end of the selector
+    * @return the selector, or null if the selector is empty or not supported
+    */
+   private Styles.Selector parseSelector(int start, int end) {
+      List<Styles.Compound> compounds = new ArrayList<>(2);
+      List<String> classes = new ArrayList<>(2);
+      short[] combinators = new short[4];
+      short combinator = Styles.Selector.DESCENDANT;
+      int i = start;
+      while (true) {
+         boolean hasWhitespace = false;
+         while (i < end && content.charAt(i) <= ' ') {
+            hasWhitespace = true;
+            i++;
+         }
+         if (i < end && content.charAt(i) == '>') {
+            if (compounds.isEmpty() || combinator == Styles.Selector.CHILD) {
+               return null;
+            }
+            combinator = Styles.Selector.CHILD;
+            i++;
+            continue;
+         }
+         if (i == end) {
+            break;
+         }
+         if (!compounds.isEmpty() && !hasWhitespace && combinator != Styles.Selector.CHILD) {
+            // a part of a compound which is not supported, such as a pseudo-class
+            return null;
+         }
+         String type = null;
+         String id = null;
+         classes.clear();
+         char c = content.charAt(i);
+         if (c == '*') {
+            i++;
+         } else if (isNameChar(c)) {
+            int nameStart = i;
+            while (i < end && isNameChar(content.charAt(i))) {
+               i++;
+            }
+            type = content.substring(nameStart, i);
+         }
+         while (i < end) {
+            c = content.charAt(i);
+            if (c != '.' && c != '#') {
+               break;
+            }
+            i++;
+            int nameStart = i;
+            while (i < end && isNameChar(content.charAt(i))) {
+               i++;
+            }
+            if (i == nameStart) {
+               return null;
+            }
+            String name = content.substring(nameStart, i);
+            if (c == '#') {
+               id = name;
+            } else {
+               classes.add(name);
+            }
+         }
+         if (i < end && content.charAt(i) > ' ' && content.charAt(i) != '>') {
+            return null;
+         }
+         if (compounds.size() == combinators.length) {
+            short[] newCombinators = new short[combinators.length * 2];
+            System.arraycopy(combinators, 0, newCombinators, 0, combinators.length);
+            combinators = newCombinators;
+         }
+         combinators[compounds.size()] = combinator;
+         compounds.add(new Styles.Compound(type, id, classes.toArray(new String[classes.size()])));
+         combinator = Styles.Selector.DESCENDANT;
+      }
+      if (compounds.isEmpty() || combinator == Styles.Selector.CHILD) {
+         return null;
+      }
+      short[] theCombinators = new short[compounds.size()];
+      System.arraycopy(combinators, 0, theCombinators, 0, theCombinators.length);
+      return new Styles.Selector(compounds.toArray(new Styles.Compound[compounds.size()]), theCombinators);
+   }
+
+   private void parseDeclarations(int start, int end) {
+      int i = start;
+      while (i < end) {
+         int declarationStart = i;
+         int colon = -1;
+         int depth = 0;
+         while (i < end) {
+            char c = content.charAt(i);
+            if (c == '"' || c == '\'') {
+               int save = pos;
+               pos = i;
+               skipString(c);
+               i = Math.min(pos, end);
+               pos = save;
+               continue;
+            } else if (c == '/' && i + 1 < end && content.charAt(i + 1) == '*') {
+               int commentEnd = content.indexOf("*/", i + 2);
+               i = commentEnd == -1 || commentEnd + 2 > end ? end : commentEnd + 2;
+               continue;
+            } else if (c == '(') {
+               depth++;
+            } else if (c == ')') {
+               depth--;
+            } else if (c == ':' && colon == -1) {
+               colon = i;
+            } else if (c == ';' && depth <= 0) {
+               break;
+            }
+            i++;
+         }
+         if (colon != -1) {
+            addDeclaration(declarationStart, colon, i);
+         }
+         i++;
+      }
+   }
+
+   private void addDeclaration(int start, int colon, int end) {
+      String name = stripComments(start, colon).trim();
+      String value = stripComments(colon + 1, end).trim();
+      boolean isImportant = false;
+      int important = value.lastIndexOf('!');
+      if (important != -1 && value.substring(important + 1).trim().equalsIgnoreCase("important")) {
+         value = value.substring(0, important).trim();
+         isImportant = true;
+      }
+      if (!name.isEmpty() && !value.isEmpty()) {
+         names.add(name);
+         values.add(value);
+         priorities.add(isImportant);
+      }
+   }
+
+   private String stripComments(int start, int end) {
+      int comment = content.indexOf("/*", start);
+      if (comment == -1 || comment >= end) {
+         return content.substring(start, end);
+      }
+      StringBuilder buf = new StringBuilder(end - start);
+      int i = start;
+      while (comment != -1 && comment < end) {
+         buf.append(content, i, comment);
+         int commentEnd = content.indexOf("*/", comment + 2);
+         i = commentEnd == -1 ? end : Math.min(commentEnd + 2, end);
+         comment = content.indexOf("/*", i);
+      }
+      if (i < end) {
+         buf.append(content, i, end);
+      }
+      return buf.toString();
+   }
+}
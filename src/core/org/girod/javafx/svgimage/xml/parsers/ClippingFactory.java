@@ -34,23 +34,50 @@ package org.girod.javafx.svgimage.xml.parsers;
 
 import org.girod.javafx.svgimage.xml.specs.Viewport;
 import org.girod.javafx.svgimage.xml.builders.SVGShapeBuilder;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import javafx.geometry.Bounds;
 import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ArcTo;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.CubicCurveTo;
+import javafx.scene.shape.Ellipse;
 import javafx.scene.shape.FillRule;
-import javafx.scene.shape.SVGPath;
+import javafx.scene.shape.HLineTo;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import javafx.scene.shape.Polygon;
+import javafx.scene.shape.Polyline;
+import javafx.scene.shape.QuadCurveTo;
+import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.Shape;
+import javafx.scene.shape.VLineTo;
+import javafx.scene.transform.Affine;
 
 /**
  * This class handles the list of defined clipping paths.
  *
- * @version 1.0
+ * <p>The geometry of a clip is compiled once for each clip id, viewport, and bounds of the clipped node if the clip
+ * uses the "objectBoundingBox" units. Each clipped node gets a {@link Path} which shares the elements of the compiled
+ * clip. The children of the clip are emitted as the subpaths of one Path when it does not change the clipped area,
+ * which is the case if the children do not overlap, or if the overlapping children are rectangles, circles, or
+ * ellipses, which all have the same orientation. Else the children are combined with {@link Shape#union(Shape, Shape)}
+ * as before.</p>
+ *
+ * @version 1.2
  */
 public class ClippingFactory implements SVGTags {
    private final Map<String, XMLNode> clipSpecs = new HashMap<>();
+   private final Map<ClipKey, ClipTemplate> templates = new HashMap<>();
+   private final PathParser pathParser = new PathParser();
 
    public ClippingFactory() {
    }
@@ -73,65 +100,440 @@ public class ClippingFactory implements SVGTags {
     */
    public Shape createClip(String id, Node node, Viewport viewport) {
       XMLNode xmlNode = clipSpecs.get(id);
-      if (clipSpecs.containsKey(id)) {
-         Bounds objectBoundingBox = null;
-         Shape theShape = null;
-         if (xmlNode.hasAttribute(CLIP_PATH_UNITS)) {
-            String units = xmlNode.getAttributeValue(CLIP_PATH_UNITS);
-            if (units.equals(OBJECT_BOUNDINGBOX)) {
-               objectBoundingBox = node.getBoundsInLocal();
+      if (xmlNode == null) {
+         return null;
+      }
+      Bounds objectBoundingBox = null;
+      if (xmlNode.hasAttribute(CLIP_PATH_UNITS)) {
+         String units = xmlNode.getAttributeValue(CLIP_PATH_UNITS);
+         if (units.equals(OBJECT_BOUNDINGBOX)) {
+            objectBoundingBox = node.getBoundsInLocal();
+         }
+      }
+      ClipKey key = new ClipKey(id, viewport, objectBoundingBox);
+      ClipTemplate template = templates.get(key);
+      if (template == null) {
+         template = compileClip(xmlNode, objectBoundingBox, viewport);
+         templates.put(key, template);
+      }
+      Shape theShape;
+      if (template.elements != null) {
+         Path path = new Path(template.elements);
+         path.setFillRule(template.fillRule);
+         path.setFill(Color.BLACK);
+         path.setStroke(null);
+         theShape = path;
+      } else {
+         theShape = unionShapes(xmlNode, objectBoundingBox, viewport);
+      }
+      if (theShape != null && xmlNode.hasAttribute(TRANSFORM)) {
+         TransformUtils.setTransforms(theShape, xmlNode, viewport);
+      }
+      return theShape;
+   }
+
+   /**
+    * Compile the geometry of a clip.
+    *
+    * @param xmlNode the clip node
+    * @param objectBoundingBox the bounds of the clipped node for the "objectBoundingBox" units (may be null)
+    * @param viewport the viewport
+    * @return the compiled clip
+    */
+   private ClipTemplate compileClip(XMLNode xmlNode, Bounds objectBoundingBox, Viewport viewport) {
+      List<ClipPiece> pieces = new ArrayList<>();
+      Iterator<XMLNode> it = xmlNode.getChildren().iterator();
+      while (it.hasNext()) {
+         XMLNode childNode = it.next();
+         String name = childNode.getName();
+         if (!isClipShape(name)) {
+            continue;
+         }
+         ClipPiece piece = createPiece(childNode, name, objectBoundingBox, viewport);
+         if (piece == null) {
+            // this child can not be converted to path elements, so the clip must be rebuilt for each node
+            return new ClipTemplate(null, null);
+         }
+         pieces.add(piece);
+      }
+      if (pieces.isEmpty()) {
+         return new ClipTemplate(null, null);
+      }
+      FillRule rule = getMergedFillRule(pieces);
+      if (rule != null) {
+         List<PathElement> elements = new ArrayList<>();
+         for (int i = 0; i < pieces.size(); i++) {
+            elements.addAll(pieces.get(i).elements);
+         }
+         return new ClipTemplate(elements, rule);
+      }
+      Shape theShape = null;
+      for (int i = 0; i < pieces.size(); i++) {
+         ClipPiece piece = pieces.get(i);
+         Path path = new Path(piece.elements);
+         path.setFillRule(piece.fillRule);
+         path.setFill(Color.BLACK);
+         path.setStroke(null);
+         if (theShape == null) {
+            theShape = path;
+         } else {
+            theShape = Shape.union(theShape, path);
+         }
+      }
+      Path path = (Path) theShape;
+      return new ClipTemplate(new ArrayList<>(path.getElements()), path.getFillRule());
+   }
+
+   /**
+    * Return the fill rule of the Path which has the subpaths of all the pieces, or null if the pieces can not be
+    * emitted in one Path.
+    *
+    * @param pieces the pieces
+    * @return the fill rule, or null
+    */
+   private static FillRule getMergedFillRule(List<ClipPiece> pieces) {
+      FillRule rule = null;
+      boolean overlap = false;
+      for (int i = 0; i < pieces.size(); i++) {
+         ClipPiece piece = pieces.get(i);
+         if (!piece.isSimple) {
+            if (rule == null) {
+               rule = piece.fillRule;
+            } else if (rule != piece.fillRule) {
+               return null;
             }
          }
-         Iterator<XMLNode> it = xmlNode.getChildren().iterator();
-         while (it.hasNext()) {
-            XMLNode childNode = it.next();
-            Shape shape = null;
-            String name = childNode.getName();
-            switch (name) {
-               case CIRCLE:
-                  shape = SVGShapeBuilder.buildCircle(childNode, objectBoundingBox, null, viewport);
-                  break;
-               case PATH:
-                  List<? extends Shape> shapes = SVGShapeBuilder.buildPath(childNode, objectBoundingBox, null, viewport, true);
-                  if (shape != null) {
-                     shape = shapes.get(0);
-                     FillRule rule = ParserUtils.getClipRule(childNode);
-                     if (rule != null) {
-                        ((SVGPath) shape).setFillRule(rule);
-                     }
-                  }
-                  break;
-               case POLYLINE:
-                  shape = SVGShapeBuilder.buildPolyline(xmlNode, objectBoundingBox, null, viewport);
-                  break;
-               case POLYGON:
-                  shape = SVGShapeBuilder.buildPolygon(xmlNode, objectBoundingBox, null, viewport);
-                  break;
-               case ELLIPSE:
-                  shape = SVGShapeBuilder.buildEllipse(childNode, objectBoundingBox, null, viewport);
-                  break;
-               case RECT:
-                  shape = SVGShapeBuilder.buildRect(childNode, objectBoundingBox, null, viewport);
-                  break;
-               case LINE:
-                  shape = SVGShapeBuilder.buildLine(childNode, objectBoundingBox, null, viewport);
-                  break;
-               case TEXT:
-                  shape = SVGShapeBuilder.buildText(childNode, objectBoundingBox, null, viewport);
-                  break;
+         for (int j = i + 1; j < pieces.size(); j++) {
+            ClipPiece other = pieces.get(j);
+            if (piece.bounds.intersects(other.bounds)) {
+               if (!piece.isSimple || !other.isSimple) {
+                  return null;
+               }
+               overlap = true;
+            }
+         }
+      }
+      if (overlap && rule == FillRule.EVEN_ODD) {
+         return null;
+      }
+      return rule == null ? FillRule.NON_ZERO : rule;
+   }
+
+   private static boolean isClipShape(String name) {
+      switch (name) {
+         case CIRCLE:
+         case PATH:
+         case POLYLINE:
+         case POLYGON:
+         case ELLIPSE:
+         case RECT:
+         case LINE:
+         case TEXT:
+            return true;
+         default:
+            return false;
+      }
+   }
+
+   /**
+    * Create the path elements of a child of a clip.
+    *
+    * @param childNode the child node
+    * @param name the name of the child node
+    * @param objectBoundingBox the bounds of the clipped node for the "objectBoundingBox" units (may be null)
+    * @param viewport the viewport
+    * @return the piece, or null if the child can not be converted to path elements
+    */
+   private ClipPiece createPiece(XMLNode childNode, String name, Bounds objectBoundingBox, Viewport viewport) {
+      FillRule rule = ParserUtils.getClipRule(childNode);
+      if (rule == null) {
+         rule = FillRule.NON_ZERO;
+      }
+      List<PathElement> elements = new ArrayList<>();
+      switch (name) {
+         case CIRCLE: {
+            Circle circle = (Circle) SVGShapeBuilder.buildCircle(childNode, objectBoundingBox, null, viewport);
+            addEllipse(elements, circle.getCenterX(), circle.getCenterY(), circle.getRadius(), circle.getRadius());
+            return new ClipPiece(elements, FillRule.NON_ZERO, true);
+         }
+         case ELLIPSE: {
+            Ellipse ellipse = (Ellipse) SVGShapeBuilder.buildEllipse(childNode, objectBoundingBox, null, viewport);
+            addEllipse(elements, ellipse.getCenterX(), ellipse.getCenterY(), ellipse.getRadiusX(), ellipse.getRadiusY());
+            return new ClipPiece(elements, FillRule.NON_ZERO, true);
+         }
+         case RECT: {
+            Rectangle rect = (Rectangle) SVGShapeBuilder.buildRect(childNode, objectBoundingBox, null, viewport);
+            addRectangle(elements, rect);
+            return new ClipPiece(elements, FillRule.NON_ZERO, true);
+         }
+         case POLYGON: {
+            Polygon polygon = SVGShapeBuilder.buildPolygon(childNode, objectBoundingBox, null, viewport);
+            addPolygon(elements, polygon.getPoints());
+            return new ClipPiece(elements, rule, false);
+         }
+         case POLYLINE: {
+            Polyline polyline = SVGShapeBuilder.buildPolyline(childNode, objectBoundingBox, null, viewport);
+            addPolygon(elements, polyline.getPoints());
+            return new ClipPiece(elements, rule, false);
+         }
+         case PATH: {
+            String content = childNode.getAttributeValue(D);
+            if (content == null) {
+               return new ClipPiece(elements, rule, false);
             }
-            if (theShape == null) {
-               theShape = shape;
+            if (objectBoundingBox == null) {
+               Path path = pathParser.parsePath(content.replace('−', '-'), viewport);
+               elements.addAll(path.getElements());
             } else {
-               theShape = Shape.union(theShape, shape);
+               Path path = pathParser.parsePath(content.replace('−', '-'), null);
+               if (!addInBoundingBox(elements, path.getElements(), objectBoundingBox)) {
+                  return null;
+               }
             }
-            if (xmlNode.hasAttribute(TRANSFORM)) {
-               TransformUtils.setTransforms(theShape, xmlNode, viewport);
+            return new ClipPiece(elements, rule, false);
+         }
+         default:
+            return null;
+      }
+   }
+
+   /**
+    * Add path elements in "objectBoundingBox" units, mapping the unit square to the bounding box.
+    *
+    * @param elements the list to which the mapped elements are added
+    * @param pathElements the path elements in "objectBoundingBox" units
+    * @param bounds the bounding box
+    * @return false if an element can not be mapped, which is the case of the rotated arcs if the bounding box is not
+    * a square
+    */
+   private static boolean addInBoundingBox(List<PathElement> elements, List<PathElement> pathElements, Bounds bounds) {
+      double x = bounds.getMinX();
+      double y = bounds.getMinY();
+      double width = bounds.getWidth();
+      double height = bounds.getHeight();
+      for (int i = 0; i < pathElements.size(); i++) {
+         PathElement element = pathElements.get(i);
+         if (element instanceof MoveTo) {
+            MoveTo moveTo = (MoveTo) element;
+            elements.add(new MoveTo(x + moveTo.getX() * width, y + moveTo.getY() * height));
+         } else if (element instanceof LineTo) {
+            LineTo lineTo = (LineTo) element;
+            elements.add(new LineTo(x + lineTo.getX() * width, y + lineTo.getY() * height));
+         } else if (element instanceof HLineTo) {
+            elements.add(new HLineTo(x + ((HLineTo) element).getX() * width));
+         } else if (element instanceof VLineTo) {
+            elements.add(new VLineTo(y + ((VLineTo) element).getY() * height));
+         } else if (element instanceof CubicCurveTo) {
+            CubicCurveTo curve = (CubicCurveTo) element;
+            elements.add(new CubicCurveTo(x + curve.getControlX1() * width, y + curve.getControlY1() * height,
+               x + curve.getControlX2() * width, y + curve.getControlY2() * height,
+               x + curve.getX() * width, y + curve.getY() * height));
+         } else if (element instanceof QuadCurveTo) {
+            QuadCurveTo curve = (QuadCurveTo) element;
+            elements.add(new QuadCurveTo(x + curve.getControlX() * width, y + curve.getControlY() * height,
+               x + curve.getX() * width, y + curve.getY() * height));
+         } else if (element instanceof ArcTo) {
+            ArcTo arc = (ArcTo) element;
+            if (arc.getXAxisRotation() % 180 != 0 && width != height) {
+               // the scaled arc would not be an ellipse with the same rotation
+               return false;
             }
+            elements.add(new ArcTo(arc.getRadiusX() * width, arc.getRadiusY() * height, arc.getXAxisRotation(),
+               x + arc.getX() * width, y + arc.getY() * height, arc.isLargeArcFlag(), arc.isSweepFlag()));
+         } else if (element instanceof ClosePath) {
+            elements.add(new ClosePath());
+         } else {
+            return false;
          }
-         return theShape;
+      }
+      return true;
+   }
+
+   private static void addEllipse(List<PathElement> elements, double cx, double cy, double rx, double ry) {
+      if (rx <= 0 || ry <= 0) {
+         return;
+      }
+      elements.add(new MoveTo(cx + rx, cy));
+      elements.add(new ArcTo(rx, ry, 0, cx - rx, cy, false, true));
+      elements.add(new ArcTo(rx, ry, 0, cx + rx, cy, false, true));
+      elements.add(new ClosePath());
+   }
+
+   private static void addRectangle(List<PathElement> elements, Rectangle rect) {
+      double x = rect.getX();
+      double y = rect.getY();
+      double width = rect.getWidth();
+      double height = rect.getHeight();
+      if (width <= 0 || height <= 0) {
+         return;
+      }
+      // the corners are only rounded if both arcs are defined, as for a Rectangle
+      double rx = Math.min(rect.getArcWidth(), width) / 2;
+      double ry = Math.min(rect.getArcHeight(), height) / 2;
+      if (rx <= 0 || ry <= 0) {
+         elements.add(new MoveTo(x, y));
+         elements.add(new LineTo(x + width, y));
+         elements.add(new LineTo(x + width, y + height));
+         elements.add(new LineTo(x, y + height));
       } else {
-         return null;
+         elements.add(new MoveTo(x + rx, y));
+         elements.add(new LineTo(x + width - rx, y));
+         elements.add(new ArcTo(rx, ry, 0, x + width, y + ry, false, true));
+         elements.add(new LineTo(x + width, y + height - ry));
+         elements.add(new ArcTo(rx, ry, 0, x + width - rx, y + height, false, true));
+         elements.add(new LineTo(x + rx, y + height));
+         elements.add(new ArcTo(rx, ry, 0, x, y + height - ry, false, true));
+         elements.add(new LineTo(x, y + ry));
+         elements.add(new ArcTo(rx, ry, 0, x + rx, y, false, true));
+      }
+      elements.add(new ClosePath());
+   }
+
+   private static void addPolygon(List<PathElement> elements, List<Double> points) {
+      if (points.size() < 4) {
+         return;
+      }
+      elements.add(new MoveTo(points.get(0), points.get(1)));
+      for (int i = 2; i < points.size() - 1; i += 2) {
+         elements.add(new LineTo(points.get(i), points.get(i + 1)));
+      }
+      elements.add(new ClosePath());
+   }
+
+   /**
+    * Build the clip by the union of the shapes of its children. It is used for the clips which have children which
+    * can not be converted to path elements, such as texts.
+    *
+    * @param xmlNode the clip node
+    * @param objectBoundingBox the bounds of the clipped node for the "objectBoundingBox" units (may be null)
+    * @param viewport the viewport
+    * @return the clip
+    */
+   private Shape unionShapes(XMLNode xmlNode, Bounds objectBoundingBox, Viewport viewport) {
+      Shape theShape = null;
+      Iterator<XMLNode> it = xmlNode.getChildren().iterator();
+      while (it.hasNext()) {
+         XMLNode childNode = it.next();
+         Shape shape = null;
+         String name = childNode.getName();
+         switch (name) {
+            case CIRCLE:
+               shape = SVGShapeBuilder.buildCircle(childNode, objectBoundingBox, null, viewport);
+               break;
+            case PATH:
+               if (childNode.hasAttribute(D)) {
+                  Path path;
+                  if (objectBoundingBox == null) {
+                     path = pathParser.parsePath(childNode.getAttributeValue(D).replace('−', '-'), viewport);
+                  } else {
+                     path = pathParser.parsePath(childNode.getAttributeValue(D).replace('−', '-'), null);
+                     path.getTransforms().add(new Affine(objectBoundingBox.getWidth(), 0, objectBoundingBox.getMinX(),
+                        0, objectBoundingBox.getHeight(), objectBoundingBox.getMinY()));
+                  }
+                  path.setFill(Color.BLACK);
+                  path.setStroke(null);
+                  FillRule rule = ParserUtils.getClipRule(childNode);
+                  if (rule != null) {
+                     path.setFillRule(rule);
+                  }
+                  shape = path;
+               }
+               break;
+            case POLYLINE:
+               shape = SVGShapeBuilder.buildPolyline(childNode, objectBoundingBox, null, viewport);
+               break;
+            case POLYGON:
+               shape = SVGShapeBuilder.buildPolygon(childNode, objectBoundingBox, null, viewport);
+               break;
+            case ELLIPSE:
+               shape = SVGShapeBuilder.buildEllipse(childNode, objectBoundingBox, null, viewport);
+               break;
+            case RECT:
+               shape = SVGShapeBuilder.buildRect(childNode, objectBoundingBox, null, viewport);
+               break;
+            case LINE:
+               shape = SVGShapeBuilder.buildLine(childNode, objectBoundingBox, null, viewport);
+               break;
+            case TEXT:
+               shape = SVGShapeBuilder.buildText(childNode, objectBoundingBox, null, viewport);
+               break;
+         }
+         if (shape == null) {
+            continue;
+         }
+         if (theShape == null) {
+            theShape = shape;
+         } else {
+            theShape = Shape.union(theShape, shape);
+         }
+      }
+      return theShape;
+   }
+
+   /**
+    * The compiled geometry of a clip. The elements are null if the clip must be rebuilt for each clipped node.
+    */
+   private static class ClipTemplate {
+      private final List<PathElement> elements;
+      private final FillRule fillRule;
+
+      private ClipTemplate(List<PathElement> elements, FillRule fillRule) {
+         this.elements = elements;
+         this.fillRule = fillRule;
+      }
+   }
+
+   /**
+    * The path elements of one child of a clip. A simple piece is one closed curve which turns clockwise, so that
+    * the union of overlapping simple pieces is their area with the "nonzero" fill rule.
+    */
+   private static class ClipPiece {
+      private final List<PathElement> elements;
+      private final FillRule fillRule;
+      private final boolean isSimple;
+      private final Bounds bounds;
+
+      private ClipPiece(List<PathElement> elements, FillRule fillRule, boolean isSimple) {
+         this.elements = elements;
+         this.fillRule = fillRule;
+         this.isSimple = isSimple;
+         this.bounds = new Path(elements).getBoundsInLocal();
+      }
+   }
+
+   /**
+    * The key of a compiled clip. The viewports are compared by identity.
+    */
+   private static class ClipKey {
+      private final String id;
+      private final Viewport viewport;
+      private final Bounds bounds;
+
+      private ClipKey(String id, Viewport viewport, Bounds bounds) {
+         this.id = id;
+         this.viewport = viewport;
+         this.bounds = bounds;
+      }
+
+      @Override
+      public int hashCode() {
+         int hash = 7;
+         hash = 53 * hash + id.hashCode();
+         hash = 53 * hash + System.identityHashCode(viewport);
+         hash = 53 * hash + Objects.hashCode(bounds);
+         return hash;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj) {
+            return true;
+         }
+         if (obj == null || getClass() != obj.getClass()) {
+            return false;
+         }
+         final ClipKey other = (ClipKey) obj;
+         return id.equals(other.id) && viewport == other.viewport && Objects.equals(bounds, other.bounds);
       }
    }
 }
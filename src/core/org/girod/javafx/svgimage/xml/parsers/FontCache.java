@@ -0,0 +1,343 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+
+/**
+ * A bounded cache of the fonts used by the "text" and "tspan" elements, shared by all the loads. The fonts are
+ * immutable, so the same instance can be used by any number of Text nodes.
+ *
+ * <p>The fonts are keyed by their family list, weight, posture and size. The family lists such as
+ * <code>"Arial, Helvetica, sans-serif"</code> are resolved only once: the first family installed on the system is
+ * used, and the generic families (serif, sans-serif, monospace) are mapped to the JavaFX logical fonts.</p>
+ *
+ * @since 1.2
+ */
+public class FontCache {
+   /**
+    * The default maximum number of fonts.
+    */
+   public static final int DEFAULT_MAXIMUM_SIZE = 256;
+   private static final FontCache INSTANCE = new FontCache();
+   private static final String GENERIC_SERIF = "serif";
+   private static final String GENERIC_SANS_SERIF = "sans-serif";
+   private static final String GENERIC_MONOSPACE = "monospace";
+   private static final String LOGICAL_SERIF = "Serif";
+   private static final String LOGICAL_SANS_SERIF = "SansSerif";
+   private static final String LOGICAL_MONOSPACED = "Monospaced";
+   private final LinkedHashMap<FontKey, Font> fonts = new LinkedHashMap<>(64, 0.75f, true);
+   private final Map<String, String> families = new HashMap<>();
+   private Map<String, String> installedFamilies = null;
+   private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+   private long hitCount = 0;
+   private long missCount = 0;
+   private long evictionCount = 0;
+
+   private FontCache() {
+   }
+
+   /**
+    * Return the unique instance of the cache.
+    *
+    * @return the cache
+    */
+   public static FontCache getInstance() {
+      return INSTANCE;
+   }
+
+   /**
+    * Return the font with a specified family list, weight, posture and size.
+    *
+    * @param familyList the family list, as specified in the font-family attribute (may be null)
+    * @param weight the weight (may be null)
+    * @param posture the posture (may be null)
+    * @param size the size
+    * @return the font
+    */
+   public Font getFont(String familyList, FontWeight weight, FontPosture posture, double size) {
+      FontKey key = new FontKey(familyList, weight, posture, size);
+      synchronized (this) {
+         Font font = fonts.get(key);
+         if (font != null) {
+            hitCount++;
+            return font;
+         }
+         missCount++;
+      }
+      Font font = Font.font(resolveFamily(familyList), weight, posture, size);
+      synchronized (this) {
+         fonts.put(key, font);
+         evict();
+      }
+      return font;
+   }
+
+   /**
+    * Return the family to use for a family list. The family list is split on commas, and the first family which is
+    * installed on the system is returned. If no family is installed, the first family of the list is returned.
+    *
+    * @param familyList the family list (may be null)
+    * @return the family, or null if the family list is null or empty
+    */
+   public String resolveFamily(String familyList) {
+      if (familyList == null) {
+         return null;
+      }
+      synchronized (this) {
+         String family = families.get(familyList);
+         if (family != null) {
+            return family.isEmpty() ? null : family;
+         }
+      }
+      String family = resolveFamilyImpl(familyList);
+      synchronized (this) {
+         families.put(familyList, family == null ? "" : family);
+      }
+      return family;
+   }
+
+   private String resolveFamilyImpl(String familyList) {
+      String first = null;
+      int start = 0;
+      int length = familyList.length();
+      while (start <= length) {
+         int end = familyList.indexOf(',', start);
+         if (end == -1) {
+            end = length;
+         }
+         String family = unquote(familyList.substring(start, end).trim());
+         start = end + 1;
+         if (family.isEmpty()) {
+            continue;
+         }
+         String logicalFamily = getLogicalFamily(family);
+         if (logicalFamily != null) {
+            return logicalFamily;
+         }
+         if (first == null) {
+            if (end == length) {
+               // only one family, the lookup will be performed by JavaFX
+               return family;
+            }
+            first = family;
+         }
+         String installedFamily = getInstalledFamily(family);
+         if (installedFamily != null) {
+            return installedFamily;
+         }
+      }
+      return first;
+   }
+
+   private static String unquote(String family) {
+      int length = family.length();
+      if (length >= 2) {
+         char c = family.charAt(0);
+         if ((c == '\'' || c == '\"') && family.charAt(length - 1) == c) {
+            return family.substring(1, length - 1).trim();
+         }
+      }
+      return family;
+   }
+
+   private static String getLogicalFamily(String family) {
+      if (family.equalsIgnoreCase(GENERIC_SANS_SERIF)) {
+         return LOGICAL_SANS_SERIF;
+      } else if (family.equalsIgnoreCase(GENERIC_SERIF)) {
+         return LOGICAL_SERIF;
+      } else if (family.equalsIgnoreCase(GENERIC_MONOSPACE)) {
+         return LOGICAL_MONOSPACED;
+      } else {
+         return null;
+      }
+   }
+
+   private String getInstalledFamily(String family) {
+      Map<String, String> installed;
+      synchronized (this) {
+         installed = installedFamilies;
+      }
+      if (installed == null) {
+         installed = new HashMap<>();
+         List<String> list = Font.getFamilies();
+         Iterator<String> it = list.iterator();
+         while (it.hasNext()) {
+            String name = it.next();
+            installed.put(name.toLowerCase(), name);
+         }
+         synchronized (this) {
+            installedFamilies = installed;
+         }
+      }
+      return installed.get(family.toLowerCase());
+   }
+
+   private void evict() {
+      Iterator<Map.Entry<FontKey, Font>> it = fonts.entrySet().iterator();
+      while (fonts.size() > maximumSize && it.hasNext()) {
+         it.next();
+         it.remove();
+         evictionCount++;
+      }
+   }
+
+   /**
+    * Set the maximum number of fonts. The least recently used fonts are evicted if the cache has more fonts.
+    *
+    * @param maximumSize the maximum number of fonts
+    */
+   public synchronized void setMaximumSize(int maximumSize) {
+      this.maximumSize = maximumSize;
+      evict();
+   }
+
+   /**
+    * Return the maximum number of fonts.
+    *
+    * @return the maximum number of fonts
+    */
+   public synchronized int getMaximumSize() {
+      return maximumSize;
+   }
+
+   /**
+    * Return the number of fonts in the cache.
+    *
+    * @return the number of fonts
+    */
+   public synchronized int size() {
+      return fonts.size();
+   }
+
+   /**
+    * Return the number of fonts which were found in the cache.
+    *
+    * @return the number of hits
+    */
+   public synchronized long getHitCount() {
+      return hitCount;
+   }
+
+   /**
+    * Return the number of fonts which had to be looked up.
+    *
+    * @return the number of misses
+    */
+   public synchronized long getMissCount() {
+      return missCount;
+   }
+
+   /**
+    * Return the number of fonts which have been evicted from the cache.
+    *
+    * @return the number of evictions
+    */
+   public synchronized long getEvictionCount() {
+      return evictionCount;
+   }
+
+   /**
+    * Return the ratio of the fonts which were found in the cache.
+    *
+    * @return the hit rate, between 0 and 1, or 0 if no font has been requested
+    */
+   public synchronized double getHitRate() {
+      long requestCount = hitCount + missCount;
+      return requestCount == 0 ? 0d : (double) hitCount / requestCount;
+   }
+
+   /**
+    * Remove all the fonts and resolved family lists from the cache. The counters are not reset. The installed
+    * families are looked up again the next time they are needed.
+    */
+   public synchronized void clear() {
+      fonts.clear();
+      families.clear();
+      installedFamilies = null;
+   }
+
+   /**
+    * Reset the hit, miss and eviction counters.
+    */
+   public synchronized void resetStatistics() {
+      hitCount = 0;
+      missCount = 0;
+      evictionCount = 0;
+   }
+
+   private static final class FontKey {
+      private final String family;
+      private final FontWeight weight;
+      private final FontPosture posture;
+      private final double size;
+      private final int hashCode;
+
+      private FontKey(String family, FontWeight weight, FontPosture posture, double size) {
+         this.family = family;
+         this.weight = weight;
+         this.posture = posture;
+         this.size = size;
+         int hash = Objects.hashCode(family);
+         hash = 31 * hash + Objects.hashCode(weight);
+         hash = 31 * hash + Objects.hashCode(posture);
+         this.hashCode = 31 * hash + Double.hashCode(size);
+      }
+
+      @Override
+      public int hashCode() {
+         return hashCode;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj) {
+            return true;
+         }
+         if (!(obj instanceof FontKey)) {
+            return false;
+         }
+         FontKey other = (FontKey) obj;
+         return Double.compare(size, other.size) == 0 && weight == other.weight && posture == other.posture
+            && Objects.equals(family, other.family);
+      }
+   }
+}
@@ -0,0 +1,219 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+import java.util.Arrays;
+
+/**
+ * The parsed declarations of a "style" attribute. This class is immutable, so that the same instance can be shared
+ * by all the nodes which have the same "style" attribute.
+ *
+ * @since 1.2
+ */
+public class InlineStyle {
+   /**
+    * The empty style.
+    */
+   public static final InlineStyle EMPTY = new InlineStyle(new String[0], new String[0], 0);
+   private final String[] names;
+   private final String[] values;
+   private final int count;
+
+   private InlineStyle(String[] names, String[] values, int count) {
+      this.names = names;
+      this.values = values;
+      this.count = count;
+   }
+
+   /**
+    * Parse a "style" attribute. The declarations are separated by ";", and the name of each declaration is separated
+    * from its value by the first ":". The declarations without a value are skipped.
+    *
+    * @param style the attribute value
+    * @return the style
+    */
+   public static InlineStyle parse(String style) {
+      int length = style.length();
+      String[] names = new String[4];
+      String[] values = new String[4];
+      int count = 0;
+      int pos = 0;
+      while (pos < length) {
+         int end = style.indexOf(';', pos);
+         if (end == -1) {
+            end = length;
+         }
+         int colon = style.indexOf(':', pos);
+         if (colon != -1 && colon < end) {
+            String name = style.substring(pos, colon).trim();
+            String value = style.substring(colon + 1, end).trim();
+            if (!name.isEmpty() && !value.isEmpty()) {
+               if (count == names.length) {
+                  names = Arrays.copyOf(names, count * 2);
+                  values = Arrays.copyOf(values, count * 2);
+               }
+               names[count] = name;
+               values[count] = value;
+               count++;
+            }
+         }
+         pos = end + 1;
+      }
+      if (count == 0) {
+         return EMPTY;
+      }
+      return new InlineStyle(names, values, count);
+   }
+
+   /**
+    * Return the number of declarations.
+    *
+    * @return the number of declarations
+    */
+   public int size() {
+      return count;
+   }
+
+   /**
+    * Return true if there are no declarations.
+    *
+    * @return true if there are no declarations
+    */
+   public boolean isEmpty() {
+      return count == 0;
+   }
+
+   /**
+    * Return the property name of a declaration.
+    *
+    * @param index the index of the declaration
+    * @return the property name
+    */
+   public String getName(int index) {
+      return names[index];
+   }
+
+   /**
+    * Return the value of a declaration.
+    *
+    * @param index the index of the declaration
+    * @return the value
+    */
+   public String getValue(int index) {
+      return values[index];
+   }
+
+   /**
+    * Return the value of a property. If the property is declared several times, the last value is returned.
+    *
+    * @param name the property name
+    * @return the value, or null if the property is not declared
+    */
+   public String getValue(String name) {
+      for (int i = count - 1; i >= 0; i--) {
+         if (names[i].equals(name)) {
+            return values[i];
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Return true if a property is declared.
+    *
+    * @param name the property name
+    * @return true if the property is declared
+    */
+   public boolean hasProperty(String name) {
+      return getValue(name) != null;
+   }
+
+   /**
+    * Merge this style with another style. The declarations of the other style override the declarations of this
+    * style.
+    *
+    * @param other the other style
+    * @return the merged style
+    */
+   public InlineStyle merge(InlineStyle other) {
+      if (other.count == 0) {
+         return this;
+      } else if (count == 0) {
+         return other;
+      }
+      String[] mergedNames = new String[count + other.count];
+      String[] mergedValues = new String[count + other.count];
+      int mergedCount = 0;
+      for (int i = 0; i < count; i++) {
+         if (!other.hasProperty(names[i]) && indexOf(mergedNames, mergedCount, names[i]) == -1) {
+            mergedNames[mergedCount] = names[i];
+            mergedValues[mergedCount] = getValue(names[i]);
+            mergedCount++;
+         }
+      }
+      for (int i = 0; i < other.count; i++) {
+         int index = indexOf(mergedNames, mergedCount, other.names[i]);
+         if (index == -1) {
+            mergedNames[mergedCount] = other.names[i];
+            mergedValues[mergedCount] = other.values[i];
+            mergedCount++;
+         } else {
+            mergedValues[index] = other.values[i];
+         }
+      }
+      return new InlineStyle(mergedNames, mergedValues, mergedCount);
+   }
+
+   private static int indexOf(String[] names, int count, String name) {
+      for (int i = 0; i < count; i++) {
+         if (names[i].equals(name)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Return the style as a "style" attribute value.
+    *
+    * @return the attribute value
+    */
+   @Override
+   public String toString() {
+      StringBuilder buf = new StringBuilder();
+      for (int i = 0; i < count; i++) {
+         buf.append(names[i]).append(':').append(values[i]).append(';');
+      }
+      return buf.toString();
+   }
+}
@@ -32,21 +32,45 @@ the project website at the project page on https://github.com/hervegirod/fxsvgim
  */
 package org.girod.javafx.svgimage.xml.parsers;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javafx.geometry.Bounds;
 import org.girod.javafx.svgimage.xml.specs.Viewport;
 
 /**
  * This utility class parse a length value.
  *
- * @version 1.0
+ * <p>The values are parsed in one pass over their characters. A value is either a number, or a number followed by
+ * a unit.</p>
+ *
+ * @version 1.2
  */
 public class LengthParser {
-   private static final Pattern NUMBER = Pattern.compile("\\-?\\d*(\\.\\d+)?");
-   private static final Pattern NUMBER_UNIT = Pattern.compile("(\\-?\\d+)(\\.\\d*)?([a-z%A-Z]+)");
    private static final double INCH = 1 / 96d;
    private static final Viewport DEFAULT_VIEWPORT = new Viewport();
+   private static final int UNIT_NONE = 0;
+   private static final int UNIT_PX = 1;
+   private static final int UNIT_PT = 2;
+   private static final int UNIT_EM = 3;
+   private static final int UNIT_EX = 4;
+   private static final int UNIT_IN = 5;
+   private static final int UNIT_CM = 6;
+   private static final int UNIT_MM = 7;
+   private static final int UNIT_PERCENT = 8;
+   private static final int UNIT_UNKNOWN = 9;
+   /**
+    * The factors of the units for lengths, indexed by unit. The percent and unknown units are managed separately.
+    */
+   private static final double[] LENGTH_FACTORS = {1d, 1d, 96d / 72d, 16d, 16d * (1.5d / 3d), 1 / INCH, 96 / 2.54,
+      96 / (10 * 2.54), 1d, 1d};
+   /**
+    * The factors of the units for positions, indexed by unit. The em and ex units are not scaled for positions.
+    */
+   private static final double[] POSITION_FACTORS = {1d, 1d, 1 / INCH * 72d / 96d, 1d, 1d, 1 / INCH,
+      1 / INCH * 72d / (96d * 2.54d), 1 / INCH * 72d / (96d * 2.54d * 10), 1d, 1d};
+   /**
+    * The factors of the units for line widths, indexed by unit.
+    */
+   private static final double[] LINE_WIDTH_FACTORS = {1d, 1d, 96d / 72d, 1d, 1d, 1 / INCH,
+      1 / INCH * 72d / (96d * 2.54d), 1 / INCH * 72d / (96d * 2.54d * 10), 1d, 1d};
 
    private LengthParser() {
    }
@@ -136,58 +160,43 @@ public class LengthParser {
       if (viewport == null) {
          viewport = DEFAULT_VIEWPORT;
       }
-      lengthValue = lengthValue.trim();
-      lengthValue = lengthValue.replace('−', '-');
-      Matcher m = NUMBER.matcher(lengthValue);
-      if (m.matches()) {
-         if (bounds == null) {
-            return viewport.scalePosition(Double.parseDouble(lengthValue), isWidth);
+      int start = getStart(lengthValue);
+      int end = getEnd(lengthValue, start);
+      int unitStart = getUnitStart(lengthValue, start, end);
+      if (unitStart == end) {
+         double value = parseNumber(lengthValue, start, end);
+         if (Double.isNaN(value)) {
+            return 0d;
+         } else if (bounds == null) {
+            return viewport.scalePosition(value, isWidth);
          } else if (isWidth) {
-            return viewport.scalePosition(bounds.getMinX() + Double.parseDouble(lengthValue) * bounds.getWidth(), isWidth);
+            return viewport.scalePosition(bounds.getMinX() + value * bounds.getWidth(), isWidth);
          } else {
-            return viewport.scalePosition(bounds.getMinY() + Double.parseDouble(lengthValue) * bounds.getHeight(), isWidth);
+            return viewport.scalePosition(bounds.getMinY() + value * bounds.getHeight(), isWidth);
          }
       }
-      m = NUMBER_UNIT.matcher(lengthValue);
-      if (m.matches()) {
-         String unitS = m.group(m.groupCount());
-         String startDigits = m.group(1);
-         String endDigit = null;
-         if (m.groupCount() > 1) {
-            endDigit = m.group(2);
-         }
-         double parsedValue;
-         if (endDigit == null) {
-            parsedValue = Double.parseDouble(startDigits);
-         } else {
-            parsedValue = Double.parseDouble(startDigits + "." + endDigit);
-         }
-         switch (unitS) {
-            case "px":
-               return viewport.scalePosition(parsedValue, isWidth);
-            case "pt":
-               return viewport.scalePosition(parsedValue / INCH * 72d / 96d, isWidth);
-            case "in":
-               return viewport.scalePosition(parsedValue / INCH, isWidth);
-            case "cm":
-               return viewport.scalePosition(parsedValue / INCH * 72d / (96d * 2.54d), isWidth);
-            case "mm":
-               return viewport.scalePosition(parsedValue / INCH * 72d / (96d * 2.54d * 10), isWidth);
-            case "%":
-               if (viewport == null) {
-                  return 0;
-               } else if (isWidth) {
-                  return viewport.scalePosition(parsedValue * viewport.getBestWidth() / 100, isWidth);
-               } else {
-                  return viewport.scalePosition(parsedValue * viewport.getBestHeight() / 100, isWidth);
-               }
-            default:
-               return parsedValue;
-         }
+      double parsedValue = parseUnitNumber(lengthValue, start, unitStart);
+      if (Double.isNaN(parsedValue)) {
+         return 0d;
+      }
+      int unit = getUnit(lengthValue, unitStart, end);
+      switch (unit) {
+         case UNIT_PERCENT:
+            if (isWidth) {
+               return viewport.scalePosition(parsedValue * viewport.getBestWidth() / 100, isWidth);
+            } else {
+               return viewport.scalePosition(parsedValue * viewport.getBestHeight() / 100, isWidth);
+            }
+         case UNIT_EM:
+         case UNIT_EX:
+         case UNIT_UNKNOWN:
+            return parsedValue;
+         default:
+            return viewport.scalePosition(parsedValue * POSITION_FACTORS[unit], isWidth);
       }
-      return 0d;
    }
 
+
    /**
     * Parse a line width value.
     *
@@ -199,50 +208,30 @@ public class LengthParser {
       if (viewport == null) {
          viewport = DEFAULT_VIEWPORT;
       }
-      lengthValue = lengthValue.trim();
-      lengthValue = lengthValue.replace('−', '-');
-      Matcher m = NUMBER.matcher(lengthValue);
-      if (m.matches()) {
-         if (viewport == null) {
-            return Double.parseDouble(lengthValue);
+      int start = getStart(lengthValue);
+      int end = getEnd(lengthValue, start);
+      int unitStart = getUnitStart(lengthValue, start, end);
+      if (unitStart == end) {
+         double value = parseNumber(lengthValue, start, end);
+         if (Double.isNaN(value)) {
+            return 0d;
          } else {
-            return viewport.scaleLineWidth(Double.parseDouble(lengthValue));
+            return viewport.scaleLineWidth(value);
          }
       }
-      m = NUMBER_UNIT.matcher(lengthValue);
-      if (m.matches()) {
-         String unitS = m.group(m.groupCount());
-         String startDigits = m.group(1);
-         String endDigit = null;
-         if (m.groupCount() > 1) {
-            endDigit = m.group(2);
-         }
-         double parsedValue;
-         if (endDigit == null) {
-            parsedValue = Double.parseDouble(startDigits);
-         } else {
-            parsedValue = Double.parseDouble(startDigits + endDigit);
-         }
-         switch (unitS) {
-            case "px":
-               return viewport.scaleLineWidth(parsedValue);
-            case "pt":
-               return viewport.scaleLineWidth(parsedValue * 96d / 72d);
-            case "in":
-               return viewport.scaleLineWidth(parsedValue / INCH);
-            case "cm":
-               return viewport.scaleLineWidth(parsedValue / INCH * 72d / (96d * 2.54d));
-            case "mm":
-               return viewport.scaleLineWidth(parsedValue / INCH * 72d / (96d * 2.54d * 10));
-            case "%":
-               return viewport.scaleLineWidth(parsedValue * viewport.getBestWidth() / 100);
-            default:
-               return viewport.scaleLineWidth(parsedValue);
-         }
+      double parsedValue = parseUnitNumber(lengthValue, start, unitStart);
+      if (Double.isNaN(parsedValue)) {
+         return 0d;
+      }
+      int unit = getUnit(lengthValue, unitStart, end);
+      if (unit == UNIT_PERCENT) {
+         return viewport.scaleLineWidth(parsedValue * viewport.getBestWidth() / 100);
+      } else {
+         return viewport.scaleLineWidth(parsedValue * LINE_WIDTH_FACTORS[unit]);
       }
-      return 0d;
    }
 
+
    /**
     * Parse a length value.
     *
@@ -256,61 +245,183 @@ public class LengthParser {
       if (viewport == null) {
          viewport = DEFAULT_VIEWPORT;
       }
-      lengthValue = lengthValue.trim();
-      lengthValue = lengthValue.replace('−', '-');
-      Matcher m = NUMBER.matcher(lengthValue);
-      if (m.matches()) {
-         if (viewport == null) {
-            return Double.parseDouble(lengthValue);
+      int start = getStart(lengthValue);
+      int end = getEnd(lengthValue, start);
+      int unitStart = getUnitStart(lengthValue, start, end);
+      if (unitStart == end) {
+         double value = parseNumber(lengthValue, start, end);
+         if (Double.isNaN(value)) {
+            return 0d;
          } else if (bounds == null) {
-            return viewport.scaleLength(Double.parseDouble(lengthValue));
+            return viewport.scaleLength(value);
          } else if (isWidth) {
-            return viewport.scaleLength(Double.parseDouble(lengthValue) * bounds.getWidth());
+            return viewport.scaleLength(value * bounds.getWidth());
          } else {
-            return viewport.scaleLength(Double.parseDouble(lengthValue) * bounds.getHeight());
+            return viewport.scaleLength(value * bounds.getHeight());
          }
       }
-      m = NUMBER_UNIT.matcher(lengthValue);
-      if (m.matches()) {
-         String unitS = m.group(m.groupCount());
-         String startDigits = m.group(1);
-         String endDigit = null;
-         if (m.groupCount() > 1) {
-            endDigit = m.group(2);
+      double parsedValue = parseUnitNumber(lengthValue, start, unitStart);
+      if (Double.isNaN(parsedValue)) {
+         return 0d;
+      }
+      int unit = getUnit(lengthValue, unitStart, end);
+      if (unit == UNIT_PERCENT) {
+         if (isWidth) {
+            return viewport.scaleLength(parsedValue * viewport.getBestWidth() / 100);
+         } else {
+            return viewport.scaleLength(parsedValue * viewport.getBestHeight() / 100);
          }
-         double parsedValue;
-         if (endDigit == null) {
-            parsedValue = Double.parseDouble(startDigits);
+      } else {
+         return viewport.scaleLength(parsedValue * LENGTH_FACTORS[unit]);
+      }
+   }
+
+   private static int getStart(String value) {
+      int start = 0;
+      while (start < value.length() && value.charAt(start) <= ' ') {
+         start++;
+      }
+      return start;
+   }
+
+   private static int getEnd(String value, int start) {
+      int end = value.length();
+      while (end > start && value.charAt(end - 1) <= ' ') {
+         end--;
+      }
+      return end;
+   }
+
+   /**
+    * Return the start index of the unit of a value, or the end of the value if there is no unit.
+    *
+    * @param value the value
+    * @param start the start index of the value
+    * @param end the end index of the value
+    * @return the start index of the unit
+    */
+   private static int getUnitStart(String value, int start, int end) {
+      int unitStart = end;
+      while (unitStart > start) {
+         char c = value.charAt(unitStart - 1);
+         if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '%') {
+            unitStart--;
          } else {
-            parsedValue = Double.parseDouble(startDigits + endDigit);
+            break;
          }
-         switch (unitS) {
-            case "px":
-               return viewport.scaleLength(parsedValue);
-            case "pt":
-               return viewport.scaleLength(parsedValue * 96d / 72d);
-            case "em":
-               return viewport.scaleLength(parsedValue * 16);
-            case "ex":
-               // this is an approximation
-               // see https://stackoverflow.com/questions/918612/what-is-the-value-of-the-css-ex-unit
-               return viewport.scaleLength(parsedValue * 16 * (1.5d / 3d));
-            case "in":
-               return viewport.scaleLength(parsedValue / INCH);
-            case "cm":
-               return viewport.scaleLength(parsedValue * (96 / 2.54));
-            case "mm":
-               return viewport.scaleLength(parsedValue * (96 / (10 * 2.54)));
-            case "%":
-               if (isWidth) {
-                  return viewport.scaleLength(parsedValue * viewport.getBestWidth() / 100);
-               } else {
-                  return viewport.scaleLength(parsedValue * viewport.getBestHeight() / 100);
-               }
-            default:
-               return viewport.scaleLength(parsedValue);
+      }
+      return unitStart;
+   }
+
+   private static int getUnit(String value, int start, int end) {
+      int length = end - start;
+      if (length == 1) {
+         return value.charAt(start) == '%' ? UNIT_PERCENT : UNIT_UNKNOWN;
+      } else if (length != 2) {
+         return UNIT_UNKNOWN;
+      }
+      char c1 = value.charAt(start);
+      char c2 = value.charAt(start + 1);
+      switch (c1) {
+         case 'p':
+            if (c2 == 'x') {
+               return UNIT_PX;
+            } else if (c2 == 't') {
+               return UNIT_PT;
+            }
+            break;
+         case 'e':
+            if (c2 == 'm') {
+               return UNIT_EM;
+            } else if (c2 == 'x') {
+               return UNIT_EX;
+            }
+            break;
+         case 'i':
+            if (c2 == 'n') {
+               return UNIT_IN;
+            }
+            break;
+         case 'c':
+            if (c2 == 'm') {
+               return UNIT_CM;
+            }
+            break;
+         case 'm':
+            if (c2 == 'm') {
+               return UNIT_MM;
+            }
+            break;
+      }
+      return UNIT_UNKNOWN;
+   }
+
+   /**
+    * Parse a number without unit. The number is an optional minus sign, optional digits, and an optional fraction.
+    *
+    * @param value the value
+    * @param start the start index of the number
+    * @param end the end index of the number
+    * @return the number, or NaN if the value is not a number
+    * @throws NumberFormatException if the number has no digits
+    */
+   private static double parseNumber(String value, int start, int end) {
+      int pos = start;
+      if (pos < end && NumberParser.isMinus(value.charAt(pos))) {
+         pos++;
+      }
+      int digitsStart = pos;
+      while (pos < end && NumberParser.isDigit(value.charAt(pos))) {
+         pos++;
+      }
+      if (pos < end && value.charAt(pos) == '.') {
+         pos++;
+         int fractionStart = pos;
+         while (pos < end && NumberParser.isDigit(value.charAt(pos))) {
+            pos++;
+         }
+         if (pos == fractionStart) {
+            return Double.NaN;
          }
       }
-      return 0d;
+      if (pos != end) {
+         return Double.NaN;
+      } else if (pos == digitsStart) {
+         throw new NumberFormatException("No digits in \"" + value + "\"");
+      }
+      return NumberParser.parseDouble(value, start, end);
    }
+
+   /**
+    * Parse a number followed by a unit. The number is an optional minus sign, digits, and an optional fraction.
+    *
+    * @param value the value
+    * @param start the start index of the number
+    * @param end the end index of the number
+    * @return the number, or NaN if the value is not a number
+    */
+   private static double parseUnitNumber(String value, int start, int end) {
+      int pos = start;
+      if (pos < end && NumberParser.isMinus(value.charAt(pos))) {
+         pos++;
+      }
+      int digitsStart = pos;
+      while (pos < end && NumberParser.isDigit(value.charAt(pos))) {
+         pos++;
+      }
+      if (pos == digitsStart) {
+         return Double.NaN;
+      }
+      if (pos < end && value.charAt(pos) == '.') {
+         pos++;
+         while (pos < end && NumberParser.isDigit(value.charAt(pos))) {
+            pos++;
+         }
+      }
+      if (pos != end) {
+         return Double.NaN;
+      }
+      return NumberParser.parseDouble(value, start, end);
+   }
+
 }
@@ -0,0 +1,248 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+import java.util.Arrays;
+import java.util.List;
+import javafx.geometry.Bounds;
+import org.girod.javafx.svgimage.xml.specs.Viewport;
+
+/**
+ * This utility class parses lists of numbers, such as the "points" of polygons and polylines, the "viewBox", the
+ * "stroke-dasharray", or the arguments of animations.
+ *
+ * <p>The list is scanned in one pass over its characters, and the numbers are returned in a primitive array. The
+ * numbers are separated by white spaces and commas, or by their sign, as in <code>"10-5"</code>, or by a second
+ * decimal point, as in <code>".5.5"</code>. The rare values which have a unit are converted by the
+ * {@link LengthParser}.</p>
+ *
+ * @since 1.2
+ */
+public class NumberListParser {
+   private static final short MODE_NUMBER = 0;
+   private static final short MODE_POSITION = 1;
+   private static final short MODE_LENGTH = 2;
+   private static final short MODE_PLAIN_NUMBER = 3;
+   private static final double[] EMPTY = new double[0];
+
+   private NumberListParser() {
+   }
+
+   /**
+    * Parse a list of numbers. The numbers are not scaled.
+    *
+    * @param value the list
+    * @return the numbers
+    */
+   public static double[] parseNumbers(String value) {
+      return parse(value, MODE_NUMBER, null, null);
+   }
+
+   /**
+    * Parse a list of numbers without units. The numbers are not scaled.
+    *
+    * @param value the list
+    * @return the numbers, or null if a value of the list has a unit or is invalid
+    * @since 1.2
+    */
+   public static double[] parsePlainNumbers(String value) {
+      return parse(value, MODE_PLAIN_NUMBER, null, null);
+   }
+
+   /**
+    * Parse a list of coordinates, such as the "points" attribute of a polygon. The even indexes are X coordinates,
+    * and the odd indexes are Y coordinates.
+    *
+    * @param value the list
+    * @param bounds the optional bounds of the figure for which the coordinates are relative to
+    * @param viewport the viewport
+    * @return the coordinates
+    */
+   public static double[] parsePositions(String value, Bounds bounds, Viewport viewport) {
+      return parse(value, MODE_POSITION, bounds, viewport);
+   }
+
+   /**
+    * Parse a list of lengths, such as the "stroke-dasharray" property.
+    *
+    * @param value the list
+    * @param viewport the viewport
+    * @return the lengths
+    */
+   public static double[] parseLengths(String value, Viewport viewport) {
+      return parse(value, MODE_LENGTH, null, viewport);
+   }
+
+   /**
+    * Return a List view of an array of numbers, which can be used to set all the elements of an ObservableList in
+    * one change.
+    *
+    * @param values the numbers
+    * @return the List
+    */
+   public static List<Double> toList(double[] values) {
+      Double[] boxed = new Double[values.length];
+      for (int i = 0; i < values.length; i++) {
+         boxed[i] = values[i];
+      }
+      return Arrays.asList(boxed);
+   }
+
+   private static double[] parse(String value, short mode, Bounds bounds, Viewport viewport) {
+      if (value == null) {
+         return EMPTY;
+      }
+      int length = value.length();
+      double[] values = new double[Math.max(4, length / 4)];
+      int count = 0;
+      int pos = 0;
+      while (true) {
+         while (pos < length && isSeparator(value.charAt(pos))) {
+            pos++;
+         }
+         if (pos == length) {
+            break;
+         }
+         int start = pos;
+         int end = scanNumber(value, start, length);
+         double number;
+         if (end > start && (end == length || isSeparator(value.charAt(end)) || isNumberStart(value.charAt(end)))) {
+            number = scale(NumberParser.parseDouble(value, start, end), mode, count % 2 == 0, bounds, viewport);
+            pos = end;
+         } else if (mode == MODE_PLAIN_NUMBER) {
+            return null;
+         } else {
+            // a value with a unit, or an invalid value
+            end = Math.max(end, start + 1);
+            while (end < length && !isSeparator(value.charAt(end))) {
+               end++;
+            }
+            number = convert(value.substring(start, end), mode, count % 2 == 0, bounds, viewport);
+            pos = end;
+         }
+         if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+         }
+         values[count] = number;
+         count++;
+      }
+      return count == values.length ? values : Arrays.copyOf(values, count);
+   }
+
+   private static boolean isSeparator(char c) {
+      return c == ',' || c <= ' ';
+   }
+
+   private static boolean isNumberStart(char c) {
+      return NumberParser.isDigit(c) || NumberParser.isMinus(c) || c == '+' || c == '.';
+   }
+
+   /**
+    * Return the end of the number which begins at an index. The number is an optional sign, digits with an optional
+    * fraction, and an optional exponent.
+    *
+    * @param value the value
+    * @param start the start index
+    * @param length the length of the value
+    * @return the end index of the number, or the start index if there is no number
+    */
+   private static int scanNumber(String value, int start, int length) {
+      int pos = start;
+      char c = value.charAt(pos);
+      if (NumberParser.isMinus(c) || c == '+') {
+         pos++;
+      }
+      int digits = 0;
+      while (pos < length && NumberParser.isDigit(value.charAt(pos))) {
+         pos++;
+         digits++;
+      }
+      if (pos < length && value.charAt(pos) == '.') {
+         int fractionStart = pos + 1;
+         int fractionEnd = fractionStart;
+         while (fractionEnd < length && NumberParser.isDigit(value.charAt(fractionEnd))) {
+            fractionEnd++;
+         }
+         digits += fractionEnd - fractionStart;
+         if (fractionEnd > fractionStart) {
+            pos = fractionEnd;
+         }
+      }
+      if (digits == 0) {
+         return start;
+      }
+      if (pos < length && (value.charAt(pos) == 'e' || value.charAt(pos) == 'E')) {
+         int exp = pos + 1;
+         if (exp < length && (NumberParser.isMinus(value.charAt(exp)) || value.charAt(exp) == '+')) {
+            exp++;
+         }
+         int expStart = exp;
+         while (exp < length && NumberParser.isDigit(value.charAt(exp))) {
+            exp++;
+         }
+         if (exp > expStart) {
+            pos = exp;
+         }
+      }
+      return pos;
+   }
+
+   private static double scale(double number, short mode, boolean isWidth, Bounds bounds, Viewport viewport) {
+      switch (mode) {
+         case MODE_POSITION:
+            if (bounds != null) {
+               if (isWidth) {
+                  number = bounds.getMinX() + number * bounds.getWidth();
+               } else {
+                  number = bounds.getMinY() + number * bounds.getHeight();
+               }
+            }
+            return viewport != null ? viewport.scalePosition(number, isWidth) : number;
+         case MODE_LENGTH:
+            return viewport != null ? viewport.scaleLength(number) : number;
+         default:
+            return number;
+      }
+   }
+
+   private static double convert(String token, short mode, boolean isWidth, Bounds bounds, Viewport viewport) {
+      switch (mode) {
+         case MODE_POSITION:
+            return ParserUtils.parsePositionValue(token, isWidth, bounds, viewport);
+         case MODE_LENGTH:
+            return ParserUtils.parseLengthValue(token, true, null, viewport);
+         default:
+            return ParserUtils.parseDoubleProtected(token);
+      }
+   }
+}
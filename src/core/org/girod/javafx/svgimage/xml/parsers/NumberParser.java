@@ -0,0 +1,142 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+/**
+ * This utility class converts decimal numbers without creating intermediate Strings.
+ *
+ * @since 1.2
+ */
+public class NumberParser {
+   private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+   private static final char MINUS = '−';
+
+   private NumberParser() {
+   }
+
+   /**
+    * Return true if a character is a minus sign. The Unicode minus sign is also accepted.
+    *
+    * @param c the character
+    * @return true if the character is a minus sign
+    */
+   public static boolean isMinus(char c) {
+      return c == '-' || c == MINUS;
+   }
+
+   /**
+    * Return true if a character is a decimal digit.
+    *
+    * @param c the character
+    * @return true if the character is a decimal digit
+    */
+   public static boolean isDigit(char c) {
+      return c >= '0' && c <= '9';
+   }
+
+   /**
+    * Convert a part of a String to a double. The part must be a valid decimal number: an optional sign, digits
+    * with an optional fraction, and an optional exponent. The result is the same as the result of
+    * {@link Double#parseDouble(String)} for this part.
+    *
+    * @param value the String
+    * @param start the start index of the number
+    * @param end the end index of the number (exclusive)
+    * @return the number
+    */
+   public static double parseDouble(String value, int start, int end) {
+      int pos = start;
+      boolean negative = false;
+      char c = value.charAt(pos);
+      if (isMinus(c)) {
+         negative = true;
+         pos++;
+      } else if (c == '+') {
+         pos++;
+      }
+      long mantissa = 0;
+      int digits = 0;
+      int exponent = 0;
+      boolean isFraction = false;
+      while (pos < end) {
+         c = value.charAt(pos);
+         if (c == '.') {
+            isFraction = true;
+         } else if (isDigit(c)) {
+            if (digits < 18) {
+               mantissa = mantissa * 10 + (c - '0');
+               if (mantissa != 0) {
+                  digits++;
+               }
+               if (isFraction) {
+                  exponent--;
+               }
+            } else if (!isFraction) {
+               exponent++;
+            }
+         } else {
+            break;
+         }
+         pos++;
+      }
+      if (pos < end) {
+         // exponent
+         pos++;
+         boolean negativeExp = false;
+         c = value.charAt(pos);
+         if (isMinus(c)) {
+            negativeExp = true;
+            pos++;
+         } else if (c == '+') {
+            pos++;
+         }
+         int exp = 0;
+         while (pos < end && exp < 10000) {
+            exp = exp * 10 + (value.charAt(pos) - '0');
+            pos++;
+         }
+         exponent += negativeExp ? -exp : exp;
+      }
+      double result;
+      if (digits > 15 || exponent < -22 || exponent > 22) {
+         // the result could not be computed exactly
+         result = Math.abs(Double.parseDouble(value.substring(start, end).replace(MINUS, '-')));
+      } else if (exponent < 0) {
+         result = mantissa / POWERS_OF_TEN[-exponent];
+      } else {
+         result = mantissa * POWERS_OF_TEN[exponent];
+      }
+      return negative ? -result : result;
+   }
+}
@@ -0,0 +1,293 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import org.girod.javafx.svgimage.GlobalConfig;
+
+/**
+ * A bounded cache of parsed colors, shared by all the loads. The colors are immutable, so the same instance can be
+ * used by any number of nodes. All the color formats supported by {@link Color#web(String, double)} are cached:
+ * named colors, hexadecimal colors, and the rgb(), rgba(), hsl() and hsla() functions.
+ *
+ * <p>The least recently used colors are evicted first. The hit and miss counts allow to choose the maximum size of
+ * the cache.</p>
+ *
+ * <p>The cache also keeps the gradients resolved by the loads, so that identical gradients use the same Paint
+ * instance in all the documents. The gradients have their own hit, miss and eviction counts.</p>
+ *
+ * @since 1.2
+ */
+public class PaintCache {
+   /**
+    * The default maximum number of colors.
+    */
+   public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+   /**
+    * The maximum number of gradients.
+    */
+   public static final int MAXIMUM_GRADIENTS = 256;
+   private static final PaintCache INSTANCE = new PaintCache();
+   private static final char OPACITY_SEPARATOR = '|';
+   private final LinkedHashMap<String, Color> colors = new LinkedHashMap<>(64, 0.75f, true);
+   private final LinkedHashMap<Paint, Paint> gradients = new LinkedHashMap<>(64, 0.75f, true);
+   private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+   private long hitCount = 0;
+   private long missCount = 0;
+   private long evictionCount = 0;
+   private long gradientHitCount = 0;
+   private long gradientMissCount = 0;
+   private long gradientEvictionCount = 0;
+
+   private PaintCache() {
+   }
+
+   /**
+    * Return the unique instance of the cache.
+    *
+    * @return the cache
+    */
+   public static PaintCache getInstance() {
+      return INSTANCE;
+   }
+
+   /**
+    * Return the color with a specified String value. Color specified as "none" will return a null color.
+    *
+    * @param value the color value
+    * @return the color, or null if the value is "none" or is not a valid color
+    */
+   public Color getColor(String value) {
+      if (value.equals(SVGTags.NONE)) {
+         return null;
+      }
+      return getColor(value, value, 1d);
+   }
+
+   /**
+    * Return the color with a specified String value and opacity. The opacity is multiplied with the opacity of the
+    * color value.
+    *
+    * @param value the color value
+    * @param opacity the opacity
+    * @return the color, or null if the value is not a valid color
+    */
+   public Color getColor(String value, double opacity) {
+      if (opacity == 1d) {
+         return getColor(value, value, opacity);
+      } else {
+         return getColor(value + OPACITY_SEPARATOR + opacity, value, opacity);
+      }
+   }
+
+   private Color getColor(String key, String value, double opacity) {
+      synchronized (this) {
+         Color color = colors.get(key);
+         if (color != null) {
+            hitCount++;
+            return color;
+         }
+         missCount++;
+      }
+      Color color;
+      try {
+         color = Color.web(value, opacity);
+      } catch (IllegalArgumentException ex) {
+         GlobalConfig.getInstance().handleParsingError("Color " + value + " is illegal");
+         return null;
+      }
+      synchronized (this) {
+         colors.put(key, color);
+         evict();
+      }
+      return color;
+   }
+
+   /**
+    * Return the shared instance of a gradient. The gradients are immutable and compared by value, so a gradient
+    * which is equal to a gradient already in the cache is replaced by this gradient.
+    *
+    * @param gradient the gradient
+    * @return the shared gradient
+    */
+   public synchronized Paint getGradient(Paint gradient) {
+      Paint shared = gradients.get(gradient);
+      if (shared != null) {
+         gradientHitCount++;
+         return shared;
+      }
+      gradientMissCount++;
+      gradients.put(gradient, gradient);
+      if (gradients.size() > MAXIMUM_GRADIENTS) {
+         Iterator<Paint> it = gradients.keySet().iterator();
+         it.next();
+         it.remove();
+         gradientEvictionCount++;
+      }
+      return gradient;
+   }
+
+   /**
+    * Return the number of gradients in the cache.
+    *
+    * @return the number of gradients
+    */
+   public synchronized int getGradientCount() {
+      return gradients.size();
+   }
+
+   /**
+    * Return the number of gradients which were found in the cache.
+    *
+    * @return the number of gradient hits
+    */
+   public synchronized long getGradientHitCount() {
+      return gradientHitCount;
+   }
+
+   /**
+    * Return the number of gradients which were not in the cache.
+    *
+    * @return the number of gradient misses
+    */
+   public synchronized long getGradientMissCount() {
+      return gradientMissCount;
+   }
+
+   /**
+    * Return the number of gradients which have been evicted from the cache.
+    *
+    * @return the number of gradient evictions
+    */
+   public synchronized long getGradientEvictionCount() {
+      return gradientEvictionCount;
+   }
+
+   private void evict() {
+      Iterator<Map.Entry<String, Color>> it = colors.entrySet().iterator();
+      while (colors.size() > maximumSize && it.hasNext()) {
+         it.next();
+         it.remove();
+         evictionCount++;
+      }
+   }
+
+   /**
+    * Set the maximum number of colors. The least recently used colors are evicted if the cache has more colors.
+    *
+    * @param maximumSize the maximum number of colors
+    */
+   public synchronized void setMaximumSize(int maximumSize) {
+      this.maximumSize = maximumSize;
+      evict();
+   }
+
+   /**
+    * Return the maximum number of colors.
+    *
+    * @return the maximum number of colors
+    */
+   public synchronized int getMaximumSize() {
+      return maximumSize;
+   }
+
+   /**
+    * Return the number of colors in the cache.
+    *
+    * @return the number of colors
+    */
+   public synchronized int size() {
+      return colors.size();
+   }
+
+   /**
+    * Return the number of colors which were found in the cache.
+    *
+    * @return the number of hits
+    */
+   public synchronized long getHitCount() {
+      return hitCount;
+   }
+
+   /**
+    * Return the number of colors which had to be parsed.
+    *
+    * @return the number of misses
+    */
+   public synchronized long getMissCount() {
+      return missCount;
+   }
+
+   /**
+    * Return the number of colors which have been evicted from the cache.
+    *
+    * @return the number of evictions
+    */
+   public synchronized long getEvictionCount() {
+      return evictionCount;
+   }
+
+   /**
+    * Return the ratio of the colors which were found in the cache.
+    *
+    * @return the hit rate, between 0 and 1, or 0 if no color has been requested
+    */
+   public synchronized double getHitRate() {
+      long requestCount = hitCount + missCount;
+      return requestCount == 0 ? 0d : (double) hitCount / requestCount;
+   }
+
+   /**
+    * Remove all the colors and gradients from the cache. The counters are not reset.
+    */
+   public synchronized void clear() {
+      colors.clear();
+      gradients.clear();
+   }
+
+   /**
+    * Reset the hit, miss and eviction counters of the colors and the gradients.
+    */
+   public synchronized void resetStatistics() {
+      hitCount = 0;
+      missCount = 0;
+      evictionCount = 0;
+      gradientHitCount = 0;
+      gradientMissCount = 0;
+      gradientEvictionCount = 0;
+   }
+}
@@ -49,7 +49,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javafx.geometry.Bounds;
 import javafx.scene.Node;
-import javafx.scene.effect.ColorAdjust;
 import javafx.scene.effect.Effect;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
@@ -70,33 +69,25 @@ import org.girod.javafx.svgimage.xml.specs.Viewport;
 /**
  * Several utilities for shape parsing.
  *
- * @version 1.1
+ * @version 1.2
  */
 public class ParserUtils implements SVGTags {
    private static final Pattern ZERO = Pattern.compile("[\\-−+]?0+");
    private static final Pattern FONT_SIZE_PAT = Pattern.compile("(\\d+\\.?\\d*)([a-z]+)?");
-   private static final Pattern URL_PAT = Pattern.compile("url\\('?([^']+)'?\\)");
    private static final Pattern IMG_URL = Pattern.compile("data:image/(\\w+);base64,([^ ]+)\\s*");
 
    private ParserUtils() {
    }
 
    /**
-    * Return the color with a specified String value. Color specified as "none" will return a null color.
+    * Return the color with a specified String value. Color specified as "none" will return a null color. The colors
+    * are cached by the {@link PaintCache}.
     *
     * @param value the color value
     * @return the color
     */
    public static Color getColor(String value) {
-      if (value.equals(NONE)) {
-         return null;
-      }
-      try {
-         return Color.web(value);
-      } catch (IllegalArgumentException ex) {
-         GlobalConfig.getInstance().handleParsingError("Color " + value + " is illegal");
-         return null;
-      }
+      return PaintCache.getInstance().getColor(value);
    }
 
    public static Image getImage(URL url, String href, double width, double height) {
@@ -137,9 +128,17 @@ public class ParserUtils implements SVGTags {
     * @return the color
     */
    public static String getURL(String value) {
-      Matcher m = URL_PAT.matcher(value);
-      if (m.matches()) {
-         value = m.group(1);
+      if (value.startsWith("url(") && value.endsWith(")")) {
+         int start = 4;
+         int end = value.length() - 1;
+         if (end - start >= 2) {
+            char quote = value.charAt(start);
+            if ((quote == '\'' || quote == '"') && value.charAt(end - 1) == quote) {
+               start++;
+               end--;
+            }
+         }
+         value = value.substring(start, end);
       }
       if (value.startsWith("#")) {
          value = value.substring(1);
@@ -206,25 +205,30 @@ public class ParserUtils implements SVGTags {
    }
 
    public static List<Double> parseDashArray(String value, Viewport viewport) {
-      if (value == null || value.equals(NONE)) {
+      double[] dashes = parseDashes(value, viewport);
+      if (dashes == null) {
          return null;
       }
-      List<Double> list = new ArrayList<>();
-      StringTokenizer tokenizer = new StringTokenizer(value, " ,");
-      while (tokenizer.hasMoreTokens()) {
-         String dash = tokenizer.nextToken();
-         list.add(parseLengthValue(dash, true, null, viewport));
-      }
-      return list;
+      return NumberListParser.toList(dashes);
    }
 
-   public static Color getColor(String value, double opacity) {
-      try {
-         return Color.web(value, opacity);
-      } catch (IllegalArgumentException ex) {
-         GlobalConfig.getInstance().handleParsingError("Color " + value + " is illegal");
+   /**
+    * Parse the value of a "stroke-dasharray" property.
+    *
+    * @param value the value
+    * @param viewport the viewport
+    * @return the dashes, or null if the value is null or "none"
+    * @since 1.2
+    */
+   public static double[] parseDashes(String value, Viewport viewport) {
+      if (value == null || value.equals(NONE)) {
          return null;
       }
+      return NumberListParser.parseLengths(value, viewport);
+   }
+
+   public static Color getColor(String value, double opacity) {
+      return PaintCache.getInstance().getColor(value, opacity);
    }
 
    public static boolean parseVisibility(String value) {
@@ -384,58 +388,14 @@ public class ParserUtils implements SVGTags {
     * @return the effect to apply
     */
    public static Effect expressFilter(Map<String, FilterSpec> filterSpecs, Node node, String value) {
-      Map<String, Effect> namedEffects = new HashMap<>();
-      List<FilterSpec.AppliedEffect> appliedEffects = new ArrayList<>();
-      Effect lastEffect = null;
-      boolean useSourceAlpha = false;
-      if (!value.equals(NONE)) {
-         if (value.startsWith("url(")) {
-            String id = ParserUtils.getURL(value);
-            if (filterSpecs.containsKey(id)) {
-               FilterSpec spec = filterSpecs.get(id);
-               List<FilterSpec.FilterEffect> effects = spec.getEffects();
-               for (int i = 0; i < effects.size(); i++) {
-                  FilterSpec.FilterEffect filterEffect = effects.get(i);
-                  if (filterEffect instanceof FilterSpec.FEComposite) {
-                     FilterSpec.FEComposite feComposite = (FilterSpec.FEComposite) filterEffect;
-                     boolean toApply = feComposite.shouldApply(appliedEffects, i);
-                     if (!toApply) {
-                        continue;
-                     }
-                  }
-                  if (filterEffect.getInputType() == FilterSpec.SOURCE_ALPHA_EFFECT) {
-                     useSourceAlpha = true;
-                  }
-                  String resultId = filterEffect.getResultId();
-                  lastEffect = filterEffect.getEffect(node);
-                  appliedEffects.add(new FilterSpec.AppliedEffect(filterEffect, lastEffect));
-                  if (resultId != null && lastEffect != null) {
-                     namedEffects.put(resultId, lastEffect);
-                  }
-               }
-            }
-         }
-         /* If at least one of the filters use the source alpha, we create one
-          * ColorAdjust effect to create this source alpha equivalent
-          */
-         ColorAdjust sourceAlpha = null;
-         if (useSourceAlpha) {
-            sourceAlpha = new ColorAdjust();
-            // this works with the brightness. Interestingly, it does not work if we try to use the hue or the saturation
-            sourceAlpha.setBrightness(-1d);
-         }
-         Effect previousEffect = null;
-         Iterator<FilterSpec.AppliedEffect> it = appliedEffects.iterator();
-         while (it.hasNext()) {
-            FilterSpec.AppliedEffect appliedEffect = it.next();
-            FilterSpec.FilterEffect spec = appliedEffect.getEffectSpec();
-            Effect effect = appliedEffect.getEffect();
-            spec.resolveEffect(effect, sourceAlpha, previousEffect, namedEffects);
-            previousEffect = effect;
+      if (!value.equals(NONE) && value.startsWith("url(")) {
+         String id = ParserUtils.getURL(value);
+         FilterSpec spec = filterSpecs.get(id);
+         if (spec != null) {
+            return spec.getCompiledFilter().getEffect(node);
          }
       }
-
-      return lastEffect;
+      return null;
    }
 
    public static void setBaselineShift(Text text, String value) {
@@ -470,21 +430,9 @@ public class ParserUtils implements SVGTags {
    public static Map<String, String> getStyles(XMLNode node) {
       Map<String, String> styles = new HashMap<>();
       if (node.hasAttribute(STYLE)) {
-         String styleValue = node.getAttributeValue(STYLE);
-         StringTokenizer tok = new StringTokenizer(styleValue, ";");
-         while (tok.hasMoreTokens()) {
-            String tk = tok.nextToken().trim();
-            if (tk.isEmpty()) {
-               continue;
-            }
-            int index = tk.indexOf(':');
-            if (index != -1) {
-               String key = tk.substring(0, index);
-               if (index < tk.length() - 1) {
-                  String value = tk.substring(index + 1);
-                  styles.put(key, value);
-               }
-            }
+         InlineStyle style = InlineStyle.parse(node.getAttributeValue(STYLE));
+         for (int i = 0; i < style.size(); i++) {
+            styles.put(style.getName(i), style.getValue(i));
          }
       }
       return styles;
@@ -493,21 +441,9 @@ public class ParserUtils implements SVGTags {
    public static String mergeStyles(Map<String, String> styles, XMLNode node) {
       styles = new HashMap<>(styles);
       if (node.hasAttribute(STYLE)) {
-         String styleValue = node.getAttributeValue(STYLE);
-         StringTokenizer tok = new StringTokenizer(styleValue, ";");
-         while (tok.hasMoreTokens()) {
-            String tk = tok.nextToken().trim();
-            if (tk.isEmpty()) {
-               continue;
-            }
-            int index = tk.indexOf(':');
-            if (index != -1) {
-               String key = tk.substring(0, index);
-               if (index < tk.length() - 1) {
-                  String value = tk.substring(index + 1);
-                  styles.put(key, value);
-               }
-            }
+         InlineStyle style = InlineStyle.parse(node.getAttributeValue(STYLE));
+         for (int i = 0; i < style.size(); i++) {
+            styles.put(style.getName(i), style.getValue(i));
          }
       }
       StringBuilder buf = new StringBuilder();
@@ -519,26 +455,6 @@ public class ParserUtils implements SVGTags {
       return buf.toString();
    }
 
-   public static void propagateStyleAttributes(XMLNode parentNode, XMLNode childNode) {
-      if (childNode.getName().equals(TSPAN)) {
-         return;
-      }
-      Iterator<Map.Entry<String, String>> it = parentNode.attributes.entrySet().iterator();
-      while (it.hasNext()) {
-         Map.Entry<String, String> entry = it.next();
-         switch (entry.getKey()) {
-            case STYLE:
-            case STROKE:
-            case FILL:
-            case STROKE_WIDTH:
-            case CLASS:
-               if (!childNode.hasAttribute(entry.getKey())) {
-                  childNode.addAttribute(entry.getKey(), entry.getValue());
-               }
-         }
-      }
-   }
-
    public static boolean setVisibility(Node node, XMLNode xmlNode) {
       if (xmlNode.hasAttribute(VISIBILITY)) {
          String visibilityS = xmlNode.getAttributeValue(VISIBILITY);
@@ -578,12 +494,12 @@ public class ParserUtils implements SVGTags {
       boolean hasWidthAndHeight = false;
       if (xmlNode.hasAttribute(VIEWBOX)) {
          String box = xmlNode.getAttributeValue(VIEWBOX);
-         StringTokenizer tok = new StringTokenizer(box, " ,");
-         if (tok.countTokens() >= 4) {
-            viewboxX = ParserUtils.parseDoubleProtected(tok.nextToken());
-            viewboxY = ParserUtils.parseDoubleProtected(tok.nextToken());
-            viewboxWidth = ParserUtils.parseDoubleProtected(tok.nextToken());
-            viewboxHeight = ParserUtils.parseDoubleProtected(tok.nextToken());
+         double[] values = NumberListParser.parseNumbers(box);
+         if (values.length >= 4) {
+            viewboxX = values[0];
+            viewboxY = values[1];
+            viewboxWidth = values[2];
+            viewboxHeight = values[3];
          }
       }
       if (xmlNode.hasAttribute(WIDTH) && xmlNode.hasAttribute(HEIGHT)) {
@@ -632,14 +548,10 @@ public class ParserUtils implements SVGTags {
          double height = xmlNode.getLengthValue(HEIGHT, viewport, 0);
          if (xmlNode.hasAttribute(VIEWBOX)) {
             String box = xmlNode.getAttributeValue(VIEWBOX);
-            StringTokenizer tok = new StringTokenizer(box, " ,");
-            if (tok.countTokens() >= 4) {
-               double viewboxX = ParserUtils.parseDoubleProtected(tok.nextToken());
-               double viewboxY = ParserUtils.parseDoubleProtected(tok.nextToken());
-               double viewboxWidth = ParserUtils.parseDoubleProtected(tok.nextToken());
-               double viewboxHeight = ParserUtils.parseDoubleProtected(tok.nextToken());
+            double[] values = NumberListParser.parseNumbers(box);
+            if (values.length >= 4) {
                Viewbox theViewbox = new Viewbox(width, height);
-               theViewbox.setViewbox(viewboxX, viewboxY, viewboxWidth, viewboxHeight);
+               theViewbox.setViewbox(values[0], values[1], values[2], values[3]);
                return theViewbox;
             } else {
                return null;
@@ -658,14 +570,10 @@ public class ParserUtils implements SVGTags {
          double height = xmlNode.getLengthValue(MARKER_HEIGHT, viewport, 0);
          if (xmlNode.hasAttribute(VIEWBOX)) {
             String box = xmlNode.getAttributeValue(VIEWBOX);
-            StringTokenizer tok = new StringTokenizer(box, " ,");
-            if (tok.countTokens() >= 4) {
-               double viewboxX = ParserUtils.parseDoubleProtected(tok.nextToken());
-               double viewboxY = ParserUtils.parseDoubleProtected(tok.nextToken());
-               double viewboxWidth = ParserUtils.parseDoubleProtected(tok.nextToken());
-               double viewboxHeight = ParserUtils.parseDoubleProtected(tok.nextToken());
+            double[] values = NumberListParser.parseNumbers(box);
+            if (values.length >= 4) {
                Viewbox theViewbox = new Viewbox(width, height);
-               theViewbox.setViewbox(viewboxX, viewboxY, viewboxWidth, viewboxHeight);
+               theViewbox.setViewbox(values[0], values[1], values[2], values[3]);
                return theViewbox;
             } else {
                return null;
@@ -0,0 +1,89 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+/**
+ * The tokenized content of a path. The commands and their arguments are the ones of the {@link PathTokenizer}, and
+ * do not depend on the scale, so the data of a path can be kept by a read-only {@link XMLNode} and used for all the
+ * images created from the same document. A PathData is immutable.
+ *
+ * @since 1.2
+ */
+public final class PathData {
+   private final byte[] commands;
+   private final double[] values;
+
+   PathData(byte[] commands, double[] values) {
+      this.commands = commands;
+      this.values = values;
+   }
+
+   /**
+    * Return the number of commands.
+    *
+    * @return the number of commands
+    */
+   public int getCommandCount() {
+      return commands.length;
+   }
+
+   /**
+    * Return the letter of a command.
+    *
+    * @param index the command index
+    * @return the command letter
+    */
+   public int getCommand(int index) {
+      return commands[index];
+   }
+
+   /**
+    * Return the number of arguments of all the commands.
+    *
+    * @return the number of arguments
+    */
+   public int getValueCount() {
+      return values.length;
+   }
+
+   /**
+    * Return an argument value. The arguments of the commands are stored in the order of the commands. The arc flags
+    * are stored as 0 or 1.
+    *
+    * @param index the argument index
+    * @return the value
+    */
+   public double getValue(int index) {
+      return values[index];
+   }
+}
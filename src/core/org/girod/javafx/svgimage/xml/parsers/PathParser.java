@@ -34,21 +34,33 @@ package org.girod.javafx.svgimage.xml.parsers;
 
 import java.util.ArrayList;
 import java.util.List;
+import javafx.scene.shape.ArcTo;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.CubicCurveTo;
+import javafx.scene.shape.HLineTo;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import javafx.scene.shape.QuadCurveTo;
 import javafx.scene.shape.SVGPath;
+import javafx.scene.shape.VLineTo;
 import org.girod.javafx.svgimage.xml.specs.Viewport;
 
 /**
  * This class parse a path content specification.
  *
- * @version 1.1
+ * @version 1.2
  */
 public class PathParser extends AbstractPathParser {
+   private final PathTokenizer tokenizer = new PathTokenizer();
 
    public PathParser() {
    }
 
    /**
-    * Parse a path content.
+    * Parse a path content. If the viewport is scaled, the coordinates of the path are scaled, else the content
+    * is used as is.
     *
     * @param content the path content
     * @param viewport the viewport
@@ -56,212 +68,230 @@ public class PathParser extends AbstractPathParser {
     * @return the path taking into account the viewport and the units
     */
    public List<SVGPath> parsePathContent(String content, Viewport viewport, boolean hasFill) {
-      List<SVGPath> listPath = new ArrayList<>();
-      short type = PATH_NONE;
-      int index = 0;
-      boolean isFirst = true;
-      StringBuilder buf = new StringBuilder();
-      List<String> list = new ArrayList<>();
-      list.add(content);
-      for (int i = 0; i < list.size(); i++) {
-         String tk = list.get(i);
-         switch (tk) {
-            case "m":
-            case "M":
-               if (!isFirst) {
-                  SVGPath path = new SVGPath();
-                  path.setContent(buf.toString());
-                  listPath.add(path);
-                  buf = new StringBuilder();
-               }
-               type = MOVE_TO;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
-               break;
-            case "h":
-            case "H":
-               type = HORIZONTAL_LINE_TO;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
-               break;
-            case "v":
-            case "V":
-               type = VERTICAL_LINE_TO;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
+      if (content.isEmpty()) {
+         return null;
+      }
+      SVGPath path = new SVGPath();
+      if (viewport != null && viewport.isScaled()) {
+         tokenizer.tokenize(content);
+         path.setContent(createContent(tokenizer.getPathData(), viewport));
+      } else {
+         path.setContent(content);
+      }
+      List<SVGPath> listPath = new ArrayList<>(1);
+      listPath.add(path);
+      return listPath;
+   }
+
+   /**
+    * Return the tokenized content of the {@link SVGTags#D} attribute of a path. The tokenized content is kept by the
+    * node if it is read-only, so that the attribute is tokenized only once for all the images created from the same
+    * document.
+    *
+    * @param xmlNode the path node
+    * @return the path data, or null if the node has no path content
+    * @since 1.2
+    */
+   public PathData getPathData(XMLNode xmlNode) {
+      Object parsed = xmlNode.getParsedValue(SVGTags.D);
+      if (parsed instanceof PathData) {
+         return (PathData) parsed;
+      }
+      String content = xmlNode.getAttributeValue(SVGTags.D);
+      if (content == null) {
+         return null;
+      }
+      tokenizer.tokenize(content.replace('−', '-'));
+      PathData data = tokenizer.getPathData();
+      xmlNode.setParsedValue(SVGTags.D, data);
+      return data;
+   }
+
+   /**
+    * Create a path from a tokenized path content, with the coordinates scaled by the viewport.
+    *
+    * @param data the path data
+    * @param viewport the viewport
+    * @return the path taking into account the viewport
+    * @since 1.2
+    */
+   public List<SVGPath> parsePathContent(PathData data, Viewport viewport) {
+      if (data.getCommandCount() == 0) {
+         return null;
+      }
+      SVGPath path = new SVGPath();
+      path.setContent(createContent(data, viewport));
+      List<SVGPath> listPath = new ArrayList<>(1);
+      listPath.add(path);
+      return listPath;
+   }
+
+   /**
+    * Parse a path content and create the associated Path. The elements of the Path use absolute coordinates, and
+    * the smooth curves of the content are converted to cubic or quadratic curves.
+    *
+    * @param content the path content
+    * @param viewport the viewport (may be null)
+    * @return the Path
+    * @since 1.2
+    */
+   public Path parsePath(String content, Viewport viewport) {
+      tokenizer.tokenize(content);
+      int count = tokenizer.getCommandCount();
+      List<PathElement> elements = new ArrayList<>(count);
+      double x = 0;
+      double y = 0;
+      double startX = 0;
+      double startY = 0;
+      double ctrlX = 0;
+      double ctrlY = 0;
+      int previous = 0;
+      int offset = 0;
+      for (int i = 0; i < count; i++) {
+         int command = tokenizer.getCommand(i);
+         double originX = PathTokenizer.isRelative(command) ? x : 0;
+         double originY = PathTokenizer.isRelative(command) ? y : 0;
+         switch (command) {
+            case 'M':
+            case 'm':
+               x = originX + tokenizer.getValue(offset);
+               y = originY + tokenizer.getValue(offset + 1);
+               startX = x;
+               startY = y;
+               elements.add(new MoveTo(scale(x, viewport), scale(y, viewport)));
                break;
-            case "l":
-            case "L":
-               type = LINE_TO;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
+            case 'L':
+            case 'l':
+               x = originX + tokenizer.getValue(offset);
+               y = originY + tokenizer.getValue(offset + 1);
+               elements.add(new LineTo(scale(x, viewport), scale(y, viewport)));
                break;
-            case "c":
-            case "C":
-               type = CUBIC_CURVE;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
+            case 'H':
+            case 'h':
+               x = originX + tokenizer.getValue(offset);
+               elements.add(new HLineTo(scale(x, viewport)));
                break;
-            case "q":
-            case "Q":
-               type = QUADRATIC_CURVE;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
+            case 'V':
+            case 'v':
+               y = originY + tokenizer.getValue(offset);
+               elements.add(new VLineTo(scale(y, viewport)));
                break;
-            case "s":
-            case "S":
-               type = SMOOTH_CUBIC_CURVE;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
+            case 'C':
+            case 'c':
+            case 'S':
+            case 's': {
+               double x1;
+               double y1;
+               int index = offset;
+               if (command == 'C' || command == 'c') {
+                  x1 = originX + tokenizer.getValue(index);
+                  y1 = originY + tokenizer.getValue(index + 1);
+                  index += 2;
+               } else if (previous == 'C' || previous == 'c' || previous == 'S' || previous == 's') {
+                  // the first control point is the reflection of the second control point of the previous curve
+                  x1 = 2 * x - ctrlX;
+                  y1 = 2 * y - ctrlY;
+               } else {
+                  x1 = x;
+                  y1 = y;
+               }
+               ctrlX = originX + tokenizer.getValue(index);
+               ctrlY = originY + tokenizer.getValue(index + 1);
+               x = originX + tokenizer.getValue(index + 2);
+               y = originY + tokenizer.getValue(index + 3);
+               elements.add(new CubicCurveTo(scale(x1, viewport), scale(y1, viewport), scale(ctrlX, viewport), scale(ctrlY, viewport),
+                  scale(x, viewport), scale(y, viewport)));
                break;
-            case "t":
-            case "T":
-               type = SMOOTH_QUADRATIC_CURVE;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
+            }
+            case 'Q':
+            case 'q':
+            case 'T':
+            case 't': {
+               int index = offset;
+               if (command == 'Q' || command == 'q') {
+                  ctrlX = originX + tokenizer.getValue(index);
+                  ctrlY = originY + tokenizer.getValue(index + 1);
+                  index += 2;
+               } else if (previous == 'Q' || previous == 'q' || previous == 'T' || previous == 't') {
+                  ctrlX = 2 * x - ctrlX;
+                  ctrlY = 2 * y - ctrlY;
+               } else {
+                  ctrlX = x;
+                  ctrlY = y;
+               }
+               x = originX + tokenizer.getValue(index);
+               y = originY + tokenizer.getValue(index + 1);
+               elements.add(new QuadCurveTo(scale(ctrlX, viewport), scale(ctrlY, viewport), scale(x, viewport), scale(y, viewport)));
                break;
-            case "a":
-            case "A":
-               type = ELLIPTICAL_CURVE;
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
+            }
+            case 'A':
+            case 'a': {
+               double rx = Math.abs(tokenizer.getValue(offset));
+               double ry = Math.abs(tokenizer.getValue(offset + 1));
+               double rotation = tokenizer.getValue(offset + 2);
+               boolean largeArc = tokenizer.getValue(offset + 3) != 0;
+               boolean sweep = tokenizer.getValue(offset + 4) != 0;
+               x = originX + tokenizer.getValue(offset + 5);
+               y = originY + tokenizer.getValue(offset + 6);
+               elements.add(new ArcTo(scale(rx, viewport), scale(ry, viewport), rotation, scale(x, viewport), scale(y, viewport), largeArc, sweep));
                break;
-            case "z":
-            case "Z":
-               index = -1;
-               addPathCommand(buf, tk, isFirst);
-               type = CLOSE_PATH;
+            }
+            case 'Z':
+            case 'z':
+               x = startX;
+               y = startY;
+               elements.add(new ClosePath());
                break;
-            default:
-               switch (type) {
-                  case MOVE_TO:
-                  case LINE_TO:
-                     index++;
-                     if (index == 2) {
-                        index = 0;
-                     }
-                     if (index == 0) {
-                        double d = LengthParser.parseLength(tk, true, viewport);
-                        addPathCommand(buf, d);
-                     } else if (index == 1) {
-                        double d = LengthParser.parseLength(tk, false, viewport);
-                        addPathCommand(buf, d);
-                     } else {
-                        addPathCommand(buf, tk);
-                     }
-                     break;
-                  case HORIZONTAL_LINE_TO: {
-                     index++;
-                     double d = LengthParser.parseLength(tk, true, viewport);
-                     addPathCommand(buf, d);
-                     break;
-                  }
-                  case VERTICAL_LINE_TO: {
-                     index++;
-                     double d = LengthParser.parseLength(tk, false, viewport);
-                     addPathCommand(buf, d);
-                     break;
-                  }
-                  case CUBIC_CURVE:
-                     index++;
-                     if (index == 6) {
-                        index = 0;
-                     }
-                     if (index == 0 || index == 2 || index == 4) {
-                        double d = LengthParser.parseLength(tk, true, viewport);
-                        addPathCommand(buf, d);
-                     } else if (index == 1 || index == 3 || index == 5) {
-                        double d = LengthParser.parseLength(tk, false, viewport);
-                        addPathCommand(buf, d);
-                     } else {
-                        addPathCommand(buf, tk);
-                     }
-                     break;
-                  case SMOOTH_CUBIC_CURVE:
-                  case QUADRATIC_CURVE:
-                     index++;
-                     if (index == 4) {
-                        index = 0;
-                     }
-                     if (index == 0 || index == 2) {
-                        double d = LengthParser.parseLength(tk, true, viewport);
-                        addPathCommand(buf, d);
-                     } else if (index == 1 || index == 3) {
-                        double d = LengthParser.parseLength(tk, false, viewport);
-                        addPathCommand(buf, d);
-                     } else {
-                        addPathCommand(buf, tk);
-                     }
-                     break;
-                  case SMOOTH_QUADRATIC_CURVE:
-                     index++;
-                     if (index == 3) {
-                        index = 0;
-                     }
-                     if (index == 0) {
-                        double d = LengthParser.parseLength(tk, true, viewport);
-                        addPathCommand(buf, d);
-                     } else if (index == 1) {
-                        double d = LengthParser.parseLength(tk, false, viewport);
-                        addPathCommand(buf, d);
-                     } else {
-                        addPathCommand(buf, tk);
-                     }
-                     break;
-                  case ELLIPTICAL_CURVE:
-                     index++;
-                     if (index == 0) {
-                        double d = LengthParser.parseLength(tk, true, viewport);
-                        addPathCommand(buf, d);
-                     } else if (index == 1) {
-                        double d = LengthParser.parseLength(tk, false, viewport);
-                        addPathCommand(buf, d);
-                     } else if (index == 2) {
-                        double d = ParserUtils.parseDoubleProtected(tk);
-                        addPathCommand(buf, d);
-                     } else if (index == 3 || index == 4) {
-                        addPathCommand(buf, tk);
-                     } else if (index == 5) {
-                        double d = LengthParser.parseLength(tk, true, viewport);
-                        addPathCommand(buf, d);
-                     } else if (index == 6) {
-                        double d = LengthParser.parseLength(tk, false, viewport);
-                        addPathCommand(buf, d);
-                     } else {
-                        addPathCommand(buf, tk);
-                     }
-                     break;
-                  default:
-                     break;
-               }
          }
-         isFirst = false;
-      }
-      //content = buf.toString();
-      if (!content.isEmpty()) {
-         SVGPath path = new SVGPath();
-         path.setContent(content);
-         listPath.add(path);
+         offset += PathTokenizer.getArgumentCount(command);
+         previous = command;
       }
-      if (listPath.isEmpty()) {
-         listPath = null;
-      }
-      return listPath;
-   }
-
-   private static void addPathCommand(StringBuilder buf, double value) {
-      buf.append(" ");
-      buf.append(Double.toString(value));
+      Path path = new Path();
+      path.getElements().setAll(elements);
+      return path;
    }
 
-   private static void addPathCommand(StringBuilder buf, String command) {
-      addPathCommand(buf, command, false);
+   private static double scale(double value, Viewport viewport) {
+      if (viewport == null) {
+         return value;
+      } else {
+         return viewport.scaleLength(value);
+      }
    }
 
-   private static void addPathCommand(StringBuilder buf, String command, boolean isFirst) {
-      if (!isFirst) {
-         buf.append(" ");
+   /**
+    * Create the content of a SVGPath from a tokenized path, with the coordinates scaled by the viewport.
+    *
+    * @param data the path data
+    * @param viewport the viewport
+    * @return the content
+    */
+   private static String createContent(PathData data, Viewport viewport) {
+      int count = data.getCommandCount();
+      StringBuilder buf = new StringBuilder(data.getValueCount() * 8 + count * 2);
+      int offset = 0;
+      for (int i = 0; i < count; i++) {
+         int command = data.getCommand(i);
+         if (i > 0) {
+            buf.append(' ');
+         }
+         buf.append((char) command);
+         int argCount = PathTokenizer.getArgumentCount(command);
+         boolean isArc = command == 'A' || command == 'a';
+         for (int j = 0; j < argCount; j++) {
+            double value = data.getValue(offset + j);
+            buf.append(' ');
+            if (isArc && (j == 3 || j == 4)) {
+               buf.append(value != 0 ? '1' : '0');
+            } else if (isArc && j == 2) {
+               // the rotation of the arc is an angle
+               buf.append(value);
+            } else {
+               buf.append(viewport.scaleLength(value));
+            }
+         }
+         offset += argCount;
       }
-      buf.append(command);
+      return buf.toString();
    }
 }
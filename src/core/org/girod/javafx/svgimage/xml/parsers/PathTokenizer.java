@@ -0,0 +1,296 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+import java.util.Arrays;
+
+/**
+ * A single-pass tokenizer for the content of a path. The commands and their arguments are stored in primitive arrays.
+ * Each command is stored with its own arguments, so the implicit commands of the path content are expanded: for
+ * example "M0 0 10 10" is stored as a move to followed by a line to. The commands are stored as their ASCII letter.
+ *
+ * <p>As specified by the SVG specification, the tokenizer stops at the first error in the content, and keeps the
+ * commands which were parsed before the error.</p>
+ *
+ * @since 1.2
+ */
+public class PathTokenizer {
+   private byte[] commands = new byte[16];
+   private int commandCount = 0;
+   private double[] values = new double[64];
+   private int valueCount = 0;
+   private String content = null;
+   private int length = 0;
+   private int pos = 0;
+
+   public PathTokenizer() {
+   }
+
+   /**
+    * Return the number of arguments of a path command.
+    *
+    * @param command the command letter
+    * @return the number of arguments, or -1 if the character is not a path command
+    */
+   public static int getArgumentCount(int command) {
+      switch (command) {
+         case 'M':
+         case 'm':
+         case 'L':
+         case 'l':
+         case 'T':
+         case 't':
+            return 2;
+         case 'H':
+         case 'h':
+         case 'V':
+         case 'v':
+            return 1;
+         case 'C':
+         case 'c':
+            return 6;
+         case 'S':
+         case 's':
+         case 'Q':
+         case 'q':
+            return 4;
+         case 'A':
+         case 'a':
+            return 7;
+         case 'Z':
+         case 'z':
+            return 0;
+         default:
+            return -1;
+      }
+   }
+
+   /**
+    * Return true if a path command uses relative coordinates.
+    *
+    * @param command the command letter
+    * @return true if the command uses relative coordinates
+    */
+   public static boolean isRelative(int command) {
+      return command >= 'a' && command <= 'z';
+   }
+
+   /**
+    * Tokenize a path content. The result of a previous tokenization is discarded.
+    *
+    * @param content the path content
+    * @return true if the whole content was tokenized, false if an error was encountered
+    */
+   public boolean tokenize(String content) {
+      this.content = content;
+      this.length = content.length();
+      this.pos = 0;
+      this.commandCount = 0;
+      this.valueCount = 0;
+      int command = 0;
+      boolean complete = true;
+      skipSeparators();
+      while (pos < length) {
+         char c = content.charAt(pos);
+         if (getArgumentCount(c) != -1) {
+            command = c;
+            pos++;
+         } else if (command == 0 || command == 'Z' || command == 'z' || !isNumberStart(c)) {
+            complete = false;
+            break;
+         } else if (command == 'M') {
+            // the coordinates which follow a move to are implicit line to commands
+            command = 'L';
+         } else if (command == 'm') {
+            command = 'l';
+         }
+         if (!readCommand(command)) {
+            complete = false;
+            break;
+         }
+         skipSeparators();
+      }
+      this.content = null;
+      return complete;
+   }
+
+   /**
+    * Return the number of commands.
+    *
+    * @return the number of commands
+    */
+   public int getCommandCount() {
+      return commandCount;
+   }
+
+   /**
+    * Return the letter of a command.
+    *
+    * @param index the command index
+    * @return the command letter
+    */
+   public int getCommand(int index) {
+      return commands[index];
+   }
+
+   /**
+    * Return the number of arguments of all the commands.
+    *
+    * @return the number of arguments
+    */
+   public int getValueCount() {
+      return valueCount;
+   }
+
+   /**
+    * Return an argument value. The arguments of the commands are stored in the order of the commands. The arc flags
+    * are stored as 0 or 1.
+    *
+    * @param index the argument index
+    * @return the value
+    */
+   public double getValue(int index) {
+      return values[index];
+   }
+
+   /**
+    * Return an immutable copy of the result of the last tokenization.
+    *
+    * @return the path data
+    */
+   public PathData getPathData() {
+      return new PathData(Arrays.copyOf(commands, commandCount), Arrays.copyOf(values, valueCount));
+   }
+
+   private boolean readCommand(int command) {
+      int argCount = getArgumentCount(command);
+      int start = valueCount;
+      if (valueCount + argCount > values.length) {
+         values = Arrays.copyOf(values, Math.max(values.length * 2, valueCount + argCount));
+      }
+      boolean isArc = command == 'A' || command == 'a';
+      for (int i = 0; i < argCount; i++) {
+         skipSeparators();
+         boolean ok;
+         if (isArc && (i == 3 || i == 4)) {
+            ok = readFlag();
+         } else {
+            ok = readNumber();
+         }
+         if (!ok) {
+            valueCount = start;
+            return false;
+         }
+      }
+      if (commandCount == commands.length) {
+         commands = Arrays.copyOf(commands, commandCount * 2);
+      }
+      commands[commandCount] = (byte) command;
+      commandCount++;
+      return true;
+   }
+
+   private void skipSeparators() {
+      while (pos < length) {
+         char c = content.charAt(pos);
+         if (c == ' ' || c == ',' || c == '\n' || c == '\r' || c == '\t' || c == '\f') {
+            pos++;
+         } else {
+            break;
+         }
+      }
+   }
+
+   private static boolean isNumberStart(char c) {
+      return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+';
+   }
+
+   private boolean readFlag() {
+      if (pos < length) {
+         char c = content.charAt(pos);
+         if (c == '0' || c == '1') {
+            values[valueCount] = c - '0';
+            valueCount++;
+            pos++;
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Read a number. The number ends at the first character which can not be part of it, so that packed numbers
+    * such as "1.5.5" or "1-2" are read as two numbers.
+    *
+    * @return true if a number was read
+    */
+   private boolean readNumber() {
+      int start = pos;
+      if (pos < length && (content.charAt(pos) == '-' || content.charAt(pos) == '+')) {
+         pos++;
+      }
+      boolean hasDigits = false;
+      while (pos < length && NumberParser.isDigit(content.charAt(pos))) {
+         hasDigits = true;
+         pos++;
+      }
+      if (pos < length && content.charAt(pos) == '.') {
+         pos++;
+         while (pos < length && NumberParser.isDigit(content.charAt(pos))) {
+            hasDigits = true;
+            pos++;
+         }
+      }
+      if (!hasDigits) {
+         pos = start;
+         return false;
+      }
+      if (pos < length && (content.charAt(pos) == 'e' || content.charAt(pos) == 'E')) {
+         int expStart = pos;
+         pos++;
+         if (pos < length && (content.charAt(pos) == '-' || content.charAt(pos) == '+')) {
+            pos++;
+         }
+         if (pos < length && NumberParser.isDigit(content.charAt(pos))) {
+            while (pos < length && NumberParser.isDigit(content.charAt(pos))) {
+               pos++;
+            }
+         } else {
+            pos = expStart;
+         }
+      }
+      values[valueCount] = NumberParser.parseDouble(content, start, pos);
+      valueCount++;
+      return true;
+   }
+}
@@ -0,0 +1,415 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The vertices of a path, polyline, polygon or line, which are the positions of the markers. The vertices and the
+ * directions of the path at each vertex are computed directly from the commands of the path.
+ *
+ * <p>The angle of a vertex is the direction of the path at this vertex, in degrees. For a vertex which has an
+ * incoming and an outgoing segment, it is the bisector of the two directions.</p>
+ *
+ * @since 1.2
+ */
+public class PathVertices {
+   private double[] xs = new double[8];
+   private double[] ys = new double[8];
+   private double[] inAngles = new double[8];
+   private double[] outAngles = new double[8];
+   private int count = 0;
+
+   private PathVertices() {
+   }
+
+   /**
+    * Return the vertices of a path content.
+    *
+    * @param content the path content
+    * @return the vertices
+    */
+   public static PathVertices fromPath(String content) {
+      PathVertices vertices = new PathVertices();
+      PathTokenizer tokenizer = new PathTokenizer();
+      tokenizer.tokenize(content);
+      vertices.addCommands(tokenizer);
+      return vertices;
+   }
+
+   /**
+    * Return the vertices of a list of points, such as the points of a Polyline or a Polygon.
+    *
+    * @param points the coordinates of the points
+    * @param closed true for a closed shape such as a Polygon
+    * @return the vertices
+    */
+   public static PathVertices fromPoints(List<Double> points, boolean closed) {
+      PathVertices vertices = new PathVertices();
+      int size = points.size() - points.size() % 2;
+      if (size == 0) {
+         return vertices;
+      }
+      double startX = points.get(0);
+      double startY = points.get(1);
+      vertices.add(startX, startY);
+      for (int i = 2; i < size; i += 2) {
+         vertices.lineTo(points.get(i), points.get(i + 1));
+      }
+      if (closed) {
+         vertices.close(0, startX, startY);
+      }
+      return vertices;
+   }
+
+   /**
+    * Return the vertices of a line.
+    *
+    * @param startX the X coordinate of the start of the line
+    * @param startY the Y coordinate of the start of the line
+    * @param endX the X coordinate of the end of the line
+    * @param endY the Y coordinate of the end of the line
+    * @return the vertices
+    */
+   public static PathVertices fromLine(double startX, double startY, double endX, double endY) {
+      PathVertices vertices = new PathVertices();
+      vertices.add(startX, startY);
+      vertices.lineTo(endX, endY);
+      return vertices;
+   }
+
+   /**
+    * Return the number of vertices.
+    *
+    * @return the number of vertices
+    */
+   public int getCount() {
+      return count;
+   }
+
+   /**
+    * Return the X coordinate of a vertex.
+    *
+    * @param index the vertex index
+    * @return the X coordinate
+    */
+   public double getX(int index) {
+      return xs[index];
+   }
+
+   /**
+    * Return the Y coordinate of a vertex.
+    *
+    * @param index the vertex index
+    * @return the Y coordinate
+    */
+   public double getY(int index) {
+      return ys[index];
+   }
+
+   /**
+    * Return the angle of the path at a vertex, in degrees. It is 0 if the direction of the path is not defined at
+    * this vertex.
+    *
+    * @param index the vertex index
+    * @return the angle
+    */
+   public double getAngle(int index) {
+      double in = inAngles[index];
+      double out = outAngles[index];
+      if (Double.isNaN(in)) {
+         return Double.isNaN(out) ? 0 : Math.toDegrees(out);
+      } else if (Double.isNaN(out)) {
+         return Math.toDegrees(in);
+      } else {
+         return Math.toDegrees(Math.atan2(Math.sin(in) + Math.sin(out), Math.cos(in) + Math.cos(out)));
+      }
+   }
+
+   private void add(double x, double y) {
+      if (count == xs.length) {
+         int capacity = count * 2;
+         xs = Arrays.copyOf(xs, capacity);
+         ys = Arrays.copyOf(ys, capacity);
+         inAngles = Arrays.copyOf(inAngles, capacity);
+         outAngles = Arrays.copyOf(outAngles, capacity);
+      }
+      xs[count] = x;
+      ys[count] = y;
+      inAngles[count] = Double.NaN;
+      outAngles[count] = Double.NaN;
+      count++;
+   }
+
+   /**
+    * Add a vertex at the end of a segment.
+    *
+    * @param x the X coordinate of the vertex
+    * @param y the Y coordinate of the vertex
+    * @param startDX the X component of the direction at the start of the segment
+    * @param startDY the Y component of the direction at the start of the segment
+    * @param endDX the X component of the direction at the end of the segment
+    * @param endDY the Y component of the direction at the end of the segment
+    */
+   private void segmentTo(double x, double y, double startDX, double startDY, double endDX, double endDY) {
+      if (startDX != 0 || startDY != 0) {
+         outAngles[count - 1] = Math.atan2(startDY, startDX);
+      }
+      add(x, y);
+      if (endDX != 0 || endDY != 0) {
+         inAngles[count - 1] = Math.atan2(endDY, endDX);
+      }
+   }
+
+   private void lineTo(double x, double y) {
+      double dx = x - xs[count - 1];
+      double dy = y - ys[count - 1];
+      segmentTo(x, y, dx, dy, dx, dy);
+   }
+
+   /**
+    * Close a subpath. The vertex at the start of the subpath gets the direction of the closing segment as its
+    * incoming direction.
+    *
+    * @param startIndex the index of the vertex at the start of the subpath
+    * @param startX the X coordinate of the start of the subpath
+    * @param startY the Y coordinate of the start of the subpath
+    */
+   private void close(int startIndex, double startX, double startY) {
+      lineTo(startX, startY);
+      double in = inAngles[count - 1];
+      if (Double.isNaN(in) && count - 2 > startIndex) {
+         in = inAngles[count - 2];
+      }
+      inAngles[count - 1] = in;
+      inAngles[startIndex] = in;
+      outAngles[count - 1] = outAngles[startIndex];
+   }
+
+   private void addCommands(PathTokenizer tokenizer) {
+      int commandCount = tokenizer.getCommandCount();
+      double x = 0;
+      double y = 0;
+      double startX = 0;
+      double startY = 0;
+      int startIndex = 0;
+      double ctrlX = 0;
+      double ctrlY = 0;
+      int previous = 0;
+      int offset = 0;
+      for (int i = 0; i < commandCount; i++) {
+         int command = tokenizer.getCommand(i);
+         double originX = PathTokenizer.isRelative(command) ? x : 0;
+         double originY = PathTokenizer.isRelative(command) ? y : 0;
+         if (count == 0 && command != 'M' && command != 'm') {
+            // a path which does not begin with a move to begins at the origin
+            add(0, 0);
+         }
+         switch (command) {
+            case 'M':
+            case 'm':
+               x = originX + tokenizer.getValue(offset);
+               y = originY + tokenizer.getValue(offset + 1);
+               startX = x;
+               startY = y;
+               startIndex = count;
+               add(x, y);
+               break;
+            case 'L':
+            case 'l':
+               x = originX + tokenizer.getValue(offset);
+               y = originY + tokenizer.getValue(offset + 1);
+               lineTo(x, y);
+               break;
+            case 'H':
+            case 'h':
+               x = originX + tokenizer.getValue(offset);
+               lineTo(x, y);
+               break;
+            case 'V':
+            case 'v':
+               y = originY + tokenizer.getValue(offset);
+               lineTo(x, y);
+               break;
+            case 'C':
+            case 'c':
+            case 'S':
+            case 's': {
+               double x1;
+               double y1;
+               int index = offset;
+               if (command == 'C' || command == 'c') {
+                  x1 = originX + tokenizer.getValue(index);
+                  y1 = originY + tokenizer.getValue(index + 1);
+                  index += 2;
+               } else if (previous == 'C' || previous == 'c' || previous == 'S' || previous == 's') {
+                  x1 = 2 * x - ctrlX;
+                  y1 = 2 * y - ctrlY;
+               } else {
+                  x1 = x;
+                  y1 = y;
+               }
+               ctrlX = originX + tokenizer.getValue(index);
+               ctrlY = originY + tokenizer.getValue(index + 1);
+               double x0 = x;
+               double y0 = y;
+               x = originX + tokenizer.getValue(index + 2);
+               y = originY + tokenizer.getValue(index + 3);
+               cubicTo(x0, y0, x1, y1, ctrlX, ctrlY, x, y);
+               break;
+            }
+            case 'Q':
+            case 'q':
+            case 'T':
+            case 't': {
+               int index = offset;
+               if (command == 'Q' || command == 'q') {
+                  ctrlX = originX + tokenizer.getValue(index);
+                  ctrlY = originY + tokenizer.getValue(index + 1);
+                  index += 2;
+               } else if (previous == 'Q' || previous == 'q' || previous == 'T' || previous == 't') {
+                  ctrlX = 2 * x - ctrlX;
+                  ctrlY = 2 * y - ctrlY;
+               } else {
+                  ctrlX = x;
+                  ctrlY = y;
+               }
+               double x0 = x;
+               double y0 = y;
+               x = originX + tokenizer.getValue(index);
+               y = originY + tokenizer.getValue(index + 1);
+               cubicTo(x0, y0, ctrlX, ctrlY, ctrlX, ctrlY, x, y);
+               break;
+            }
+            case 'A':
+            case 'a': {
+               double rx = Math.abs(tokenizer.getValue(offset));
+               double ry = Math.abs(tokenizer.getValue(offset + 1));
+               double rotation = tokenizer.getValue(offset + 2);
+               boolean largeArc = tokenizer.getValue(offset + 3) != 0;
+               boolean sweep = tokenizer.getValue(offset + 4) != 0;
+               double x0 = x;
+               double y0 = y;
+               x = originX + tokenizer.getValue(offset + 5);
+               y = originY + tokenizer.getValue(offset + 6);
+               arcTo(x0, y0, rx, ry, rotation, largeArc, sweep, x, y);
+               break;
+            }
+            case 'Z':
+            case 'z':
+               x = startX;
+               y = startY;
+               close(startIndex, startX, startY);
+               break;
+         }
+         offset += PathTokenizer.getArgumentCount(command);
+         previous = command;
+      }
+   }
+
+   /**
+    * Add a vertex at the end of a cubic curve. The directions at the ends of the curve are given by the first
+    * control point which is distinct from the end point.
+    */
+   private void cubicTo(double x0, double y0, double x1, double y1, double x2, double y2, double x3, double y3) {
+      double startDX = x1 - x0;
+      double startDY = y1 - y0;
+      if (startDX == 0 && startDY == 0) {
+         startDX = x2 - x0;
+         startDY = y2 - y0;
+         if (startDX == 0 && startDY == 0) {
+            startDX = x3 - x0;
+            startDY = y3 - y0;
+         }
+      }
+      double endDX = x3 - x2;
+      double endDY = y3 - y2;
+      if (endDX == 0 && endDY == 0) {
+         endDX = x3 - x1;
+         endDY = y3 - y1;
+         if (endDX == 0 && endDY == 0) {
+            endDX = x3 - x0;
+            endDY = y3 - y0;
+         }
+      }
+      segmentTo(x3, y3, startDX, startDY, endDX, endDY);
+   }
+
+   /**
+    * Add a vertex at the end of an elliptical arc. The directions at the ends of the arc are computed from the
+    * center parameterization of the arc, as described in the implementation notes of the SVG specification.
+    */
+   private void arcTo(double x0, double y0, double rx, double ry, double rotation, boolean largeArc, boolean sweep, double x, double y) {
+      if (rx == 0 || ry == 0 || (x0 == x && y0 == y)) {
+         lineTo(x, y);
+         return;
+      }
+      double phi = Math.toRadians(rotation);
+      double cos = Math.cos(phi);
+      double sin = Math.sin(phi);
+      double dx2 = (x0 - x) / 2;
+      double dy2 = (y0 - y) / 2;
+      double x1p = cos * dx2 + sin * dy2;
+      double y1p = -sin * dx2 + cos * dy2;
+      double lambda = (x1p * x1p) / (rx * rx) + (y1p * y1p) / (ry * ry);
+      if (lambda > 1) {
+         rx *= Math.sqrt(lambda);
+         ry *= Math.sqrt(lambda);
+      }
+      double num = rx * rx * ry * ry - rx * rx * y1p * y1p - ry * ry * x1p * x1p;
+      double den = rx * rx * y1p * y1p + ry * ry * x1p * x1p;
+      double coef = Math.sqrt(Math.max(0, num / den));
+      if (largeArc == sweep) {
+         coef = -coef;
+      }
+      double cxp = coef * rx * y1p / ry;
+      double cyp = -coef * ry * x1p / rx;
+      double theta1 = Math.atan2((y1p - cyp) / ry, (x1p - cxp) / rx);
+      double theta2 = Math.atan2((-y1p - cyp) / ry, (-x1p - cxp) / rx);
+      double dtheta = theta2 - theta1;
+      if (sweep && dtheta < 0) {
+         dtheta += 2 * Math.PI;
+      } else if (!sweep && dtheta > 0) {
+         dtheta -= 2 * Math.PI;
+      }
+      double sign = dtheta < 0 ? -1 : 1;
+      // the derivative of the ellipse parameterization, rotated by the rotation of the ellipse
+      double startDX = -rx * Math.sin(theta1) * sign;
+      double startDY = ry * Math.cos(theta1) * sign;
+      double endDX = -rx * Math.sin(theta1 + dtheta) * sign;
+      double endDY = ry * Math.cos(theta1 + dtheta) * sign;
+      segmentTo(x, y, cos * startDX - sin * startDY, sin * startDX + cos * startDY,
+         cos * endDX - sin * endDY, sin * endDX + cos * endDY);
+   }
+}
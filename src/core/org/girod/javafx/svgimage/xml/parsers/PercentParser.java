@@ -32,17 +32,12 @@ the project website at the project page on https://github.com/hervegirod/fxsvgim
  */
 package org.girod.javafx.svgimage.xml.parsers;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * This utility class parse a percent value.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class PercentParser {
-   private static final Pattern NUMBER = Pattern.compile("\\d+(\\.\\d+)?");
-   private static final Pattern PERCENT_UNIT = Pattern.compile("(\\d+)(\\.\\d+)?%");
 
    private PercentParser() {
    }
@@ -93,38 +88,58 @@ public class PercentParser {
     * @return the value
     */
    public static double parseValue(String value, boolean allowAbsolute) {
-      value = value.trim();
-      Matcher m = NUMBER.matcher(value);
-      if (m.matches()) {
-         double parsedValue = Double.parseDouble(value);
-         if (parsedValue < 0) {
-            parsedValue = 0;
-         } else if (!allowAbsolute && parsedValue > 1) {
+      int start = 0;
+      int end = value.length();
+      while (start < end && value.charAt(start) <= ' ') {
+         start++;
+      }
+      while (end > start && value.charAt(end - 1) <= ' ') {
+         end--;
+      }
+      boolean isPercent = end > start && value.charAt(end - 1) == '%';
+      int numberEnd = isPercent ? end - 1 : end;
+      if (!isNumber(value, start, numberEnd)) {
+         return 0d;
+      }
+      double parsedValue = NumberParser.parseDouble(value, start, numberEnd);
+      if (isPercent) {
+         parsedValue = parsedValue / 100;
+         if (parsedValue > 1) {
             parsedValue = 1;
          }
-         return parsedValue;
+      } else if (!allowAbsolute && parsedValue > 1) {
+         parsedValue = 1;
       }
-      m = PERCENT_UNIT.matcher(value);
-      if (m.matches()) {
-         String startDigits = m.group(1);
-         String endDigit = null;
-         if (m.groupCount() > 1) {
-            endDigit = m.group(2);
-         }
-         double parsedValue;
-         if (endDigit == null) {
-            parsedValue = Double.parseDouble(startDigits);
-         } else {
-            parsedValue = Double.parseDouble(startDigits + "." + endDigit);
+      return parsedValue;
+   }
+
+   /**
+    * Return true if a part of a value is a positive number with an optional fraction.
+    *
+    * @param value the value
+    * @param start the start index
+    * @param end the end index
+    * @return true if the part of the value is a number
+    */
+   private static boolean isNumber(String value, int start, int end) {
+      int pos = start;
+      while (pos < end && NumberParser.isDigit(value.charAt(pos))) {
+         pos++;
+      }
+      if (pos == start) {
+         return false;
+      }
+      if (pos < end && value.charAt(pos) == '.') {
+         pos++;
+         int fractionStart = pos;
+         while (pos < end && NumberParser.isDigit(value.charAt(pos))) {
+            pos++;
          }
-         parsedValue = parsedValue / 100;
-         if (parsedValue < 0) {
-            parsedValue = 0;
-         } else if (parsedValue > 1) {
-            parsedValue = 1;
+         if (pos == fractionStart) {
+            return false;
          }
-         return parsedValue;
       }
-      return 0d;
+      return pos == end;
    }
+
 }
@@ -35,7 +35,7 @@ package org.girod.javafx.svgimage.xml.parsers;
 /**
  * The list of svg tags handled by the library.
  *
- * @version 1.0
+ * @version 1.2
  */
 public interface SVGTags {
    public static String VIEWBOX = "viewBox";
@@ -80,6 +80,9 @@ public interface SVGTags {
    public static String MARKER_HEIGHT = "markerHeight";
    public static String REFX = "refX";
    public static String REFY = "refY";
+   public static String ORIENT = "orient";
+   public static String AUTO = "auto";
+   public static String AUTO_START_REVERSE = "auto-start-reverse";
    public static String TSPAN = "tspan";
    public static String ID = "id";
    public static String FILL_RULE = "fill-rule";
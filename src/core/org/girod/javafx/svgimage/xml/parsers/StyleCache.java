@@ -0,0 +1,159 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.parsers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of parsed "style" attributes. Each distinct "style" attribute value is parsed only once, and the same
+ * {@link InlineStyle} is returned for all the nodes which have this value.
+ *
+ * <p>A new cache is used for each load by default. The global cache is shared by all the loads, and is cleared when
+ * it contains more than {@link #MAX_GLOBAL_SIZE} styles.</p>
+ *
+ * @since 1.2
+ */
+public class StyleCache {
+   /**
+    * The maximum number of styles in the global cache.
+    */
+   public static final int MAX_GLOBAL_SIZE = 10000;
+   private static final StyleCache GLOBAL_CACHE = new StyleCache(new ConcurrentHashMap<String, InlineStyle>(), MAX_GLOBAL_SIZE);
+   private final Map<String, InlineStyle> styles;
+   private final int maxSize;
+   private int parseCount = 0;
+
+   /**
+    * Create a cache which is not thread-safe, to be used by only one load.
+    */
+   public StyleCache() {
+      this(new HashMap<String, InlineStyle>(), Integer.MAX_VALUE);
+   }
+
+   private StyleCache(Map<String, InlineStyle> styles, int maxSize) {
+      this.styles = styles;
+      this.maxSize = maxSize;
+   }
+
+   /**
+    * Return the global cache, which is shared by all the loads.
+    *
+    * @return the global cache
+    */
+   public static StyleCache getGlobalCache() {
+      return GLOBAL_CACHE;
+   }
+
+   /**
+    * Return the parsed style for a "style" attribute value.
+    *
+    * @param style the attribute value
+    * @return the parsed style
+    */
+   public InlineStyle getStyle(String style) {
+      InlineStyle inlineStyle = styles.get(style);
+      if (inlineStyle == null) {
+         inlineStyle = InlineStyle.parse(style);
+         putStyle(style, inlineStyle);
+         parseCount++;
+      }
+      return inlineStyle;
+   }
+
+   /**
+    * Return the parsed "style" attribute of a node.
+    *
+    * @param xmlNode the node
+    * @return the parsed style, or {@link InlineStyle#EMPTY} if the node has no "style" attribute
+    */
+   public InlineStyle getStyle(XMLNode xmlNode) {
+      String style = xmlNode.getAttributeValue(SVGTags.STYLE);
+      if (style == null) {
+         return InlineStyle.EMPTY;
+      } else {
+         return getStyle(style);
+      }
+   }
+
+   /**
+    * Merge the "style" attributes of two nodes, and return the merged attribute value. The merged style is added to
+    * the cache, so that it is not parsed again.
+    *
+    * @param parent the node whose style is overriden
+    * @param child the node whose style overrides the style of the parent
+    * @return the merged attribute value
+    */
+   public String mergeStyles(XMLNode parent, XMLNode child) {
+      InlineStyle merged = getStyle(parent).merge(getStyle(child));
+      String style = merged.toString();
+      if (!styles.containsKey(style)) {
+         putStyle(style, merged);
+      }
+      return style;
+   }
+
+   private void putStyle(String style, InlineStyle inlineStyle) {
+      if (styles.size() >= maxSize) {
+         styles.clear();
+      }
+      styles.put(style, inlineStyle);
+   }
+
+   /**
+    * Return the number of styles in the cache.
+    *
+    * @return the number of styles
+    */
+   public int size() {
+      return styles.size();
+   }
+
+   /**
+    * Return the number of "style" attribute values which have been parsed by this cache. This count is not
+    * synchronized for the global cache.
+    *
+    * @return the number of parsed values
+    */
+   public int getParseCount() {
+      return parseCount;
+   }
+
+   /**
+    * Clear the cache.
+    */
+   public void clear() {
+      styles.clear();
+   }
+}
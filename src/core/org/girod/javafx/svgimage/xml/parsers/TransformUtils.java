@@ -34,240 +34,550 @@ package org.girod.javafx.svgimage.xml.parsers;
 
 import org.girod.javafx.svgimage.xml.specs.Viewport;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.StringTokenizer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javafx.collections.ObservableList;
 import javafx.scene.Node;
+import javafx.scene.transform.Affine;
 import javafx.scene.transform.Transform;
 
 /**
  * Parser utilities for transforms.
  *
- * @version 1.0
+ * <p>The {@link #TRANSFORM} attribute is parsed in one pass over its characters. The transforms can be kept as one
+ * JavaFX transform for each transform of the list, or composed in one {@link Affine}.</p>
+ *
+ * <p>The parsed transform list of a read-only {@link XMLNode} is kept by the node with its lengths not scaled, so
+ * that the attribute is parsed only once for all the images created from the same document, whatever their
+ * scale.</p>
+ *
+ * @version 1.2
  */
 public class TransformUtils implements SVGTags {
-   private static final Pattern TRANSFORM_PAT = Pattern.compile("\\w+\\s*\\((.*)\\)");
+   private static final int TRANSFORM_UNKNOWN = -1;
+   private static final int TRANSFORM_TRANSLATE = 0;
+   private static final int TRANSFORM_TRANSLATE_X = 1;
+   private static final int TRANSFORM_TRANSLATE_Y = 2;
+   private static final int TRANSFORM_SCALE = 3;
+   private static final int TRANSFORM_SCALE_X = 4;
+   private static final int TRANSFORM_SCALE_Y = 5;
+   private static final int TRANSFORM_ROTATE = 6;
+   private static final int TRANSFORM_SKEW_X = 7;
+   private static final int TRANSFORM_SKEW_Y = 8;
+   private static final int TRANSFORM_MATRIX = 9;
+   private static final int MAX_ARGUMENTS = 6;
 
    private TransformUtils() {
    }
 
    public static List<Double> getTransformArgumentsForAnimation(String content, Viewport viewport) {
-      List<Double> args = new ArrayList<>();
-      StringTokenizer tok = new StringTokenizer(content, ", ");
-      while (tok.hasMoreTokens()) {
-         String argumentS = tok.nextToken();
-         ParserUtils.parseLengthValue(args, argumentS, true, null, viewport);
-      }
-      return args;
+      return NumberListParser.toList(NumberListParser.parseLengths(content, viewport));
    }
 
-   private static List<Double> getTranslateTransformArguments(String transformTxt, Viewport viewport) {
-      List<Double> args = new ArrayList<>();
-      Matcher m = TRANSFORM_PAT.matcher(transformTxt);
-      if (m.matches()) {
-         String content = m.group(1);
-         StringTokenizer tok = new StringTokenizer(content, ", ");
-         while (tok.hasMoreTokens()) {
-            String argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, viewport);
+   /**
+    * Set the transforms for a node if it has the {@link #TRANSFORM} attribute. The transforms are composed in one
+    * {@link Affine} if the viewport fuses the transforms and the node has no {@link #ANIMATE_TRANSFORM} child.
+    *
+    * @param node the node
+    * @param xmlNode the xml node
+    * @param viewport the viewport
+    */
+   public static void setTransforms(Node node, XMLNode xmlNode, Viewport viewport) {
+      TransformList list = getTransformList(xmlNode, viewport);
+      if (list == null) {
+         return;
+      }
+      ObservableList<Transform> nodeTransforms = node.getTransforms();
+      if (viewport != null && viewport.isFusingTransforms() && !hasTransformAnimation(xmlNode)) {
+         Affine affine = list.createAffine(viewport);
+         if (affine != null) {
+            nodeTransforms.add(affine);
          }
       } else {
-         return null;
+         List<Transform> transformList = list.createTransforms(viewport);
+         if (!transformList.isEmpty()) {
+            nodeTransforms.addAll(transformList);
+         }
       }
-      return args;
    }
 
-   private static List<Double> getScaleTransformArguments(String transformTxt, Viewport viewport) {
-      List<Double> args = new ArrayList<>();
-      Matcher m = TRANSFORM_PAT.matcher(transformTxt);
-      if (m.matches()) {
-         String content = m.group(1);
-         StringTokenizer tok = new StringTokenizer(content, ", ");
-         while (tok.hasMoreTokens()) {
-            String argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, null);
-         }
-      } else {
+   /**
+    * Return the parsed {@link #TRANSFORM} attribute of a node. The parsed list is kept by the node if it does not
+    * depend on the viewport.
+    *
+    * @param xmlNode the xml node
+    * @param viewport the viewport
+    * @return the transform list, or null if the node has no transform attribute
+    */
+   private static TransformList getTransformList(XMLNode xmlNode, Viewport viewport) {
+      Object parsed = xmlNode.getParsedValue(TRANSFORM);
+      if (parsed instanceof TransformList) {
+         return (TransformList) parsed;
+      }
+      String transforms = xmlNode.getAttributeValue(TRANSFORM);
+      if (transforms == null) {
          return null;
       }
-      return args;
+      TransformList list = parseTransformList(transforms, viewport);
+      if (!list.isResolved && xmlNode.getOwnAttributeValue(TRANSFORM) != null) {
+         xmlNode.setParsedValue(TRANSFORM, list);
+      }
+      return list;
    }
 
-   private static List<Double> getRotateTransformArguments(String transformTxt, Viewport viewport) {
-      List<Double> args = new ArrayList<>();
-      Matcher m = TRANSFORM_PAT.matcher(transformTxt);
-      if (m.matches()) {
-         String content = m.group(1);
-         StringTokenizer tok = new StringTokenizer(content, ", ");
-         int countTokens = tok.countTokens();
-         if (countTokens == 1) {
-            String argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, null);
-         } else if (countTokens == 3) {
-            String argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, null);
-            argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, viewport);
-            argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, viewport);
-         }
-      } else {
-         return null;
+   /**
+    * Parse a transform list. The lengths are not scaled, except if a length depends on the size of the viewport.
+    *
+    * @param transforms the transform list
+    * @param viewport the viewport
+    * @return the transform list
+    */
+   private static TransformList parseTransformList(String transforms, Viewport viewport) {
+      TransformList list = new TransformListParser(transforms, viewport).parse();
+      if (list == null) {
+         // a length is a percentage of the viewport, so the lengths are scaled when they are parsed
+         list = new TransformListParser(transforms, viewport, true).parse();
       }
-      return args;
+      return list;
    }
 
-   private static List<Double> getSkewTransformArguments(String transformTxt, Viewport viewport) {
-      List<Double> args = new ArrayList<>();
-      Matcher m = TRANSFORM_PAT.matcher(transformTxt);
-      if (m.matches()) {
-         String content = m.group(1);
-         StringTokenizer tok = new StringTokenizer(content, ", ");
-         while (tok.hasMoreTokens()) {
-            String argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, null);
+   private static boolean hasTransformAnimation(XMLNode xmlNode) {
+      List<XMLNode> children = xmlNode.getChildren();
+      for (int i = 0; i < children.size(); i++) {
+         if (children.get(i).getName().equals(ANIMATE_TRANSFORM)) {
+            return true;
          }
-      } else {
-         return null;
       }
-      return args;
+      return false;
    }
 
-   private static List<Double> getMatrixTransformArguments(String transformTxt, Viewport viewport) {
-      List<Double> args = new ArrayList<>();
-      Matcher m = TRANSFORM_PAT.matcher(transformTxt);
-      if (m.matches()) {
-         String content = m.group(1);
-         StringTokenizer tok = new StringTokenizer(content, ", ");
-         int countTokens = tok.countTokens();
-         if (countTokens == 6) {
-            String argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, null);
-            argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, null);
-            argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, null);
-            argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, null);
-            argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, viewport);
-            argumentS = tok.nextToken();
-            ParserUtils.parseLengthValue(args, argumentS, true, null, viewport);
-         }
-      } else {
-         return null;
-      }
-      return args;
+   /**
+    * Extract the transforms from a {@link #TRANSFORM} attribute
+    *
+    * @param transforms the transform attribute.
+    * @param viewport the viewport
+    * @return the list of transforms
+    */
+   public static List<Transform> extractTransforms(String transforms, Viewport viewport) {
+      return parseTransformList(transforms, viewport).createTransforms(viewport);
    }
 
    /**
-    * Set the transforms for a node if it has the {@link #TRANSFORM} attribute.
+    * Extract the transforms from a {@link #TRANSFORM} attribute, and compose them in one affine transform.
     *
-    * @param node the node
-    * @param xmlNode the xml node
+    * @param transforms the transform attribute.
     * @param viewport the viewport
+    * @return the affine transform, or null if the attribute has no valid transform
+    * @since 1.2
     */
-   public static void setTransforms(Node node, XMLNode xmlNode, Viewport viewport) {
-      if (xmlNode.hasAttribute(TRANSFORM)) {
-         String transforms = xmlNode.getAttributeValue(TRANSFORM);
-         List<Transform> transformList = extractTransforms(transforms, viewport);
-         if (!transformList.isEmpty()) {
-            ObservableList<Transform> nodeTransforms = node.getTransforms();
-            Iterator<Transform> it = transformList.iterator();
-            while (it.hasNext()) {
-               Transform theTransForm = it.next();
-               nodeTransforms.add(theTransForm);
+   public static Affine extractAffine(String transforms, Viewport viewport) {
+      return parseTransformList(transforms, viewport).createAffine(viewport);
+   }
+
+   /**
+    * Return true if an argument of a transform is a length which must be scaled by the viewport.
+    *
+    * @param kind the kind of transform
+    * @param index the index of the argument
+    * @return true if the argument must be scaled
+    */
+   private static boolean isScaledArgument(int kind, int index) {
+      switch (kind) {
+         case TRANSFORM_TRANSLATE:
+         case TRANSFORM_TRANSLATE_X:
+         case TRANSFORM_TRANSLATE_Y:
+            return true;
+         case TRANSFORM_ROTATE:
+            return index > 0;
+         case TRANSFORM_MATRIX:
+            return index > 3;
+         default:
+            return false;
+      }
+   }
+
+   /**
+    * Create the JavaFX transform for a transform.
+    *
+    * @param kind the kind of transform
+    * @param argCount the number of arguments
+    * @param args the arguments
+    * @return the transform
+    */
+   private static Transform createTransform(int kind, int argCount, double[] args) {
+      switch (kind) {
+         case TRANSFORM_TRANSLATE:
+            return Transform.translate(args[0], argCount == 2 ? args[1] : 0);
+         case TRANSFORM_TRANSLATE_X:
+            return Transform.translate(args[0], 0);
+         case TRANSFORM_TRANSLATE_Y:
+            return Transform.translate(0, args[0]);
+         case TRANSFORM_SCALE:
+            return Transform.scale(args[0], argCount == 2 ? args[1] : args[0]);
+         case TRANSFORM_SCALE_X:
+            return Transform.scale(args[0], 1);
+         case TRANSFORM_SCALE_Y:
+            return Transform.scale(1, args[0]);
+         case TRANSFORM_ROTATE:
+            if (argCount == 3) {
+               return Transform.rotate(args[0], args[1], args[2]);
+            } else {
+               return Transform.rotate(args[0], 0, 0);
             }
-         }
+         case TRANSFORM_SKEW_X:
+            return Transform.shear(Math.tan(Math.toRadians(args[0])), 0);
+         case TRANSFORM_SKEW_Y:
+            return Transform.shear(0, Math.tan(Math.toRadians(args[0])));
+         default:
+            return Transform.affine(args[0], args[1], args[2], args[3], args[4], args[5]);
       }
    }
 
    /**
-    * Extract the transforms from a {@link #TRANSFORM} attribute
+    * Append a transform to an affine transform.
     *
-    * @param transforms the transform attribute.
-    * @param viewport the viewport
-    * @return the list of transforms
+    * @param affine the affine transform
+    * @param kind the kind of transform
+    * @param argCount the number of arguments
+    * @param args the arguments
     */
-   public static List<Transform> extractTransforms(String transforms, Viewport viewport) {
-      List<Transform> transformList = new ArrayList<>();
-
-      StringTokenizer tokenizer = new StringTokenizer(transforms, ")");
-      while (tokenizer.hasMoreTokens()) {
-         String transformTxt = tokenizer.nextToken() + ")";
-         transformTxt = transformTxt.trim();
-         if (transformTxt.startsWith("translateX")) {
-            List<Double> args = getTranslateTransformArguments(transformTxt, viewport);
-            if (args.size() == 1) {
-               Transform transform = Transform.translate(args.get(0), 0);
-               transformList.add(transform);
+   private static void appendTo(Affine affine, int kind, int argCount, double[] args) {
+      switch (kind) {
+         case TRANSFORM_TRANSLATE:
+            affine.appendTranslation(args[0], argCount == 2 ? args[1] : 0);
+            break;
+         case TRANSFORM_TRANSLATE_X:
+            affine.appendTranslation(args[0], 0);
+            break;
+         case TRANSFORM_TRANSLATE_Y:
+            affine.appendTranslation(0, args[0]);
+            break;
+         case TRANSFORM_SCALE:
+            affine.appendScale(args[0], argCount == 2 ? args[1] : args[0]);
+            break;
+         case TRANSFORM_SCALE_X:
+            affine.appendScale(args[0], 1);
+            break;
+         case TRANSFORM_SCALE_Y:
+            affine.appendScale(1, args[0]);
+            break;
+         case TRANSFORM_ROTATE:
+            if (argCount == 3) {
+               affine.appendRotation(args[0], args[1], args[2]);
+            } else {
+               affine.appendRotation(args[0]);
+            }
+            break;
+         case TRANSFORM_SKEW_X:
+            affine.appendShear(Math.tan(Math.toRadians(args[0])), 0);
+            break;
+         case TRANSFORM_SKEW_Y:
+            affine.appendShear(0, Math.tan(Math.toRadians(args[0])));
+            break;
+         default:
+            affine.append(args[0], args[2], args[4], args[1], args[3], args[5]);
+            break;
+      }
+   }
+
+   /**
+    * A parsed transform list, which only contains the valid transforms of the list. The list is immutable. If it is
+    * not resolved, its lengths are not scaled, so it does not depend on the viewport.
+    */
+   private static final class TransformList {
+      private final int[] kinds;
+      private final int[] argCounts;
+      private final double[] args;
+      /**
+       * True if the lengths have been scaled by the viewport when they were parsed.
+       */
+      private final boolean isResolved;
+
+      private TransformList(int[] kinds, int[] argCounts, double[] args, boolean isResolved) {
+         this.kinds = kinds;
+         this.argCounts = argCounts;
+         this.args = args;
+         this.isResolved = isResolved;
+      }
+
+      /**
+       * Return the arguments of a transform, with the lengths scaled by the viewport.
+       *
+       * @param index the index of the transform
+       * @param viewport the viewport
+       * @param transformArgs the array which receives the arguments
+       */
+      private void getArguments(int index, Viewport viewport, double[] transformArgs) {
+         int offset = index * MAX_ARGUMENTS;
+         int kind = kinds[index];
+         boolean scale = !isResolved && viewport != null;
+         for (int i = 0; i < argCounts[index]; i++) {
+            double value = args[offset + i];
+            if (scale && isScaledArgument(kind, i)) {
+               value = viewport.scaleLength(value);
+            }
+            transformArgs[i] = value;
+         }
+      }
+
+      private List<Transform> createTransforms(Viewport viewport) {
+         List<Transform> transformList = new ArrayList<>(kinds.length);
+         double[] transformArgs = new double[MAX_ARGUMENTS];
+         for (int i = 0; i < kinds.length; i++) {
+            getArguments(i, viewport, transformArgs);
+            transformList.add(createTransform(kinds[i], argCounts[i], transformArgs));
+         }
+         return transformList;
+      }
+
+      private Affine createAffine(Viewport viewport) {
+         if (kinds.length == 0) {
+            return null;
+         }
+         Affine affine = new Affine();
+         double[] transformArgs = new double[MAX_ARGUMENTS];
+         for (int i = 0; i < kinds.length; i++) {
+            getArguments(i, viewport, transformArgs);
+            appendTo(affine, kinds[i], argCounts[i], transformArgs);
+         }
+         return affine;
+      }
+   }
+
+   /**
+    * Parses the transforms of a transform list one after the other. If the parser does not resolve the lengths, they
+    * are not scaled.
+    */
+   private static final class TransformListParser {
+      private final String content;
+      private final int length;
+      private final Viewport viewport;
+      private final boolean resolve;
+      private final double[] args = new double[MAX_ARGUMENTS];
+      private int pos = 0;
+      private int kind = TRANSFORM_UNKNOWN;
+      private int argCount = 0;
+      private boolean hasInvalidArgument = false;
+      /**
+       * True if the parser does not resolve the lengths and a length is a percentage of the viewport.
+       */
+      private boolean dependsOnViewport = false;
+
+      private TransformListParser(String content, Viewport viewport) {
+         this(content, viewport, false);
+      }
+
+      private TransformListParser(String content, Viewport viewport, boolean resolve) {
+         this.content = content;
+         this.length = content.length();
+         this.viewport = viewport;
+         this.resolve = resolve;
+      }
+
+      /**
+       * Parse the transform list.
+       *
+       * @return the transform list, or null if the parser does not resolve the lengths and a length depends on the
+       * viewport
+       */
+      private TransformList parse() {
+         int count = 0;
+         int[] kinds = new int[2];
+         int[] argCounts = new int[2];
+         double[] values = new double[2 * MAX_ARGUMENTS];
+         while (next()) {
+            if (dependsOnViewport) {
+               return null;
             }
-         } else if (transformTxt.startsWith("translateY")) {
-            List<Double> args = getTranslateTransformArguments(transformTxt, viewport);
-            if (args.size() == 1) {
-               Transform transform = Transform.translate(0, args.get(0));
-               transformList.add(transform);
+            if (isValid()) {
+               if (count == kinds.length) {
+                  kinds = Arrays.copyOf(kinds, count * 2);
+                  argCounts = Arrays.copyOf(argCounts, count * 2);
+                  values = Arrays.copyOf(values, count * 2 * MAX_ARGUMENTS);
+               }
+               kinds[count] = kind;
+               argCounts[count] = argCount;
+               System.arraycopy(args, 0, values, count * MAX_ARGUMENTS, argCount);
+               count++;
             }
-         } else if (transformTxt.startsWith("translate")) {
-            List<Double> args = getTranslateTransformArguments(transformTxt, viewport);
-            if (args.size() == 2) {
-               Transform transform = Transform.translate(args.get(0), args.get(1));
-               transformList.add(transform);
+         }
+         return new TransformList(Arrays.copyOf(kinds, count), Arrays.copyOf(argCounts, count),
+            Arrays.copyOf(values, count * MAX_ARGUMENTS), resolve);
+      }
+
+      /**
+       * Parse the next transform of the list.
+       *
+       * @return false if there are no more transforms
+       */
+      private boolean next() {
+         skipSeparators();
+         int nameStart = pos;
+         while (pos < length && isLetter(content.charAt(pos))) {
+            pos++;
+         }
+         if (pos == nameStart) {
+            return false;
+         }
+         kind = getKind(nameStart, pos);
+         skipWhitespaces();
+         if (pos == length || content.charAt(pos) != '(') {
+            return false;
+         }
+         pos++;
+         argCount = 0;
+         hasInvalidArgument = false;
+         while (true) {
+            skipSeparators();
+            if (pos == length) {
+               break;
             }
-         } else if (transformTxt.startsWith("scaleX")) {
-            List<Double> args = getScaleTransformArguments(transformTxt, viewport);
-            if (args.size() == 1) {
-               Transform transform = Transform.translate(args.get(0), 1);
-               transformList.add(transform);
+            if (content.charAt(pos) == ')') {
+               pos++;
+               break;
             }
-         } else if (transformTxt.startsWith("scaleY")) {
-            List<Double> args = getScaleTransformArguments(transformTxt, viewport);
-            if (args.size() == 1) {
-               Transform transform = Transform.translate(1, args.get(0));
-               transformList.add(transform);
+            readArgument();
+         }
+         return true;
+      }
+
+      private void skipSeparators() {
+         while (pos < length) {
+            char c = content.charAt(pos);
+            if (c <= ' ' || c == ',') {
+               pos++;
+            } else {
+               break;
             }
-         } else if (transformTxt.startsWith("scale")) {
-            List<Double> args = getScaleTransformArguments(transformTxt, viewport);
-            if (args.size() == 2) {
-               Transform transform = Transform.scale(args.get(0), args.get(1));
-               transformList.add(transform);
-            } else if (args.size() == 1) {
-               Transform transform = Transform.scale(args.get(0), args.get(0));
-               transformList.add(transform);
+         }
+      }
+
+      private void skipWhitespaces() {
+         while (pos < length && content.charAt(pos) <= ' ') {
+            pos++;
+         }
+      }
+
+      private static boolean isLetter(char c) {
+         return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+      }
+
+      private int getKind(int start, int end) {
+         if (isName("translate", start, end)) {
+            return TRANSFORM_TRANSLATE;
+         } else if (isName("scale", start, end)) {
+            return TRANSFORM_SCALE;
+         } else if (isName("rotate", start, end)) {
+            return TRANSFORM_ROTATE;
+         } else if (isName("matrix", start, end)) {
+            return TRANSFORM_MATRIX;
+         } else if (isName("skewX", start, end)) {
+            return TRANSFORM_SKEW_X;
+         } else if (isName("skewY", start, end)) {
+            return TRANSFORM_SKEW_Y;
+         } else if (isName("translateX", start, end)) {
+            return TRANSFORM_TRANSLATE_X;
+         } else if (isName("translateY", start, end)) {
+            return TRANSFORM_TRANSLATE_Y;
+         } else if (isName("scaleX", start, end)) {
+            return TRANSFORM_SCALE_X;
+         } else if (isName("scaleY", start, end)) {
+            return TRANSFORM_SCALE_Y;
+         } else {
+            return TRANSFORM_UNKNOWN;
+         }
+      }
+
+      private boolean isName(String name, int start, int end) {
+         return end - start == name.length() && content.startsWith(name, start);
+      }
+
+      private void readArgument() {
+         int start = pos;
+         if (pos < length) {
+            char c = content.charAt(pos);
+            if (NumberParser.isMinus(c) || c == '+') {
+               pos++;
             }
-         } else if (transformTxt.startsWith("rotate")) {
-            List<Double> args = getRotateTransformArguments(transformTxt, viewport);
-            if (args.size() == 3) {
-               Transform transform = Transform.rotate(args.get(0), args.get(1), args.get(2));
-               transformList.add(transform);
-            } else if (args.size() == 1) {
-               Transform transform = Transform.rotate(args.get(0), 0, 0);
-               transformList.add(transform);
+         }
+         boolean hasDigits = false;
+         while (pos < length && NumberParser.isDigit(content.charAt(pos))) {
+            hasDigits = true;
+            pos++;
+         }
+         if (pos < length && content.charAt(pos) == '.') {
+            pos++;
+            while (pos < length && NumberParser.isDigit(content.charAt(pos))) {
+               hasDigits = true;
+               pos++;
             }
-         } else if (transformTxt.startsWith("skewX")) {
-            List<Double> args = getSkewTransformArguments(transformTxt, viewport);
-            if (args.size() == 1) {
-               Transform transform = Transform.shear(Math.tan(Math.toRadians(args.get(0))), 0);
-               transformList.add(transform);
+         }
+         if (hasDigits && pos < length && (content.charAt(pos) == 'e' || content.charAt(pos) == 'E')) {
+            int expStart = pos;
+            pos++;
+            if (pos < length && (NumberParser.isMinus(content.charAt(pos)) || content.charAt(pos) == '+')) {
+               pos++;
+            }
+            if (pos < length && NumberParser.isDigit(content.charAt(pos))) {
+               while (pos < length && NumberParser.isDigit(content.charAt(pos))) {
+                  pos++;
+               }
+            } else {
+               pos = expStart;
             }
-         } else if (transformTxt.startsWith("skewY")) {
-            List<Double> args = getSkewTransformArguments(transformTxt, viewport);
-            if (args.size() == 1) {
-               Transform transform = Transform.shear(0, Math.tan(Math.toRadians(args.get(0))));
-               transformList.add(transform);
+         }
+         int numberEnd = pos;
+         while (pos < length) {
+            char c = content.charAt(pos);
+            if (c <= ' ' || c == ',' || c == ')') {
+               break;
             }
-         } else if (transformTxt.startsWith("matrix")) {
-            List<Double> args = getMatrixTransformArguments(transformTxt, viewport);
-            if (args.size() == 6) {
-               Transform transform = Transform.affine(args.get(0), args.get(1), args.get(2), args.get(3), args.get(4), args.get(5));
-               transformList.add(transform);
+            pos++;
+         }
+         if (!hasDigits) {
+            hasInvalidArgument = true;
+         } else if (argCount < MAX_ARGUMENTS) {
+            boolean isScaled = isScaledArgument(kind, argCount);
+            double value;
+            if (numberEnd == pos) {
+               value = NumberParser.parseDouble(content, start, numberEnd);
+               if (isScaled && resolve && viewport != null) {
+                  value = viewport.scaleLength(value);
+               }
+            } else if (isScaled && !resolve && content.charAt(pos - 1) == '%') {
+               dependsOnViewport = true;
+               value = 0;
+            } else {
+               // the number has a unit
+               value = LengthParser.parseLength(content.substring(start, pos), isScaled && resolve ? viewport : null);
             }
+            args[argCount] = value;
          }
+         argCount++;
       }
 
-      return transformList;
+      /**
+       * Return true if the last parsed transform is known and has a valid number of arguments.
+       *
+       * @return true if the last parsed transform is valid
+       */
+      private boolean isValid() {
+         if (hasInvalidArgument) {
+            return false;
+         }
+         switch (kind) {
+            case TRANSFORM_TRANSLATE:
+            case TRANSFORM_SCALE:
+               return argCount == 1 || argCount == 2;
+            case TRANSFORM_ROTATE:
+               return argCount == 1 || argCount == 3;
+            case TRANSFORM_MATRIX:
+               return argCount == 6;
+            case TRANSFORM_UNKNOWN:
+               return false;
+            default:
+               return argCount == 1;
+         }
+      }
    }
 }
@@ -32,11 +32,17 @@ the project website at the project page on https://github.com/hervegirod/fxsvgim
  */
 package org.girod.javafx.svgimage.xml.parsers;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
 import javafx.geometry.Bounds;
 import org.girod.javafx.svgimage.xml.specs.Viewport;
@@ -44,7 +50,11 @@ import org.girod.javafx.svgimage.xml.specs.Viewport;
 /**
  * A Node in an XML File.
  *
- * @version 1.0
+ * <p>The attributes defined on the Node are stored in two parallel arrays of names and values. The presentation
+ * attributes which are inherited from the parent Node (for example the fill, the stroke, or the style) are not copied
+ * in the Node, but are looked up in the parent Node if they are not defined in the Node itself.</p>
+ *
+ * @version 1.2
  */
 public class XMLNode {
    /**
@@ -64,14 +74,49 @@ public class XMLNode {
     */
    protected final List<XMLNode> children = new ArrayList<>();
    /**
-    * The attributes.
+    * The unmodifiable view of the children, which is only created when the Node is read-only.
+    */
+   private List<XMLNode> readOnlyChildren = null;
+   /**
+    * The names of the attributes defined on this Node. The names created by the XML parser are interned, so most of
+    * the comparisons are performed by reference.
+    */
+   private String[] attrNames = null;
+   /**
+    * The values of the attributes defined on this Node.
+    */
+   private String[] attrValues = null;
+   /**
+    * The number of attributes defined on this Node.
     */
-   protected final Map<String, String> attributes = new TreeMap<>();
+   private int attrCount = 0;
+   /**
+    * True if the Node inherits the presentation attributes of its parent.
+    */
+   private boolean inherits = false;
+   /**
+    * The attributes defined on this Node. This Map is a view of the attributes of the Node, which does not contain
+    * the attributes inherited from the parent Node. The view is only created by the first call to
+    * {@link #getAttributes()}, so that the nodes which are never asked for it do not allocate it.
+    *
+    * @deprecated use {@link #getAttributes()}
+    */
+   @Deprecated
+   protected Map<String, String> attributes = null;
 
    /**
     * The CDATA content.
     */
    private String cData = null;
+   /**
+    * True if the Node can not be modified anymore.
+    */
+   private boolean readOnly = false;
+   /**
+    * The values parsed from the attributes of a read-only Node, indexed as the attributes. It is only created when the
+    * first value is kept.
+    */
+   private volatile Object[] parsedValues = null;
 
    /**
     * Create the Node.
@@ -101,30 +146,65 @@ public class XMLNode {
          this.name = nodeName;
       }
       this.nodeParent = parent;
-      constructDefaultAttributes();
+      this.inherits = parent != null;
    }
 
-   private void constructDefaultAttributes() {
-      if (nodeParent == null) {
-         return;
+   /**
+    * Return true if an attribute is inherited from the parent Node when it is not defined in this Node.
+    *
+    * @param attrName the attribute name
+    * @return true if the attribute is inherited from the parent Node
+    */
+   private boolean isInherited(String attrName) {
+      switch (attrName) {
+         case "fill":
+         case "stroke":
+         case "font-size":
+         case "font-family":
+         case "font-weight":
+         case "font-style":
+         case "stroke-width":
+         case "style":
+            return true;
+         case "class":
+            return !name.equals("tspan");
+         default:
+            return false;
       }
-      Iterator<String> it = nodeParent.getAttributes().keySet().iterator();
-      while (it.hasNext()) {
-         String key = it.next();
-         switch (key) {
-            case "fill":
-            case "stroke":
-            case "font-size":
-            case "font-family":
-            case "font-weight":
-            case "font-style":
-            case "stroke-width":
-            case "style":
-               String value = nodeParent.getAttributeValue(key);
-               attributes.put(key, value);
-               break;
+   }
+
+   /**
+    * Return the index of an attribute defined on this Node.
+    *
+    * @param attrName the attribute name
+    * @return the index, or -1 if the attribute is not defined on this Node
+    */
+   private int indexOfAttribute(String attrName) {
+      for (int i = 0; i < attrCount; i++) {
+         if (attrName.equals(attrNames[i])) {
+            return i;
          }
       }
+      return -1;
+   }
+
+   private void putAttribute(String attrName, String value) {
+      checkWritable();
+      int i = indexOfAttribute(attrName);
+      if (i != -1) {
+         attrValues[i] = value;
+         return;
+      }
+      if (attrNames == null) {
+         attrNames = new String[4];
+         attrValues = new String[4];
+      } else if (attrCount == attrNames.length) {
+         attrNames = Arrays.copyOf(attrNames, attrCount * 2);
+         attrValues = Arrays.copyOf(attrValues, attrCount * 2);
+      }
+      attrNames[attrCount] = attrName;
+      attrValues[attrCount] = value;
+      attrCount++;
    }
 
    /**
@@ -162,7 +242,7 @@ public class XMLNode {
     * @return the ordered list of children of this Node
     */
    public List<XMLNode> getChildren() {
-      return children;
+      return readOnlyChildren != null ? readOnlyChildren : children;
    }
 
    /**
@@ -243,6 +323,7 @@ public class XMLNode {
     * @param child the Node child
     */
    public void addChild(XMLNode child) {
+      checkWritable();
       child.setParent(this, children.size());
       children.add(child);
    }
@@ -266,23 +347,53 @@ public class XMLNode {
    }
 
    /**
-    * Return the number of attributes of the Node.
+    * Return the number of attributes defined on the Node.
     *
-    * @return the number of attributes of the Node
+    * @return the number of attributes defined on the Node
     */
    public int countAttributes() {
-      return attributes.size();
+      return attrCount;
    }
 
    /**
-    * Return the Map of attributes for this node.
+    * Return the Map of attributes defined on this node. The Map is a view of the attributes of the node, which does
+    * not contain the attributes inherited from the parent nodes. Adding an attribute to the Map adds it to the node.
     *
     * @return the Map of attributes for this node
+    * @see #getResolvedAttributes()
     */
+   @SuppressWarnings("deprecation")
    public Map<String, String> getAttributes() {
+      if (attributes == null) {
+         attributes = new AttributesMap();
+      }
       return attributes;
    }
 
+   /**
+    * Return the Map of attributes for this node, including the attributes inherited from the parent nodes. The Map
+    * is a copy of the attributes, so modifying it does not modify the node.
+    *
+    * @return the Map of attributes for this node, including the inherited attributes
+    * @since 1.2
+    */
+   public Map<String, String> getResolvedAttributes() {
+      Map<String, String> map = new TreeMap<>();
+      if (inherits && nodeParent != null) {
+         Iterator<Map.Entry<String, String>> it = nodeParent.getResolvedAttributes().entrySet().iterator();
+         while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            if (isInherited(entry.getKey())) {
+               map.put(entry.getKey(), entry.getValue());
+            }
+         }
+      }
+      for (int i = 0; i < attrCount; i++) {
+         map.put(attrNames[i], attrValues[i]);
+      }
+      return map;
+   }
+
    /**
     * Return the value of an attribute of a specified name.
     *
@@ -290,7 +401,27 @@ public class XMLNode {
     * @return the value of the attribute
     */
    public String getAttributeValue(String attrName) {
-      return attributes.get(attrName);
+      int i = indexOfAttribute(attrName);
+      if (i != -1) {
+         return attrValues[i];
+      } else if (inherits && nodeParent != null && isInherited(attrName)) {
+         return nodeParent.getAttributeValue(attrName);
+      } else {
+         return null;
+      }
+   }
+
+   /**
+    * Return the value of an attribute defined on this Node. Contrary to {@link #getAttributeValue(String)}, the
+    * attributes inherited from the parent Node are not taken into account.
+    *
+    * @param attrName the attribute name
+    * @return the value of the attribute, or null if the attribute is not defined on this Node
+    * @since 1.2
+    */
+   public String getOwnAttributeValue(String attrName) {
+      int i = indexOfAttribute(attrName);
+      return i != -1 ? attrValues[i] : null;
    }
 
    /**
@@ -311,8 +442,8 @@ public class XMLNode {
     * @return the value of the attribute
     */
    public boolean getAttributeValueAsBoolean(String attrName, boolean defaultValue) {
-      if (attributes.containsKey(attrName)) {
-         String attrvalue = attributes.get(attrName);
+      String attrvalue = getAttributeValue(attrName);
+      if (attrvalue != null) {
          try {
             return attrvalue.equals("true");
          } catch (NumberFormatException e) {
@@ -341,8 +472,8 @@ public class XMLNode {
     * @return the value of the attribute
     */
    public float getAttributeValueAsFloat(String attrName, float defaultValue) {
-      if (attributes.containsKey(attrName)) {
-         String attrvalue = attributes.get(attrName);
+      String attrvalue = getAttributeValue(attrName);
+      if (attrvalue != null) {
          attrvalue = attrvalue.replace('−', '-');
          try {
             float f = Float.parseFloat(attrvalue);
@@ -458,8 +589,8 @@ public class XMLNode {
     * @return the value of the attribute
     */
    public double getLineWidthValue(String attrName, Viewport viewport, double defaultValue) {
-      if (attributes.containsKey(attrName)) {
-         String attrvalue = attributes.get(attrName);
+      String attrvalue = getAttributeValue(attrName);
+      if (attrvalue != null) {
          attrvalue = attrvalue.replace('−', '-');
          try {
             double d = LengthParser.parseLineWidth(attrvalue, viewport);
@@ -483,8 +614,8 @@ public class XMLNode {
     * @return the value of the attribute
     */
    public double getLengthValue(String attrName, boolean isWidth, Bounds bounds, Viewport viewport, double defaultValue) {
-      if (attributes.containsKey(attrName)) {
-         String attrvalue = attributes.get(attrName);
+      String attrvalue = getAttributeValue(attrName);
+      if (attrvalue != null) {
          attrvalue = attrvalue.replace('−', '-');
          try {
             double d = LengthParser.parseLength(attrvalue, isWidth, bounds, viewport);
@@ -508,8 +639,8 @@ public class XMLNode {
     * @return the value of the attribute
     */
    public double getPositionValue(String attrName, boolean isWidth, Bounds bounds, Viewport viewport, double defaultValue) {
-      if (attributes.containsKey(attrName)) {
-         String attrvalue = attributes.get(attrName);
+      String attrvalue = getAttributeValue(attrName);
+      if (attrvalue != null) {
          attrvalue = attrvalue.replace('−', '-');
          try {
             double d = LengthParser.parsePosition(attrvalue, isWidth, bounds, viewport);
@@ -540,8 +671,8 @@ public class XMLNode {
     * @return the value of the attribute
     */
    public int getAttributeValueAsInt(String attrName, int defaultValue) {
-      if (attributes.containsKey(attrName)) {
-         String attrvalue = attributes.get(attrName);
+      String attrvalue = getAttributeValue(attrName);
+      if (attrvalue != null) {
          try {
             int i = Integer.parseInt(attrvalue);
             return i;
@@ -560,7 +691,7 @@ public class XMLNode {
     * @param value the attribute value
     */
    public void addAttribute(String attrName, int value) {
-      attributes.put(attrName, Integer.toString(value));
+      putAttribute(attrName, Integer.toString(value));
    }
 
    /**
@@ -570,7 +701,7 @@ public class XMLNode {
     * @param value the attribute value
     */
    public void addAttribute(String attrName, String value) {
-      attributes.put(attrName, value);
+      putAttribute(attrName, value);
    }
 
    /**
@@ -580,7 +711,7 @@ public class XMLNode {
     * @param value the attribute value
     */
    public void addAttribute(String attrName, float value) {
-      attributes.put(attrName, format(value));
+      putAttribute(attrName, format(value));
    }
 
    /**
@@ -590,7 +721,7 @@ public class XMLNode {
     * @param value the attribute value
     */
    public void addAttribute(String attrName, boolean value) {
-      attributes.put(attrName, value ? "true" : "false");
+      putAttribute(attrName, value ? "true" : "false");
    }
 
    /**
@@ -599,9 +730,87 @@ public class XMLNode {
     * @param cData the CDATA content
     */
    public void setCDATA(String cData) {
+      checkWritable();
       this.cData = cData;
    }
 
+   /**
+    * Make this Node and all its children read-only. The methods which modify a read-only Node throw an
+    * UnsupportedOperationException, so the tree can be safely shared between threads.
+    *
+    * @since 1.2
+    */
+   public void setReadOnly() {
+      if (!readOnly) {
+         readOnly = true;
+         readOnlyChildren = Collections.unmodifiableList(children);
+         Iterator<XMLNode> it = children.iterator();
+         while (it.hasNext()) {
+            it.next().setReadOnly();
+         }
+      }
+   }
+
+   /**
+    * Return the value which has been parsed from an attribute defined on this Node and kept by
+    * {@link #setParsedValue(String, Object)}.
+    *
+    * @param attrName the attribute name
+    * @return the parsed value, or null if there is none
+    * @since 1.2
+    */
+   public Object getParsedValue(String attrName) {
+      Object[] values = parsedValues;
+      if (values == null) {
+         return null;
+      }
+      int i = indexOfAttribute(attrName);
+      return i != -1 ? values[i] : null;
+   }
+
+   /**
+    * Keep the value parsed from an attribute defined on this Node, so that the attribute is not parsed again when
+    * another image is created from the same document. The value is only kept if the Node is read-only, because the
+    * attributes of a read-only Node can not change. The value must be immutable and must not depend on the scale, as
+    * the Node can be shared by several images built at different scales in several threads.
+    *
+    * @param attrName the attribute name
+    * @param value the parsed value
+    * @since 1.2
+    */
+   public void setParsedValue(String attrName, Object value) {
+      if (!readOnly) {
+         return;
+      }
+      int i = indexOfAttribute(attrName);
+      if (i == -1) {
+         return;
+      }
+      Object[] values = parsedValues;
+      if (values == null) {
+         // if two threads create the array at the same time, one of the values is lost and will be parsed again
+         values = new Object[attrCount];
+         parsedValues = values;
+      }
+      values[i] = value;
+   }
+
+   /**
+    * Return true if this Node is read-only.
+    *
+    * @return true if this Node is read-only
+    * @since 1.2
+    */
+   public boolean isReadOnly() {
+      return readOnly;
+   }
+
+   private void checkWritable() {
+      if (readOnly) {
+         throw new UnsupportedOperationException("The " + name + " Node is read-only");
+      }
+   }
+
    /**
     * Return the CDATA content for the node.
     *
@@ -627,7 +836,76 @@ public class XMLNode {
     * @return true if the Node has an attribute of the specified name
     */
    public boolean hasAttribute(String attrName) {
-      return attributes.containsKey(attrName);
+      if (indexOfAttribute(attrName) != -1) {
+         return true;
+      } else if (inherits && nodeParent != null && isInherited(attrName)) {
+         return nodeParent.hasAttribute(attrName);
+      } else {
+         return false;
+      }
+   }
+
+   /**
+    * A view of the attributes defined on the Node.
+    */
+   private class AttributesMap extends AbstractMap<String, String> {
+      @Override
+      public int size() {
+         return attrCount;
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+         return key instanceof String && indexOfAttribute((String) key) != -1;
+      }
+
+      @Override
+      public String get(Object key) {
+         if (!(key instanceof String)) {
+            return null;
+         }
+         int i = indexOfAttribute((String) key);
+         return i != -1 ? attrValues[i] : null;
+      }
+
+      @Override
+      public String put(String key, String value) {
+         String previous = get(key);
+         putAttribute(key, value);
+         return previous;
+      }
+
+      @Override
+      public Set<Map.Entry<String, String>> entrySet() {
+         return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public int size() {
+               return attrCount;
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+               return new Iterator<Map.Entry<String, String>>() {
+                  private int i = 0;
+
+                  @Override
+                  public boolean hasNext() {
+                     return i < attrCount;
+                  }
+
+                  @Override
+                  public Map.Entry<String, String> next() {
+                     if (i >= attrCount) {
+                        throw new NoSuchElementException();
+                     }
+                     Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<>(attrNames[i], attrValues[i]);
+                     i++;
+                     return entry;
+                  }
+               };
+            }
+         };
+      }
    }
 
    private String format(float f) {
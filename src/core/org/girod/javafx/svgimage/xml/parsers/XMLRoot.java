@@ -33,12 +33,13 @@ the project website at the project page on https://github.com/hervegirod/fxsvgim
 package org.girod.javafx.svgimage.xml.parsers;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * A root Node in an XML File.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class XMLRoot extends XMLNode {
    private String encoding = null;
@@ -97,16 +98,18 @@ public class XMLRoot extends XMLNode {
       if (encoding != null && !node.encoding.equals(encoding)) {
          return false;
       }
-      if (node.getAttributes().size() != attributes.size()) {
+      Map<String, String> attributes = getAttributes();
+      Map<String, String> otherAttributes = node.getAttributes();
+      if (otherAttributes.size() != attributes.size()) {
          return false;
       }
-      Iterator<String> it = node.getAttributes().keySet().iterator();
+      Iterator<String> it = otherAttributes.keySet().iterator();
       while (it.hasNext()) {
          String key = it.next();
          if (!attributes.containsKey(key)) {
             return false;
          }
-         String value = node.getAttributes().get(key);
+         String value = otherAttributes.get(key);
          String value2 = attributes.get(key);
          if (!value.equals(value2)) {
             return false;
@@ -131,7 +134,7 @@ public class XMLRoot extends XMLNode {
       hash = 59 * hash + Objects.hashCode(this.encoding);
       hash = 59 * hash + Objects.hashCode(this.name);
       hash = 59 * hash + Objects.hashCode(this.children);
-      hash = 59 * hash + Objects.hashCode(this.attributes);
+      hash = 59 * hash + Objects.hashCode(getAttributes());
       return hash;
    }
 }
@@ -40,7 +40,7 @@ import org.xml.sax.ext.DefaultHandler2;
 /**
  * Parse an XML File and return the associated tree of Nodes.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class XMLTreeHandler extends DefaultHandler2 implements SVGTags {
    private XMLNode node = null;
@@ -48,6 +48,7 @@ public class XMLTreeHandler extends DefaultHandler2 implements SVGTags {
    private XMLRoot root = null;
    private String encoding = null;
    private StringBuilder buf = null;
+   private StyleCache styleCache = new StyleCache();
 
    /**
     * Constructor.
@@ -64,6 +65,16 @@ public class XMLTreeHandler extends DefaultHandler2 implements SVGTags {
       this.encoding = encoding;
    }
 
+   /**
+    * Set the cache used for the "style" attributes. By default each handler uses its own cache.
+    *
+    * @param styleCache the cache
+    * @since 1.2
+    */
+   public void setStyleCache(StyleCache styleCache) {
+      this.styleCache = styleCache;
+   }
+
    /**
     * Return the root node.
     *
@@ -97,10 +108,30 @@ public class XMLTreeHandler extends DefaultHandler2 implements SVGTags {
             }
             buf = null;
          }
+         nodeEnded(node);
          node = node.getParent();
       }
    }
 
+   /**
+    * Called when a node has been created and its attributes have been set. Does nothing by default.
+    *
+    * @param node the node
+    * @since 1.2
+    */
+   protected void nodeStarted(XMLNode node) {
+   }
+
+   /**
+    * Called when the element of a node is closed, after its children and its CDATA content have been set.
+    * Does nothing by default.
+    *
+    * @param node the node
+    * @since 1.2
+    */
+   protected void nodeEnded(XMLNode node) {
+   }
+
    @Override
    public void characters(char[] characters, int start, int length) {
       if (buf != null) {
@@ -139,11 +170,13 @@ public class XMLTreeHandler extends DefaultHandler2 implements SVGTags {
          String attrvalue = attr.getValue(i);
          childNode.addAttribute(attrname, attrvalue);
       }
-      if (node != null) {
-         // Propagate style attributes from parent nodes to child nodes
-         ParserUtils.propagateStyleAttributes(node, childNode);
+      if (node != null && qname.equals(TSPAN) && node.getName().equals(TEXT)) {
+         // merge the style of the text with the style of the tspan, so that the tree is not modified when building the nodes
+         String theStyles = styleCache.mergeStyles(node, childNode);
+         childNode.addAttribute(STYLE, theStyles);
       }
       nodes.push(childNode);
       node = childNode;
+      nodeStarted(childNode);
    }
 }
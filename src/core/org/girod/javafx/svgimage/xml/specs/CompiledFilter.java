@@ -0,0 +1,333 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.specs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.scene.Node;
+import javafx.scene.effect.Blend;
+import javafx.scene.effect.ColorAdjust;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.Effect;
+import javafx.scene.effect.GaussianBlur;
+import javafx.scene.effect.Lighting;
+import javafx.scene.effect.PerspectiveTransform;
+import org.girod.javafx.svgimage.xml.parsers.SVGTags;
+
+/**
+ * The effect graph of a filter, compiled once from its specification.
+ *
+ * <p>The compilation resolves the inputs of each filter primitive, and optimizes the graph:</p>
+ * <ul>
+ * <li>The primitives which do not contribute to the result of the filter are not part of the graph</li>
+ * <li>The offsets which do not move their input are replaced by their input</li>
+ * <li>The floods which do not paint anything are removed from the merges</li>
+ * <li>A merge of more than two nodes is a chain of additive blends, and a merge of one node is this node</li>
+ * </ul>
+ *
+ * <p>Only the offsets depend on the node on which the filter applies. The effects which do not depend on an offset
+ * are created once and shared by all the nodes, and the other effects are created for each node.</p>
+ *
+ * @since 1.2
+ */
+public class CompiledFilter implements SVGTags {
+   private static final int SOURCE_GRAPHIC_INPUT = -1;
+   private static final int SOURCE_ALPHA_INPUT = -2;
+   private final List<Step> steps;
+   private final int output;
+   private Effect[] sharedEffects = null;
+   private ColorAdjust sourceAlpha = null;
+
+   private CompiledFilter(List<Step> steps, int output) {
+      this.steps = steps;
+      this.output = output;
+   }
+
+   /**
+    * Compile a filter.
+    *
+    * @param spec the filter specification
+    * @return the compiled filter
+    */
+   public static CompiledFilter compile(FilterSpec spec) {
+      List<Step> steps = new ArrayList<>();
+      Map<String, Integer> results = new HashMap<>();
+      List<FilterSpec.AppliedEffect> appliedEffects = new ArrayList<>();
+      int previous = SOURCE_GRAPHIC_INPUT;
+      List<FilterSpec.FilterEffect> effects = spec.getEffects();
+      for (int i = 0; i < effects.size(); i++) {
+         FilterSpec.FilterEffect effectSpec = effects.get(i);
+         if (effectSpec instanceof FilterSpec.FEComposite) {
+            FilterSpec.FEComposite feComposite = (FilterSpec.FEComposite) effectSpec;
+            if (!feComposite.shouldApply(appliedEffects, i)) {
+               continue;
+            }
+         }
+         appliedEffects.add(new FilterSpec.AppliedEffect(effectSpec, null));
+         int result;
+         if (effectSpec instanceof FilterSpec.FEMerge) {
+            result = addMerge(steps, (FilterSpec.FEMerge) effectSpec, results);
+         } else if (effectSpec instanceof FilterSpec.FEComposite) {
+            FilterSpec.FEComposite feComposite = (FilterSpec.FEComposite) effectSpec;
+            int top = getCompositeInput(feComposite.getIn(), previous, results);
+            int bottom = getCompositeInput(feComposite.getIn2(), previous, results);
+            result = addStep(steps, effectSpec, top, bottom);
+         } else if (effectSpec instanceof FilterSpec.FEFlood || effectSpec instanceof FilterSpec.FEImage) {
+            result = addStep(steps, effectSpec);
+         } else {
+            int input = getInput(effectSpec, previous, results);
+            if (effectSpec instanceof FilterSpec.FEOffset && ((FilterSpec.FEOffset) effectSpec).isIdentity()) {
+               result = input;
+            } else {
+               result = addStep(steps, effectSpec, input);
+            }
+         }
+         String resultId = effectSpec.getResultId();
+         if (resultId != null) {
+            results.put(resultId, result);
+         }
+         previous = result;
+      }
+      return removeDeadSteps(steps, previous);
+   }
+
+   private static int addStep(List<Step> steps, FilterSpec.FilterEffect effectSpec, int... inputs) {
+      boolean isPerNode = effectSpec instanceof FilterSpec.FEOffset;
+      for (int i = 0; i < inputs.length; i++) {
+         if (inputs[i] >= 0 && steps.get(inputs[i]).isPerNode) {
+            isPerNode = true;
+         }
+      }
+      steps.add(new Step(effectSpec, inputs, isPerNode));
+      return steps.size() - 1;
+   }
+
+   private static int addMerge(List<Step> steps, FilterSpec.FEMerge effectSpec, Map<String, Integer> results) {
+      List<Integer> inputs = new ArrayList<>();
+      int emptyInput = SOURCE_GRAPHIC_INPUT;
+      List<String> mergeNodes = effectSpec.getMergeNodes();
+      for (int i = 0; i < mergeNodes.size(); i++) {
+         String in = mergeNodes.get(i);
+         int input;
+         if (in == null) {
+            continue;
+         } else if (results.containsKey(in)) {
+            input = results.get(in);
+         } else if (in.equals(SOURCE_GRAPHIC)) {
+            input = SOURCE_GRAPHIC_INPUT;
+         } else if (in.equals(SOURCE_ALPHA)) {
+            input = SOURCE_ALPHA_INPUT;
+         } else {
+            continue;
+         }
+         if (input >= 0 && steps.get(input).isEmptyFlood()) {
+            emptyInput = input;
+         } else {
+            inputs.add(input);
+         }
+      }
+      if (inputs.isEmpty()) {
+         return emptyInput;
+      }
+      int result = inputs.get(0);
+      for (int i = 1; i < inputs.size(); i++) {
+         result = addStep(steps, effectSpec, result, inputs.get(i));
+      }
+      return result;
+   }
+
+   private static int getInput(FilterSpec.FilterEffect effectSpec, int previous, Map<String, Integer> results) {
+      switch (effectSpec.getInputType()) {
+         case FilterSpec.NAMED_EFFECT: {
+            Integer result = results.get(effectSpec.getIn());
+            return result != null ? result : SOURCE_GRAPHIC_INPUT;
+         }
+         case FilterSpec.SOURCE_GRAPHIC_EFFECT:
+            return SOURCE_GRAPHIC_INPUT;
+         case FilterSpec.SOURCE_ALPHA_EFFECT:
+            return SOURCE_ALPHA_INPUT;
+         default:
+            return previous;
+      }
+   }
+
+   private static int getCompositeInput(String in, int previous, Map<String, Integer> results) {
+      if (in == null) {
+         return previous;
+      } else if (results.containsKey(in)) {
+         return results.get(in);
+      } else if (in.equals(SOURCE_ALPHA)) {
+         return SOURCE_ALPHA_INPUT;
+      } else if (in.equals(SOURCE_GRAPHIC)) {
+         return SOURCE_GRAPHIC_INPUT;
+      } else {
+         return previous;
+      }
+   }
+
+   /**
+    * Keep only the steps which contribute to the output. The inputs of a step always precede it, so the steps are
+    * marked in reverse order.
+    */
+   private static CompiledFilter removeDeadSteps(List<Step> steps, int output) {
+      boolean[] isLive = new boolean[steps.size()];
+      if (output >= 0) {
+         isLive[output] = true;
+      }
+      for (int i = steps.size() - 1; i >= 0; i--) {
+         if (isLive[i]) {
+            int[] inputs = steps.get(i).inputs;
+            for (int j = 0; j < inputs.length; j++) {
+               if (inputs[j] >= 0) {
+                  isLive[inputs[j]] = true;
+               }
+            }
+         }
+      }
+      int[] indexes = new int[steps.size()];
+      List<Step> liveSteps = new ArrayList<>(steps.size());
+      for (int i = 0; i < steps.size(); i++) {
+         if (isLive[i]) {
+            Step step = steps.get(i);
+            for (int j = 0; j < step.inputs.length; j++) {
+               if (step.inputs[j] >= 0) {
+                  step.inputs[j] = indexes[step.inputs[j]];
+               }
+            }
+            indexes[i] = liveSteps.size();
+            liveSteps.add(step);
+         }
+      }
+      return new CompiledFilter(liveSteps, output >= 0 ? indexes[output] : output);
+   }
+
+   /**
+    * Return the number of effects in the graph.
+    *
+    * @return the number of effects
+    */
+   public int getEffectsCount() {
+      return steps.size();
+   }
+
+   /**
+    * Return true if the effect of the filter does not depend on the node, and is shared by all the nodes.
+    *
+    * @return true if the effect is shared by all the nodes
+    */
+   public boolean isShared() {
+      return output < 0 || !steps.get(output).isPerNode;
+   }
+
+   /**
+    * Return the effect to apply on a node.
+    *
+    * @param node the node
+    * @return the effect, or null if the filter has no effect
+    */
+   public Effect getEffect(Node node) {
+      if (output >= 0 && steps.get(output).isPerNode) {
+         return getEffect(output, node, new Effect[steps.size()]);
+      } else {
+         return getEffect(output, null, null);
+      }
+   }
+
+   private Effect getEffect(int input, Node node, Effect[] nodeEffects) {
+      if (input == SOURCE_GRAPHIC_INPUT) {
+         return null;
+      } else if (input == SOURCE_ALPHA_INPUT) {
+         if (sourceAlpha == null) {
+            sourceAlpha = new ColorAdjust();
+            // this works with the brightness. Interestingly, it does not work if we try to use the hue or the saturation
+            sourceAlpha.setBrightness(-1d);
+         }
+         return sourceAlpha;
+      }
+      Step step = steps.get(input);
+      Effect[] effects;
+      if (step.isPerNode) {
+         effects = nodeEffects;
+      } else {
+         if (sharedEffects == null) {
+            sharedEffects = new Effect[steps.size()];
+         }
+         effects = sharedEffects;
+      }
+      Effect effect = effects[input];
+      if (effect == null) {
+         effect = step.effectSpec.getEffect(node);
+         for (int i = 0; i < step.inputs.length; i++) {
+            setInput(effect, i, getEffect(step.inputs[i], node, nodeEffects));
+         }
+         effects[input] = effect;
+      }
+      return effect;
+   }
+
+   private static void setInput(Effect effect, int index, Effect input) {
+      if (effect instanceof Blend) {
+         if (index == 0) {
+            ((Blend) effect).setTopInput(input);
+         } else {
+            ((Blend) effect).setBottomInput(input);
+         }
+      } else if (effect instanceof GaussianBlur) {
+         ((GaussianBlur) effect).setInput(input);
+      } else if (effect instanceof DropShadow) {
+         ((DropShadow) effect).setInput(input);
+      } else if (effect instanceof PerspectiveTransform) {
+         ((PerspectiveTransform) effect).setInput(input);
+      } else if (effect instanceof Lighting) {
+         ((Lighting) effect).setContentInput(input);
+      }
+   }
+
+   private static class Step {
+      private final FilterSpec.FilterEffect effectSpec;
+      private final int[] inputs;
+      private final boolean isPerNode;
+
+      private Step(FilterSpec.FilterEffect effectSpec, int[] inputs, boolean isPerNode) {
+         this.effectSpec = effectSpec;
+         this.inputs = inputs;
+         this.isPerNode = isPerNode;
+      }
+
+      private boolean isEmptyFlood() {
+         return effectSpec instanceof FilterSpec.FEFlood && ((FilterSpec.FEFlood) effectSpec).isEmpty();
+      }
+   }
+}
@@ -54,7 +54,7 @@ import org.girod.javafx.svgimage.xml.parsers.SVGTags;
 /**
  * Contains the specification for a filter.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class FilterSpec implements SVGTags {
    public static final short PREVIOUS_EFFECT = 0;
@@ -63,6 +63,7 @@ public class FilterSpec implements SVGTags {
    public static final short SOURCE_ALPHA_EFFECT = 3;
    private final List<FilterEffect> effects = new ArrayList<>();
    private final Map<String, FilterEffect> namedEffects = new HashMap<>();
+   private CompiledFilter compiledFilter = null;
 
    public FilterSpec() {
    }
@@ -78,6 +79,20 @@ public class FilterSpec implements SVGTags {
       return effects;
    }
 
+   /**
+    * Return the effect graph of the filter. The graph is compiled the first time this method is called, and is then
+    * used for all the nodes which use this filter.
+    *
+    * @return the compiled filter
+    * @since 1.2
+    */
+   public CompiledFilter getCompiledFilter() {
+      if (compiledFilter == null) {
+         compiledFilter = CompiledFilter.compile(this);
+      }
+      return compiledFilter;
+   }
+
    public interface FilterEffect {
       /**
        * Return the filter result Id.
@@ -90,6 +105,16 @@ public class FilterSpec implements SVGTags {
 
       public void setIn(String in);
 
+      /**
+       * Return the value of the in attribute.
+       *
+       * @return the in attribute value, or null if the effect applies on the result of the previous effect
+       * @since 1.2
+       */
+      public default String getIn() {
+         return null;
+      }
+
       /**
        * Return the associated JavaFX effect.
        *
@@ -131,6 +156,11 @@ public class FilterSpec implements SVGTags {
          }
       }
 
+      @Override
+      public String getIn() {
+         return in;
+      }
+
       @Override
       public String getResultId() {
          return resultId;
@@ -148,6 +178,16 @@ public class FilterSpec implements SVGTags {
          mergeNodes.add(in);
       }
 
+      /**
+       * Return the in attributes of the merge nodes.
+       *
+       * @return the in attributes
+       * @since 1.2
+       */
+      public List<String> getMergeNodes() {
+         return mergeNodes;
+      }
+
       @Override
       public Effect getEffect(Node node) {
          return new Blend(BlendMode.ADD);
@@ -270,6 +310,16 @@ public class FilterSpec implements SVGTags {
          this.color = color;
       }
 
+      /**
+       * Return true if the flood does not paint anything, because its area is empty or its color is transparent.
+       *
+       * @return true if the flood does not paint anything
+       * @since 1.2
+       */
+      public boolean isEmpty() {
+         return width <= 0 || height <= 0 || color == null || color.getOpacity() == 0;
+      }
+
       @Override
       public Effect getEffect(Node node) {
          ColorInput colInput = new ColorInput(x, y, width, height, color);
@@ -306,6 +356,16 @@ public class FilterSpec implements SVGTags {
          this.dy = dy;
       }
 
+      /**
+       * Return true if the offset does not move its input.
+       *
+       * @return true if the offset does not move its input
+       * @since 1.2
+       */
+      public boolean isIdentity() {
+         return dx == 0 && dy == 0;
+      }
+
       @Override
       public void resolveEffect(Effect effect, Effect sourceAlpha, Effect previousEffect, Map<String, Effect> namedEffects) {
          if (inputType == NAMED_EFFECT && namedEffects.containsKey(in)) {
@@ -458,6 +518,21 @@ public class FilterSpec implements SVGTags {
          return compIn != null && compIn.equals(SOURCE_GRAPHIC);
       }
 
+      @Override
+      public String getIn() {
+         return compIn;
+      }
+
+      /**
+       * Return the value of the in2 attribute.
+       *
+       * @return the in2 attribute value
+       * @since 1.2
+       */
+      public String getIn2() {
+         return compIn2;
+      }
+
       @Override
       public Effect getEffect(Node node) {
          switch (type) {
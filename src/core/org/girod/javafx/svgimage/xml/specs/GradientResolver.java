@@ -0,0 +1,93 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml.specs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.girod.javafx.svgimage.GlobalConfig;
+
+/**
+ * Orders the gradients of a document so that each gradient is resolved after the gradient it references. The
+ * references form chains, which are walked once. A reference which would close a cycle is removed.
+ *
+ * @since 1.2
+ */
+public class GradientResolver {
+   private static final short VISITING = 1;
+   private static final short VISITED = 2;
+
+   private GradientResolver() {
+   }
+
+   /**
+    * Return the ids of the gradients, in an order where each gradient comes after the gradient it references. The
+    * references which would close a cycle are removed from the gradients.
+    *
+    * @param specs the gradients specifications
+    * @return the ordered ids
+    */
+   public static List<String> getResolutionOrder(Map<String, GradientSpec> specs) {
+      List<String> order = new ArrayList<>(specs.size());
+      Map<String, Short> states = new HashMap<>();
+      List<String> chain = new ArrayList<>();
+      Iterator<String> it = specs.keySet().iterator();
+      while (it.hasNext()) {
+         String id = it.next();
+         String current = id;
+         while (current != null && specs.containsKey(current)) {
+            Short state = states.get(current);
+            if (state != null && state == VISITED) {
+               break;
+            } else if (state != null) {
+               String last = chain.get(chain.size() - 1);
+               specs.get(last).removeHref();
+               GlobalConfig.getInstance().handleParsingError("Gradient " + last + " has a cyclic reference to " + current);
+               break;
+            }
+            states.put(current, VISITING);
+            chain.add(current);
+            current = specs.get(current).getHref();
+         }
+         for (int i = chain.size() - 1; i >= 0; i--) {
+            String chainID = chain.get(i);
+            states.put(chainID, VISITED);
+            order.add(chainID);
+         }
+         chain.clear();
+      }
+      return order;
+   }
+}
@@ -50,7 +50,7 @@ import org.girod.javafx.svgimage.xml.parsers.SVGTags;
 /**
  * Contains the specification for a radial or linear gradient.
  *
- * @version 1.0
+ * @version 1.2
  */
 public abstract class GradientSpec implements SVGTags {
    protected String href = null;
@@ -58,6 +58,8 @@ public abstract class GradientSpec implements SVGTags {
    protected boolean isResolved = false;
    protected List<StopSpec> specStops = new ArrayList<>();
    protected List<Transform> transformList = null;
+   protected List<Stop> stops = null;
+   private boolean isResolving = false;
 
    public GradientSpec(XMLNode node) {
       this.xmlNode = node;
@@ -76,6 +78,80 @@ public abstract class GradientSpec implements SVGTags {
       return isResolved;
    }
 
+   /**
+    * Return the id of the gradient referenced by this gradient.
+    *
+    * @return the id, or null if this gradient does not reference another gradient
+    * @since 1.2
+    */
+   public String getHref() {
+      return href;
+   }
+
+   /**
+    * Remove the reference to another gradient. It is used to break the cycles of references.
+    *
+    * @since 1.2
+    */
+   public void removeHref() {
+      href = null;
+   }
+
+   /**
+    * Resolve the gradient referenced by this gradient. A gradient which is being resolved is not returned, so that
+    * a cycle of references is not followed.
+    *
+    * @param gradients the gradients specifications
+    * @param viewport the viewport
+    * @return the referenced gradient, or null if there is no referenced gradient
+    * @since 1.2
+    */
+   protected GradientSpec resolveReference(Map<String, GradientSpec> gradients, Viewport viewport) {
+      if (href == null) {
+         return null;
+      }
+      GradientSpec spec = gradients.get(href);
+      if (spec == null || spec.isResolving) {
+         return null;
+      }
+      isResolving = true;
+      try {
+         spec.resolve(gradients, viewport);
+      } finally {
+         isResolving = false;
+      }
+      return spec;
+   }
+
+   /**
+    * Build the stops of this gradient. The gradient inherits the stops of the referenced gradient if it has no stops,
+    * in which case the two gradients share the same list of stops.
+    *
+    * @param kindOfGradient the kind of gradient
+    * @param reference the referenced gradient (may be null)
+    * @since 1.2
+    */
+   protected void resolveStops(String kindOfGradient, GradientSpec reference) {
+      specStops = buildStops(this, xmlNode, kindOfGradient);
+      if (specStops.isEmpty() && reference != null) {
+         specStops = reference.getStops();
+         stops = reference.getResolvedStops();
+      }
+   }
+
+   /**
+    * Return the JavaFX stops of the gradient. They are only converted once.
+    *
+    * @return the stops
+    * @since 1.2
+    */
+   public List<Stop> getResolvedStops() {
+      if (stops == null) {
+         stops = convertStops(specStops);
+      }
+      return stops;
+   }
+
    public abstract Paint getPaint();
 
    public abstract void resolve(Map<String, GradientSpec> gradients, Viewport viewport);
@@ -119,7 +195,7 @@ public abstract class GradientSpec implements SVGTags {
    }
 
    protected List<Stop> convertStops(List<GradientSpec.StopSpec> specstops) {
-      List<Stop> stops = new ArrayList<>();
+      List<Stop> stops = new ArrayList<>(specstops.size());
       Iterator<GradientSpec.StopSpec> it = specstops.iterator();
       while (it.hasNext()) {
          GradientSpec.StopSpec theStop = it.next();
@@ -174,9 +250,11 @@ public abstract class GradientSpec implements SVGTags {
          }
 
          if (color != null) {
-            Color colour = Color.web(color, opacity);
-            GradientSpec.StopSpec stop = spec.addStop(offset, opacity, colour);
-            stops.add(stop);
+            Color colour = ParserUtils.getColor(color.trim(), opacity);
+            if (colour != null) {
+               GradientSpec.StopSpec stop = spec.addStop(offset, opacity, colour);
+               stops.add(stop);
+            }
          }
       }
 
@@ -35,19 +35,17 @@ package org.girod.javafx.svgimage.xml.specs;
 import org.girod.javafx.svgimage.xml.parsers.XMLNode;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import javafx.scene.paint.CycleMethod;
 import javafx.scene.paint.LinearGradient;
 import javafx.scene.paint.Paint;
-import javafx.scene.paint.Stop;
 import javafx.scene.transform.Transform;
 import org.girod.javafx.svgimage.xml.parsers.TransformUtils;
 
 /**
  * Contains the specification for a linear gradient.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class LinearGradientSpec extends GradientSpec {
    private LinearGradient gradient = null;
@@ -69,13 +67,10 @@ public class LinearGradientSpec extends GradientSpec {
       if (isResolved) {
          return;
       }
+      GradientSpec reference = resolveReference(gradients, viewport);
       LinearGradientSpec linearSpec = null;
-      if (href != null && gradients.containsKey(href)) {
-         GradientSpec spec = gradients.get(href);
-         if (spec instanceof LinearGradientSpec) {
-            linearSpec = (LinearGradientSpec) spec;
-            linearSpec.resolve(gradients, viewport);
-         }
+      if (reference instanceof LinearGradientSpec && ((LinearGradientSpec) reference).gradient != null) {
+         linearSpec = (LinearGradientSpec) reference;
       }
       double x1 = 0;
       double y1 = 0;
@@ -128,10 +123,7 @@ public class LinearGradientSpec extends GradientSpec {
                break;
          }
       }
-      specStops = buildStops(this, xmlNode, LINEAR_GRADIENT);
-      if (specStops.isEmpty() && linearSpec != null) {
-         specStops = linearSpec.getStops();
-      }
+      resolveStops(LINEAR_GRADIENT, reference);
       if (transformList == null && linearSpec != null) {
          transformList = linearSpec.getTransformList();
       }
@@ -173,8 +165,7 @@ public class LinearGradientSpec extends GradientSpec {
          }
       }
 
-      List<Stop> stops = convertStops(specStops);
-      gradient = new LinearGradient(x1, y1, x2, y2, isProportional, cycleMethod, stops);
+      gradient = new LinearGradient(x1, y1, x2, y2, isProportional, cycleMethod, getResolvedStops());
       isResolved = true;
    }
 
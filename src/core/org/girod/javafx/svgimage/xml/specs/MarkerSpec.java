@@ -32,6 +32,8 @@ the project website at the project page on https://github.com/hervegirod/fxsvgim
  */
 package org.girod.javafx.svgimage.xml.specs;
 
+import javafx.scene.Group;
+import javafx.scene.Node;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
 import org.girod.javafx.svgimage.xml.parsers.SVGTags;
 import org.girod.javafx.svgimage.xml.parsers.XMLNode;
@@ -39,7 +41,7 @@ import org.girod.javafx.svgimage.xml.parsers.XMLNode;
 /**
  * Represents a marker specifiation.
  *
- * @since 1.0
+ * @version 1.2
  */
 public class MarkerSpec implements SVGTags {
    private Viewbox viewbox = null;
@@ -48,9 +50,104 @@ public class MarkerSpec implements SVGTags {
    private double refY = 0;
    private double width = -1;
    private double height = -1;
+   private boolean autoOrient = false;
+   private boolean autoStartReverse = false;
+   private double orientAngle = 0;
+   private Group template = null;
+   private Viewport templateViewport = null;
+   private Node templateContextNode = null;
+   private Boolean hasContextPaint = null;
 
    public MarkerSpec(XMLNode node) {
       this.node = node;
+      if (node.hasAttribute(ORIENT)) {
+         String orient = node.getAttributeValue(ORIENT).trim();
+         if (orient.equals(AUTO)) {
+            autoOrient = true;
+         } else if (orient.equals(AUTO_START_REVERSE)) {
+            autoOrient = true;
+            autoStartReverse = true;
+         } else if (orient.endsWith("deg")) {
+            orientAngle = ParserUtils.parseDoubleProtected(orient.substring(0, orient.length() - 3));
+         } else if (orient.endsWith("rad")) {
+            orientAngle = Math.toDegrees(ParserUtils.parseDoubleProtected(orient.substring(0, orient.length() - 3)));
+         } else {
+            orientAngle = ParserUtils.parseDoubleProtected(orient);
+         }
+      }
+   }
+
+   /**
+    * Return the rotation of the marker at a vertex.
+    *
+    * @param pathAngle the angle of the path at the vertex, in degrees
+    * @param isStart true for the start marker
+    * @return the rotation of the marker, in degrees
+    * @since 1.2
+    */
+   public double getAngle(double pathAngle, boolean isStart) {
+      if (!autoOrient) {
+         return orientAngle;
+      } else if (isStart && autoStartReverse) {
+         return pathAngle + 180;
+      } else {
+         return pathAngle;
+      }
+   }
+
+   /**
+    * Return the Group built for the content of the marker, which can be copied for each instance of the marker. The
+    * Group can only be used for the same viewport, and for the same context node if the content of the marker uses
+    * the "context-fill" or "context-stroke" paints.
+    *
+    * @param viewport the viewport
+    * @param contextNode the node which has the marker
+    * @return the Group, or null if there is no Group for this viewport and context node
+    * @since 1.2
+    */
+   public Group getTemplate(Viewport viewport, Node contextNode) {
+      if (template == null || templateViewport != viewport) {
+         return null;
+      } else if (templateContextNode != contextNode && hasContextPaint()) {
+         return null;
+      } else {
+         return template;
+      }
+   }
+
+   /**
+    * Set the Group built for the content of the marker.
+    *
+    * @param template the Group
+    * @param viewport the viewport
+    * @param contextNode the node which has the marker
+    * @since 1.2
+    */
+   public void setTemplate(Group template, Viewport viewport, Node contextNode) {
+      this.template = template;
+      this.templateViewport = viewport;
+      this.templateContextNode = contextNode;
+   }
+
+   private boolean hasContextPaint() {
+      if (hasContextPaint == null) {
+         hasContextPaint = hasContextPaint(node);
+      }
+      return hasContextPaint;
+   }
+
+   private static boolean hasContextPaint(XMLNode xmlNode) {
+      for (String value : xmlNode.getAttributes().values()) {
+         if (value.contains("context-")) {
+            return true;
+         }
+      }
+      for (XMLNode child : xmlNode.getChildren()) {
+         if (hasContextPaint(child)) {
+            return true;
+         }
+      }
+      return false;
    }
 
    public void computeRefPosition(Viewport viewport) {
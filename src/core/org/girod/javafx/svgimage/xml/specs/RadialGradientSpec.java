@@ -36,19 +36,17 @@ import org.girod.javafx.svgimage.xml.parsers.XMLNode;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
 import org.girod.javafx.svgimage.xml.parsers.PercentParser;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import javafx.scene.paint.CycleMethod;
 import javafx.scene.paint.Paint;
 import javafx.scene.paint.RadialGradient;
-import javafx.scene.paint.Stop;
 import javafx.scene.transform.Transform;
 import org.girod.javafx.svgimage.xml.parsers.TransformUtils;
 
 /**
  * Contains the specification for a radial gradient.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class RadialGradientSpec extends GradientSpec {
    private RadialGradient gradient = null;
@@ -70,13 +68,10 @@ public class RadialGradientSpec extends GradientSpec {
       if (isResolved) {
          return;
       }
+      GradientSpec reference = resolveReference(gradients, viewport);
       RadialGradientSpec radialSpec = null;
-      if (href != null && gradients.containsKey(href)) {
-         GradientSpec spec = gradients.get(href);
-         if (spec instanceof RadialGradientSpec) {
-            radialSpec = (RadialGradientSpec) spec;
-            radialSpec.resolve(gradients, viewport);
-         }
+      if (reference instanceof RadialGradientSpec && ((RadialGradientSpec) reference).gradient != null) {
+         radialSpec = (RadialGradientSpec) reference;
       }
       Double fx = null;
       Double fy = null;
@@ -134,10 +129,7 @@ public class RadialGradientSpec extends GradientSpec {
                break;
          }
       }
-      specStops = buildStops(this, xmlNode, RADIAL_GRADIENT);
-      if (specStops.isEmpty() && radialSpec != null) {
-         specStops = radialSpec.getStops();
-      }
+      resolveStops(RADIAL_GRADIENT, reference);
       if (transformList == null && radialSpec != null) {
          transformList = radialSpec.getTransformList();
       }
@@ -194,8 +186,7 @@ public class RadialGradientSpec extends GradientSpec {
             fDistance = Math.sqrt((fx - cx) * (fx - cx) + (fy - cy) * (fy - cy)) / r;
             fAngle = Math.atan2(cy - fy, cx - fx) * 180.0 / Math.PI;
          }
-         List<Stop> stops = convertStops(specStops);
-         gradient = new RadialGradient(fAngle, fDistance, cx, cy, r, isProportional, cycleMethod, stops);
+         gradient = new RadialGradient(fAngle, fDistance, cx, cy, r, isProportional, cycleMethod, getResolvedStops());
          isResolved = true;
       }
    }
@@ -33,14 +33,20 @@ the project website at the project page on https://github.com/hervegirod/fxsvgim
 package org.girod.javafx.svgimage.xml.specs;
 
 import org.girod.javafx.svgimage.xml.builders.SVGShapeBuilder;
+import org.girod.javafx.svgimage.xml.parsers.FontCache;
 import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
+import org.girod.javafx.svgimage.xml.parsers.SVGTags;
+import org.girod.javafx.svgimage.xml.parsers.XMLNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import javafx.collections.ObservableList;
 import javafx.scene.Node;
-import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
 import javafx.scene.shape.Shape;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
@@ -49,9 +55,13 @@ import javafx.scene.text.Text;
 import javafx.scene.transform.Transform;
 
 /**
- * Represents a "style" node in the SVG content.
+ * Represents the "style" nodes in the SVG content.
  *
- * @version 1.0
+ * <p>The rules are indexed by the id, the first class, or the element name of the last part of their selector, so
+ * that only the rules which can match a node are checked for this node. The matching rules are applied by increasing
+ * specificity, and in the order of their declaration for the same specificity.</p>
+ *
+ * @version 1.2
  */
 public class Styles {
    public static final short FILL = 0;
@@ -66,141 +76,714 @@ public class Styles {
    public static final short OPACITY = 9;
    public static final short FILL_OPACITY = 10;
    public static final short TRANSFORM = 11;
-   private final Map<String, Rule> rules = new HashMap<>();
+   private static final int PROPERTIES_COUNT = 12;
+   /**
+    * The presentation attributes of the properties which are inherited by the descendants of a node, indexed by the
+    * property type. The other properties are null.
+    */
+   private static final String[] INHERITED_PROPERTIES = new String[PROPERTIES_COUNT];
+
+   static {
+      INHERITED_PROPERTIES[FILL] = SVGTags.FILL;
+      INHERITED_PROPERTIES[STROKE] = SVGTags.STROKE;
+      INHERITED_PROPERTIES[STROKE_WIDTH] = SVGTags.STROKE_WIDTH;
+      INHERITED_PROPERTIES[STROKE_DASHARRAY] = SVGTags.STROKE_DASHARRAY;
+      INHERITED_PROPERTIES[FONT_SIZE] = SVGTags.FONT_SIZE;
+      INHERITED_PROPERTIES[FONT_WEIGHT] = SVGTags.FONT_WEIGHT;
+      INHERITED_PROPERTIES[FONT_STYLE] = SVGTags.FONT_STYLE;
+      INHERITED_PROPERTIES[FONT_FAMILY] = SVGTags.FONT_FAMILY;
+      INHERITED_PROPERTIES[FILL_OPACITY] = SVGTags.FILL_OPACITY;
+   }
+   /**
+    * The value of an inherited property which is hidden by a presentation attribute.
+    */
+   private static final Property HIDDEN = new Property((short) -1, null);
+   private static final Comparator<Rule> RULES_ORDER = new Comparator<Rule>() {
+      @Override
+      public int compare(Rule rule1, Rule rule2) {
+         int specificity1 = rule1.getSelector().getSpecificity();
+         int specificity2 = rule2.getSelector().getSpecificity();
+         if (specificity1 != specificity2) {
+            return specificity1 < specificity2 ? -1 : 1;
+         } else {
+            return rule1.order < rule2.order ? -1 : (rule1.order == rule2.order ? 0 : 1);
+         }
+      }
+   };
+   private final List<Rule> rules = new ArrayList<>();
+   private final Map<String, Rule> classRules = new HashMap<>();
+   private final Map<String, List<Rule>> rulesByID = new HashMap<>();
+   private final Map<String, List<Rule>> rulesByClass = new HashMap<>();
+   private final Map<String, List<Rule>> rulesByType = new HashMap<>();
+   private final List<Rule> universalRules = new ArrayList<>();
+   /**
+    * The properties which the children of a node inherit from the rules matching this node or its parents.
+    */
+   private final Map<XMLNode, Property[]> inheritedProperties = new IdentityHashMap<>();
 
    public Styles() {
    }
 
+   /**
+    * Add a rule. The rule is indexed by the last part of its selector.
+    *
+    * @param rule the rule
+    */
    public void addRule(Rule rule) {
-      rules.put(rule.getStyleClass(), rule);
+      inheritedProperties.clear();
+      rule.order = rules.size();
+      rules.add(rule);
+      String styleClass = rule.getStyleClass();
+      if (styleClass != null) {
+         classRules.put(styleClass, rule);
+      }
+      Compound subject = rule.getSelector().getSubject();
+      if (subject.id != null) {
+         addToIndex(rulesByID, subject.id, rule);
+      } else if (subject.classes.length != 0) {
+         addToIndex(rulesByClass, subject.classes[0], rule);
+      } else if (subject.type != null) {
+         addToIndex(rulesByType, subject.type, rule);
+      } else {
+         universalRules.add(rule);
+      }
+   }
+
+   private static void addToIndex(Map<String, List<Rule>> index, String key, Rule rule) {
+      List<Rule> list = index.get(key);
+      if (list == null) {
+         list = new ArrayList<>(2);
+         index.put(key, list);
+      }
+      list.add(rule);
    }
 
+   /**
+    * Return true if there is a rule whose selector is only the specified style class.
+    *
+    * @param styleClass the style class
+    * @return true if there is a rule for the style class
+    */
    public boolean hasRule(String styleClass) {
-      return rules.containsKey(styleClass);
+      return classRules.containsKey(styleClass);
    }
 
+   /**
+    * Return the last rule whose selector is only the specified style class.
+    *
+    * @param styleClass the style class
+    * @return the rule
+    */
    public Rule getRule(String styleClass) {
-      return rules.get(styleClass);
+      return classRules.get(styleClass);
+   }
+
+   /**
+    * Return the rules, in the order of their declaration.
+    *
+    * @return the rules
+    * @since 1.2
+    */
+   public List<Rule> getRules() {
+      return rules;
+   }
+
+   /**
+    * Return the rules which match a node, sorted by increasing specificity. The selectors are matched against the
+    * id and class attributes defined on the node, not against the classes inherited from its parents.
+    *
+    * @param xmlNode the node
+    * @return the matching rules
+    * @since 1.2
+    */
+   public List<Rule> getMatchingRules(XMLNode xmlNode) {
+      List<Rule> matchingRules = null;
+      String id = xmlNode.getOwnAttributeValue(SVGTags.ID);
+      if (id != null) {
+         matchingRules = addMatchingRules(matchingRules, rulesByID.get(id), xmlNode);
+      }
+      String classes = xmlNode.getOwnAttributeValue(SVGTags.CLASS);
+      if (classes != null && !rulesByClass.isEmpty()) {
+         int length = classes.length();
+         int pos = 0;
+         while (pos < length) {
+            while (pos < length && classes.charAt(pos) <= ' ') {
+               pos++;
+            }
+            int start = pos;
+            while (pos < length && classes.charAt(pos) > ' ') {
+               pos++;
+            }
+            if (pos > start) {
+               matchingRules = addMatchingRules(matchingRules, rulesByClass.get(classes.substring(start, pos)), xmlNode);
+            }
+         }
+      }
+      matchingRules = addMatchingRules(matchingRules, rulesByType.get(xmlNode.getName()), xmlNode);
+      matchingRules = addMatchingRules(matchingRules, universalRules, xmlNode);
+      if (matchingRules == null) {
+         return Collections.emptyList();
+      }
+      if (matchingRules.size() > 1) {
+         Collections.sort(matchingRules, RULES_ORDER);
+      }
+      return matchingRules;
+   }
+
+   private static List<Rule> addMatchingRules(List<Rule> matchingRules, List<Rule> candidates, XMLNode xmlNode) {
+      if (candidates == null) {
+         return matchingRules;
+      }
+      for (int i = 0; i < candidates.size(); i++) {
+         Rule rule = candidates.get(i);
+         if (rule.getSelector().matches(xmlNode)) {
+            if (matchingRules == null) {
+               matchingRules = new ArrayList<>(2);
+            } else if (matchingRules.contains(rule)) {
+               continue;
+            }
+            matchingRules.add(rule);
+         }
+      }
+      return matchingRules;
+   }
+
+   /**
+    * Apply the rules which match a node. If several rules declare the same property, the value of the rule with the
+    * highest specificity is used, except that a value declared as "!important" is only replaced by another important
+    * value.
+    *
+    * <p>The inherited properties (fill, stroke, stroke width and dash array, fonts, and fill opacity) which are not
+    * declared by the rules matching the node are taken from the rules matching its closest parent, unless the node
+    * or an intermediate parent defines the corresponding presentation attribute. This is necessary because the
+    * JavaFX groups have no fill, stroke, or font which would be inherited by their children. The properties
+    * inherited by the children of a node are computed only once for each node.</p>
+    *
+    * @param node the node
+    * @param xmlNode the xml node
+    * @param gradients the gradients used for the url paints (may be null)
+    * @return the important properties which must be applied again after the "style" attribute of the node, or null
+    * @since 1.2
+    */
+   public Property[] apply(Node node, XMLNode xmlNode, Map<String, Paint> gradients) {
+      Property[] properties = new Property[PROPERTIES_COUNT];
+      boolean hasProperties = addProperties(properties, getMatchingRules(xmlNode));
+      XMLNode parent = xmlNode.getParent();
+      if (parent != null && node instanceof Shape && !xmlNode.getName().equals(SVGTags.TSPAN)) {
+         Property[] inherited = getInheritedProperties(parent);
+         for (int type = 0; type < PROPERTIES_COUNT; type++) {
+            Property property = inherited[type];
+            if (property != null && property != HIDDEN && properties[type] == null
+               && xmlNode.getOwnAttributeValue(INHERITED_PROPERTIES[type]) == null) {
+               properties[type] = property;
+               hasProperties = true;
+            }
+         }
+      }
+      if (!hasProperties) {
+         return null;
+      }
+      applyProperties(node, properties, gradients);
+      return getImportantProperties(properties);
+   }
+
+   /**
+    * Apply properties returned by {@link #apply(Node, XMLNode, Map)} to a node.
+    *
+    * @param node the node
+    * @param properties the properties, indexed by their type
+    * @param gradients the gradients used for the url paints (may be null)
+    * @since 1.2
+    */
+   public static void apply(Node node, Property[] properties, Map<String, Paint> gradients) {
+      applyProperties(node, properties, gradients);
+   }
+
+   private static Property[] getImportantProperties(Property[] properties) {
+      Property[] important = null;
+      boolean hasFontProperties = false;
+      for (int type = 0; type < PROPERTIES_COUNT; type++) {
+         Property property = properties[type];
+         if (property != null && property.important) {
+            if (important == null) {
+               important = new Property[PROPERTIES_COUNT];
+            }
+            important[type] = property;
+            hasFontProperties |= isFontProperty(type);
+         }
+      }
+      if (hasFontProperties) {
+         // the font is created from all its properties
+         for (int type = 0; type < PROPERTIES_COUNT; type++) {
+            if (isFontProperty(type)) {
+               important[type] = properties[type];
+            }
+         }
+      }
+      return important;
+   }
+
+   private static boolean isFontProperty(int type) {
+      return type == FONT_SIZE || type == FONT_WEIGHT || type == FONT_STYLE || type == FONT_FAMILY;
+   }
+
+   private static boolean addProperties(Property[] properties, List<Rule> matchingRules) {
+      for (int i = 0; i < matchingRules.size(); i++) {
+         Iterator<Property> it = matchingRules.get(i).properties.values().iterator();
+         while (it.hasNext()) {
+            Property property = it.next();
+            Property current = properties[property.type];
+            if (current == null || property.important || !current.important) {
+               properties[property.type] = property;
+            }
+         }
+      }
+      return !matchingRules.isEmpty();
+   }
+
+   private Property[] getInheritedProperties(XMLNode xmlNode) {
+      Property[] inherited = inheritedProperties.get(xmlNode);
+      if (inherited != null) {
+         return inherited;
+      }
+      inherited = new Property[PROPERTIES_COUNT];
+      addProperties(inherited, getMatchingRules(xmlNode));
+      Property[] parentInherited = null;
+      XMLNode parent = xmlNode.getParent();
+      for (int type = 0; type < PROPERTIES_COUNT; type++) {
+         String attrName = INHERITED_PROPERTIES[type];
+         if (attrName == null) {
+            inherited[type] = null;
+         } else if (inherited[type] == null) {
+            if (xmlNode.getOwnAttributeValue(attrName) != null) {
+               // the presentation attribute of the node hides the rules of its parents
+               inherited[type] = HIDDEN;
+            } else if (parent != null) {
+               if (parentInherited == null) {
+                  parentInherited = getInheritedProperties(parent);
+               }
+               inherited[type] = parentInherited[type];
+            }
+         }
+      }
+      inheritedProperties.put(xmlNode, inherited);
+      return inherited;
+   }
+
+   private static void applyProperties(Node node, Property[] properties, Map<String, Paint> gradients) {
+      FontWeight fontWeight = FontWeight.NORMAL;
+      ExtendedFontPosture fontPosture = new ExtendedFontPosture(FontPosture.REGULAR);
+      double fontSize = 12d;
+      String fontFamily = null;
+      boolean hasFontProperties = false;
+
+      for (int i = 0; i < properties.length; i++) {
+         Property property = properties[i];
+         if (property == null) {
+            continue;
+         }
+         Object value = property.value;
+         switch (property.type) {
+            case FILL:
+               if (node instanceof Shape) {
+                  ((Shape) node).setFill(getPaint(value, gradients));
+               }
+               break;
+            case STROKE:
+               if (node instanceof Shape) {
+                  ((Shape) node).setStroke(getPaint(value, gradients));
+               }
+               break;
+            case STROKE_WIDTH:
+               if (node instanceof Shape) {
+                  ((Shape) node).setStrokeWidth((Double) value);
+               }
+               break;
+            case STROKE_DASHARRAY:
+               if (node instanceof Shape) {
+                  ((Shape) node).getStrokeDashArray().setAll((Double[]) value);
+               }
+               break;
+            case FONT_FAMILY:
+               if (node instanceof Text) {
+                  fontFamily = ((String) value).replace("'", "");
+                  hasFontProperties = true;
+               }
+               break;
+            case FONT_WEIGHT:
+               if (node instanceof Text) {
+                  fontWeight = (FontWeight) value;
+                  hasFontProperties = true;
+               }
+               break;
+            case FONT_STYLE:
+               if (node instanceof Text) {
+                  fontPosture = (ExtendedFontPosture) value;
+                  hasFontProperties = true;
+               }
+               break;
+            case FONT_SIZE:
+               if (node instanceof Text) {
+                  fontSize = (Double) value;
+                  hasFontProperties = true;
+               }
+               break;
+            case TEXT_DECORATION:
+               if (node instanceof Text) {
+                  SVGShapeBuilder.applyTextDecoration((Text) node, (String) value);
+               }
+               break;
+            case OPACITY:
+               node.setOpacity((Double) value);
+               break;
+            case FILL_OPACITY:
+               if (node instanceof Shape) {
+                  double fillOpacity = (Double) value;
+                  ParserUtils.setFillOpacity((Shape) node, fillOpacity);
+               }
+               break;
+            case TRANSFORM:
+               node.getTransforms().addAll((Transform[]) value);
+               break;
+         }
+      }
+      if (hasFontProperties && node instanceof Text) {
+         Font font = FontCache.getInstance().getFont(fontFamily, fontWeight, fontPosture.posture, fontSize);
+         if (fontPosture.isOblique) {
+            SVGShapeBuilder.applyFontOblique((Text) node);
+         }
+         ((Text) node).setFont(font);
+      }
+   }
+
+   private static Paint getPaint(Object value, Map<String, Paint> gradients) {
+      if (value instanceof String) {
+         // an url paint, which is resolved when the rule is applied
+         if (gradients == null) {
+            return null;
+         } else {
+            return ParserUtils.expressPaint(gradients, (String) value);
+         }
+      } else {
+         return (Paint) value;
+      }
+   }
+
+   /**
+    * A part of a selector, such as <code>rect.class1#id</code>. The parts of a selector are separated by combinators.
+    *
+    * @since 1.2
+    */
+   public static class Compound {
+      private static final String[] NO_CLASSES = new String[0];
+      private final String type;
+      private final String id;
+      private final String[] classes;
+
+      /**
+       * Constructor.
+       *
+       * @param type the element name, or null for any element
+       * @param id the id, or null
+       * @param classes the classes, or null
+       */
+      public Compound(String type, String id, String[] classes) {
+         this.type = type;
+         this.id = id;
+         this.classes = classes != null ? classes : NO_CLASSES;
+      }
+
+      /**
+       * Return the element name.
+       *
+       * @return the element name, or null for any element
+       */
+      public String getType() {
+         return type;
+      }
+
+      /**
+       * Return the id.
+       *
+       * @return the id, or null
+       */
+      public String getID() {
+         return id;
+      }
+
+      /**
+       * Return the classes.
+       *
+       * @return the classes
+       */
+      public String[] getClasses() {
+         return classes;
+      }
+
+      private int getSpecificity() {
+         int specificity = classes.length * 100;
+         if (id != null) {
+            specificity += 10000;
+         }
+         if (type != null) {
+            specificity++;
+         }
+         return specificity;
+      }
+
+      private boolean matches(XMLNode xmlNode) {
+         if (type != null && !type.equals(xmlNode.getName())) {
+            return false;
+         }
+         if (id != null && !id.equals(xmlNode.getOwnAttributeValue(SVGTags.ID))) {
+            return false;
+         }
+         if (classes.length != 0) {
+            String nodeClasses = xmlNode.getOwnAttributeValue(SVGTags.CLASS);
+            if (nodeClasses == null) {
+               return false;
+            }
+            for (int i = 0; i < classes.length; i++) {
+               if (!hasClass(nodeClasses, classes[i])) {
+                  return false;
+               }
+            }
+         }
+         return true;
+      }
+
+      private static boolean hasClass(String nodeClasses, String styleClass) {
+         int length = styleClass.length();
+         int index = nodeClasses.indexOf(styleClass);
+         while (index != -1) {
+            int end = index + length;
+            if ((index == 0 || nodeClasses.charAt(index - 1) <= ' ')
+               && (end == nodeClasses.length() || nodeClasses.charAt(end) <= ' ')) {
+               return true;
+            }
+            index = nodeClasses.indexOf(styleClass, end);
+         }
+         return false;
+      }
+   }
+
+   /**
+    * A selector. The selector is a list of compounds separated by descendant or child combinators.
+    *
+    * @since 1.2
+    */
+   public static class Selector {
+      /**
+       * The descendant combinator.
+       */
+      public static final short DESCENDANT = 0;
+      /**
+       * The child combinator.
+       */
+      public static final short CHILD = 1;
+      private final Compound[] compounds;
+      private final short[] combinators;
+      private final int specificity;
+
+      /**
+       * Constructor.
+       *
+       * @param compounds the compounds, from the left to the right
+       * @param combinators the combinators, where the combinator at index i is between the compounds at index i - 1
+       * and i
+       */
+      public Selector(Compound[] compounds, short[] combinators) {
+         this.compounds = compounds;
+         this.combinators = combinators;
+         int theSpecificity = 0;
+         for (int i = 0; i < compounds.length; i++) {
+            theSpecificity += compounds[i].getSpecificity();
+         }
+         this.specificity = theSpecificity;
+      }
+
+      /**
+       * Create a selector for a style class.
+       *
+       * @param styleClass the style class
+       * @return the selector
+       */
+      public static Selector createClassSelector(String styleClass) {
+         Compound compound = new Compound(null, null, new String[]{styleClass});
+         return new Selector(new Compound[]{compound}, new short[1]);
+      }
+
+      /**
+       * Return the compounds, from the left to the right.
+       *
+       * @return the compounds
+       */
+      public Compound[] getCompounds() {
+         return compounds;
+      }
+
+      /**
+       * Return the last compound, which must match the node on which the rule applies.
+       *
+       * @return the last compound
+       */
+      public Compound getSubject() {
+         return compounds[compounds.length - 1];
+      }
+
+      /**
+       * Return the specificity. For a selector with a ids, b classes and c element names, the specificity is
+       * a * 10000 + b * 100 + c.
+       *
+       * @return the specificity
+       */
+      public int getSpecificity() {
+         return specificity;
+      }
+
+      /**
+       * Return true if the selector only consists of one style class.
+       *
+       * @return true if the selector only consists of one style class
+       */
+      private boolean isClassSelector() {
+         if (compounds.length != 1) {
+            return false;
+         }
+         Compound compound = compounds[0];
+         return compound.type == null && compound.id == null && compound.classes.length == 1;
+      }
+
+      /**
+       * Return true if the selector matches a node.
+       *
+       * @param xmlNode the node
+       * @return true if the selector matches the node
+       */
+      public boolean matches(XMLNode xmlNode) {
+         return matches(xmlNode, compounds.length - 1);
+      }
+
+      private boolean matches(XMLNode xmlNode, int index) {
+         if (!compounds[index].matches(xmlNode)) {
+            return false;
+         } else if (index == 0) {
+            return true;
+         }
+         XMLNode parent = xmlNode.getParent();
+         if (combinators[index] == CHILD) {
+            return parent != null && matches(parent, index - 1);
+         }
+         while (parent != null) {
+            if (matches(parent, index - 1)) {
+               return true;
+            }
+            parent = parent.getParent();
+         }
+         return false;
+      }
    }
 
    public static class Rule {
+      private final Selector selector;
       private final String styleClass;
       private final Map<String, Property> properties = new HashMap<>();
+      private int order = 0;
 
       public Rule(String styleClass) {
+         this.selector = Selector.createClassSelector(styleClass);
          this.styleClass = styleClass;
       }
 
+      /**
+       * Constructor.
+       *
+       * @param selector the selector
+       * @since 1.2
+       */
+      public Rule(Selector selector) {
+         this.selector = selector;
+         this.styleClass = selector.isClassSelector() ? selector.getSubject().classes[0] : null;
+      }
+
+      /**
+       * Return the style class of the rule if its selector only consists of one style class.
+       *
+       * @return the style class, or null
+       */
       public String getStyleClass() {
          return styleClass;
       }
 
+      /**
+       * Return the selector.
+       *
+       * @return the selector
+       * @since 1.2
+       */
+      public Selector getSelector() {
+         return selector;
+      }
+
       public void addProperty(String key, short type, Object value) {
          properties.put(key, new Property(type, value));
       }
 
+      /**
+       * Add a property.
+       *
+       * @param key the property name
+       * @param type the property type
+       * @param value the value
+       * @param important true if the property is declared as "!important"
+       * @since 1.2
+       */
+      public void addProperty(String key, short type, Object value, boolean important) {
+         properties.put(key, new Property(type, value, important));
+      }
+
       public Map<String, Property> getProperties() {
          return properties;
       }
 
       public void apply(Node node) {
-         FontWeight fontWeight = FontWeight.NORMAL;
-         ExtendedFontPosture fontPosture = new ExtendedFontPosture(FontPosture.REGULAR);
-         double fontSize = 12d;
-         String fontFamily = null;
-         boolean hasFontProperties = false;
-
+         Property[] theProperties = new Property[PROPERTIES_COUNT];
          Iterator<Property> it = properties.values().iterator();
          while (it.hasNext()) {
             Property property = it.next();
-            Object value = property.value;
-            switch (property.type) {
-               case FILL:
-                  if (node instanceof Shape) {
-                     ((Shape) node).setFill((Color) value);
-                  }
-                  break;
-               case STROKE:
-                  if (node instanceof Shape) {
-                     ((Shape) node).setStroke((Color) value);
-                  }
-                  break;
-               case STROKE_WIDTH:
-                  if (node instanceof Shape) {
-                     ((Shape) node).setStrokeWidth((Double) value);
-                  }
-                  break;
-               case STROKE_DASHARRAY:
-                  if (node instanceof Shape) {
-                     ObservableList<Double> strokeArray = ((Shape) node).getStrokeDashArray();
-                     List<Double> theArray = (List<Double>) value;
-                     strokeArray.addAll(theArray);
-                  }
-                  break;
-               case FONT_FAMILY:
-                  if (node instanceof Text) {
-                     fontFamily = ((String) value).replace("'", "");
-                     hasFontProperties = true;
-                  }
-                  break;
-               case FONT_WEIGHT:
-                  if (node instanceof Text) {
-                     fontWeight = (FontWeight) value;
-                     hasFontProperties = true;
-                  }
-                  break;
-               case FONT_STYLE:
-                  if (node instanceof Text) {
-                     fontPosture = (ExtendedFontPosture) value;
-                     hasFontProperties = true;
-                  }
-                  break;
-               case FONT_SIZE:
-                  if (node instanceof Text) {
-                     fontSize = (Double) value;
-                     hasFontProperties = true;
-                  }
-                  break;
-               case TEXT_DECORATION:
-                  if (node instanceof Text) {
-                     SVGShapeBuilder.applyTextDecoration((Text) node, (String) value);
-                  }
-                  break;
-               case OPACITY:
-                  if (node instanceof Shape) {
-                     double opacity = (Double) value;
-                     ((Shape) node).setOpacity(opacity);
-                  }
-                  break;
-               case FILL_OPACITY:
-                  if (node instanceof Shape) {
-                     double fillOpacity = (Double) value;
-                     ParserUtils.setFillOpacity((Shape) node, fillOpacity);
-                  }
-                  break;
-               case TRANSFORM:
-                  Transform transform = (Transform) value;
-                  node.getTransforms().add(transform);
-                  break;
-            }
-            if (hasFontProperties && node instanceof Text) {
-               Font font = Font.font(fontFamily, fontWeight, fontPosture.posture, fontSize);
-               if (fontPosture.isOblique) {
-                  SVGShapeBuilder.applyFontOblique((Text) node);
-               }
-               ((Text) node).setFont(font);
-            }
+            theProperties[property.type] = property;
          }
+         applyProperties(node, theProperties, null);
       }
    }
 
+   /**
+    * A style property. The dash array value is a Double[] and the transform value is a Transform[].
+    */
    public static class Property {
       public final short type;
       public final Object value;
+      /**
+       * True if the property is declared as "!important".
+       */
+      public final boolean important;
 
       public Property(short type, Object value) {
+         this(type, value, false);
+      }
+
+      /**
+       * Constructor.
+       *
+       * @param type the property type
+       * @param value the value
+       * @param important true if the property is declared as "!important"
+       * @since 1.2
+       */
+      public Property(short type, Object value, boolean important) {
          this.type = type;
          this.value = value;
+         this.important = important;
       }
    }
 }
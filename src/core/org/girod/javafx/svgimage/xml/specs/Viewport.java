@@ -37,12 +37,13 @@ import javafx.scene.shape.Shape;
 /**
  * Represents the viewport.
  *
- * @version 1.0
+ * @version 1.2
  */
 public class Viewport extends Viewbox {
    private double scale = -1;
    private boolean isScaled = false;
    private boolean scaleLineWidth = true;
+   private boolean fuseTransforms = false;
 
    public Viewport(double width, double height) {
       super(width, height);
@@ -190,4 +191,24 @@ public class Viewport extends Viewbox {
    public boolean isScalingLineWidth() {
       return scaleLineWidth;
    }
+
+   /**
+    * Set if the transforms of a node must be composed in one affine transform.
+    *
+    * @param fuseTransforms true if the transforms of a node must be composed in one affine transform
+    * @since 1.2
+    */
+   public void setFuseTransforms(boolean fuseTransforms) {
+      this.fuseTransforms = fuseTransforms;
+   }
+
+   /**
+    * Return true if the transforms of a node must be composed in one affine transform.
+    *
+    * @return true if the transforms of a node must be composed in one affine transform
+    * @since 1.2
+    */
+   public boolean isFusingTransforms() {
+      return fuseTransforms;
+   }
 }
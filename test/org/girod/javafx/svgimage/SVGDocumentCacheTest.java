@@ -0,0 +1,130 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import java.net.URL;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the SVGDocumentCache class.
+ *
+ * @since 1.2
+ */
+public class SVGDocumentCacheTest {
+
+   public SVGDocumentCacheTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of the reuse of a parsed document.
+    */
+   @Test
+   public void testReuseDocument() throws Exception {
+      System.out.println("SVGDocumentCacheTest : testReuseDocument");
+      SVGDocumentCache cache = new SVGDocumentCache();
+      LoaderParameters params = new LoaderParameters();
+      params.documentCache = cache;
+      URL url = this.getClass().getResource("rect.svg");
+      SVGImage result = SVGLoader.load(url, params);
+      assertNotNull("SVGImage should not be null", result);
+      assertEquals("Must have one miss", 1, cache.getMissCount());
+      assertEquals("Must have no hit", 0, cache.getHitCount());
+
+      SVGImage result2 = SVGLoader.load(url, params);
+      assertNotNull("SVGImage should not be null", result2);
+      assertEquals("Must have one child", 1, result2.getChildren().size());
+      assertEquals("Must have one miss", 1, cache.getMissCount());
+      assertEquals("Must have one hit", 1, cache.getHitCount());
+
+      result2.scale(2d);
+      assertEquals("Scaling must not parse the document again", 1, cache.getMissCount());
+      assertEquals("Must have one document", 1, cache.size());
+   }
+
+   /**
+    * Test of the eviction of documents.
+    */
+   @Test
+   public void testEviction() throws Exception {
+      System.out.println("SVGDocumentCacheTest : testEviction");
+      SVGDocumentCache cache = new SVGDocumentCache(1, SVGDocumentCache.DEFAULT_MAXIMUM_WEIGHT);
+      LoaderParameters params = new LoaderParameters();
+      params.documentCache = cache;
+      SVGLoader.load(this.getClass().getResource("rect.svg"), params);
+      SVGLoader.load(this.getClass().getResource("circle.svg"), params);
+      assertEquals("Must have one document", 1, cache.size());
+      assertEquals("Must have one eviction", 1, cache.getEvictionCount());
+
+      SVGLoader.load(this.getClass().getResource("rect.svg"), params);
+      assertEquals("Evicted document must be parsed again", 3, cache.getMissCount());
+   }
+
+   /**
+    * Test of the cache with svg contents given as Strings.
+    */
+   @Test
+   public void testStringContent() throws Exception {
+      System.out.println("SVGDocumentCacheTest : testStringContent");
+      SVGDocumentCache cache = new SVGDocumentCache();
+      LoaderParameters params = new LoaderParameters();
+      params.documentCache = cache;
+      String content = "<svg width=\"100\" height=\"100\"><rect width=\"50\" height=\"50\"/></svg>";
+      SVGLoader.load(content, params);
+      SVGImage result = SVGLoader.load(content, params);
+      assertEquals("Must have one child", 1, result.getChildren().size());
+      assertEquals("Must have one hit", 1, cache.getHitCount());
+      assertEquals("Weight must be the size of the content", content.length() * 2L, cache.getWeight());
+   }
+}
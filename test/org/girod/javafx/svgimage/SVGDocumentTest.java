@@ -0,0 +1,183 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.net.URL;
+import javafx.scene.Node;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Polygon;
+import javafx.scene.shape.SVGPath;
+import org.girod.javafx.svgimage.xml.parsers.XMLNode;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the SVGDocument class.
+ *
+ * @since 1.2
+ */
+public class SVGDocumentTest {
+   private static final double DELTA = 0.001d;
+
+   public SVGDocumentTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of the creation of several images from the same document.
+    */
+   @Test
+   public void testCreateImages() throws Exception {
+      System.out.println("SVGDocumentTest : testCreateImages");
+      URL url = this.getClass().getResource("use-lost.svg");
+      SVGDocument document = SVGLoader.loadDocument(url);
+      assertNotNull("SVGDocument should not be null", document);
+      assertTrue("Document must be from a URL", document.isFromURL());
+      assertTrue("Document must have the circle id", document.hasId("circle"));
+      assertEquals("Document must have one id", 1, document.getIds().size());
+
+      SVGImage image = document.createImage(new LoaderParameters());
+      SVGImage scaledImage = document.createScaledImage(2d);
+      assertNotSame("Images must be different", image, scaledImage);
+      assertSame("Images must share the document", document, image.getDocument());
+      assertSame("Images must share the document", document, scaledImage.getDocument());
+
+      Node child = image.getChildren().get(0);
+      assertTrue("Child must be a Circle", child instanceof Circle);
+      assertEquals("Circle radius", 16d, ((Circle) child).getRadius(), DELTA);
+      Node scaledChild = scaledImage.getChildren().get(0);
+      assertTrue("Child must be a Circle", scaledChild instanceof Circle);
+      assertEquals("Circle radius", 32d, ((Circle) scaledChild).getRadius(), DELTA);
+   }
+
+   /**
+    * Test of the document of a loaded image.
+    */
+   @Test
+   public void testImageDocument() throws Exception {
+      System.out.println("SVGDocumentTest : testImageDocument");
+      String content = "<svg width=\"100\" height=\"100\"><rect id=\"r\" width=\"50\" height=\"50\"/></svg>";
+      SVGImage image = SVGLoader.load(content);
+      SVGDocument document = image.getDocument();
+      assertNotNull("SVGDocument should not be null", document);
+      assertEquals("Document must keep the content", content, document.getContent());
+      SVGImage image2 = SVGLoader.load(document);
+      assertEquals("Must have one child", 1, image2.getChildren().size());
+   }
+
+   /**
+    * Test that the tree of a document can not be modified.
+    */
+   @Test
+   public void testReadOnlyTree() throws Exception {
+      System.out.println("SVGDocumentTest : testReadOnlyTree");
+      String content = "<svg width=\"100\" height=\"100\"><rect id=\"r\" width=\"50\" height=\"50\"/></svg>";
+      SVGDocument document = SVGLoader.loadDocument(content);
+      XMLNode rect = document.getRoot().getFirstChild();
+      assertTrue("The root must be read-only", document.getRoot().isReadOnly());
+      assertTrue("The children must be read-only", rect.isReadOnly());
+      try {
+         rect.addAttribute("fill", "red");
+         fail("An attribute must not be added to the tree of a document");
+      } catch (UnsupportedOperationException ex) {
+      }
+      try {
+         document.getRoot().getChildren().clear();
+         fail("The children of the tree of a document must not be modified");
+      } catch (UnsupportedOperationException ex) {
+      }
+      assertEquals("Must have one child", 1, document.createImage(new LoaderParameters()).getChildren().size());
+   }
+
+   /**
+    * Test that the parsed values of the attributes are kept by the document and used for all the scales.
+    */
+   @Test
+   public void testParsedValues() throws Exception {
+      System.out.println("SVGDocumentTest : testParsedValues");
+      String content = "<svg width=\"100\" height=\"100\">"
+         + "<path d=\"M10 10 L50 10 L50 50 Z\" transform=\"translate(10, 5)\"/>"
+         + "<polygon points=\"0,0 20,0 20,20\"/></svg>";
+      SVGDocument document = SVGLoader.loadDocument(content);
+      XMLNode path = document.getRoot().getChildren().get(0);
+      XMLNode polygon = document.getRoot().getChildren().get(1);
+
+      SVGImage image = document.createScaledImage(2d);
+      Object pathData = path.getParsedValue("d");
+      Object transforms = path.getParsedValue("transform");
+      Object points = polygon.getParsedValue("points");
+      assertNotNull("The path data must be kept", pathData);
+      assertNotNull("The transforms must be kept", transforms);
+      assertNotNull("The points must be kept", points);
+
+      SVGImage image2 = document.createScaledImage(3d);
+      assertSame("The path data must be parsed once", pathData, path.getParsedValue("d"));
+      assertSame("The transforms must be parsed once", transforms, path.getParsedValue("transform"));
+      assertSame("The points must be parsed once", points, polygon.getParsedValue("points"));
+
+      SVGPath svgPath = (SVGPath) image.getChildren().get(0);
+      SVGPath svgPath2 = (SVGPath) image2.getChildren().get(0);
+      assertEquals("Path width", 80d, svgPath.getBoundsInLocal().getWidth(), DELTA);
+      assertEquals("Path width", 120d, svgPath2.getBoundsInLocal().getWidth(), DELTA);
+      assertEquals("Translation", 20d, svgPath.getLocalToParentTransform().getTx(), DELTA);
+      assertEquals("Translation", 30d, svgPath2.getLocalToParentTransform().getTx(), DELTA);
+      Polygon shape = (Polygon) image.getChildren().get(1);
+      Polygon shape2 = (Polygon) image2.getChildren().get(1);
+      assertEquals("Point", 40d, shape.getPoints().get(2), DELTA);
+      assertEquals("Point", 60d, shape2.getPoints().get(2), DELTA);
+   }
+}
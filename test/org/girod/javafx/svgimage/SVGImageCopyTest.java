@@ -0,0 +1,156 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.net.URL;
+import javafx.scene.Node;
+import javafx.scene.shape.Rectangle;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the SVGImage.copy() method.
+ *
+ * @since 1.2
+ */
+public class SVGImageCopyTest {
+   private static final double DELTA = 0.001d;
+
+   public SVGImageCopyTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of copy method, of class SVGImage.
+    */
+   @Test
+   public void testCopy() throws Exception {
+      System.out.println("SVGImageCopyTest : testCopy");
+      URL url = this.getClass().getResource("rect.svg");
+      SVGImage image = SVGLoader.load(url);
+      SVGImage copy = image.copy();
+      assertNotNull("Copy should not be null", copy);
+      assertNotSame("Copy must be another image", image, copy);
+      assertSame("Copy must share the document", image.getDocument(), copy.getDocument());
+      assertEquals("Must have one child", 1, copy.getChildren().size());
+
+      Node child = image.getChildren().get(0);
+      Node childCopy = copy.getChildren().get(0);
+      assertNotSame("Child must be copied", child, childCopy);
+      assertTrue("Child must be a Rectangle", childCopy instanceof Rectangle);
+      Rectangle rect = (Rectangle) child;
+      Rectangle rectCopy = (Rectangle) childCopy;
+      assertEquals("Rectangle width", rect.getWidth(), rectCopy.getWidth(), DELTA);
+      assertEquals("Rectangle height", rect.getHeight(), rectCopy.getHeight(), DELTA);
+      assertEquals("Rectangle fill", rect.getFill(), rectCopy.getFill());
+      assertEquals("Rectangle stroke width", rect.getStrokeWidth(), rectCopy.getStrokeWidth(), DELTA);
+      assertEquals("Image transforms", image.getTransforms().size(), copy.getTransforms().size());
+      assertEquals("Image bounds", image.getLayoutBounds(), copy.getLayoutBounds());
+   }
+
+   /**
+    * Test of copy method, of class SVGImage, for the Nodes with an id.
+    */
+   @Test
+   public void testCopyNamedNodes() throws Exception {
+      System.out.println("SVGImageCopyTest : testCopyNamedNodes");
+      String content = "<svg width=\"100\" height=\"100\"><g id=\"g\"><rect id=\"r\" width=\"50\" height=\"50\"/></g></svg>";
+      SVGImage image = SVGLoader.load(content);
+      assertTrue("Image must have the rect Node", image.hasNode("r"));
+      SVGImage copy = image.copy();
+      assertTrue("Copy must have the rect Node", copy.hasNode("r"));
+      assertTrue("Copy must have the group Node", copy.hasNode("g"));
+      assertNotSame("Rect Node must be copied", image.getNode("r"), copy.getNode("r"));
+      assertSame("Rect Node must be in the copied tree", copy.getNode("g"), copy.getNode("r").getParent());
+   }
+
+   /**
+    * Test of copy method, of class SVGImage, for an animated image which does not retain its document.
+    */
+   @Test
+   public void testCopyAnimatedStreaming() throws Exception {
+      System.out.println("SVGImageCopyTest : testCopyAnimatedStreaming");
+      String content = "<svg width=\"100\" height=\"100\"><rect id=\"r\" width=\"10\" height=\"10\">"
+         + "<animate attributeName=\"x\" from=\"0\" to=\"50\" dur=\"1s\"/></rect></svg>";
+      LoaderParameters params = new LoaderParameters();
+      params.autoStartAnimations = false;
+      params.streamingBuild = true;
+      SVGImage image = SVGLoader.load(content, params);
+      assertEquals("Image animations", 1, image.getAnimations().size());
+      SVGImage copy = image.copy();
+      assertNotNull("Copy should not be null", copy);
+      assertEquals("Copy animations", 1, copy.getAnimations().size());
+      assertNotSame("Rect Node must be copied", image.getNode("r"), copy.getNode("r"));
+   }
+
+   /**
+    * Test of copy method, of class SVGImage, for an animated image which has been scaled.
+    */
+   @Test
+   public void testCopyAnimatedScaled() throws Exception {
+      System.out.println("SVGImageCopyTest : testCopyAnimatedScaled");
+      String content = "<svg width=\"100\" height=\"100\"><rect id=\"r\" width=\"10\" height=\"10\">"
+         + "<animate attributeName=\"x\" from=\"0\" to=\"50\" dur=\"1s\"/></rect></svg>";
+      LoaderParameters params = new LoaderParameters();
+      params.autoStartAnimations = false;
+      SVGImage image = SVGLoader.load(content, params);
+      image.scale(2);
+      SVGImage copy = image.copy();
+      assertNotNull("Copy should not be null", copy);
+      assertEquals("Copy animations", 1, copy.getAnimations().size());
+      assertEquals("Image bounds", image.getLayoutBounds(), copy.getLayoutBounds());
+   }
+}
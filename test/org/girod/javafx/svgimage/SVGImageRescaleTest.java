@@ -0,0 +1,157 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.net.URL;
+import javafx.scene.shape.SVGPath;
+import org.girod.javafx.svgimage.xml.parsers.XMLNode;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for rescaling an existing SVGImage.
+ *
+ * @since 1.2
+ */
+public class SVGImageRescaleTest {
+   private static final double DELTA = 0.001d;
+
+   public SVGImageRescaleTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of scale method, of class SVGImage, scaling the initial image.
+    */
+   @Test
+   public void testScaleInPlace() throws Exception {
+      System.out.println("SVGImageRescaleTest : testScaleInPlace");
+      URL url = this.getClass().getResource("rect50.svg");
+      SVGImage image = SVGLoader.load(url);
+      SVGDocument document = image.getDocument();
+      assertEquals("width", 50, image.getLayoutBounds().getWidth(), DELTA);
+
+      SVGImage result = image.scale(0.5d);
+      assertSame("Initial image must be scaled", image, result);
+      assertSame("Document must be kept", document, image.getDocument());
+      assertEquals("width", 25, image.getLayoutBounds().getWidth(), DELTA);
+
+      image.scale(4d);
+      assertEquals("Scales must be cumulated", 100, image.getLayoutBounds().getWidth(), DELTA);
+   }
+
+   /**
+    * Test of scale method, of class SVGImage, creating a new image.
+    */
+   @Test
+   public void testScaleNewImage() throws Exception {
+      System.out.println("SVGImageRescaleTest : testScaleNewImage");
+      URL url = this.getClass().getResource("rect50.svg");
+      SVGImage image = SVGLoader.load(url);
+      SVGImage result = image.scale(2d, true);
+      assertNotSame("A new image must be created", image, result);
+      assertSame("Document must be shared", image.getDocument(), result.getDocument());
+      assertEquals("width", 50, image.getLayoutBounds().getWidth(), DELTA);
+      assertEquals("width", 100, result.getLayoutBounds().getWidth(), DELTA);
+   }
+
+   /**
+    * Test of scale method, of class SVGImage, reusing the values parsed from the elements of the document.
+    */
+   @Test
+   public void testScaleReusesParsedValues() throws Exception {
+      System.out.println("SVGImageRescaleTest : testScaleReusesParsedValues");
+      String content = "<svg width=\"100\" height=\"100\">"
+         + "<path d=\"M10 10 L50 10 L50 50 Z\" transform=\"translate(10, 5)\"/></svg>";
+      SVGImage image = SVGLoader.load(content);
+      XMLNode path = image.getDocument().getRoot().getChildren().get(0);
+      image.scale(2d);
+      Object pathData = path.getParsedValue("d");
+      Object transforms = path.getParsedValue("transform");
+      assertNotNull("The path data must be kept", pathData);
+      assertNotNull("The transforms must be kept", transforms);
+
+      image.scale(1.5d);
+      assertSame("The path data must not be parsed again", pathData, path.getParsedValue("d"));
+      assertSame("The transforms must not be parsed again", transforms, path.getParsedValue("transform"));
+      SVGPath svgPath = (SVGPath) image.getChildren().get(0);
+      assertEquals("Path width", 120d, svgPath.getBoundsInLocal().getWidth(), DELTA);
+      assertEquals("Translation", 30d, svgPath.getLocalToParentTransform().getTx(), DELTA);
+   }
+
+   /**
+    * Test of scale method, of class SVGImage, for an image built in the streaming mode.
+    */
+   @Test
+   public void testScaleStreaming() throws Exception {
+      System.out.println("SVGImageRescaleTest : testScaleStreaming");
+      URL url = this.getClass().getResource("rect50.svg");
+      LoaderParameters params = new LoaderParameters();
+      params.streamingBuild = true;
+      SVGImage image = SVGLoader.load(url, params);
+      assertNull("No document in the streaming mode", image.getDocument());
+
+      image.scale(2d);
+      SVGDocument document = image.getDocument();
+      assertNotNull("The document must be kept after the first scale", document);
+      assertEquals("width", 100, image.getLayoutBounds().getWidth(), DELTA);
+
+      SVGImage result = image.scale(0.5d, true);
+      assertSame("Document must be shared", document, result.getDocument());
+      assertSame("Document must not be parsed again", document, image.getDocument());
+      assertEquals("width", 50, result.getLayoutBounds().getWidth(), DELTA);
+   }
+}
@@ -0,0 +1,154 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the snapshotAll methods of the SVGImage class.
+ *
+ * @since 1.2
+ */
+public class SVGImageSnapshotAllTest {
+   private static final double DELTA = 0.0001d;
+
+   public SVGImageSnapshotAllTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static SVGImage createImage(int size, String color) {
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + size + "\" height=\"" + size + "\">"
+         + "<rect x=\"0\" y=\"0\" width=\"" + size + "\" height=\"" + size + "\" fill=\"" + color + "\"/></svg>";
+      return SVGLoader.load(content);
+   }
+
+   /**
+    * Test of snapshotAll method, of class SVGImage.
+    */
+   @Test
+   public void testSnapshotAll() throws Exception {
+      System.out.println("SVGImageSnapshotAllTest : testSnapshotAll");
+      List<SVGImage> images = new ArrayList<>();
+      images.add(createImage(10, "red"));
+      images.add(createImage(20, "blue"));
+      images.add(createImage(10, "lime"));
+      List<CompletableFuture<WritableImage>> futures = SVGImage.snapshotAll(images, null);
+      assertEquals("Futures", 3, futures.size());
+      WritableImage image1 = futures.get(0).get(10, TimeUnit.SECONDS);
+      WritableImage image2 = futures.get(1).get(10, TimeUnit.SECONDS);
+      WritableImage image3 = futures.get(2).get(10, TimeUnit.SECONDS);
+      assertEquals("Width", 10, image1.getWidth(), DELTA);
+      assertEquals("Width", 20, image2.getWidth(), DELTA);
+      assertEquals("Color", Color.RED, image1.getPixelReader().getColor(5, 5));
+      assertEquals("Color", Color.BLUE, image2.getPixelReader().getColor(5, 5));
+      assertEquals("Color", Color.LIME, image3.getPixelReader().getColor(5, 5));
+   }
+
+   /**
+    * Test of snapshotAll method with a consumer, of class SVGImage.
+    */
+   @Test
+   public void testSnapshotAllConsumer() throws Exception {
+      System.out.println("SVGImageSnapshotAllTest : testSnapshotAllConsumer");
+      final List<SVGImage> images = new ArrayList<>();
+      images.add(createImage(20, "red"));
+      images.add(createImage(10, "blue"));
+      images.add(createImage(20, "lime"));
+      SnapshotParameters params = new SnapshotParameters();
+      params.setFill(Color.TRANSPARENT);
+      params.setViewport(new Rectangle2D(0, 0, 20, 20));
+      final List<WritableImage> snapshots = new ArrayList<>();
+      final List<Color> insideColors = new ArrayList<>();
+      final List<Color> outsideColors = new ArrayList<>();
+      CompletableFuture<Void> future = SVGImage.snapshotAll(images, params, new BiConsumer<SVGImage, WritableImage>() {
+         @Override
+         public void accept(SVGImage image, WritableImage snapshot) {
+            assertSame("Image", images.get(snapshots.size()), image);
+            snapshots.add(snapshot);
+            insideColors.add(snapshot.getPixelReader().getColor(5, 5));
+            outsideColors.add(snapshot.getPixelReader().getColor(15, 15));
+         }
+      });
+      future.get(10, TimeUnit.SECONDS);
+      assertEquals("Snapshots", 3, snapshots.size());
+      assertSame("Snapshot of the same size must be reused", snapshots.get(0), snapshots.get(1));
+      assertSame("Snapshot of the same size must be reused", snapshots.get(0), snapshots.get(2));
+      assertEquals("Color", Color.RED, insideColors.get(0));
+      assertEquals("Color", Color.BLUE, insideColors.get(1));
+      assertEquals("Color", Color.TRANSPARENT, outsideColors.get(1));
+      assertEquals("Color", Color.LIME, outsideColors.get(2));
+
+      snapshots.clear();
+      images.remove(2);
+      future = SVGImage.snapshotAll(images, null, new BiConsumer<SVGImage, WritableImage>() {
+         @Override
+         public void accept(SVGImage image, WritableImage snapshot) {
+            snapshots.add(snapshot);
+         }
+      });
+      future.get(10, TimeUnit.SECONDS);
+      assertNotSame("Snapshot of another size must not be reused", snapshots.get(0), snapshots.get(1));
+      assertEquals("Width", 10, snapshots.get(1).getWidth(), DELTA);
+   }
+}
@@ -0,0 +1,189 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Shape;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the SnapshotCache class.
+ *
+ * @since 1.2
+ */
+public class SVGImageSnapshotCacheTest {
+   private static final String CONTENT = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">"
+      + "<circle id=\"c\" cx=\"50\" cy=\"50\" r=\"40\" fill=\"blue\" stroke=\"red\" stroke-width=\"4\"/>"
+      + "</svg>";
+   private static final double DELTA = 0.0001d;
+
+   public SVGImageSnapshotCacheTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static boolean hasColor(Image image, Color color) {
+      PixelReader reader = image.getPixelReader();
+      for (int y = 0; y < (int) image.getHeight(); y++) {
+         for (int x = 0; x < (int) image.getWidth(); x++) {
+            if (reader.getColor(x, y).equals(color)) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   private static LoaderParameters getCacheParameters() {
+      LoaderParameters params = new LoaderParameters();
+      params.cacheSnapshots = true;
+      return params;
+   }
+
+   /**
+    * Test of the images rendered at an exact width.
+    */
+   @Test
+   public void testToImage() throws Exception {
+      System.out.println("SVGImageSnapshotCacheTest : testToImage");
+      SVGDocument document = SVGLoader.loadDocument(CONTENT);
+      SVGImage image = document.createImage(getCacheParameters());
+      Image image16 = image.toImage(16);
+      assertEquals("Width", 16, image16.getWidth(), DELTA);
+      image.setScaleX(1);
+      image.setScaleY(1);
+      assertSame("Image must be cached", image16, image.toImage(16));
+      assertEquals("Scale applied on a cache hit", 16 / image.getLayoutBounds().getWidth(), image.getScaleX(), DELTA);
+      SVGImage other = document.createImage(getCacheParameters());
+      assertSame("Image must be shared by the images of the document", image16, other.toImage(16));
+      double scale = 16 / other.getLayoutBounds().getWidth();
+      assertSame("Uniform scale must use the cache", image16, other.toImageScaled(scale));
+      Image quality16 = image.toImage(ScaleQuality.RENDER_QUALITY, 16);
+      assertNotSame("Quality must not share the images", image16, quality16);
+      assertSame("Image must be cached", quality16, other.toImage(ScaleQuality.RENDER_QUALITY, 16));
+      SnapshotCache cache = document.getSnapshotCache();
+      assertEquals("Images", 2, cache.size());
+      assertEquals("Hits", 4, cache.getHitCount());
+      assertEquals("Misses", 2, cache.getMissCount());
+      LoaderParameters scaledParams = getCacheParameters();
+      scaledParams.scale = 2;
+      SVGImage scaled = document.createImage(scaledParams);
+      assertNotSame("Other parameters must not share the images", image16, scaled.toImage(16));
+   }
+
+   /**
+    * Test of toClosestImage method, of class SVGImage.
+    */
+   @Test
+   public void testToClosestImage() throws Exception {
+      System.out.println("SVGImageSnapshotCacheTest : testToClosestImage");
+      SVGDocument document = SVGLoader.loadDocument(CONTENT);
+      SVGImage image = document.createImage(getCacheParameters());
+      Image image24 = image.toClosestImage(ScaleQuality.RENDER_QUALITY, 24);
+      assertEquals("Width", 32, image24.getWidth(), 1);
+      assertSame("Closest image", image24, image.toClosestImage(ScaleQuality.RENDER_QUALITY, 17));
+      assertSame("Closest image", image24, image.toClosestImage(ScaleQuality.RENDER_QUALITY, 32));
+      Image image48 = image.toClosestImage(ScaleQuality.RENDER_QUALITY, 48);
+      assertEquals("Width", 64, image48.getWidth(), 1);
+      Image image16 = image.toClosestImage(ScaleQuality.RENDER_QUALITY, 16);
+      assertEquals("Width", 16, image16.getWidth(), 1);
+   }
+
+   /**
+    * Test of setPixelBudget method, of class SnapshotCache.
+    */
+   @Test
+   public void testPixelBudget() throws Exception {
+      System.out.println("SVGImageSnapshotCacheTest : testPixelBudget");
+      SVGDocument document = SVGLoader.loadDocument(CONTENT);
+      SVGImage image = document.createImage(getCacheParameters());
+      SnapshotCache cache = document.getSnapshotCache();
+      cache.setPixelBudget(30 * 30 + 10 * 10);
+      Image image10 = image.toImage(10);
+      image.toImage(20);
+      assertEquals("Pixels", 10 * 10 + 20 * 20, cache.getPixelCount());
+      image.toImage(30);
+      assertEquals("Images", 1, cache.size());
+      assertEquals("Pixels", 30 * 30, cache.getPixelCount());
+      assertNotSame("Evicted image", image10, image.toImage(10));
+      image.toImage(50);
+      assertEquals("Image larger than the budget", 2, cache.size());
+   }
+
+   /**
+    * Test that the images are not cached by default, so that the modifications of the nodes are rendered.
+    */
+   @Test
+   public void testModifiedNodes() throws Exception {
+      System.out.println("SVGImageSnapshotCacheTest : testModifiedNodes");
+      SVGDocument document = SVGLoader.loadDocument(CONTENT);
+      SVGImage image = document.createImage(new LoaderParameters());
+      Image blue = image.toImage(ScaleQuality.RENDER_SPEED, 80);
+      assertTrue("Initial fill", hasColor(blue, Color.BLUE));
+      ((Shape) image.getNode("c")).setFill(Color.GREEN);
+      Image green = image.toImage(ScaleQuality.RENDER_SPEED, 80);
+      assertTrue("Modified fill", hasColor(green, Color.GREEN));
+      assertFalse("Modified fill", hasColor(green, Color.BLUE));
+      SVGImage other = document.createImage(new LoaderParameters());
+      ((Shape) other.getNode("c")).setFill(Color.RED);
+      Image red = other.toImage(ScaleQuality.RENDER_SPEED, 80);
+      assertTrue("Fill of another image", hasColor(red, Color.RED));
+      assertFalse("Fill of another image", hasColor(red, Color.GREEN));
+      assertEquals("No cached images", 0, document.getSnapshotCache().size());
+   }
+}
@@ -0,0 +1,143 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Ellipse;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.SVGPath;
+import javafx.scene.shape.Shape;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the loading of several svg files in one batch.
+ *
+ * @since 1.2
+ */
+public class SVGLoaderBatchTest {
+   private static short exceptionsHandling;
+
+   public SVGLoaderBatchTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+      exceptionsHandling = GlobalConfig.getInstance().getExceptionsHandling();
+      GlobalConfig.getInstance().setExceptionsHandling(ExceptionsHandling.SKIP_EXCEPTION);
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+      GlobalConfig.getInstance().setExceptionsHandling(exceptionsHandling);
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static Shape getFirstShape(Parent parent) {
+      Iterator<Node> it = parent.getChildrenUnmodifiable().iterator();
+      while (it.hasNext()) {
+         Node node = it.next();
+         if (node instanceof Shape) {
+            return (Shape) node;
+         } else if (node instanceof Parent) {
+            Shape shape = getFirstShape((Parent) node);
+            if (shape != null) {
+               return shape;
+            }
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Test of loadAll method, of class SVGLoader.
+    */
+   @Test
+   public void testLoadAll() throws Exception {
+      System.out.println("SVGLoaderBatchTest : testLoadAll");
+      List<URL> urls = new ArrayList<>();
+      urls.add(this.getClass().getResource("rect.svg"));
+      urls.add(this.getClass().getResource("circle.svg"));
+      urls.add(this.getClass().getResource("ellipse.svg"));
+      urls.add(this.getClass().getResource("path.svg"));
+      urls.add(this.getClass().getResource("rect.svg"));
+      List<SVGImage> result = SVGLoader.loadAll(urls, new LoaderParameters()).get(10, TimeUnit.SECONDS);
+      assertNotNull("Result should not be null", result);
+      assertEquals("Must have 5 images", 5, result.size());
+      assertTrue("Images must be in the order of the URLs", getFirstShape(result.get(0)) instanceof Rectangle);
+      assertTrue("Images must be in the order of the URLs", getFirstShape(result.get(1)) instanceof Circle);
+      assertTrue("Images must be in the order of the URLs", getFirstShape(result.get(2)) instanceof Ellipse);
+      assertTrue("Images must be in the order of the URLs", getFirstShape(result.get(3)) instanceof SVGPath);
+      assertTrue("Duplicate URLs must be loaded for each occurrence", getFirstShape(result.get(4)) instanceof Rectangle);
+      assertNotSame("Duplicate URLs must be loaded for each occurrence", result.get(0), result.get(4));
+   }
+
+   /**
+    * Test of loadAll method, of class SVGLoader, with a URL which can not be loaded.
+    */
+   @Test
+   public void testLoadAllWithMissingFile() throws Exception {
+      System.out.println("SVGLoaderBatchTest : testLoadAllWithMissingFile");
+      List<URL> urls = new ArrayList<>();
+      URL missing = new File("doesNotExist.svg").toURI().toURL();
+      urls.add(this.getClass().getResource("rect.svg"));
+      urls.add(missing);
+      List<SVGImage> result = SVGLoader.loadAll(urls, new LoaderParameters()).get(10, TimeUnit.SECONDS);
+      assertEquals("Must have 2 entries", 2, result.size());
+      assertNotNull("Existing file must be loaded", result.get(0));
+      assertNull("Missing file must not be loaded", result.get(1));
+   }
+}
@@ -0,0 +1,190 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.shape.Path;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the clip paths.
+ *
+ * @since 1.2
+ */
+public class SVGLoaderClipPathTest {
+   private static final String BACKGROUND = "<rect x=\"0\" y=\"0\" width=\"100\" height=\"100\" fill=\"white\"/>";
+   private static final String SHAPES = "<circle cx=\"30\" cy=\"30\" r=\"20\"/><circle cx=\"45\" cy=\"35\" r=\"15\"/>"
+      + "<rect x=\"10\" y=\"60\" width=\"80\" height=\"30\" rx=\"5\" ry=\"5\"/>";
+   private static final String POLYGONS = "<polygon points=\"10,10 90,10 90,40\"/><path d=\"M50,20 L90,90 L10,90 Z\"/>";
+   private static final int CLIPPED_COUNT = 20;
+
+   public SVGLoaderClipPathTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static String getClipContent(String shapes, int count) {
+      StringBuilder buf = new StringBuilder();
+      buf.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">");
+      buf.append("<defs><clipPath id=\"clip\">").append(shapes).append("</clipPath></defs>");
+      buf.append(BACKGROUND);
+      for (int i = 0; i < count; i++) {
+         buf.append("<rect id=\"r").append(i).append("\" x=\"0\" y=\"0\" width=\"100\" height=\"100\" clip-path=\"url(#clip)\"/>");
+      }
+      buf.append("</svg>");
+      return buf.toString();
+   }
+
+   private static String getShapesContent(String shapes) {
+      return "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">" + BACKGROUND + shapes + "</svg>";
+   }
+
+   private static void assertSameRendering(Image expected, Image image) {
+      assertEquals("Width", expected.getWidth(), image.getWidth(), 0.0001d);
+      assertEquals("Height", expected.getHeight(), image.getHeight(), 0.0001d);
+      PixelReader expectedReader = expected.getPixelReader();
+      PixelReader reader = image.getPixelReader();
+      int differences = 0;
+      for (int y = 0; y < (int) image.getHeight(); y++) {
+         for (int x = 0; x < (int) image.getWidth(); x++) {
+            int expectedGray = expectedReader.getArgb(x, y) & 0xff;
+            int gray = reader.getArgb(x, y) & 0xff;
+            assertTrue("Pixel at " + x + "," + y, Math.abs(expectedGray - gray) < 128);
+            if (expectedGray != gray) {
+               differences++;
+            }
+         }
+      }
+      assertTrue("Only antialiased pixels may differ: " + differences, differences < 200);
+   }
+
+   /**
+    * Test that the clip is compiled once and shared by the clipped nodes.
+    */
+   @Test
+   public void testSharedClip() {
+      System.out.println("SVGLoaderClipPathTest : testSharedClip");
+      SVGImage image = SVGLoader.load(getClipContent(SHAPES, CLIPPED_COUNT));
+      Node first = image.getNode("r0");
+      assertTrue("Clip", first.getClip() instanceof Path);
+      Path firstClip = (Path) first.getClip();
+      assertEquals("Clip children emitted as subpaths", 4 + 4 + 10, firstClip.getElements().size());
+      for (int i = 1; i < CLIPPED_COUNT; i++) {
+         Path clip = (Path) image.getNode("r" + i).getClip();
+         assertNotSame("Clip of each node", firstClip, clip);
+         assertSame("Shared elements", firstClip.getElements().get(0), clip.getElements().get(0));
+      }
+   }
+
+   /**
+    * Test that the clip covers the area of its children.
+    */
+   @Test
+   public void testRendering() {
+      System.out.println("SVGLoaderClipPathTest : testRendering");
+      Image expected = SVGLoader.load(getShapesContent(SHAPES)).toImage();
+      Image image = SVGLoader.load(getClipContent(SHAPES, 1)).toImage();
+      assertSameRendering(expected, image);
+   }
+
+   /**
+    * Test of a clip which has overlapping polygons and paths, which are combined by union.
+    */
+   @Test
+   public void testPolygonAndPath() {
+      System.out.println("SVGLoaderClipPathTest : testPolygonAndPath");
+      Image expected = SVGLoader.load(getShapesContent(POLYGONS)).toImage();
+      Image image = SVGLoader.load(getClipContent(POLYGONS, 1)).toImage();
+      assertSameRendering(expected, image);
+   }
+
+   private static Bounds getBoundingBoxClipBounds(String shape) {
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"200\" height=\"200\">"
+         + "<defs><clipPath id=\"clip\" clipPathUnits=\"objectBoundingBox\">" + shape + "</clipPath></defs>"
+         + "<rect id=\"r\" x=\"20\" y=\"10\" width=\"100\" height=\"80\" clip-path=\"url(#clip)\"/></svg>";
+      SVGImage image = SVGLoader.load(content);
+      Node clip = image.getNode("r").getClip();
+      assertNotNull("Clip", clip);
+      return clip.getBoundsInParent();
+   }
+
+   /**
+    * Test a path child of a clip which uses the "objectBoundingBox" units.
+    */
+   @Test
+   public void testObjectBoundingBoxPath() {
+      System.out.println("SVGLoaderClipPathTest : testObjectBoundingBoxPath");
+      Bounds expected = getBoundingBoxClipBounds("<rect x=\"0\" y=\"0\" width=\"0.5\" height=\"1\"/>");
+      Bounds bounds = getBoundingBoxClipBounds("<path d=\"M0 0 L0.5 0 L0.5 1 L0 1 Z\"/>");
+      assertEquals("MinX", 20d, bounds.getMinX(), 0.001d);
+      assertEquals("MinY", 10d, bounds.getMinY(), 0.001d);
+      assertEquals("Width", 50d, bounds.getWidth(), 0.001d);
+      assertEquals("Height", 80d, bounds.getHeight(), 0.001d);
+      assertEquals("Same width as a rect", expected.getWidth(), bounds.getWidth(), 0.001d);
+      assertEquals("Same height as a rect", expected.getHeight(), bounds.getHeight(), 0.001d);
+
+      // a rotated arc can not be mapped to a bounding box which is not a square, so the clip is built by union
+      bounds = getBoundingBoxClipBounds("<path d=\"M0 0 L0.5 0 L0.5 1 L0 1 Z\"/>"
+         + "<path d=\"M0.6 0.5 A0.1 0.05 30 1 1 0.8 0.5 Z\"/>");
+      assertEquals("MinX", 20d, bounds.getMinX(), 0.001d);
+      assertEquals("MinY", 10d, bounds.getMinY(), 0.001d);
+      assertEquals("Height", 80d, bounds.getHeight(), 0.001d);
+      assertTrue("MaxX", bounds.getMaxX() > 20d + 75d);
+   }
+}
@@ -0,0 +1,275 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javafx.scene.Node;
+import javafx.scene.effect.Blend;
+import javafx.scene.effect.ColorInput;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.Effect;
+import javafx.scene.effect.GaussianBlur;
+import javafx.scene.effect.PerspectiveTransform;
+import javafx.scene.paint.Color;
+import org.girod.javafx.svgimage.xml.specs.CompiledFilter;
+import org.girod.javafx.svgimage.xml.specs.FilterSpec;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the compiled filters. The benchmark applies each filter of the samples on many rectangles, and
+ * measures the build time of the nodes and the time to render them.
+ *
+ * @since 1.2
+ */
+public class SVGLoaderFilterTest {
+   private static final String SHADOW_FILTER = "<filter id=\"shadow\"><feGaussianBlur stdDeviation=\"2\"/>"
+      + "<feDropShadow dx=\"2\" dy=\"2\" stdDeviation=\"2\" flood-color=\"black\"/></filter>";
+   private static final String OFFSET_FILTER = "<filter id=\"offset\"><feGaussianBlur in=\"SourceAlpha\" stdDeviation=\"2\" result=\"blur\"/>"
+      + "<feOffset in=\"blur\" dx=\"4\" dy=\"4\" result=\"offsetBlur\"/>"
+      + "<feMerge><feMergeNode in=\"offsetBlur\"/><feMergeNode in=\"SourceGraphic\"/></feMerge></filter>";
+   private static final Pattern FILTER = Pattern.compile("<filter\\b.*?</filter>", Pattern.DOTALL);
+   private static final Pattern FILTER_ID = Pattern.compile("<filter\\b[^>]*\\bid\\s*=\\s*\"([^\"]+)\"");
+   private static final int RECTS = 200;
+   private static final int ITERATIONS = 10;
+
+   public SVGLoaderFilterTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static String getContent(String filters, String filterId, int count) {
+      StringBuilder buf = new StringBuilder();
+      buf.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"400\" height=\"400\">");
+      buf.append("<defs>").append(filters).append("</defs>");
+      for (int i = 0; i < count; i++) {
+         buf.append("<rect id=\"r").append(i).append("\" x=\"").append((i % 20) * 20).append("\" y=\"").append((i / 20) * 20);
+         buf.append("\" width=\"15\" height=\"15\" fill=\"blue\"");
+         if (filterId != null) {
+            buf.append(" filter=\"url(#").append(filterId).append(")\"");
+         }
+         buf.append("/>");
+      }
+      buf.append("</svg>");
+      return buf.toString();
+   }
+
+   /**
+    * Test that an effect which does not depend on the node is shared by all the nodes.
+    */
+   @Test
+   public void testSharedEffect() {
+      System.out.println("SVGLoaderFilterTest : testSharedEffect");
+      SVGImage image = SVGLoader.load(getContent(SHADOW_FILTER, "shadow", 10));
+      Effect effect = image.getNode("r0").getEffect();
+      assertTrue("DropShadow", effect instanceof DropShadow);
+      assertTrue("Blur input", ((DropShadow) effect).getInput() instanceof GaussianBlur);
+      for (int i = 1; i < 10; i++) {
+         assertSame("Shared effect", effect, image.getNode("r" + i).getEffect());
+      }
+   }
+
+   /**
+    * Test that the offset is created for each node, and that the effects it depends on are shared.
+    */
+   @Test
+   public void testOffsetEffect() {
+      System.out.println("SVGLoaderFilterTest : testOffsetEffect");
+      SVGImage image = SVGLoader.load(getContent(OFFSET_FILTER, "offset", 10));
+      Effect effect = image.getNode("r0").getEffect();
+      assertTrue("Merge", effect instanceof Blend);
+      Blend merge = (Blend) effect;
+      assertTrue("Offset", merge.getTopInput() instanceof PerspectiveTransform);
+      assertNull("SourceGraphic", merge.getBottomInput());
+      Effect blur = ((PerspectiveTransform) merge.getTopInput()).getInput();
+      assertTrue("Blur", blur instanceof GaussianBlur);
+      assertNotNull("SourceAlpha", ((GaussianBlur) blur).getInput());
+      for (int i = 1; i < 10; i++) {
+         Blend otherMerge = (Blend) image.getNode("r" + i).getEffect();
+         assertNotSame("Merge of each node", merge, otherMerge);
+         PerspectiveTransform offset = (PerspectiveTransform) otherMerge.getTopInput();
+         assertSame("Shared blur", blur, offset.getInput());
+      }
+   }
+
+   /**
+    * Test the optimizations of the effect graph.
+    */
+   @Test
+   public void testOptimizations() {
+      System.out.println("SVGLoaderFilterTest : testOptimizations");
+      FilterSpec spec = new FilterSpec();
+      spec.addEffect("unused", new FilterSpec.FEGaussianBlur("unused", 3));
+      FilterSpec.FEGaussianBlur blur = new FilterSpec.FEGaussianBlur("blur", 2);
+      blur.setIn("SourceGraphic");
+      spec.addEffect("blur", blur);
+      FilterSpec.FEOffset offset = new FilterSpec.FEOffset("moved", 0, 0);
+      offset.setIn("blur");
+      spec.addEffect("moved", offset);
+      spec.addEffect("empty", new FilterSpec.FEFlood("empty", 0, 0, 10, 10, Color.TRANSPARENT));
+      spec.addEffect("flood", new FilterSpec.FEFlood("flood", 0, 0, 10, 10, Color.RED));
+      FilterSpec.FEMerge merge = new FilterSpec.FEMerge(null);
+      merge.addMergeNode("moved");
+      merge.addMergeNode("empty");
+      merge.addMergeNode("flood");
+      merge.addMergeNode("SourceGraphic");
+      spec.addEffect(null, merge);
+
+      CompiledFilter filter = spec.getCompiledFilter();
+      assertSame("Compiled once", filter, spec.getCompiledFilter());
+      assertEquals("Blur, flood and two blends", 4, filter.getEffectsCount());
+      assertTrue("Shared", filter.isShared());
+      Effect effect = filter.getEffect(null);
+      assertTrue("Merge", effect instanceof Blend);
+      Blend last = (Blend) effect;
+      assertNull("SourceGraphic", last.getBottomInput());
+      Blend first = (Blend) last.getTopInput();
+      assertTrue("Blur without offset", first.getTopInput() instanceof GaussianBlur);
+      assertTrue("Flood", first.getBottomInput() instanceof ColorInput);
+      assertEquals("Flood color", Color.RED, ((ColorInput) first.getBottomInput()).getPaint());
+
+      FilterSpec single = new FilterSpec();
+      FilterSpec.FEMerge singleMerge = new FilterSpec.FEMerge(null);
+      singleMerge.addMergeNode("SourceGraphic");
+      single.addEffect(null, singleMerge);
+      assertEquals("No effect", 0, single.getCompiledFilter().getEffectsCount());
+      assertNull("Merge of the SourceGraphic", single.getCompiledFilter().getEffect(null));
+   }
+
+   private static int getDistinctEffects(SVGImage image, int count) {
+      Map<Effect, Boolean> effects = new IdentityHashMap<>();
+      for (int i = 0; i < count; i++) {
+         Node node = image.getNode("r" + i);
+         if (node.getEffect() != null) {
+            effects.put(node.getEffect(), Boolean.TRUE);
+         }
+      }
+      return effects.size();
+   }
+
+   /**
+    * Apply the filters of the samples on many rectangles, and compare the build and rendering time with the same
+    * rectangles without filter. This benchmark is only run if the fxsvgimage.benchmark system property is true.
+    */
+   @Test
+   public void testBenchmark() throws Exception {
+      System.out.println("SVGLoaderFilterTest : testBenchmark");
+      Assume.assumeTrue("The benchmarks are not enabled", Boolean.getBoolean("fxsvgimage.benchmark"));
+      File dir = new File("samples/filters");
+      Assume.assumeTrue("The samples directory is not available", dir.isDirectory());
+      File[] files = dir.listFiles();
+      List<File> samples = new ArrayList<>();
+      for (int i = 0; i < files.length; i++) {
+         if (files[i].getName().endsWith(".svg")) {
+            samples.add(files[i]);
+         }
+      }
+      samples.sort(null);
+      String plainContent = getContent("", null, RECTS);
+      for (int i = 0; i < samples.size(); i++) {
+         File file = samples.get(i);
+         String svg = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+         StringBuilder filters = new StringBuilder();
+         Matcher matcher = FILTER.matcher(svg);
+         while (matcher.find()) {
+            filters.append(matcher.group());
+         }
+         Matcher idMatcher = FILTER_ID.matcher(filters);
+         if (!idMatcher.find() || filters.indexOf("feImage") != -1) {
+            continue;
+         }
+         String content = getContent(filters.toString(), idMatcher.group(1), RECTS);
+         long buildTime = 0;
+         long plainBuildTime = 0;
+         long frameTime = 0;
+         long plainFrameTime = 0;
+         int distinctEffects = 0;
+         for (int j = 0; j < ITERATIONS; j++) {
+            long start = System.nanoTime();
+            SVGImage image = SVGLoader.load(content);
+            long middle = System.nanoTime();
+            SVGImage plainImage = SVGLoader.load(plainContent);
+            long end = System.nanoTime();
+            image.toImage();
+            long frameEnd = System.nanoTime();
+            plainImage.toImage();
+            long plainFrameEnd = System.nanoTime();
+            if (j >= ITERATIONS / 2) {
+               buildTime += middle - start;
+               plainBuildTime += end - middle;
+               frameTime += frameEnd - end;
+               plainFrameTime += plainFrameEnd - frameEnd;
+            }
+            distinctEffects = getDistinctEffects(image, RECTS);
+         }
+         int count = RECTS * (ITERATIONS - ITERATIONS / 2);
+         System.out.println("   " + file.getName() + ": " + distinctEffects + " distinct effects for " + RECTS + " nodes, build "
+            + (buildTime / count) + " ns per node (" + (plainBuildTime / count) + " without filter), frame "
+            + (frameTime / count) + " ns per node (" + (plainFrameTime / count) + " without filter)");
+         assertFalse("Distinct effects", distinctEffects > RECTS);
+      }
+   }
+}
@@ -0,0 +1,134 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.SVGPath;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the flattening of the JavaFX tree.
+ *
+ * @since 1.2
+ */
+public class SVGLoaderFlattenTest {
+   private static final String CONTENT = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">"
+      + "<g><g transform=\"translate(10,10)\">"
+      + "<path d=\"M0,0 L10,0 L10,10 Z\" fill=\"red\"/><path d=\"M20,0 L30,0 L30,10 Z\" fill=\"red\"/>"
+      + "<path d=\"M25,5 L35,5 L35,15 Z\" fill=\"red\"/><path d=\"M50,0 L60,0 L60,10 Z\" fill=\"blue\"/>"
+      + "</g></g>"
+      + "<g id=\"named\"><rect x=\"0\" y=\"50\" width=\"10\" height=\"10\" fill=\"green\"/></g>"
+      + "<g opacity=\"0.5\"><rect x=\"20\" y=\"50\" width=\"10\" height=\"10\" fill=\"green\"/></g>"
+      + "<g transform=\"translate(0,70)\"><rect x=\"40\" y=\"0\" width=\"10\" height=\"10\" fill=\"green\">"
+      + "<animate attributeName=\"x\" from=\"40\" to=\"60\" dur=\"1s\"/></rect></g>"
+      + "</svg>";
+
+   public SVGLoaderFlattenTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static SVGImage load(boolean flattenTree) {
+      LoaderParameters params = new LoaderParameters();
+      params.autoStartAnimations = false;
+      params.flattenTree = flattenTree;
+      return SVGLoader.load(CONTENT, params);
+   }
+
+   /**
+    * Test of the flattening of the JavaFX tree.
+    */
+   @Test
+   public void testFlattenTree() {
+      System.out.println("SVGLoaderFlattenTest : testFlattenTree");
+      SVGImage image = load(true);
+      assertEquals("Children", 6, image.getChildren().size());
+      Node node = image.getChildren().get(0);
+      assertTrue("Merged path", node instanceof SVGPath);
+      SVGPath path = (SVGPath) node;
+      assertEquals("Transforms of the removed Group", 1, path.getTransforms().size());
+      assertEquals("Merged path bounds", 10, path.getBoundsInParent().getMinX(), 0.0001d);
+      assertEquals("Merged path bounds", 30, path.getBoundsInParent().getWidth(), 0.0001d);
+      assertTrue("Overlapping path must not be merged", image.getChildren().get(1) instanceof SVGPath);
+      assertTrue("Path with another fill must not be merged", image.getChildren().get(2) instanceof SVGPath);
+      assertSame("Named Group must be kept", image.getNode("named"), image.getChildren().get(3));
+      assertTrue("Group with opacity must be kept", image.getChildren().get(4) instanceof Group);
+      Node animated = image.getChildren().get(5);
+      assertTrue("Group of animated node must be kept", animated instanceof Group);
+      assertTrue("Animated node", ((Group) animated).getChildren().get(0) instanceof Rectangle);
+   }
+
+   /**
+    * Test that the flattened JavaFX tree is rendered as the original tree.
+    */
+   @Test
+   public void testRendering() {
+      System.out.println("SVGLoaderFlattenTest : testRendering");
+      Image expected = load(false).toImage();
+      Image image = load(true).toImage();
+      assertEquals("Width", expected.getWidth(), image.getWidth(), 0.0001d);
+      assertEquals("Height", expected.getHeight(), image.getHeight(), 0.0001d);
+      PixelReader expectedReader = expected.getPixelReader();
+      PixelReader reader = image.getPixelReader();
+      for (int y = 0; y < (int) image.getHeight(); y++) {
+         for (int x = 0; x < (int) image.getWidth(); x++) {
+            assertEquals("Pixel at " + x + "," + y, expectedReader.getArgb(x, y), reader.getArgb(x, y));
+         }
+      }
+   }
+}
@@ -0,0 +1,124 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.shape.Circle;
+import javafx.scene.transform.Rotate;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the markers.
+ *
+ * @since 1.2
+ */
+public class SVGLoaderMarkerTest {
+   private static final String CONTENT = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\"><defs>"
+      + "<marker id=\"arrow\" viewBox=\"0 0 10 10\" refX=\"5\" refY=\"5\" markerWidth=\"6\" markerHeight=\"6\" orient=\"auto\">"
+      + "<path d=\"M0,0 L10,5 L0,10 z\"/></marker>"
+      + "<marker id=\"dot\" viewBox=\"0 0 10 10\" refX=\"5\" refY=\"5\" markerWidth=\"4\" markerHeight=\"4\">"
+      + "<circle cx=\"5\" cy=\"5\" r=\"5\" fill=\"red\"/></marker></defs>"
+      + "<path d=\"M10,10 L50,10 L50,50\" stroke=\"black\" fill=\"none\" marker-start=\"url(#dot)\" marker-mid=\"url(#dot)\" "
+      + "marker-end=\"url(#arrow)\"/>"
+      + "<polyline points=\"10,80 50,80 90,60\" stroke=\"black\" fill=\"none\" marker-end=\"url(#arrow)\"/></svg>";
+
+   public SVGLoaderMarkerTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static void assertMarker(Node node, double x, double y, double angle) {
+      assertTrue("Marker", node instanceof Group);
+      assertEquals("Marker X", x, node.getLayoutX(), 0.0001d);
+      assertEquals("Marker Y", y, node.getLayoutY(), 0.0001d);
+      if (angle == 0) {
+         assertTrue("Marker not rotated", node.getTransforms().isEmpty());
+      } else {
+         assertEquals("Marker rotation", 1, node.getTransforms().size());
+         Rotate rotate = (Rotate) node.getTransforms().get(0);
+         assertEquals("Marker angle", angle, rotate.getAngle(), 0.0001d);
+         assertEquals("Marker pivot", 3, rotate.getPivotX(), 0.0001d);
+      }
+   }
+
+   /**
+    * Test of the position and the orientation of the markers.
+    */
+   @Test
+   public void testMarkers() {
+      System.out.println("SVGLoaderMarkerTest : testMarkers");
+      SVGImage image = SVGLoader.load(CONTENT);
+      assertEquals("Children", 6, image.getChildren().size());
+      assertMarker(image.getChildren().get(1), 8, 8, 0);
+      assertMarker(image.getChildren().get(2), 48, 8, 0);
+      assertMarker(image.getChildren().get(3), 47, 47, 90);
+      assertMarker(image.getChildren().get(5), 87, 57, Math.toDegrees(Math.atan2(-20, 40)));
+   }
+
+   /**
+    * Test that the content of a marker is copied for each instance.
+    */
+   @Test
+   public void testMarkerInstances() {
+      System.out.println("SVGLoaderMarkerTest : testMarkerInstances");
+      SVGImage image = SVGLoader.load(CONTENT);
+      Group start = (Group) image.getChildren().get(1);
+      Group mid = (Group) image.getChildren().get(2);
+      assertNotSame("Instances", start.getChildren().get(0), mid.getChildren().get(0));
+      Circle circle = (Circle) mid.getChildren().get(0);
+      assertEquals("Copied radius", 2, circle.getRadius(), 0.0001d);
+      assertEquals("Copied fill", ((Circle) start.getChildren().get(0)).getFill(), circle.getFill());
+   }
+}
@@ -0,0 +1,160 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelReader;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the rasterized images.
+ *
+ * @since 1.2
+ */
+public class SVGLoaderRasterizeTest {
+   private static final String CONTENT = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"40\" height=\"30\">"
+      + "<rect x=\"0\" y=\"0\" width=\"40\" height=\"30\" fill=\"yellow\"/>"
+      + "<circle cx=\"20\" cy=\"15\" r=\"10\" fill=\"blue\" stroke=\"red\" stroke-width=\"2\"/>"
+      + "</svg>";
+
+   public SVGLoaderRasterizeTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static LoaderParameters createParameters(double pixelRatio) {
+      LoaderParameters params = new LoaderParameters();
+      params.rasterize = true;
+      params.pixelRatio = pixelRatio;
+      return params;
+   }
+
+   private static ImageView getImageView(SVGImage image) {
+      assertTrue("Image must be rasterized", image.isRasterized());
+      assertEquals("Children", 1, image.getChildren().size());
+      assertTrue("Child must be an ImageView", image.getChildren().get(0) instanceof ImageView);
+      return (ImageView) image.getChildren().get(0);
+   }
+
+   /**
+    * Test that the rasterized image is rendered as the JavaFX tree.
+    */
+   @Test
+   public void testRasterize() {
+      System.out.println("SVGLoaderRasterizeTest : testRasterize");
+      SVGImage image = SVGLoader.load(CONTENT, createParameters(1));
+      ImageView view = getImageView(image);
+      assertEquals("Width", 40, view.getImage().getWidth(), 0.0001d);
+      assertEquals("Height", 30, view.getImage().getHeight(), 0.0001d);
+      Image expected = SVGLoader.load(CONTENT).toImage();
+      Image rendered = image.toImage();
+      PixelReader expectedReader = expected.getPixelReader();
+      PixelReader reader = rendered.getPixelReader();
+      for (int y = 0; y < (int) expected.getHeight(); y++) {
+         for (int x = 0; x < (int) expected.getWidth(); x++) {
+            assertEquals("Pixel at " + x + "," + y, expectedReader.getArgb(x, y), reader.getArgb(x, y));
+         }
+      }
+   }
+
+   /**
+    * Test of the pixelRatio parameter.
+    */
+   @Test
+   public void testPixelRatio() {
+      System.out.println("SVGLoaderRasterizeTest : testPixelRatio");
+      SVGImage image = SVGLoader.load(CONTENT, createParameters(2));
+      ImageView view = getImageView(image);
+      assertEquals("Image width", 80, view.getImage().getWidth(), 0.0001d);
+      assertEquals("Image height", 60, view.getImage().getHeight(), 0.0001d);
+      assertEquals("Width", 40, image.getLayoutBounds().getWidth(), 0.0001d);
+      assertEquals("Height", 30, image.getLayoutBounds().getHeight(), 0.0001d);
+   }
+
+   /**
+    * Test of the rasterized images shared by the images created from the same document, and of the scaling of
+    * a rasterized image.
+    */
+   @Test
+   public void testSharedImages() throws Exception {
+      System.out.println("SVGLoaderRasterizeTest : testSharedImages");
+      SVGDocument document = SVGLoader.loadDocument(CONTENT);
+      LoaderParameters params = createParameters(1);
+      Image image1 = getImageView(document.createImage(params)).getImage();
+      Image image2 = getImageView(document.createImage(params)).getImage();
+      assertSame("Rasterized image must be shared", image1, image2);
+      SVGImage scaled = document.createImage(params).scale(2, true);
+      Image image3 = getImageView(scaled).getImage();
+      assertNotSame("Rasterized image must not be shared for another scale", image1, image3);
+      assertEquals("Scaled width", 80, image3.getWidth(), 0.0001d);
+   }
+
+   /**
+    * Test that the images which have animations are not rasterized.
+    */
+   @Test
+   public void testAnimatedImage() {
+      System.out.println("SVGLoaderRasterizeTest : testAnimatedImage");
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"40\" height=\"30\">"
+         + "<rect x=\"0\" y=\"0\" width=\"10\" height=\"10\" fill=\"yellow\">"
+         + "<animate attributeName=\"x\" from=\"0\" to=\"20\" dur=\"1s\"/></rect></svg>";
+      LoaderParameters params = createParameters(1);
+      params.autoStartAnimations = false;
+      SVGImage image = SVGLoader.load(content, params);
+      assertFalse("Animated image must not be rasterized", image.isRasterized());
+   }
+}
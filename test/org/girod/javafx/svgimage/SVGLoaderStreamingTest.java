@@ -0,0 +1,138 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.net.URL;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.Shape;
+import javafx.scene.text.Text;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the streaming build mode of the SVGLoader class.
+ *
+ * @since 1.2
+ */
+public class SVGLoaderStreamingTest {
+   private static final String CONTENT = "<svg width=\"200\" height=\"200\">"
+      + "<defs><linearGradient id=\"grad\"><stop offset=\"0\" stop-color=\"red\"/><stop offset=\"1\" stop-color=\"blue\"/></linearGradient>"
+      + "<circle id=\"dot\" r=\"5\"/></defs>"
+      + "<rect width=\"50\" height=\"50\" fill=\"url(#grad)\"/>"
+      + "<g transform=\"translate(10,10)\"><rect width=\"10\" height=\"10\"/><g><circle r=\"3\"/><use href=\"#dot\" x=\"20\"/></g></g>"
+      + "<g id=\"named\"><rect width=\"20\" height=\"20\"/></g>"
+      + "<use href=\"#named\" x=\"100\"/>"
+      + "<rect width=\"10\" height=\"10\"><animate attributeName=\"x\" from=\"0\" to=\"50\" dur=\"1s\"/></rect>"
+      + "<text x=\"10\" y=\"150\">Hello <tspan fill=\"red\">World</tspan></text>"
+      + "</svg>";
+
+   public SVGLoaderStreamingTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test that the streaming build produces the same tree as the default build.
+    */
+   @Test
+   public void testStreamingBuild() throws Exception {
+      System.out.println("SVGLoaderStreamingTest : testStreamingBuild");
+      LoaderParameters params = new LoaderParameters();
+      params.autoStartAnimations = false;
+      SVGImage image = SVGLoader.load(CONTENT, params);
+      params.streamingBuild = true;
+      SVGImage streamedImage = SVGLoader.load(CONTENT, params);
+      assertNotNull("SVGImage should not be null", streamedImage);
+      assertNull("The streamed image must not retain its document", streamedImage.getDocument());
+      assertNotNull("The image must retain its document", image.getDocument());
+      assertSameTree(image, streamedImage);
+
+      Node child = streamedImage.getChildren().get(0);
+      assertTrue("Child must be a Rectangle", child instanceof Rectangle);
+      assertTrue("Rectangle must be filled with the gradient", ((Rectangle) child).getFill() instanceof LinearGradient);
+      assertNotNull("Named node must be kept", streamedImage.getNode("named"));
+   }
+
+   /**
+    * Test the streaming build of a file.
+    */
+   @Test
+   public void testStreamingBuildURL() throws Exception {
+      System.out.println("SVGLoaderStreamingTest : testStreamingBuildURL");
+      URL url = this.getClass().getResource("use-lost.svg");
+      SVGImage image = SVGLoader.load(url);
+      LoaderParameters params = new LoaderParameters();
+      params.streamingBuild = true;
+      SVGImage streamedImage = SVGLoader.load(url, params);
+      assertNotNull("SVGImage should not be null", streamedImage);
+      assertSameTree(image, streamedImage);
+   }
+
+   private void assertSameTree(Node expected, Node node) {
+      assertEquals("Node type", expected.getClass(), node.getClass());
+      if (expected instanceof Shape && !(expected instanceof Text)) {
+         assertEquals("Node bounds", expected.getBoundsInParent(), node.getBoundsInParent());
+      } else if (expected instanceof Group) {
+         Group expectedGroup = (Group) expected;
+         Group group = (Group) node;
+         assertEquals("Children count", expectedGroup.getChildren().size(), group.getChildren().size());
+         for (int i = 0; i < expectedGroup.getChildren().size(); i++) {
+            assertSameTree(expectedGroup.getChildren().get(i), group.getChildren().get(i));
+         }
+      }
+   }
+}
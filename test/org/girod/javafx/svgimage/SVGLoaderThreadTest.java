@@ -0,0 +1,105 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for loading a svg file outside of the JavaFX Application Thread.
+ *
+ * @since 1.2
+ */
+public class SVGLoaderThreadTest {
+
+   public SVGLoaderThreadTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+      // the next instruction is only there to initialize the JavaFX platform
+      new JFXPanel();
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of load method, of class SVGLoader. The JavaFX Application Thread is kept busy during the load.
+    */
+   @Test
+   public void testLoadWhileFXThreadIsBusy() throws Exception {
+      System.out.println("SVGLoaderThreadTest : testLoadWhileFXThreadIsBusy");
+      final CountDownLatch blocked = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      Platform.runLater(new Runnable() {
+         @Override
+         public void run() {
+            blocked.countDown();
+            try {
+               release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+            }
+         }
+      });
+      try {
+         assertTrue("JavaFX Application Thread must be blocked", blocked.await(10, TimeUnit.SECONDS));
+         URL url = this.getClass().getResource("rect.svg");
+         SVGImage result = SVGLoader.load(url);
+         assertNotNull("SVGImage should not be null", result);
+         assertEquals("Must have one child", 1, result.getChildren().size());
+      } finally {
+         release.countDown();
+      }
+   }
+}
@@ -0,0 +1,199 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.scene.Node;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import org.girod.javafx.svgimage.SVGImage;
+import org.girod.javafx.svgimage.SVGLoader;
+import org.girod.javafx.svgimage.xml.parsers.FontCache;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the FontCache class. The benchmark builds the labels of a chart, and compares the direct font
+ * lookup with the cache.
+ *
+ * @since 1.2
+ */
+public class FontCacheTest {
+   private static final String[] FAMILIES = {"Arial, Helvetica, sans-serif", "'Times New Roman', serif", "monospace"};
+   private static final int LABELS = 1000;
+   private static final int ITERATIONS = 100;
+
+   public FontCacheTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of resolveFamily method, of class FontCache.
+    */
+   @Test
+   public void testResolveFamily() {
+      System.out.println("FontCacheTest : testResolveFamily");
+      FontCache cache = FontCache.getInstance();
+      cache.clear();
+      assertNull("Null family", cache.resolveFamily(null));
+      assertEquals("Single family", "Unknown Family", cache.resolveFamily("Unknown Family"));
+      assertEquals("Generic family", "SansSerif", cache.resolveFamily("sans-serif"));
+      assertEquals("Fallback family", "Monospaced", cache.resolveFamily("'Unknown Family', \"Other Family\", monospace"));
+      assertEquals("No installed family", "Unknown Family", cache.resolveFamily("\"Unknown Family\", Other Family"));
+      String installed = Font.getFamilies().get(0);
+      assertEquals("Installed family", installed, cache.resolveFamily("Unknown Family, " + installed.toUpperCase() + ", serif"));
+   }
+
+   /**
+    * Test of getFont method, of class FontCache.
+    */
+   @Test
+   public void testGetFont() {
+      System.out.println("FontCacheTest : testGetFont");
+      FontCache cache = FontCache.getInstance();
+      cache.clear();
+      cache.resetStatistics();
+      Font font = cache.getFont("Serif", FontWeight.BOLD, FontPosture.REGULAR, 14);
+      assertEquals("Font", Font.font("Serif", FontWeight.BOLD, FontPosture.REGULAR, 14), font);
+      assertSame("Cached font", font, cache.getFont("Serif", FontWeight.BOLD, FontPosture.REGULAR, 14));
+      assertEquals("Font size", 12, cache.getFont("Serif", FontWeight.BOLD, FontPosture.REGULAR, 12).getSize(), 0.0001d);
+      assertEquals("Fallback font", Font.font("Monospaced", 12), cache.getFont("Unknown, monospace", null, null, 12));
+      assertEquals("Hits", 1, cache.getHitCount());
+      assertEquals("Misses", 3, cache.getMissCount());
+      assertEquals("Size", 3, cache.size());
+   }
+
+   /**
+    * Test of the fonts shared by the labels of a chart.
+    */
+   @Test
+   public void testChartLabels() throws Exception {
+      System.out.println("FontCacheTest : testChartLabels");
+      FontCache cache = FontCache.getInstance();
+      cache.clear();
+      cache.resetStatistics();
+      SVGImage image = SVGLoader.load(createChart());
+      List<Text> texts = new ArrayList<>();
+      for (Node node : image.getChildren()) {
+         if (node instanceof Text) {
+            texts.add((Text) node);
+         }
+      }
+      assertEquals("Labels", LABELS, texts.size());
+      assertSame("Shared font", texts.get(0).getFont(), texts.get(FAMILIES.length * 4).getFont());
+      assertEquals("Bold label", "Bold", texts.get(1).getFont().getStyle());
+      assertTrue("Hit rate", cache.getHitRate() > 0.9d);
+   }
+
+   /**
+    * Compare the direct font lookup with the FontCache on the labels of a chart. This benchmark is only run if the
+    * fxsvgimage.benchmark system property is true.
+    */
+   @Test
+   public void testBenchmark() {
+      System.out.println("FontCacheTest : testBenchmark");
+      Assume.assumeTrue("The benchmarks are not enabled", Boolean.getBoolean("fxsvgimage.benchmark"));
+      FontCache cache = FontCache.getInstance();
+      cache.clear();
+      long directTime = 0;
+      long cacheTime = 0;
+      for (int i = 0; i < ITERATIONS; i++) {
+         long start = System.nanoTime();
+         for (int j = 0; j < LABELS; j++) {
+            Font.font(FAMILIES[j % FAMILIES.length], getWeight(j), FontPosture.REGULAR, getSize(j));
+         }
+         long middle = System.nanoTime();
+         for (int j = 0; j < LABELS; j++) {
+            cache.getFont(FAMILIES[j % FAMILIES.length], getWeight(j), FontPosture.REGULAR, getSize(j));
+         }
+         long end = System.nanoTime();
+         if (i >= ITERATIONS / 2) {
+            directTime += middle - start;
+            cacheTime += end - middle;
+         }
+      }
+      int count = LABELS * (ITERATIONS - ITERATIONS / 2);
+      System.out.println("   " + LABELS + " labels: Font.font " + (directTime / count) + " ns per label, FontCache "
+         + (cacheTime / count) + " ns per label");
+      assertEquals("Distinct fonts", FAMILIES.length * 4, cache.size());
+   }
+
+   private static FontWeight getWeight(int index) {
+      return index % 2 == 0 ? FontWeight.NORMAL : FontWeight.BOLD;
+   }
+
+   private static double getSize(int index) {
+      return (index / (FAMILIES.length * 2)) % 2 == 0 ? 10 : 12;
+   }
+
+   private static String createChart() {
+      StringBuilder buf = new StringBuilder();
+      buf.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"1000\" height=\"1000\">");
+      for (int i = 0; i < LABELS; i++) {
+         buf.append("<text x=\"").append(i % 100 * 10).append("\" y=\"").append(i / 100 * 20).append("\" font-family=\"")
+            .append(FAMILIES[i % FAMILIES.length]).append("\" font-size=\"").append(getSize(i));
+         if (i % 2 == 1) {
+            buf.append("\" font-weight=\"bold");
+         }
+         buf.append("\">").append(i).append("</text>");
+      }
+      buf.append("</svg>");
+      return buf.toString();
+   }
+}
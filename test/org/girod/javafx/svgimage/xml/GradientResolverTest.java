@@ -0,0 +1,157 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.shape.Rectangle;
+import org.girod.javafx.svgimage.ExceptionsHandling;
+import org.girod.javafx.svgimage.GlobalConfig;
+import org.girod.javafx.svgimage.SVGImage;
+import org.girod.javafx.svgimage.SVGLoader;
+import org.girod.javafx.svgimage.xml.parsers.XMLNode;
+import org.girod.javafx.svgimage.xml.specs.GradientResolver;
+import org.girod.javafx.svgimage.xml.specs.GradientSpec;
+import org.girod.javafx.svgimage.xml.specs.LinearGradientSpec;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the resolution of the gradients.
+ *
+ * @since 1.2
+ */
+public class GradientResolverTest {
+
+   public GradientResolverTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static LinearGradientSpec createSpec(Map<String, GradientSpec> specs, String id, String href) {
+      XMLNode node = new XMLNode("linearGradient");
+      node.addAttribute("id", id);
+      LinearGradientSpec spec = new LinearGradientSpec(node, href);
+      specs.put(id, spec);
+      return spec;
+   }
+
+   /**
+    * Test of the order of resolution of the gradients, and of the cycles of references.
+    */
+   @Test
+   public void testResolutionOrder() {
+      System.out.println("GradientResolverTest : testResolutionOrder");
+      Map<String, GradientSpec> specs = new HashMap<>();
+      createSpec(specs, "c", "b");
+      createSpec(specs, "b", "a");
+      createSpec(specs, "a", null);
+      createSpec(specs, "d", "a");
+      createSpec(specs, "x", "y");
+      createSpec(specs, "y", "x");
+      short handling = GlobalConfig.getInstance().getExceptionsHandling();
+      GlobalConfig.getInstance().setExceptionsHandling(ExceptionsHandling.SKIP_EXCEPTION);
+      List<String> order;
+      try {
+         order = GradientResolver.getResolutionOrder(specs);
+      } finally {
+         GlobalConfig.getInstance().setExceptionsHandling(handling);
+      }
+      assertEquals("Gradients", 6, order.size());
+      assertTrue("a before b", order.indexOf("a") < order.indexOf("b"));
+      assertTrue("b before c", order.indexOf("b") < order.indexOf("c"));
+      assertTrue("a before d", order.indexOf("a") < order.indexOf("d"));
+      assertTrue("Cycle must be broken", specs.get("x").getHref() == null || specs.get("y").getHref() == null);
+      String first = order.indexOf("x") < order.indexOf("y") ? "x" : "y";
+      assertNull("First gradient of the cycle has no reference", specs.get(first).getHref());
+   }
+
+   /**
+    * Test of the inheritance of the stops, and of the sharing of the gradients.
+    */
+   @Test
+   public void testInheritedStops() {
+      System.out.println("GradientResolverTest : testInheritedStops");
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" width=\"100\" height=\"100\">"
+         + "<defs><linearGradient id=\"derived\" xlink:href=\"#base\" x1=\"0\" y1=\"0\" x2=\"50\" y2=\"0\" gradientUnits=\"userSpaceOnUse\"/>"
+         + "<linearGradient id=\"base\" x1=\"0\" y1=\"0\" x2=\"100\" y2=\"0\" gradientUnits=\"userSpaceOnUse\">"
+         + "<stop offset=\"0\" stop-color=\"red\"/><stop offset=\"1\" stop-color=\"blue\"/></linearGradient>"
+         + "<linearGradient id=\"copy\" xlink:href=\"#base\"/>"
+         + "<radialGradient id=\"radial\" xlink:href=\"#base\" cx=\"50\" cy=\"50\" r=\"50\" gradientUnits=\"userSpaceOnUse\"/>"
+         + "<linearGradient id=\"loop1\" xlink:href=\"#loop2\"><stop offset=\"0\" stop-color=\"red\"/></linearGradient>"
+         + "<linearGradient id=\"loop2\" xlink:href=\"#loop1\"/></defs>"
+         + "<rect width=\"10\" height=\"10\" fill=\"url(#base)\"/><rect width=\"10\" height=\"10\" fill=\"url(#derived)\"/>"
+         + "<rect width=\"10\" height=\"10\" fill=\"url(#copy)\"/><rect width=\"10\" height=\"10\" fill=\"url(#radial)\"/>"
+         + "<rect width=\"10\" height=\"10\" fill=\"url(#loop2)\"/></svg>";
+      short handling = GlobalConfig.getInstance().getExceptionsHandling();
+      GlobalConfig.getInstance().setExceptionsHandling(ExceptionsHandling.SKIP_EXCEPTION);
+      SVGImage image;
+      try {
+         image = SVGLoader.load(content);
+      } finally {
+         GlobalConfig.getInstance().setExceptionsHandling(handling);
+      }
+      LinearGradient base = (LinearGradient) ((Rectangle) image.getChildren().get(0)).getFill();
+      LinearGradient derived = (LinearGradient) ((Rectangle) image.getChildren().get(1)).getFill();
+      assertEquals("Inherited stops", base.getStops(), derived.getStops());
+      assertEquals("Own position", 50, derived.getEndX(), 0.0001d);
+      assertSame("Identical gradient must be shared", base, ((Rectangle) image.getChildren().get(2)).getFill());
+      RadialGradient radial = (RadialGradient) ((Rectangle) image.getChildren().get(3)).getFill();
+      assertEquals("Stops inherited by a radial gradient", base.getStops(), radial.getStops());
+      assertTrue("Cyclic gradient", ((Rectangle) image.getChildren().get(4)).getFill() instanceof LinearGradient);
+   }
+}
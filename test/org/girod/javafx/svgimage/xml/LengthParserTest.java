@@ -0,0 +1,343 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.girod.javafx.svgimage.xml.parsers.LengthParser;
+import org.girod.javafx.svgimage.xml.parsers.PercentParser;
+import org.girod.javafx.svgimage.xml.specs.Viewport;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the LengthParser and PercentParser classes. The results are compared with the regex based
+ * implementation of the version 1.1 of the library, on the attribute values of the sample files.
+ *
+ * @since 1.2
+ */
+public class LengthParserTest {
+   private static final Pattern ATTRIBUTE = Pattern.compile("=\"([^\"]{1,20})\"");
+   private static final Pattern STYLE_VALUE = Pattern.compile(":\\s*([^;\"]{1,20})");
+   private static final double INCH = 1 / 96d;
+   private static final Pattern NUMBER = Pattern.compile("\\-?\\d*(\\.\\d+)?");
+   private static final Pattern NUMBER_UNIT = Pattern.compile("(\\-?\\d+)(\\.\\d*)?([a-z%A-Z]+)");
+   private static final Pattern PERCENT_NUMBER = Pattern.compile("\\d+(\\.\\d+)?");
+   private static final Pattern PERCENT_UNIT = Pattern.compile("(\\d+)(\\.\\d+)?%");
+   private static final int ITERATIONS = 100;
+
+   public LengthParserTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of the parsing of values with units.
+    */
+   @Test
+   public void testUnits() {
+      System.out.println("LengthParserTest : testUnits");
+      Viewport viewport = new Viewport(200, 100);
+      assertEquals("px", 12.5, LengthParser.parseLength(" 12.5px ", viewport), 0.0001);
+      assertEquals("pt", 16, LengthParser.parseLength("12pt", viewport), 0.0001);
+      assertEquals("in", 96, LengthParser.parseLength("1in", viewport), 0.0001);
+      assertEquals("em", -8, LengthParser.parseLength("−0.5em", viewport), 0.0001);
+      assertEquals("%", 50, LengthParser.parseLength("50%", false, viewport), 0.0001);
+      assertEquals("unknown unit", 3, LengthParser.parseLength("3xy", viewport), 0.0001);
+      assertEquals("invalid", 0, LengthParser.parseLength("1e5", viewport), 0.0001);
+      assertEquals("fraction of a position", 10.5, LengthParser.parsePosition("10.5px", true, null, viewport), 0.0001);
+      assertEquals("percent", 0.125, PercentParser.parseValue("12.5%"), 0.0001);
+      assertEquals("percent", 1, PercentParser.parseValue("2.5"), 0.0001);
+      assertEquals("percent", 2.5, PercentParser.parseValue("2.5", true), 0.0001);
+   }
+
+   /**
+    * Compare the parsing of the values of the sample files with the regex based implementation.
+    */
+   @Test
+   public void testCompareWithRegex() throws Exception {
+      System.out.println("LengthParserTest : testCompareWithRegex");
+      File dir = new File("samples");
+      Assume.assumeTrue(dir.isDirectory());
+      List<String> values = new ArrayList<>();
+      collectValues(dir, values);
+      assertTrue("Values must be found in the samples", values.size() > 100);
+      Viewport viewport = new Viewport(300, 200);
+      Viewport scaledViewport = new Viewport(300, 200);
+      scaledViewport.setScale(2, true);
+      for (String value : values) {
+         assertSame(value, parseLengthRegex(value, true, viewport), parseLength(value, true, viewport));
+         assertSame(value, parseLengthRegex(value, false, scaledViewport), parseLength(value, false, scaledViewport));
+         assertSame(value, parsePositionRegex(value, true, scaledViewport), parsePosition(value, true, scaledViewport));
+         assertSame(value, parseLineWidthRegex(value, scaledViewport), parseLineWidth(value, scaledViewport));
+         assertSame(value, parsePercentRegex(value), PercentParser.parseValue(value, true));
+      }
+   }
+
+   /**
+    * Compare the parsing time of the values of the sample files with the regex based implementation. This benchmark
+    * is only run if the fxsvgimage.benchmark system property is true.
+    */
+   @Test
+   public void testBenchmark() throws Exception {
+      System.out.println("LengthParserTest : testBenchmark");
+      Assume.assumeTrue("The benchmarks are not enabled", Boolean.getBoolean("fxsvgimage.benchmark"));
+      File dir = new File("samples");
+      Assume.assumeTrue(dir.isDirectory());
+      List<String> values = new ArrayList<>();
+      collectValues(dir, values);
+      Viewport viewport = new Viewport(300, 200);
+      long regexTime = 0;
+      long time = 0;
+      double sum = 0;
+      for (int i = 0; i < ITERATIONS; i++) {
+         long start = System.nanoTime();
+         for (String value : values) {
+            sum += parseLengthRegex(value, true, viewport);
+         }
+         long middle = System.nanoTime();
+         for (String value : values) {
+            sum += parseLength(value, true, viewport);
+         }
+         long end = System.nanoTime();
+         if (i >= ITERATIONS / 2) {
+            regexTime += middle - start;
+            time += end - middle;
+         }
+      }
+      int count = values.size() * (ITERATIONS - ITERATIONS / 2);
+      System.out.println("   " + values.size() + " values: regex " + (regexTime / count) + " ns per value, scanner "
+         + (time / count) + " ns per value (" + (long) sum + ")");
+   }
+
+   private static void assertSame(String value, double expected, double result) {
+      if (Double.isNaN(expected)) {
+         assertTrue("\"" + value + "\" must not be parsed", Double.isNaN(result));
+      } else {
+         assertEquals("\"" + value + "\"", expected, result, Math.abs(expected) * 1e-12);
+      }
+   }
+
+   private static void collectValues(File dir, List<String> values) throws Exception {
+      File[] files = dir.listFiles();
+      for (File file : files) {
+         if (file.isDirectory()) {
+            collectValues(file, values);
+         } else if (file.getName().endsWith(".svg")) {
+            String content = new String(Files.readAllBytes(file.toPath()), "UTF-8");
+            Matcher m = ATTRIBUTE.matcher(content);
+            while (m.find()) {
+               values.add(m.group(1));
+            }
+            m = STYLE_VALUE.matcher(content);
+            while (m.find()) {
+               values.add(m.group(1));
+            }
+         }
+      }
+   }
+
+   private static double parseLength(String value, boolean isWidth, Viewport viewport) {
+      try {
+         return LengthParser.parseLength(value, isWidth, viewport);
+      } catch (NumberFormatException e) {
+         return Double.NaN;
+      }
+   }
+
+   private static double parsePosition(String value, boolean isWidth, Viewport viewport) {
+      try {
+         return LengthParser.parsePosition(value, isWidth, null, viewport);
+      } catch (NumberFormatException e) {
+         return Double.NaN;
+      }
+   }
+
+   private static double parseLineWidth(String value, Viewport viewport) {
+      try {
+         return LengthParser.parseLineWidth(value, viewport);
+      } catch (NumberFormatException e) {
+         return Double.NaN;
+      }
+   }
+
+   private static double parseLengthRegex(String lengthValue, boolean isWidth, Viewport viewport) {
+      try {
+         lengthValue = lengthValue.trim().replace('−', '-');
+         Matcher m = NUMBER.matcher(lengthValue);
+         if (m.matches()) {
+            return viewport.scaleLength(Double.parseDouble(lengthValue));
+         }
+         m = NUMBER_UNIT.matcher(lengthValue);
+         if (m.matches()) {
+            String unitS = m.group(3);
+            String endDigit = m.group(2);
+            double parsedValue = Double.parseDouble(endDigit == null ? m.group(1) : m.group(1) + endDigit);
+            switch (unitS) {
+               case "pt":
+                  return viewport.scaleLength(parsedValue * 96d / 72d);
+               case "em":
+                  return viewport.scaleLength(parsedValue * 16);
+               case "ex":
+                  return viewport.scaleLength(parsedValue * 16 * (1.5d / 3d));
+               case "in":
+                  return viewport.scaleLength(parsedValue / INCH);
+               case "cm":
+                  return viewport.scaleLength(parsedValue * (96 / 2.54));
+               case "mm":
+                  return viewport.scaleLength(parsedValue * (96 / (10 * 2.54)));
+               case "%":
+                  return viewport.scaleLength(parsedValue * (isWidth ? viewport.getBestWidth() : viewport.getBestHeight()) / 100);
+               default:
+                  return viewport.scaleLength(parsedValue);
+            }
+         }
+         return 0d;
+      } catch (NumberFormatException e) {
+         return Double.NaN;
+      }
+   }
+
+   /**
+    * The regex based parsing of a position. The fraction of a value with a unit was concatenated with an additional
+    * dot in the version 1.1, which made the parsing fail, so this part is not reproduced.
+    */
+   private static double parsePositionRegex(String lengthValue, boolean isWidth, Viewport viewport) {
+      try {
+         lengthValue = lengthValue.trim().replace('−', '-');
+         Matcher m = NUMBER.matcher(lengthValue);
+         if (m.matches()) {
+            return viewport.scalePosition(Double.parseDouble(lengthValue), isWidth);
+         }
+         m = NUMBER_UNIT.matcher(lengthValue);
+         if (m.matches()) {
+            String unitS = m.group(3);
+            String endDigit = m.group(2);
+            double parsedValue = Double.parseDouble(endDigit == null ? m.group(1) : m.group(1) + endDigit);
+            switch (unitS) {
+               case "px":
+                  return viewport.scalePosition(parsedValue, isWidth);
+               case "pt":
+                  return viewport.scalePosition(parsedValue / INCH * 72d / 96d, isWidth);
+               case "in":
+                  return viewport.scalePosition(parsedValue / INCH, isWidth);
+               case "cm":
+                  return viewport.scalePosition(parsedValue / INCH * 72d / (96d * 2.54d), isWidth);
+               case "mm":
+                  return viewport.scalePosition(parsedValue / INCH * 72d / (96d * 2.54d * 10), isWidth);
+               case "%":
+                  return viewport.scalePosition(parsedValue * (isWidth ? viewport.getBestWidth() : viewport.getBestHeight()) / 100, isWidth);
+               default:
+                  return parsedValue;
+            }
+         }
+         return 0d;
+      } catch (NumberFormatException e) {
+         return Double.NaN;
+      }
+   }
+
+   private static double parseLineWidthRegex(String lengthValue, Viewport viewport) {
+      try {
+         lengthValue = lengthValue.trim().replace('−', '-');
+         Matcher m = NUMBER.matcher(lengthValue);
+         if (m.matches()) {
+            return viewport.scaleLineWidth(Double.parseDouble(lengthValue));
+         }
+         m = NUMBER_UNIT.matcher(lengthValue);
+         if (m.matches()) {
+            String unitS = m.group(3);
+            String endDigit = m.group(2);
+            double parsedValue = Double.parseDouble(endDigit == null ? m.group(1) : m.group(1) + endDigit);
+            switch (unitS) {
+               case "pt":
+                  return viewport.scaleLineWidth(parsedValue * 96d / 72d);
+               case "in":
+                  return viewport.scaleLineWidth(parsedValue / INCH);
+               case "cm":
+                  return viewport.scaleLineWidth(parsedValue / INCH * 72d / (96d * 2.54d));
+               case "mm":
+                  return viewport.scaleLineWidth(parsedValue / INCH * 72d / (96d * 2.54d * 10));
+               case "%":
+                  return viewport.scaleLineWidth(parsedValue * viewport.getBestWidth() / 100);
+               default:
+                  return viewport.scaleLineWidth(parsedValue);
+            }
+         }
+         return 0d;
+      } catch (NumberFormatException e) {
+         return Double.NaN;
+      }
+   }
+
+   /**
+    * The regex based parsing of a percent value. The fraction of a percent value was concatenated with an
+    * additional dot in the version 1.1, which made the parsing fail, so this part is not reproduced.
+    */
+   private static double parsePercentRegex(String value) {
+      value = value.trim();
+      Matcher m = PERCENT_NUMBER.matcher(value);
+      if (m.matches()) {
+         return Double.parseDouble(value);
+      }
+      m = PERCENT_UNIT.matcher(value);
+      if (m.matches()) {
+         return Math.min(1, Double.parseDouble(value.substring(0, value.length() - 1)) / 100);
+      }
+      return 0d;
+   }
+}
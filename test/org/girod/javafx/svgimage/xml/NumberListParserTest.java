@@ -0,0 +1,172 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.util.StringTokenizer;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.shape.Polyline;
+import org.girod.javafx.svgimage.xml.parsers.NumberListParser;
+import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
+import org.girod.javafx.svgimage.xml.specs.Viewport;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the NumberListParser class.
+ *
+ * @since 1.2
+ */
+public class NumberListParserTest {
+   private static final int POINTS = 20000;
+   private static final int ITERATIONS = 40;
+
+   public NumberListParserTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of the separators of the numbers.
+    */
+   @Test
+   public void testNumbers() {
+      System.out.println("NumberListParserTest : testNumbers");
+      assertArrayEquals("separators", new double[]{10, 20, 30.5, 40}, NumberListParser.parseNumbers(" 10,20  30.5 ,\n40 "), 0.0001);
+      assertArrayEquals("signs", new double[]{10, -5, 3, -2}, NumberListParser.parseNumbers("10-5+3−2"), 0.0001);
+      assertArrayEquals("decimal points", new double[]{0.5, 0.5, 1.25}, NumberListParser.parseNumbers(".5.5 1.25"), 0.0001);
+      assertArrayEquals("exponents", new double[]{100, 0.02, -1.5}, NumberListParser.parseNumbers("1e2,2E-2-1.5"), 0.0001);
+      assertArrayEquals("empty", new double[0], NumberListParser.parseNumbers("  , "), 0.0001);
+      assertArrayEquals("null", new double[0], NumberListParser.parseNumbers(null), 0.0001);
+   }
+
+   /**
+    * Test of the parsing of coordinates and lengths.
+    */
+   @Test
+   public void testPositionsAndLengths() {
+      System.out.println("NumberListParserTest : testPositionsAndLengths");
+      Viewport viewport = new Viewport(200, 100);
+      viewport.setScale(2, true);
+      assertArrayEquals("positions", new double[]{20, 40, 2, 192}, NumberListParser.parsePositions("10 20,1px 1in", null, viewport), 0.0001);
+      Bounds bounds = new BoundingBox(10, 20, 100, 50);
+      assertArrayEquals("relative positions", new double[]{120, 90}, NumberListParser.parsePositions("0.5,0.5", bounds, viewport), 0.0001);
+      assertArrayEquals("lengths", new double[]{10, 4, 192}, NumberListParser.parseLengths("5 2px 1in", viewport), 0.0001);
+      assertArrayEquals("dashes", new double[]{10, 20}, ParserUtils.parseDashes("5,10", viewport), 0.0001);
+      assertEquals("no dashes", null, ParserUtils.parseDashes("none", viewport));
+   }
+
+   /**
+    * Compare the parsing of a large polyline with the tokenizer based implementation of the version 1.1 of the library.
+    */
+   @Test
+   public void testCompareWithTokenizer() {
+      System.out.println("NumberListParserTest : testCompareWithTokenizer");
+      String points = getPoints();
+      Viewport viewport = new Viewport(300, 200);
+      viewport.setScale(2, true);
+      Polyline expected = parseWithTokenizer(points, viewport);
+      Polyline polyline = new Polyline(NumberListParser.parsePositions(points, null, viewport));
+      assertEquals("points", expected.getPoints(), polyline.getPoints());
+   }
+
+   /**
+    * Compare the parsing time of a large polyline with the tokenizer based implementation of the version 1.1 of the
+    * library. This benchmark is only run if the fxsvgimage.benchmark system property is true.
+    */
+   @Test
+   public void testBenchmark() {
+      System.out.println("NumberListParserTest : testBenchmark");
+      Assume.assumeTrue("The benchmarks are not enabled", Boolean.getBoolean("fxsvgimage.benchmark"));
+      String points = getPoints();
+      Viewport viewport = new Viewport(300, 200);
+      viewport.setScale(2, true);
+      Polyline polyline = null;
+      long tokenizerTime = 0;
+      long time = 0;
+      for (int i = 0; i < ITERATIONS; i++) {
+         long start = System.nanoTime();
+         parseWithTokenizer(points, viewport);
+         long middle = System.nanoTime();
+         polyline = new Polyline(NumberListParser.parsePositions(points, null, viewport));
+         long end = System.nanoTime();
+         if (i >= ITERATIONS / 2) {
+            tokenizerTime += middle - start;
+            time += end - middle;
+         }
+      }
+      int count = POINTS * (ITERATIONS - ITERATIONS / 2);
+      System.out.println("   " + POINTS + " points: tokenizer " + (tokenizerTime / count) + " ns per point, scanner "
+         + (time / count) + " ns per point (" + polyline.getPoints().size() + ")");
+   }
+
+   private static String getPoints() {
+      StringBuilder buf = new StringBuilder();
+      for (int i = 0; i < POINTS; i++) {
+         buf.append(i * 0.25).append(',').append(-i % 97 + 0.5).append(' ');
+      }
+      return buf.toString();
+   }
+
+   private static Polyline parseWithTokenizer(String points, Viewport viewport) {
+      Polyline polyline = new Polyline();
+      StringTokenizer tokenizer = new StringTokenizer(points, " ,");
+      boolean isX = true;
+      while (tokenizer.hasMoreTokens()) {
+         String point = tokenizer.nextToken();
+         polyline.getPoints().add(ParserUtils.parsePositionValue(point, isX, null, viewport));
+         isX = !isX;
+      }
+      return polyline;
+   }
+}
@@ -0,0 +1,197 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.Stop;
+import javafx.scene.shape.Rectangle;
+import org.girod.javafx.svgimage.SVGDocument;
+import org.girod.javafx.svgimage.SVGImage;
+import org.girod.javafx.svgimage.SVGLoader;
+import org.girod.javafx.svgimage.xml.parsers.PaintCache;
+import org.girod.javafx.svgimage.xml.parsers.ParserUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the PaintCache class.
+ *
+ * @since 1.2
+ */
+public class PaintCacheTest {
+
+   public PaintCacheTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of getColor method, of class PaintCache.
+    */
+   @Test
+   public void testGetColor() {
+      System.out.println("PaintCacheTest : testGetColor");
+      PaintCache cache = PaintCache.getInstance();
+      cache.clear();
+      cache.resetStatistics();
+      String[] values = {"red", "#abc", "#ff000080", "rgb(10,20,30)", "rgba(10,20,30,0.5)", "hsl(120,50%,50%)", "transparent"};
+      for (String value : values) {
+         Color color = cache.getColor(value);
+         assertEquals(value, Color.web(value), color);
+         assertSame(value, color, cache.getColor(value));
+         assertEquals(value, Color.web(value, 0.5), cache.getColor(value, 0.5));
+      }
+      assertEquals("Hits", values.length, cache.getHitCount());
+      assertEquals("Misses", values.length * 2, cache.getMissCount());
+      assertEquals("Hit rate", 1 / 3d, cache.getHitRate(), 0.0001d);
+      assertNull("None", cache.getColor("none"));
+      assertSame("ParserUtils color", cache.getColor("red"), ParserUtils.getColor("red"));
+   }
+
+   /**
+    * Test of setMaximumSize method, of class PaintCache.
+    */
+   @Test
+   public void testEviction() {
+      System.out.println("PaintCacheTest : testEviction");
+      PaintCache cache = PaintCache.getInstance();
+      cache.clear();
+      cache.resetStatistics();
+      try {
+         cache.setMaximumSize(2);
+         Color red = cache.getColor("red");
+         cache.getColor("green");
+         cache.getColor("red");
+         cache.getColor("blue");
+         assertEquals("Size", 2, cache.size());
+         assertEquals("Evictions", 1, cache.getEvictionCount());
+         assertSame("Most recently used color", red, cache.getColor("red"));
+         assertEquals("Misses", 3, cache.getMissCount());
+      } finally {
+         cache.setMaximumSize(PaintCache.DEFAULT_MAXIMUM_SIZE);
+      }
+   }
+
+   /**
+    * Test of getURL method, of class ParserUtils.
+    */
+   @Test
+   public void testGetURL() {
+      System.out.println("PaintCacheTest : testGetURL");
+      assertEquals("URL", "grad1", ParserUtils.getURL("url(#grad1)"));
+      assertEquals("URL", "grad1", ParserUtils.getURL("url('#grad1')"));
+      assertEquals("URL", "grad1", ParserUtils.getURL("url(\"#grad1\")"));
+      assertEquals("URL", "grad1", ParserUtils.getURL("#grad1"));
+   }
+
+   /**
+    * Test of the gradients shared by the images created from the same document.
+    */
+   @Test
+   public void testSharedGradients() throws Exception {
+      System.out.println("PaintCacheTest : testSharedGradients");
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">"
+         + "<defs><linearGradient id=\"grad1\" x1=\"0\" y1=\"0\" x2=\"1\" y2=\"0\">"
+         + "<stop offset=\"0\" stop-color=\"red\"/><stop offset=\"1\" style=\"stop-color: blue\"/></linearGradient></defs>"
+         + "<rect width=\"10\" height=\"10\" fill=\"url(#grad1)\"/></svg>";
+      SVGDocument document = SVGLoader.loadDocument(content);
+      SVGImage image1 = document.createScaledImage(1);
+      SVGImage image2 = document.createScaledImage(1);
+      SVGImage image3 = document.createScaledImage(2);
+      Rectangle rect1 = (Rectangle) image1.getChildren().get(0);
+      Rectangle rect2 = (Rectangle) image2.getChildren().get(0);
+      Rectangle rect3 = (Rectangle) image3.getChildren().get(0);
+      assertTrue("Fill must be a LinearGradient", rect1.getFill() instanceof LinearGradient);
+      LinearGradient gradient = (LinearGradient) rect1.getFill();
+      assertEquals("Stops", 2, gradient.getStops().size());
+      assertEquals("Stop color", Color.BLUE, gradient.getStops().get(1).getColor());
+      assertSame("Gradient must be shared", rect1.getFill(), rect2.getFill());
+      // the gradient is resolved again for another scale, but the identical gradients are shared by all the loads
+      assertSame("Identical gradient must be shared for another scale", rect1.getFill(), rect3.getFill());
+   }
+
+   /**
+    * Test of the gradient hit, miss and eviction counts, of class PaintCache.
+    */
+   @Test
+   public void testGradientStatistics() {
+      System.out.println("PaintCacheTest : testGradientStatistics");
+      PaintCache cache = PaintCache.getInstance();
+      cache.clear();
+      cache.resetStatistics();
+      Paint gradient = createGradient(0);
+      assertSame("New gradient", gradient, cache.getGradient(gradient));
+      assertSame("Shared gradient", gradient, cache.getGradient(createGradient(0)));
+      assertEquals("Gradient hits", 1, cache.getGradientHitCount());
+      assertEquals("Gradient misses", 1, cache.getGradientMissCount());
+      assertEquals("Color misses", 0, cache.getMissCount());
+      for (int i = 1; i <= PaintCache.MAXIMUM_GRADIENTS; i++) {
+         cache.getGradient(createGradient(i));
+      }
+      assertEquals("Gradients", PaintCache.MAXIMUM_GRADIENTS, cache.getGradientCount());
+      assertEquals("Gradient evictions", 1, cache.getGradientEvictionCount());
+      assertEquals("Gradient misses", PaintCache.MAXIMUM_GRADIENTS + 1, cache.getGradientMissCount());
+      cache.resetStatistics();
+      assertEquals("Gradient hits", 0, cache.getGradientHitCount());
+      assertEquals("Gradient evictions", 0, cache.getGradientEvictionCount());
+      cache.clear();
+   }
+
+   private static Paint createGradient(int index) {
+      return new LinearGradient(0, 0, index + 1, 0, false, CycleMethod.NO_CYCLE, new Stop(0, Color.RED), new Stop(1, Color.BLUE));
+   }
+}
@@ -0,0 +1,193 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import javafx.scene.shape.ArcTo;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.CubicCurveTo;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import javafx.scene.shape.SVGPath;
+import org.girod.javafx.svgimage.SVGImage;
+import org.girod.javafx.svgimage.SVGLoader;
+import org.girod.javafx.svgimage.xml.parsers.PathParser;
+import org.girod.javafx.svgimage.xml.parsers.PathTokenizer;
+import org.girod.javafx.svgimage.xml.specs.Viewport;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the PathTokenizer and PathParser classes.
+ *
+ * @since 1.2
+ */
+public class PathParserTest {
+   private static final double DELTA = 0.0001d;
+
+   public PathParserTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static void assertValues(PathTokenizer tokenizer, double... values) {
+      assertEquals("Number of values", values.length, tokenizer.getValueCount());
+      for (int i = 0; i < values.length; i++) {
+         assertEquals("Value " + i, values[i], tokenizer.getValue(i), DELTA);
+      }
+   }
+
+   /**
+    * Test of the tokenization of implicit commands.
+    */
+   @Test
+   public void testImplicitCommands() {
+      System.out.println("PathParserTest : testImplicitCommands");
+      PathTokenizer tokenizer = new PathTokenizer();
+      assertTrue("Content must be tokenized", tokenizer.tokenize("M10,20 30 40 50,60L1 2 3 4z"));
+      assertEquals("Number of commands", 6, tokenizer.getCommandCount());
+      assertEquals("Command", 'M', tokenizer.getCommand(0));
+      assertEquals("Command", 'L', tokenizer.getCommand(1));
+      assertEquals("Command", 'L', tokenizer.getCommand(2));
+      assertEquals("Command", 'L', tokenizer.getCommand(3));
+      assertEquals("Command", 'L', tokenizer.getCommand(4));
+      assertEquals("Command", 'z', tokenizer.getCommand(5));
+      assertValues(tokenizer, 10, 20, 30, 40, 50, 60, 1, 2, 3, 4);
+
+      assertTrue("Content must be tokenized", tokenizer.tokenize("m1 2 3 4"));
+      assertEquals("Command", 'm', tokenizer.getCommand(0));
+      assertEquals("Command", 'l', tokenizer.getCommand(1));
+   }
+
+   /**
+    * Test of the tokenization of packed numbers.
+    */
+   @Test
+   public void testPackedNumbers() {
+      System.out.println("PathParserTest : testPackedNumbers");
+      PathTokenizer tokenizer = new PathTokenizer();
+      assertTrue("Content must be tokenized", tokenizer.tokenize("M1.5.5-2-.25L1e2-1.5E-1+3 4"));
+      assertValues(tokenizer, 1.5, 0.5, -2, -0.25, 100, -0.15, 3, 4);
+
+      assertTrue("Content must be tokenized", tokenizer.tokenize("M0 0a25 25 -30 0110 10"));
+      assertEquals("Number of commands", 2, tokenizer.getCommandCount());
+      assertValues(tokenizer, 0, 0, 25, 25, -30, 0, 1, 10, 10);
+   }
+
+   /**
+    * Test of the tokenization of an invalid content.
+    */
+   @Test
+   public void testInvalidContent() {
+      System.out.println("PathParserTest : testInvalidContent");
+      PathTokenizer tokenizer = new PathTokenizer();
+      assertFalse("Content must not be tokenized", tokenizer.tokenize("M10 10 L20 20 L30 x"));
+      assertEquals("The commands before the error must be kept", 2, tokenizer.getCommandCount());
+      assertValues(tokenizer, 10, 10, 20, 20);
+   }
+
+   /**
+    * Test of the creation of a Path.
+    */
+   @Test
+   public void testParsePath() {
+      System.out.println("PathParserTest : testParsePath");
+      PathParser parser = new PathParser();
+      Path path = parser.parsePath("M10 10 l10 0 s10 10 20 0 a5 5 0 0 1 10 0 z", null);
+      assertEquals("Number of elements", 5, path.getElements().size());
+      PathElement element = path.getElements().get(0);
+      assertTrue("Element must be a MoveTo", element instanceof MoveTo);
+      element = path.getElements().get(1);
+      assertTrue("Element must be a LineTo", element instanceof LineTo);
+      assertEquals("LineTo x", 20, ((LineTo) element).getX(), DELTA);
+      element = path.getElements().get(2);
+      assertTrue("Element must be a CubicCurveTo", element instanceof CubicCurveTo);
+      CubicCurveTo curve = (CubicCurveTo) element;
+      assertEquals("First control point", 20, curve.getControlX1(), DELTA);
+      assertEquals("First control point", 10, curve.getControlY1(), DELTA);
+      assertEquals("Second control point", 30, curve.getControlX2(), DELTA);
+      assertEquals("Second control point", 20, curve.getControlY2(), DELTA);
+      assertEquals("End point", 40, curve.getX(), DELTA);
+      element = path.getElements().get(3);
+      assertTrue("Element must be an ArcTo", element instanceof ArcTo);
+      assertEquals("End point", 50, ((ArcTo) element).getX(), DELTA);
+      assertTrue("Sweep flag", ((ArcTo) element).isSweepFlag());
+      assertTrue("Element must be a ClosePath", path.getElements().get(4) instanceof ClosePath);
+   }
+
+   /**
+    * Test of the scaling of a path content.
+    */
+   @Test
+   public void testScaledContent() {
+      System.out.println("PathParserTest : testScaledContent");
+      Viewport viewport = new Viewport();
+      viewport.setScale(2, true);
+      PathParser parser = new PathParser();
+      SVGPath path = parser.parsePathContent("M10 10h5a5 5 30 1 0 10 0", viewport, true).get(0);
+      assertEquals("Scaled content", "M 20.0 20.0 h 10.0 a 10.0 10.0 30.0 1 0 20.0 0.0", path.getContent());
+   }
+
+   /**
+    * Test of the scaling of a loaded path.
+    */
+   @Test
+   public void testLoadScaled() throws Exception {
+      System.out.println("PathParserTest : testLoadScaled");
+      String content = "<svg width=\"100\" height=\"100\"><path d=\"M0 0 L20 0 L20 20 Z\"/></svg>";
+      SVGImage image = SVGLoader.loadScaled(content, 2);
+      SVGPath path = (SVGPath) image.getChildren().get(0);
+      assertEquals("Path width", 40, path.getLayoutBounds().getWidth(), DELTA);
+   }
+}
@@ -0,0 +1,143 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import org.girod.javafx.svgimage.xml.parsers.PathVertices;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the PathVertices class.
+ *
+ * @since 1.2
+ */
+public class PathVerticesTest {
+
+   public PathVerticesTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static void assertVertex(PathVertices vertices, int index, double x, double y, double angle) {
+      assertEquals("X of vertex " + index, x, vertices.getX(index), 0.0001d);
+      assertEquals("Y of vertex " + index, y, vertices.getY(index), 0.0001d);
+      assertEquals("Angle of vertex " + index, angle, vertices.getAngle(index), 0.0001d);
+   }
+
+   /**
+    * Test of the vertices of lines.
+    */
+   @Test
+   public void testLines() {
+      System.out.println("PathVerticesTest : testLines");
+      PathVertices vertices = PathVertices.fromPath("M10,10 h10 v10 l-10,10");
+      assertEquals("Vertices", 4, vertices.getCount());
+      assertVertex(vertices, 0, 10, 10, 0);
+      assertVertex(vertices, 1, 20, 10, 45);
+      assertVertex(vertices, 2, 20, 20, 112.5);
+      assertVertex(vertices, 3, 10, 30, 135);
+
+      vertices = PathVertices.fromPoints(Arrays.asList(0d, 0d, 10d, 0d, 10d, 10d), false);
+      assertEquals("Polyline vertices", 3, vertices.getCount());
+      assertVertex(vertices, 1, 10, 0, 45);
+
+      vertices = PathVertices.fromLine(0, 0, 0, 10);
+      assertEquals("Line vertices", 2, vertices.getCount());
+      assertVertex(vertices, 0, 0, 0, 90);
+      assertVertex(vertices, 1, 0, 10, 90);
+   }
+
+   /**
+    * Test of the vertices of closed paths and polygons.
+    */
+   @Test
+   public void testClosedPaths() {
+      System.out.println("PathVerticesTest : testClosedPaths");
+      PathVertices vertices = PathVertices.fromPoints(Arrays.asList(0d, 0d, 10d, 0d, 10d, 10d, 0d, 10d), true);
+      assertEquals("Polygon vertices", 5, vertices.getCount());
+      assertVertex(vertices, 0, 0, 0, -45);
+      assertVertex(vertices, 3, 0, 10, -135);
+      assertVertex(vertices, 4, 0, 0, -45);
+
+      vertices = PathVertices.fromPath("M0,0 L10,0 L10,10 L0,0 Z");
+      assertEquals("Closed path vertices", 5, vertices.getCount());
+      assertVertex(vertices, 0, 0, 0, -67.5);
+      assertVertex(vertices, 3, 0, 0, -135);
+      assertVertex(vertices, 4, 0, 0, -67.5);
+   }
+
+   /**
+    * Test of the vertices of curves and arcs.
+    */
+   @Test
+   public void testCurves() {
+      System.out.println("PathVerticesTest : testCurves");
+      PathVertices vertices = PathVertices.fromPath("M0,0 C0,10 10,10 10,0 S20,-10 20,0");
+      assertEquals("Cubic vertices", 3, vertices.getCount());
+      assertVertex(vertices, 0, 0, 0, 90);
+      assertVertex(vertices, 1, 10, 0, -90);
+      assertVertex(vertices, 2, 20, 0, 90);
+
+      vertices = PathVertices.fromPath("M0,0 Q5,5 10,0 T20,0");
+      assertVertex(vertices, 0, 0, 0, 45);
+      assertVertex(vertices, 1, 10, 0, -45);
+      assertVertex(vertices, 2, 20, 0, 45);
+
+      vertices = PathVertices.fromPath("M0,0 A10,10 0 0 1 20,0");
+      assertEquals("Arc vertices", 2, vertices.getCount());
+      assertVertex(vertices, 0, 0, 0, -90);
+      assertVertex(vertices, 1, 20, 0, 90);
+      vertices = PathVertices.fromPath("M0,0 a10,10 0 0 0 20,0");
+      assertVertex(vertices, 0, 0, 0, 90);
+      assertVertex(vertices, 1, 20, 0, -90);
+   }
+}
@@ -32,8 +32,16 @@ the project website at the project page on https://github.com/hervegirod/fxsvgim
  */
 package org.girod.javafx.svgimage.xml;
 
+import java.util.List;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import org.girod.javafx.svgimage.SVGImage;
+import org.girod.javafx.svgimage.SVGLoader;
 import org.girod.javafx.svgimage.xml.specs.Styles;
 import org.girod.javafx.svgimage.xml.builders.SVGStyleBuilder;
+import org.girod.javafx.svgimage.xml.parsers.XMLNode;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -76,5 +84,161 @@ public class SVGStyleBuilderTest {
       Styles styles = SVGStyleBuilder.parseStyle(content, null);
       assertNotNull("Styles must not be null", styles);
    }
-   
+
+   /**
+    * Test of parseStyle method, of class SVGStyleBuilder, with several kinds of selectors.
+    */
+   @Test
+   public void testParseSelectors() {
+      System.out.println("SVGStyleBuilderTest : testParseSelectors");
+      String content = "/* comment */ @import url(other.css); @media print { rect { fill: red; } }\n"
+         + "rect, #id1 { fill: blue } g > .a.b circle { stroke: red !important; } a:hover { fill: green; } * { opacity: 0.5 }";
+      Styles styles = SVGStyleBuilder.parseStyle(content, null);
+      assertNotNull("Styles must not be null", styles);
+      List<Styles.Rule> rules = styles.getRules();
+      assertEquals("Rules", 4, rules.size());
+      assertEquals("Specificity", 1, rules.get(0).getSelector().getSpecificity());
+      assertEquals("Specificity", 10000, rules.get(1).getSelector().getSpecificity());
+      assertEquals("Specificity", 202, rules.get(2).getSelector().getSpecificity());
+      assertEquals("Compounds", 3, rules.get(2).getSelector().getCompounds().length);
+      assertEquals("Stroke", Color.RED, rules.get(2).getProperties().get("stroke").value);
+      assertEquals("Specificity", 0, rules.get(3).getSelector().getSpecificity());
+      assertNull("Style class", rules.get(0).getStyleClass());
+   }
+
+   /**
+    * Test of getMatchingRules method, of class Styles.
+    */
+   @Test
+   public void testMatchingRules() {
+      System.out.println("SVGStyleBuilderTest : testMatchingRules");
+      String content = "#r1 { fill: red } .b { fill: blue } rect { fill: green } g rect { fill: yellow } svg > rect { fill: black }";
+      Styles styles = SVGStyleBuilder.parseStyle(content, null);
+      XMLNode svg = new XMLNode("svg");
+      XMLNode g = new XMLNode(svg, "g");
+      svg.addChild(g);
+      XMLNode rect1 = new XMLNode(g, "rect");
+      rect1.addAttribute("id", "r1");
+      rect1.addAttribute("class", "a b");
+      g.addChild(rect1);
+      XMLNode rect2 = new XMLNode(svg, "rect");
+      svg.addChild(rect2);
+
+      List<Styles.Rule> rules = styles.getMatchingRules(rect1);
+      assertEquals("Matching rules", 4, rules.size());
+      assertEquals("First rule", "rect", rules.get(0).getSelector().getSubject().getType());
+      assertEquals("Second rule", 2, rules.get(1).getSelector().getCompounds().length);
+      assertEquals("Third rule", "b", rules.get(2).getStyleClass());
+      assertEquals("Last rule", "r1", rules.get(3).getSelector().getSubject().getID());
+
+      rules = styles.getMatchingRules(rect2);
+      assertEquals("Matching rules", 2, rules.size());
+      assertEquals("Last rule", Color.BLACK, rules.get(1).getProperties().get("fill").value);
+      assertTrue("Matching rules", styles.getMatchingRules(g).isEmpty());
+   }
+
+   /**
+    * Test of the styles applied when loading a svg content.
+    */
+   @Test
+   public void testApplyStyles() throws Exception {
+      System.out.println("SVGStyleBuilderTest : testApplyStyles");
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">"
+         + "<style>rect { fill: green; stroke-width: 3 } .c1 { fill: blue } #r3 { fill: red }</style>"
+         + "<style>g .c2 { fill: yellow }</style>"
+         + "<rect width=\"10\" height=\"10\"/><rect class=\"c1\" width=\"10\" height=\"10\"/>"
+         + "<rect id=\"r3\" class=\"c1\" width=\"10\" height=\"10\"/>"
+         + "<g><rect class=\"c2\" width=\"10\" height=\"10\" style=\"stroke-width: 2\"/></g></svg>";
+      SVGImage image = SVGLoader.load(content);
+      List<Node> children = image.getChildren();
+      assertEquals("Children", 4, children.size());
+      Rectangle rect = (Rectangle) children.get(0);
+      assertEquals("Fill", Color.GREEN, rect.getFill());
+      assertEquals("Stroke width", 3d, rect.getStrokeWidth(), 0.001d);
+      rect = (Rectangle) children.get(1);
+      assertEquals("Fill", Color.BLUE, rect.getFill());
+      rect = (Rectangle) children.get(2);
+      assertEquals("Fill", Color.RED, rect.getFill());
+      rect = (Rectangle) ((Group) children.get(3)).getChildren().get(0);
+      assertEquals("Fill", Color.YELLOW, rect.getFill());
+      assertEquals("Stroke width", 2d, rect.getStrokeWidth(), 0.001d);
+   }
+
+   /**
+    * Test that the selectors do not match the classes inherited from the parent nodes, but that the children inherit
+    * the fill of the rules which match their parent.
+    */
+   @Test
+   public void testInheritedClass() throws Exception {
+      System.out.println("SVGStyleBuilderTest : testInheritedClass");
+      Styles styles = SVGStyleBuilder.parseStyle(".hl { fill: red } rect.hl { stroke: blue }", null);
+      XMLNode g = new XMLNode("g");
+      g.addAttribute("class", "hl");
+      XMLNode rect = new XMLNode(g, "rect");
+      g.addChild(rect);
+      assertEquals("Matching rules", 1, styles.getMatchingRules(g).size());
+      assertTrue("Matching rules", styles.getMatchingRules(rect).isEmpty());
+
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">"
+         + "<style>.hl { transform: translate(10px, 0) }</style>"
+         + "<g class=\"hl\"><rect width=\"10\" height=\"10\"/></g></svg>";
+      SVGImage image = SVGLoader.load(content);
+      Group group = (Group) image.getChildren().get(0);
+      assertEquals("Group transforms", 1, group.getTransforms().size());
+      Node child = group.getChildren().get(0);
+      assertTrue("Rect transforms", child.getTransforms().isEmpty());
+
+      content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">"
+         + "<style>.hl { fill: red; stroke: blue }</style>"
+         + "<g class=\"hl\"><rect width=\"10\" height=\"10\"/><rect fill=\"green\" width=\"10\" height=\"10\"/>"
+         + "<g stroke=\"yellow\"><rect width=\"10\" height=\"10\"/></g></g></svg>";
+      image = SVGLoader.load(content);
+      group = (Group) image.getChildren().get(0);
+      Rectangle rect1 = (Rectangle) group.getChildren().get(0);
+      assertEquals("Fill", Color.RED, rect1.getFill());
+      assertEquals("Stroke", Color.BLUE, rect1.getStroke());
+      rect1 = (Rectangle) group.getChildren().get(1);
+      assertEquals("Fill", Color.GREEN, rect1.getFill());
+      rect1 = (Rectangle) ((Group) group.getChildren().get(2)).getChildren().get(0);
+      assertEquals("Fill", Color.RED, rect1.getFill());
+      assertEquals("Stroke", Color.YELLOW, rect1.getStroke());
+   }
+
+   /**
+    * Test that the opacity and transform of a rule are applied to a group.
+    */
+   @Test
+   public void testGroupOpacity() throws Exception {
+      System.out.println("SVGStyleBuilderTest : testGroupOpacity");
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">"
+         + "<style>.hl { opacity: 0.5; transform: translate(10px, 0) }</style>"
+         + "<g class=\"hl\"><rect width=\"10\" height=\"10\"/></g></svg>";
+      SVGImage image = SVGLoader.load(content);
+      Group group = (Group) image.getChildren().get(0);
+      assertEquals("Group opacity", 0.5d, group.getOpacity(), 0.001d);
+      assertEquals("Group transforms", 1, group.getTransforms().size());
+      Node child = group.getChildren().get(0);
+      assertEquals("Rect opacity", 1d, child.getOpacity(), 0.001d);
+      assertTrue("Rect transforms", child.getTransforms().isEmpty());
+   }
+
+   /**
+    * Test the important declarations.
+    */
+   @Test
+   public void testImportant() throws Exception {
+      System.out.println("SVGStyleBuilderTest : testImportant");
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">"
+         + "<style>.c1 { fill: red !important; stroke: red } #r1 { fill: blue; stroke: blue }</style>"
+         + "<rect id=\"r1\" class=\"c1\" width=\"10\" height=\"10\"/>"
+         + "<rect class=\"c1\" width=\"10\" height=\"10\" style=\"fill: green; stroke: green\"/></svg>";
+      SVGImage image = SVGLoader.load(content);
+      List<Node> children = image.getChildren();
+      Rectangle rect = (Rectangle) children.get(0);
+      assertEquals("Fill", Color.RED, rect.getFill());
+      assertEquals("Stroke", Color.BLUE, rect.getStroke());
+      rect = (Rectangle) children.get(1);
+      assertEquals("Fill", Color.RED, rect.getFill());
+      assertEquals("Stroke", Color.GREEN, rect.getStroke());
+   }
 }
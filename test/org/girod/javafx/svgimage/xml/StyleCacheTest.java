@@ -0,0 +1,156 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.util.List;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import org.girod.javafx.svgimage.LoaderParameters;
+import org.girod.javafx.svgimage.SVGImage;
+import org.girod.javafx.svgimage.SVGLoader;
+import org.girod.javafx.svgimage.xml.parsers.InlineStyle;
+import org.girod.javafx.svgimage.xml.parsers.StyleCache;
+import org.girod.javafx.svgimage.xml.parsers.XMLNode;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the InlineStyle and StyleCache classes.
+ *
+ * @since 1.2
+ */
+public class StyleCacheTest {
+
+   public StyleCacheTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of parse method, of class InlineStyle.
+    */
+   @Test
+   public void testParse() {
+      System.out.println("StyleCacheTest : testParse");
+      InlineStyle style = InlineStyle.parse(" fill : red;;stroke:url(data:a;b);stroke-width:;opacity:0.5; fill:blue");
+      assertEquals("Declarations", 4, style.size());
+      assertEquals("Name", "fill", style.getName(0));
+      assertEquals("Value", "red", style.getValue(0));
+      assertEquals("Value", "url(data:a", style.getValue("stroke"));
+      assertEquals("Last value", "blue", style.getValue("fill"));
+      assertNull("Value", style.getValue("stroke-width"));
+      assertSame("Empty style", InlineStyle.EMPTY, InlineStyle.parse(" ; "));
+   }
+
+   /**
+    * Test of merge method, of class InlineStyle.
+    */
+   @Test
+   public void testMerge() {
+      System.out.println("StyleCacheTest : testMerge");
+      InlineStyle parent = InlineStyle.parse("fill:red;font-size:12;fill:green");
+      InlineStyle child = InlineStyle.parse("stroke:blue;font-size:14");
+      InlineStyle merged = parent.merge(child);
+      assertEquals("Merged style", "fill:green;stroke:blue;font-size:14;", merged.toString());
+      assertSame("Merge with empty style", parent, parent.merge(InlineStyle.EMPTY));
+   }
+
+   /**
+    * Test of getStyle and mergeStyles methods, of class StyleCache.
+    */
+   @Test
+   public void testCache() {
+      System.out.println("StyleCacheTest : testCache");
+      StyleCache cache = new StyleCache();
+      InlineStyle style = cache.getStyle("fill:red");
+      assertSame("Cached style", style, cache.getStyle("fill:red"));
+      assertEquals("Parse count", 1, cache.getParseCount());
+
+      XMLNode text = new XMLNode("text");
+      text.addAttribute("style", "fill:red");
+      XMLNode tspan = new XMLNode("tspan");
+      tspan.addAttribute("style", "stroke:blue");
+      String merged = cache.mergeStyles(text, tspan);
+      assertEquals("Merged style", "fill:red;stroke:blue;", merged);
+      cache.getStyle(merged);
+      assertEquals("Parse count", 2, cache.getParseCount());
+   }
+
+   /**
+    * Test of the global style cache when loading a svg content.
+    */
+   @Test
+   public void testGlobalCache() throws Exception {
+      System.out.println("StyleCacheTest : testGlobalCache");
+      StringBuilder buf = new StringBuilder();
+      buf.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"100\">");
+      for (int i = 0; i < 100; i++) {
+         String fill = i % 2 == 0 ? "red" : "blue";
+         buf.append("<rect width=\"10\" height=\"10\" style=\"fill:").append(fill).append(";stroke-width:2\"/>");
+      }
+      buf.append("</svg>");
+      StyleCache cache = StyleCache.getGlobalCache();
+      cache.clear();
+      LoaderParameters params = new LoaderParameters();
+      params.globalStyleCache = true;
+      SVGImage image = SVGLoader.load(buf.toString(), params);
+      assertEquals("Cached styles", 2, cache.size());
+      List<Node> children = image.getChildren();
+      assertEquals("Children", 100, children.size());
+      Rectangle rect = (Rectangle) children.get(1);
+      assertEquals("Fill", Color.BLUE, rect.getFill());
+      assertEquals("Stroke width", 2d, rect.getStrokeWidth(), 0.001d);
+      cache.clear();
+   }
+}
@@ -0,0 +1,207 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Affine;
+import javafx.scene.transform.Rotate;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Transform;
+import javafx.scene.transform.Translate;
+import org.girod.javafx.svgimage.LoaderParameters;
+import org.girod.javafx.svgimage.SVGImage;
+import org.girod.javafx.svgimage.SVGLoader;
+import org.girod.javafx.svgimage.xml.parsers.TransformUtils;
+import org.girod.javafx.svgimage.xml.specs.Viewport;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the TransformUtils class.
+ *
+ * @since 1.2
+ */
+public class TransformUtilsTest {
+   private static final double DELTA = 0.0001d;
+
+   public TransformUtilsTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static Transform concatenate(List<Transform> transforms) {
+      Transform result = new Affine();
+      for (Transform transform : transforms) {
+         result = result.createConcatenation(transform);
+      }
+      return result;
+   }
+
+   private static void assertSameMatrix(String message, Transform expected, Transform result) {
+      assertEquals(message + " mxx", expected.getMxx(), result.getMxx(), DELTA);
+      assertEquals(message + " mxy", expected.getMxy(), result.getMxy(), DELTA);
+      assertEquals(message + " tx", expected.getTx(), result.getTx(), DELTA);
+      assertEquals(message + " myx", expected.getMyx(), result.getMyx(), DELTA);
+      assertEquals(message + " myy", expected.getMyy(), result.getMyy(), DELTA);
+      assertEquals(message + " ty", expected.getTy(), result.getTy(), DELTA);
+   }
+
+   /**
+    * Test of extractTransforms method, of class TransformUtils.
+    */
+   @Test
+   public void testExtractTransforms() {
+      System.out.println("TransformUtilsTest : testExtractTransforms");
+      List<Transform> transforms = TransformUtils.extractTransforms("scale ( 0.5 ) translate ( 16 16 ) rotate ( 45 16 16 )", null);
+      assertEquals("Must have 3 transforms", 3, transforms.size());
+      assertTrue("Transform must be a Scale", transforms.get(0) instanceof Scale);
+      assertTrue("Transform must be a Translate", transforms.get(1) instanceof Translate);
+      assertTrue("Transform must be a Rotate", transforms.get(2) instanceof Rotate);
+      Rotate rotate = (Rotate) transforms.get(2);
+      assertEquals("Rotate angle", 45d, rotate.getAngle(), DELTA);
+      assertEquals("Rotate pivot", 16d, rotate.getPivotX(), DELTA);
+      assertEquals("Rotate pivot", 16d, rotate.getPivotY(), DELTA);
+
+      transforms = TransformUtils.extractTransforms("translate(10),scaleX(2) matrix(1e0,0,0,1,-5.5,.5)", null);
+      assertEquals("Must have 3 transforms", 3, transforms.size());
+      Translate translate = (Translate) transforms.get(0);
+      assertEquals("Translate x", 10d, translate.getX(), DELTA);
+      assertEquals("Translate y", 0d, translate.getY(), DELTA);
+      Scale scale = (Scale) transforms.get(1);
+      assertEquals("Scale x", 2d, scale.getX(), DELTA);
+      assertEquals("Scale y", 1d, scale.getY(), DELTA);
+      Transform matrix = transforms.get(2);
+      assertEquals("Matrix tx", -5.5d, matrix.getTx(), DELTA);
+      assertEquals("Matrix ty", 0.5d, matrix.getTy(), DELTA);
+
+      transforms = TransformUtils.extractTransforms("rotate(10 20) foo(1) skewX(a) scale(2)", null);
+      assertEquals("Invalid transforms must be skipped", 1, transforms.size());
+      assertTrue("Transform must be a Scale", transforms.get(0) instanceof Scale);
+   }
+
+   /**
+    * Test of extractTransforms method, of class TransformUtils, with a scaled viewport.
+    */
+   @Test
+   public void testExtractScaledTransforms() {
+      System.out.println("TransformUtilsTest : testExtractScaledTransforms");
+      Viewport viewport = new Viewport(100, 100);
+      viewport.setScale(2, true);
+      List<Transform> transforms = TransformUtils.extractTransforms("translate(10 5) scale(3) rotate(90 4 6)", viewport);
+      Translate translate = (Translate) transforms.get(0);
+      assertEquals("Translate x", 20d, translate.getX(), DELTA);
+      assertEquals("Translate y", 10d, translate.getY(), DELTA);
+      Scale scale = (Scale) transforms.get(1);
+      assertEquals("Scale must not be scaled", 3d, scale.getX(), DELTA);
+      Rotate rotate = (Rotate) transforms.get(2);
+      assertEquals("Rotate angle must not be scaled", 90d, rotate.getAngle(), DELTA);
+      assertEquals("Rotate pivot", 8d, rotate.getPivotX(), DELTA);
+      assertEquals("Rotate pivot", 12d, rotate.getPivotY(), DELTA);
+   }
+
+   /**
+    * Test of extractAffine method, of class TransformUtils.
+    */
+   @Test
+   public void testExtractAffine() {
+      System.out.println("TransformUtilsTest : testExtractAffine");
+      String[] values = {"scale ( 0.5 ) translate ( 16 16 ) rotate ( 45 16 16 )", "translate(10,20) rotate(30)",
+         "matrix(1 0.5 -0.5 1 10 20) skewX(20) skewY(-10)", "translateX(5) translateY(7) scaleY(2) scale(2 3)",
+         "rotate(45 10 10) matrix(2,0,0,2,0,0) translate(-3)"};
+      for (String value : values) {
+         Affine affine = TransformUtils.extractAffine(value, null);
+         assertNotNull("Affine must not be null", affine);
+         Transform expected = concatenate(TransformUtils.extractTransforms(value, null));
+         assertSameMatrix(value, expected, affine);
+      }
+      assertNull("Affine must be null", TransformUtils.extractAffine("", null));
+      assertNull("Affine must be null", TransformUtils.extractAffine("foo(1 2)", null));
+   }
+
+   /**
+    * Test of load method, of class SVGLoader, with fused transforms.
+    */
+   @Test
+   public void testLoadFused() throws Exception {
+      System.out.println("TransformUtilsTest : testLoadFused");
+      String content = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"200\" height=\"200\">"
+         + "<rect x=\"100\" y=\"100\" width=\"40\" height=\"40\" transform=\"scale(0.5) translate(16 16) rotate(45 16 16)\"/>"
+         + "<rect x=\"10\" y=\"10\" width=\"40\" height=\"40\" transform=\"rotate(10)\">"
+         + "<animateTransform attributeName=\"transform\" type=\"rotate\" from=\"0\" to=\"90\" dur=\"1s\"/></rect></svg>";
+      SVGImage decomposed = SVGLoader.load(content);
+      LoaderParameters params = new LoaderParameters();
+      params.fuseTransforms = true;
+      params.autoStartAnimations = false;
+      SVGImage fused = SVGLoader.load(content, params);
+
+      ObservableList<Node> children = fused.getChildren();
+      assertEquals("Must have two children", 2, children.size());
+      Rectangle rect = (Rectangle) children.get(0);
+      ObservableList<Transform> transforms = rect.getTransforms();
+      assertEquals("Must have one transform", 1, transforms.size());
+      assertTrue("Transform must be an Affine", transforms.get(0) instanceof Affine);
+      Rectangle decomposedRect = (Rectangle) decomposed.getChildren().get(0);
+      assertSameMatrix("Fused", concatenate(decomposedRect.getTransforms()), transforms.get(0));
+      assertEquals("Bounds", decomposedRect.getBoundsInParent().getMinX(), rect.getBoundsInParent().getMinX(), DELTA);
+      assertEquals("Bounds", decomposedRect.getBoundsInParent().getMaxY(), rect.getBoundsInParent().getMaxY(), DELTA);
+
+      rect = (Rectangle) children.get(1);
+      transforms = rect.getTransforms();
+      assertEquals("Must have one transform", 1, transforms.size());
+      assertTrue("Animated transforms must not be fused", transforms.get(0) instanceof Rotate);
+   }
+}
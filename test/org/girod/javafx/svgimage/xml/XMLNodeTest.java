@@ -0,0 +1,171 @@
+/*
+Copyright (c) 2023, Hervé Girod
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/fxsvgimage
+ */
+package org.girod.javafx.svgimage.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.girod.javafx.svgimage.xml.parsers.XMLNode;
+import org.girod.javafx.svgimage.xml.parsers.XMLRoot;
+import org.girod.javafx.svgimage.xml.parsers.XMLTreeHandler;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests for the XMLNode class.
+ *
+ * @since 1.2
+ */
+public class XMLNodeTest {
+
+   public XMLNodeTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static XMLRoot parse(String content) throws Exception {
+      SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+      XMLTreeHandler handler = new XMLTreeHandler();
+      parser.parse(new ByteArrayInputStream(content.getBytes("UTF-8")), handler);
+      return handler.getRoot();
+   }
+
+   /**
+    * Test of the attributes inherited from the parent nodes.
+    */
+   @Test
+   public void testInheritedAttributes() throws Exception {
+      System.out.println("XMLNodeTest : testInheritedAttributes");
+      XMLRoot root = parse("<svg width=\"100\"><g fill=\"red\" class=\"c\" opacity=\"0.5\">"
+         + "<rect fill=\"blue\" width=\"10\"/><g><circle r=\"5\"/></g><text>a<tspan>b</tspan></text></g></svg>");
+      XMLNode group = root.getFirstChild();
+      XMLNode rect = group.getChildren().get(0);
+      assertEquals("Own attribute", "blue", rect.getAttributeValue("fill"));
+      assertEquals("Inherited attribute", "c", rect.getAttributeValue("class"));
+      assertFalse("Opacity is not inherited", rect.hasAttribute("opacity"));
+      assertNull("Opacity is not inherited", rect.getAttributeValue("opacity"));
+
+      XMLNode circle = group.getChildren().get(1).getFirstChild();
+      assertTrue("Fill must be inherited", circle.hasAttribute("fill"));
+      assertEquals("Fill must be inherited", "red", circle.getAttributeValue("fill"));
+      assertEquals("Radius", 5, circle.getAttributeValueAsInt("r"));
+      Map<String, String> attributes = circle.getAttributes();
+      assertEquals("Own attributes count", 1, attributes.size());
+      assertEquals("Own attributes count", 1, circle.countAttributes());
+      assertEquals("Own attribute value", "5", attributes.get("r"));
+      assertNull("Inherited attribute", attributes.get("fill"));
+      Map<String, String> resolved = circle.getResolvedAttributes();
+      assertEquals("Resolved attributes count", 3, resolved.size());
+      assertEquals("Attribute value", "red", resolved.get("fill"));
+
+      XMLNode tspan = group.getChildren().get(2).getFirstChild();
+      assertEquals("Fill must be inherited", "red", tspan.getAttributeValue("fill"));
+      assertFalse("Class is not inherited by a tspan", tspan.hasAttribute("class"));
+   }
+
+   /**
+    * Test of the modification of attributes.
+    */
+   @Test
+   public void testAddAttribute() throws Exception {
+      System.out.println("XMLNodeTest : testAddAttribute");
+      XMLNode node = new XMLNode("rect");
+      for (int i = 0; i < 10; i++) {
+         node.addAttribute("a" + i, i);
+      }
+      node.addAttribute("a3", "value");
+      assertEquals("Attributes count", 10, node.countAttributes());
+      assertEquals("Attribute value", "value", node.getAttributeValue("a3"));
+      assertEquals("Attribute value", 9, node.getAttributeValueAsInt("a9"));
+      assertTrue("Attribute must exist", node.hasAttribute(new String("a0")));
+      assertSame("Attributes view", node.getAttributes(), node.getAttributes());
+      node.getAttributes().put("b", "added");
+      assertEquals("Attribute added through the view", "added", node.getAttributeValue("b"));
+      assertEquals("Attributes count", 11, node.getAttributes().size());
+   }
+
+   /**
+    * Measure the memory footprint of the XML tree of a large document. This benchmark is only run if the
+    * fxsvgimage.benchmark system property is true.
+    */
+   @Test
+   public void testMemoryFootprint() throws Exception {
+      System.out.println("XMLNodeTest : testMemoryFootprint");
+      Assume.assumeTrue("The benchmarks are not enabled", Boolean.getBoolean("fxsvgimage.benchmark"));
+      int count = 50000;
+      StringBuilder buf = new StringBuilder();
+      buf.append("<svg width=\"1000\" height=\"1000\"><g fill=\"red\" stroke=\"black\" stroke-width=\"2\" style=\"opacity:0.5\">");
+      for (int i = 0; i < count; i++) {
+         buf.append("<rect x=\"").append(i % 1000).append("\" y=\"").append(i / 1000).append("\" width=\"1\" height=\"1\"/>");
+      }
+      buf.append("</g></svg>");
+      String content = buf.toString();
+      long before = usedMemory();
+      XMLRoot root = parse(content);
+      long after = usedMemory();
+      assertEquals("Number of nodes", count, root.getFirstChild().countChildren());
+      System.out.println("   " + count + " nodes: " + ((after - before) / count) + " bytes per node");
+   }
+
+   private static long usedMemory() {
+      Runtime runtime = Runtime.getRuntime();
+      for (int i = 0; i < 3; i++) {
+         System.gc();
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+}